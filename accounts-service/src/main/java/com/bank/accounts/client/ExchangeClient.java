@@ -0,0 +1,19 @@
+package com.bank.accounts.client;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.List;
+
+@FeignClient(
+    name = "gateway-service",
+    contextId = "exchangeClient",
+    fallbackFactory = ExchangeClientFallbackFactory.class
+)
+public interface ExchangeClient {
+
+    @GetMapping("/api/exchange/rates")
+    ApiResponse<List<ExchangeRateDTO>> getRates();
+}
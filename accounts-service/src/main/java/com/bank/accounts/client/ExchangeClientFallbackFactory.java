@@ -0,0 +1,25 @@
+package com.bank.accounts.client;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class ExchangeClientFallbackFactory implements FallbackFactory<ExchangeClient> {
+
+    @Override
+    public ExchangeClient create(Throwable cause) {
+        return new ExchangeClient() {
+            @Override
+            public ApiResponse<List<ExchangeRateDTO>> getRates() {
+                log.error("Fallback: Failed to load exchange rates. Cause: {}", cause.getMessage());
+                return ApiResponse.error("Exchange service unavailable");
+            }
+        };
+    }
+}
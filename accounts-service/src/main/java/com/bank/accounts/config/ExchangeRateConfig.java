@@ -0,0 +1,42 @@
+package com.bank.accounts.config;
+
+import com.bank.accounts.client.ExchangeClient;
+import com.bank.common.exchange.ExchangeRateCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+
+@Configuration
+public class ExchangeRateConfig implements SchedulingConfigurer
+{
+    private final ExchangeClient exchangeClient;
+    private final Duration maxAge;
+    private final Duration refreshInterval;
+
+    public ExchangeRateConfig(ExchangeClient exchangeClient,
+        @Value("${accounts.exchange-rates.max-age-ms:30000}") long maxAgeMs,
+        @Value("${accounts.exchange-rates.refresh-interval-ms:1000}") long refreshIntervalMs) {
+        this.exchangeClient = exchangeClient;
+        this.maxAge = Duration.ofMillis(maxAgeMs);
+        this.refreshInterval = Duration.ofMillis(refreshIntervalMs);
+    }
+
+    /**
+     * Rates for conversions between the user's accounts and the net worth total. Own-account
+     * transfers move money at these rates, so like transfer-service the cache refuses a snapshot
+     * older than {@code accounts.exchange-rates.max-age-ms} instead of pricing at stale rates.
+     */
+    @Bean
+    public ExchangeRateCache exchangeRateCache() {
+        return new ExchangeRateCache(exchangeClient::getRates, maxAge);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(exchangeRateCache()::refresh, refreshInterval);
+    }
+}
@@ -1,6 +1,7 @@
 package com.bank.accounts.controller;
 
 import com.bank.accounts.service.AccountService;
+import com.bank.accounts.service.BalanceUpdateBatcher;
 import com.bank.common.annotations.CurrentUsername;
 import com.bank.common.dto.ApiResponse;
 import com.bank.common.dto.contracts.accounts.*;
@@ -18,9 +19,11 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final BalanceUpdateBatcher balanceUpdateBatcher;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, BalanceUpdateBatcher balanceUpdateBatcher) {
         this.accountService = accountService;
+        this.balanceUpdateBatcher = balanceUpdateBatcher;
     }
 
     @PostMapping("/register")
@@ -69,6 +72,14 @@ public class AccountController {
         return ResponseEntity.ok(ApiResponse.success(bankAccount));
     }
 
+    @GetMapping("/me/net-worth")
+    public ResponseEntity<ApiResponse<NetWorthDTO>> getMyNetWorth(
+        @RequestParam(value = "currency", defaultValue = "RUB") String currency,
+        @CurrentUsername String username) {
+        NetWorthDTO netWorth = accountService.getNetWorth(username, currency.toUpperCase());
+        return ResponseEntity.ok(ApiResponse.success(netWorth));
+    }
+
     @DeleteMapping("/me/bank-accounts/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteMyBankAccount(
         @PathVariable("id") Long id,
@@ -80,10 +91,37 @@ public class AccountController {
     @PostMapping("/bank-accounts/update-balance")
     public ResponseEntity<ApiResponse<BankAccountDTO>> updateBalance(
         @RequestBody UpdateBalanceRequest request) {
-        BankAccountDTO bankAccount = accountService.updateBalance(request);
+        BankAccountDTO bankAccount = balanceUpdateBatcher.updateBalance(request);
         return ResponseEntity.ok(ApiResponse.success(bankAccount));
     }
 
+    @PostMapping("/bank-accounts/update-balances")
+    public ResponseEntity<ApiResponse<List<BankAccountDTO>>> updateBalances(
+        @RequestBody List<UpdateBalanceRequest> requests) {
+        List<BankAccountDTO> bankAccounts = accountService.updateBalances(requests);
+        return ResponseEntity.ok(ApiResponse.success(bankAccounts));
+    }
+
+    /**
+     * Transfer between two accounts of one user, done entirely in this service; see {@link AccountService#transferBetweenOwnAccounts}.
+     */
+    @PostMapping("/bank-accounts/own-transfer")
+    public ResponseEntity<ApiResponse<OwnTransferResponse>> transferBetweenOwnAccounts(
+        @Valid @RequestBody OwnTransferRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(accountService.transferBetweenOwnAccounts(request)));
+    }
+
+    @PostMapping("/bank-accounts/operations/{operationId}/void")
+    public ResponseEntity<ApiResponse<String>> voidBalanceOperation(@PathVariable("operationId") String operationId) {
+        return ResponseEntity.ok(ApiResponse.success(accountService.voidBalanceOperation(operationId)));
+    }
+
+    @PostMapping("/bank-accounts/lookup")
+    public ResponseEntity<ApiResponse<List<BankAccountDTO>>> getBankAccountsByIds(@RequestBody List<Long> ids) {
+        List<BankAccountDTO> bankAccounts = accountService.getBankAccountsByIds(ids);
+        return ResponseEntity.ok(ApiResponse.success(bankAccounts));
+    }
+
     @GetMapping("/bank-accounts/{id}")
     public ResponseEntity<ApiResponse<BankAccountDTO>> getBankAccountByIdPublic(@PathVariable("id") Long id) {
         BankAccountDTO bankAccount = accountService.getBankAccountByIdPublic(id);
@@ -0,0 +1,57 @@
+package com.bank.accounts.entity;
+
+import com.bank.common.dto.contracts.accounts.BankOperation;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key of a balance update. Keys are only ever inserted, so they are persisted
+ * without the lookup a merge would do first.
+ */
+@Entity
+@Table(name = "balance_operations", schema = "accounts")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceOperation implements Persistable<String> {
+
+    @Id
+    private String operationId;
+
+    private Long bankAccountId;
+
+    @Enumerated(EnumType.STRING)
+    private BankOperation operation;
+
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BalanceOperationStatus status;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @Override
+    public String getId() {
+        return operationId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
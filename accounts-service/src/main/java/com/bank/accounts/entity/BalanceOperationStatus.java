@@ -0,0 +1,6 @@
+package com.bank.accounts.entity;
+
+public enum BalanceOperationStatus {
+    APPLIED,
+    VOIDED
+}
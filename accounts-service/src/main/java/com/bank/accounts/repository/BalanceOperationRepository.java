@@ -0,0 +1,9 @@
+package com.bank.accounts.repository;
+
+import com.bank.accounts.entity.BalanceOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BalanceOperationRepository extends JpaRepository<BalanceOperation, String> {
+}
@@ -1,10 +1,13 @@
 package com.bank.accounts.repository;
 
 import com.bank.accounts.entity.BankAccount;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +21,12 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, Long>
 
     @Query("SELECT ba FROM BankAccount ba WHERE ba.id = :id AND ba.account.username = :username")
     Optional<BankAccount> findByIdAndAccountUsername(Long id, String username);
+
+    @Query("SELECT ba FROM BankAccount ba JOIN FETCH ba.account WHERE ba.id IN :ids")
+    List<BankAccount> findAllWithAccountByIdIn(Collection<Long> ids);
+
+    // Rows are locked in id order so that concurrent bulk updates cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ba FROM BankAccount ba JOIN FETCH ba.account WHERE ba.id IN :ids ORDER BY ba.id")
+    List<BankAccount> findAllForUpdateByIdIn(Collection<Long> ids);
 }
@@ -18,4 +18,25 @@ public interface AccountService {
 
     BankAccountDTO updateBalance(UpdateBalanceRequest request);
     BankAccountDTO getBankAccountByIdPublic(Long id);
+
+    /**
+     * Applies all updates in one transaction; if any of them fails none is applied.
+     */
+    List<BankAccountDTO> updateBalances(List<UpdateBalanceRequest> requests);
+
+    /**
+     * Makes sure the update with this key is never applied if it has not been yet. Returns
+     * {@code APPLIED} if it had already been applied, otherwise {@code VOIDED}.
+     */
+    String voidBalanceOperation(String operationId);
+
+    /**
+     * Debits one of the user's bank accounts and credits another, converting with the local rate
+     * snapshot, in one transaction. Replaying an applied {@code operationId} returns the original result.
+     */
+    OwnTransferResponse transferBetweenOwnAccounts(OwnTransferRequest request);
+
+    List<BankAccountDTO> getBankAccountsByIds(List<Long> ids);
+
+    NetWorthDTO getNetWorth(String username, String currency);
 }
@@ -2,19 +2,33 @@ package com.bank.accounts.service;
 
 import com.bank.accounts.client.NotificationClient;
 import com.bank.accounts.entity.Account;
+import com.bank.accounts.entity.BalanceOperation;
+import com.bank.accounts.entity.BalanceOperationStatus;
 import com.bank.accounts.entity.BankAccount;
 import com.bank.accounts.mapper.AccountMapper;
 import com.bank.accounts.repository.AccountRepository;
+import com.bank.accounts.repository.BalanceOperationRepository;
 import com.bank.accounts.repository.BankAccountRepository;
 import com.bank.common.dto.contracts.accounts.*;
 import com.bank.common.dto.contracts.notifications.NotificationRequest;
 import com.bank.common.exception.BusinessException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.common.exchange.ExchangeRatesSnapshot;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -27,15 +41,21 @@ public class AccountServiceImpl implements AccountService {
     private final BankAccountRepository bankAccountRepository;
     private final NotificationClient notificationClient;
     private final AccountMapper accountMapper;
+    private final ExchangeRateCache exchangeRateCache;
+    private final BalanceOperationRepository balanceOperationRepository;
 
     public AccountServiceImpl(AccountRepository accountRepository,
         BankAccountRepository bankAccountRepository,
         NotificationClient notificationClient,
-        AccountMapper accountMapper) {
+        AccountMapper accountMapper,
+        ExchangeRateCache exchangeRateCache,
+        BalanceOperationRepository balanceOperationRepository) {
         this.accountRepository = accountRepository;
         this.bankAccountRepository = bankAccountRepository;
         this.notificationClient = notificationClient;
         this.accountMapper = accountMapper;
+        this.exchangeRateCache = exchangeRateCache;
+        this.balanceOperationRepository = balanceOperationRepository;
     }
 
     @Override
@@ -195,6 +215,10 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public BankAccountDTO updateBalance(UpdateBalanceRequest request) {
+        if (request.getOperationId() != null) {
+            // Locked first, so a replay of the same key waits for the first attempt and then sees it
+            return updateBalances(List.of(request)).get(0);
+        }
         BankAccount bankAccount = bankAccountRepository.findById(request.getBankAccountId())
             .orElseThrow(() -> new BusinessException(BANK_ACCOUNT_NOT_FOUND_MESSAGE));
 
@@ -212,4 +236,186 @@ public class AccountServiceImpl implements AccountService {
             .orElseThrow(() -> new BusinessException(BANK_ACCOUNT_NOT_FOUND_MESSAGE));
         return accountMapper.toBankAccountDTO(bankAccount);
     }
+
+    @Override
+    public List<BankAccountDTO> updateBalances(List<UpdateBalanceRequest> requests) {
+        Set<Long> ids = requests.stream()
+            .map(UpdateBalanceRequest::getBankAccountId)
+            .collect(Collectors.toSet());
+        Map<Long, BankAccount> bankAccounts = bankAccountRepository.findAllForUpdateByIdIn(ids).stream()
+            .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+
+        // Keys are read after the rows are locked, so a concurrent attempt with the same key has finished
+        Map<String, BalanceOperationStatus> known = findOperations(requests);
+        List<BalanceOperation> applied = new ArrayList<>();
+
+        // Any failure propagates and rolls back the updates applied before it
+        List<BankAccountDTO> result = new ArrayList<>(requests.size());
+        for (UpdateBalanceRequest request : requests) {
+            BankAccount bankAccount = bankAccounts.get(request.getBankAccountId());
+            if (bankAccount == null) {
+                throw new BusinessException(BANK_ACCOUNT_NOT_FOUND_MESSAGE + ": " + request.getBankAccountId());
+            }
+            String operationId = request.getOperationId();
+            BalanceOperationStatus status = operationId == null ? null : known.get(operationId);
+            if (status == BalanceOperationStatus.VOIDED) {
+                throw new BusinessException("Balance operation " + operationId + " was voided");
+            }
+            if (status == null) {
+                bankAccount.setBalance(request.getOperation().apply(bankAccount.getBalance(), request.getAmount()));
+                if (operationId != null) {
+                    known.put(operationId, BalanceOperationStatus.APPLIED);
+                    applied.add(BalanceOperation.builder()
+                        .operationId(operationId)
+                        .bankAccountId(request.getBankAccountId())
+                        .operation(request.getOperation())
+                        .amount(request.getAmount())
+                        .status(BalanceOperationStatus.APPLIED)
+                        .build());
+                }
+            }
+            result.add(accountMapper.toBankAccountDTO(bankAccount));
+        }
+        bankAccountRepository.saveAll(bankAccounts.values());
+        if (!applied.isEmpty()) {
+            balanceOperationRepository.saveAll(applied);
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String voidBalanceOperation(String operationId) {
+        try {
+            // Fails on the primary key if the update was applied, or voided, in the meantime
+            balanceOperationRepository.saveAndFlush(BalanceOperation.builder()
+                .operationId(operationId)
+                .status(BalanceOperationStatus.VOIDED)
+                .build());
+            return BalanceOperationStatus.VOIDED.name();
+        } catch (DataIntegrityViolationException ex) {
+            return balanceOperationRepository.findById(operationId)
+                .map(operation -> operation.getStatus().name())
+                .orElseThrow(() -> ex);
+        }
+    }
+
+    @Override
+    public OwnTransferResponse transferBetweenOwnAccounts(OwnTransferRequest request) {
+        if (request.getFromBankAccountId().equals(request.getToBankAccountId())) {
+            throw new BusinessException("Source and destination bank accounts must differ");
+        }
+        // Both rows are locked, in id order, before anything is read from them
+        Map<Long, BankAccount> bankAccounts = bankAccountRepository.findAllForUpdateByIdIn(
+                List.of(request.getFromBankAccountId(), request.getToBankAccountId())).stream()
+            .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+        BankAccount from = bankAccounts.get(request.getFromBankAccountId());
+        BankAccount to = bankAccounts.get(request.getToBankAccountId());
+        if (from == null) {
+            throw new BusinessException("Source bank account not found");
+        }
+        if (to == null) {
+            throw new BusinessException("Destination bank account not found");
+        }
+        if (!request.getUsername().equals(from.getAccount().getUsername())) {
+            throw new BusinessException("Source bank account does not belong to the user");
+        }
+        if (!request.getUsername().equals(to.getAccount().getUsername())) {
+            throw new BusinessException("Destination bank account does not belong to the user");
+        }
+
+        String operationId = request.getOperationId();
+        String creditId = operationId == null ? null : operationId + "-credit";
+        if (operationId != null) {
+            Map<String, BalanceOperation> known = new HashMap<>();
+            balanceOperationRepository.findAllById(List.of(operationId, creditId))
+                .forEach(operation -> known.put(operation.getOperationId(), operation));
+            BalanceOperation debit = known.get(operationId);
+            if (debit != null && debit.getStatus() == BalanceOperationStatus.VOIDED) {
+                throw new BusinessException("Balance operation " + operationId + " was voided");
+            }
+            if (debit != null) {
+                // A replay: the rate may have moved since, so the amount credited then is returned
+                return toOwnTransferResponse(from, to, request.getAmount(), known.get(creditId).getAmount());
+            }
+        }
+
+        BigDecimal converted = from.getCurrency().equals(to.getCurrency())
+            ? request.getAmount()
+            : exchangeRateCache.current().convert(request.getAmount(), from.getCurrency(), to.getCurrency());
+        from.setBalance(BankOperation.SUBTRACT.apply(from.getBalance(), request.getAmount()));
+        to.setBalance(BankOperation.ADD.apply(to.getBalance(), converted));
+        bankAccountRepository.saveAll(List.of(from, to));
+        if (operationId != null) {
+            balanceOperationRepository.saveAll(List.of(
+                BalanceOperation.builder()
+                    .operationId(operationId)
+                    .bankAccountId(from.getId())
+                    .operation(BankOperation.SUBTRACT)
+                    .amount(request.getAmount())
+                    .status(BalanceOperationStatus.APPLIED)
+                    .build(),
+                BalanceOperation.builder()
+                    .operationId(creditId)
+                    .bankAccountId(to.getId())
+                    .operation(BankOperation.ADD)
+                    .amount(converted)
+                    .status(BalanceOperationStatus.APPLIED)
+                    .build()));
+        }
+        return toOwnTransferResponse(from, to, request.getAmount(), converted);
+    }
+
+    private OwnTransferResponse toOwnTransferResponse(BankAccount from, BankAccount to, BigDecimal amount,
+        BigDecimal converted) {
+        return OwnTransferResponse.builder()
+            .fromBankAccount(accountMapper.toBankAccountDTO(from))
+            .toBankAccount(accountMapper.toBankAccountDTO(to))
+            .amount(amount)
+            .convertedAmount(converted)
+            .build();
+    }
+
+    private Map<String, BalanceOperationStatus> findOperations(List<UpdateBalanceRequest> requests) {
+        List<String> operationIds = requests.stream()
+            .map(UpdateBalanceRequest::getOperationId)
+            .filter(Objects::nonNull)
+            .toList();
+        Map<String, BalanceOperationStatus> known = new HashMap<>();
+        if (!operationIds.isEmpty()) {
+            balanceOperationRepository.findAllById(operationIds)
+                .forEach(operation -> known.put(operation.getOperationId(), operation.getStatus()));
+        }
+        return known;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BankAccountDTO> getBankAccountsByIds(List<Long> ids) {
+        return accountMapper.toListBankAccountsDTO(bankAccountRepository.findAllWithAccountByIdIn(ids));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public NetWorthDTO getNetWorth(String username, String currency) {
+        ExchangeRatesSnapshot rates = exchangeRateCache.current();
+        if (!rates.supports(currency)) {
+            throw new BusinessException("Unsupported currency: " + currency);
+        }
+
+        List<BankAccount> bankAccounts = bankAccountRepository.findByAccountUsername(username);
+
+        // Sum in RUB first so every account is converted once, then sell the total into the target currency
+        BigDecimal rubTotal = BigDecimal.ZERO;
+        for (BankAccount bankAccount : bankAccounts) {
+            rubTotal = rubTotal.add(rates.toBase(bankAccount.getBalance(), bankAccount.getCurrency()));
+        }
+
+        return NetWorthDTO.builder()
+            .currency(currency)
+            .total(rates.fromBase(rubTotal, currency))
+            .bankAccountsCount(bankAccounts.size())
+            .ratesFetchedAt(rates.getFetchedAt())
+            .build();
+    }
 }
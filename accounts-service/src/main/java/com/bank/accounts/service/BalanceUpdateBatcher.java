@@ -0,0 +1,314 @@
+package com.bank.accounts.service;
+
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group commit for balance updates. Concurrent requests are collected for up to
+ * {@code max-delay-ms} or {@code max-batch-size} items, whichever comes first, and applied
+ * with one JDBC batch in one transaction. Each caller still gets its own result: a request
+ * that fails (unknown account, insufficient balance) is rejected without affecting the rest
+ * of the batch, while a failure of the commit itself is reported to every caller in it.
+ */
+@Slf4j
+@Component
+public class BalanceUpdateBatcher {
+
+    private static final String LOCK_SQL =
+        "SELECT id, currency, balance FROM accounts.bank_accounts WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+    private static final String OWNERS_SQL =
+        "SELECT ba.id, a.username FROM accounts.bank_accounts ba "
+            + "JOIN accounts.accounts a ON a.id = ba.account_id WHERE ba.id IN (:ids)";
+    private static final String UPDATE_SQL =
+        "UPDATE accounts.bank_accounts SET balance = ?, updated_at = ? WHERE id = ?";
+    private static final String OPERATIONS_SQL =
+        "SELECT operation_id, status FROM accounts.balance_operations WHERE operation_id IN (:ids)";
+    private static final String INSERT_OPERATION_SQL =
+        "INSERT INTO accounts.balance_operations (operation_id, bank_account_id, operation, amount, status, created_at) "
+            + "VALUES (?, ?, ?, ?, 'APPLIED', ?)";
+
+    private final AccountService accountService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingUpdate> queue;
+    private final AtomicLong commits = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public BalanceUpdateBatcher(AccountService accountService,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        @Value("${accounts.balance.group-commit.enabled:false}") boolean enabled,
+        @Value("${accounts.balance.group-commit.max-batch-size:128}") int maxBatchSize,
+        @Value("${accounts.balance.group-commit.max-delay-ms:2}") long maxDelayMs,
+        @Value("${accounts.balance.group-commit.queue-capacity:4096}") int queueCapacity) {
+        this.accountService = accountService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMs));
+        this.queue = new ArrayBlockingQueue<>(Math.max(this.maxBatchSize, queueCapacity));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "balance-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Balance group commit enabled: max batch size {}, max delay {} ms",
+            maxBatchSize, TimeUnit.NANOSECONDS.toMillis(maxDelayNanos));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                // The flusher drains whatever is still queued before it exits
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        PendingUpdate leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.result().completeExceptionally(new BusinessException("Accounts service is shutting down"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Number of transactions committed so far in group-commit mode.
+     */
+    public long getCommitCount() {
+        return commits.get();
+    }
+
+    public BankAccountDTO updateBalance(UpdateBalanceRequest request) {
+        if (!running) {
+            return accountService.updateBalance(request);
+        }
+
+        PendingUpdate pending = new PendingUpdate(request, new CompletableFuture<>());
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Balance update was interrupted");
+        }
+
+        try {
+            return pending.result().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingUpdate> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingUpdate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception ex) {
+                log.error("Balance group commit flusher failed: {}", ex.getMessage(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<PendingUpdate> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingUpdate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingUpdate> batch) {
+        List<Outcome> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> apply(batch));
+            commits.incrementAndGet();
+        } catch (RuntimeException ex) {
+            log.error("Balance group commit of {} updates failed: {}", batch.size(), ex.getMessage());
+            batch.forEach(pending -> pending.result().completeExceptionally(ex));
+            return;
+        }
+
+        // Callers are released only after the commit, so nobody observes a balance that may roll back
+        for (int i = 0; i < batch.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            if (outcome.error() != null) {
+                batch.get(i).result().completeExceptionally(outcome.error());
+            } else {
+                batch.get(i).result().complete(outcome.bankAccount());
+            }
+        }
+    }
+
+    private List<Outcome> apply(List<PendingUpdate> batch) {
+        TreeSet<Long> ids = new TreeSet<>();
+        for (PendingUpdate pending : batch) {
+            if (pending.request().getBankAccountId() != null) {
+                ids.add(pending.request().getBankAccountId());
+            }
+        }
+
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        Map<Long, String> currencies = new HashMap<>();
+        Map<Long, String> owners = new HashMap<>();
+        if (!ids.isEmpty()) {
+            // Rows are locked in id order so that overlapping batches on other instances cannot deadlock
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+            namedJdbcTemplate.query(LOCK_SQL, params, rs -> {
+                balances.put(rs.getLong("id"), rs.getBigDecimal("balance"));
+                currencies.put(rs.getLong("id"), rs.getString("currency"));
+            });
+            namedJdbcTemplate.query(OWNERS_SQL, params, rs -> {
+                owners.put(rs.getLong("id"), rs.getString("username"));
+            });
+        }
+
+        // Idempotency keys are read under the row locks, like in AccountServiceImpl
+        Map<String, String> operations = new HashMap<>();
+        List<String> operationIds = new ArrayList<>();
+        for (PendingUpdate pending : batch) {
+            if (pending.request().getOperationId() != null) {
+                operationIds.add(pending.request().getOperationId());
+            }
+        }
+        if (!operationIds.isEmpty()) {
+            namedJdbcTemplate.query(OPERATIONS_SQL, new MapSqlParameterSource("ids", operationIds), rs -> {
+                operations.put(rs.getString("operation_id"), rs.getString("status"));
+            });
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        Map<Long, BigDecimal> changed = new LinkedHashMap<>();
+        List<Object[]> applied = new ArrayList<>();
+        for (PendingUpdate pending : batch) {
+            UpdateBalanceRequest request = pending.request();
+            BigDecimal current = balances.get(request.getBankAccountId());
+            if (current == null) {
+                outcomes.add(Outcome.failed(new BusinessException(AccountServiceImpl.BANK_ACCOUNT_NOT_FOUND_MESSAGE)));
+                continue;
+            }
+            String operationId = request.getOperationId();
+            String status = operationId == null ? null : operations.get(operationId);
+            if ("VOIDED".equals(status)) {
+                outcomes.add(Outcome.failed(new BusinessException("Balance operation " + operationId + " was voided")));
+                continue;
+            }
+            try {
+                BigDecimal newBalance = current;
+                if (status == null) {
+                    newBalance = request.getOperation().apply(current, request.getAmount());
+                    balances.put(request.getBankAccountId(), newBalance);
+                    changed.put(request.getBankAccountId(), newBalance);
+                    if (operationId != null) {
+                        operations.put(operationId, "APPLIED");
+                        applied.add(new Object[]{operationId, request.getBankAccountId(), request.getOperation().name(),
+                            request.getAmount(), now});
+                    }
+                }
+                outcomes.add(Outcome.succeeded(BankAccountDTO.builder()
+                    .id(request.getBankAccountId())
+                    .currency(currencies.get(request.getBankAccountId()))
+                    .balance(newBalance)
+                    .accountUsername(owners.get(request.getBankAccountId()))
+                    .build()));
+            } catch (RuntimeException ex) {
+                outcomes.add(Outcome.failed(ex));
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(changed.size());
+            changed.forEach((id, balance) -> rows.add(new Object[]{balance, now, id}));
+            jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        }
+        if (!applied.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_OPERATION_SQL, applied);
+        }
+        return outcomes;
+    }
+
+    private record PendingUpdate(UpdateBalanceRequest request, CompletableFuture<BankAccountDTO> result) {
+    }
+
+    private record Outcome(BankAccountDTO bankAccount, RuntimeException error) {
+
+        static Outcome succeeded(BankAccountDTO bankAccount) {
+            return new Outcome(bankAccount, null);
+        }
+
+        static Outcome failed(RuntimeException error) {
+            return new Outcome(null, error);
+        }
+    }
+}
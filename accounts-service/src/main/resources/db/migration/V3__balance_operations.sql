@@ -0,0 +1,12 @@
+-- Idempotency keys of balance updates. A key is APPLIED together with its balance change, or
+-- VOIDED by a caller that wants to be sure a lost update can never be applied any more.
+CREATE TABLE accounts.balance_operations (
+    operation_id VARCHAR(100) PRIMARY KEY,
+    bank_account_id BIGINT,
+    operation VARCHAR(20),
+    amount NUMERIC(38,2),
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_balance_operations_created_at ON accounts.balance_operations(created_at);
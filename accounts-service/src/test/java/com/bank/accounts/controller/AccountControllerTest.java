@@ -3,6 +3,7 @@ package com.bank.accounts.controller;
 import com.bank.common.dto.contracts.accounts.AccountDTO;
 import com.bank.common.dto.contracts.accounts.CreateAccountRequest;
 import com.bank.accounts.service.AccountService;
+import com.bank.accounts.service.BalanceUpdateBatcher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +36,9 @@ class AccountControllerTest {
     @MockitoBean
     private AccountService accountService;
 
+    @MockitoBean
+    private BalanceUpdateBatcher balanceUpdateBatcher;
+
     @Test
     void testRegister_Success() throws Exception {
         CreateAccountRequest request = CreateAccountRequest.builder()
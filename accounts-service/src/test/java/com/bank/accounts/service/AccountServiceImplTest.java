@@ -2,17 +2,26 @@ package com.bank.accounts.service;
 
 import com.bank.accounts.client.NotificationClient;
 import com.bank.accounts.entity.Account;
+import com.bank.accounts.entity.BalanceOperation;
+import com.bank.accounts.entity.BalanceOperationStatus;
 import com.bank.accounts.entity.BankAccount;
 import com.bank.accounts.mapper.AccountMapper;
 import com.bank.accounts.repository.AccountRepository;
+import com.bank.accounts.repository.BalanceOperationRepository;
 import com.bank.accounts.repository.BankAccountRepository;
 import com.bank.common.dto.contracts.accounts.AccountDTO;
 import com.bank.common.dto.contracts.accounts.BankAccountDTO;
 import com.bank.common.dto.contracts.accounts.BankOperation;
 import com.bank.common.dto.contracts.accounts.CreateAccountRequest;
+import com.bank.common.dto.contracts.accounts.NetWorthDTO;
+import com.bank.common.dto.contracts.accounts.OwnTransferRequest;
+import com.bank.common.dto.contracts.accounts.OwnTransferResponse;
 import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
 import com.bank.common.dto.contracts.notifications.NotificationRequest;
 import com.bank.common.exception.BusinessException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.common.exchange.ExchangeRatesSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,7 +31,9 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,6 +53,12 @@ class AccountServiceTest {
     @Mock
     private NotificationClient notificationClient;
 
+    @Mock
+    private ExchangeRateCache exchangeRateCache;
+
+    @Mock
+    private BalanceOperationRepository balanceOperationRepository;
+
     @Spy
     private final AccountMapper accountMapper = AccountMapper.INSTANCE;
 
@@ -213,4 +230,132 @@ class AccountServiceTest {
         assertThrows(BusinessException.class, () -> accountService.updateBalance(request));
         verify(bankAccountRepository, never()).save(any(BankAccount.class));
     }
+
+    @Test
+    void testUpdateBalances_AppliesAllUpdates() {
+        BankAccount source = BankAccount.builder().id(1L).balance(BigDecimal.valueOf(100)).currency("RUB").account(mockAccount).build();
+        BankAccount target = BankAccount.builder().id(2L).balance(BigDecimal.ZERO).currency("RUB").account(mockAccount).build();
+        when(bankAccountRepository.findAllForUpdateByIdIn(any())).thenReturn(List.of(source, target));
+
+        List<BankAccountDTO> result = accountService.updateBalances(List.of(
+            UpdateBalanceRequest.builder().bankAccountId(1L).amount(BigDecimal.valueOf(60)).operation(BankOperation.SUBTRACT).build(),
+            UpdateBalanceRequest.builder().bankAccountId(2L).amount(BigDecimal.valueOf(60)).operation(BankOperation.ADD).build()));
+
+        assertEquals(2, result.size());
+        assertEquals(BigDecimal.valueOf(40), source.getBalance());
+        assertEquals(BigDecimal.valueOf(60), target.getBalance());
+        verify(bankAccountRepository).saveAll(any());
+    }
+
+    @Test
+    void testUpdateBalances_UnknownAccountFailsWholeBatch() {
+        BankAccount source = BankAccount.builder().id(1L).balance(BigDecimal.valueOf(100)).currency("RUB").account(mockAccount).build();
+        when(bankAccountRepository.findAllForUpdateByIdIn(any())).thenReturn(List.of(source));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> accountService.updateBalances(List.of(
+            UpdateBalanceRequest.builder().bankAccountId(1L).amount(BigDecimal.valueOf(60)).operation(BankOperation.SUBTRACT).build(),
+            UpdateBalanceRequest.builder().bankAccountId(2L).amount(BigDecimal.valueOf(60)).operation(BankOperation.ADD).build())));
+
+        assertEquals("Bank account not found: 2", ex.getMessage());
+        verify(bankAccountRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testTransferBetweenOwnAccounts_ConvertsAndAppliesBothLegs() {
+        when(exchangeRateCache.current()).thenReturn(ExchangeRatesSnapshot.of(1L, List.of(
+            ExchangeRateDTO.builder().currency("USD").buyRate(BigDecimal.valueOf(75)).sellRate(BigDecimal.valueOf(80)).build()),
+            Instant.now()));
+        BankAccount rub = BankAccount.builder().id(1L).balance(BigDecimal.valueOf(1000)).currency("RUB").account(mockAccount).build();
+        BankAccount usd = BankAccount.builder().id(2L).balance(BigDecimal.ZERO).currency("USD").account(mockAccount).build();
+        when(bankAccountRepository.findAllForUpdateByIdIn(List.of(1L, 2L))).thenReturn(List.of(rub, usd));
+
+        OwnTransferResponse result = accountService.transferBetweenOwnAccounts(OwnTransferRequest.builder()
+            .username("testuser").fromBankAccountId(1L).toBankAccountId(2L)
+            .amount(BigDecimal.valueOf(800)).operationId("op-1").build());
+
+        // 800 RUB sold at 80
+        assertEquals(0, BigDecimal.TEN.compareTo(result.getConvertedAmount()));
+        assertEquals(BigDecimal.valueOf(200), rub.getBalance());
+        assertEquals(0, BigDecimal.TEN.compareTo(usd.getBalance()));
+        verify(bankAccountRepository).saveAll(List.of(rub, usd));
+        verify(balanceOperationRepository).saveAll(argThat(operations -> operations instanceof List<?> list && list.size() == 2));
+    }
+
+    @Test
+    void testTransferBetweenOwnAccounts_ReplayReturnsAppliedAmountWithoutMovingMoney() {
+        BankAccount rub = BankAccount.builder().id(1L).balance(BigDecimal.valueOf(200)).currency("RUB").account(mockAccount).build();
+        BankAccount usd = BankAccount.builder().id(2L).balance(BigDecimal.TEN).currency("USD").account(mockAccount).build();
+        when(bankAccountRepository.findAllForUpdateByIdIn(any())).thenReturn(List.of(rub, usd));
+        when(balanceOperationRepository.findAllById(List.of("op-1", "op-1-credit"))).thenReturn(List.of(
+            BalanceOperation.builder().operationId("op-1").amount(BigDecimal.valueOf(800)).status(BalanceOperationStatus.APPLIED).build(),
+            BalanceOperation.builder().operationId("op-1-credit").amount(BigDecimal.TEN).status(BalanceOperationStatus.APPLIED).build()));
+
+        OwnTransferResponse result = accountService.transferBetweenOwnAccounts(OwnTransferRequest.builder()
+            .username("testuser").fromBankAccountId(1L).toBankAccountId(2L)
+            .amount(BigDecimal.valueOf(800)).operationId("op-1").build());
+
+        assertEquals(BigDecimal.TEN, result.getConvertedAmount());
+        assertEquals(BigDecimal.valueOf(200), rub.getBalance());
+        verify(bankAccountRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testTransferBetweenOwnAccounts_ForeignDestinationIsRejected() {
+        Account other = Account.builder().id(2L).username("other").build();
+        BankAccount source = BankAccount.builder().id(1L).balance(BigDecimal.valueOf(100)).currency("RUB").account(mockAccount).build();
+        BankAccount target = BankAccount.builder().id(2L).balance(BigDecimal.ZERO).currency("RUB").account(other).build();
+        when(bankAccountRepository.findAllForUpdateByIdIn(any())).thenReturn(List.of(source, target));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> accountService.transferBetweenOwnAccounts(
+            OwnTransferRequest.builder().username("testuser").fromBankAccountId(1L).toBankAccountId(2L)
+                .amount(BigDecimal.TEN).build()));
+
+        assertEquals("Destination bank account does not belong to the user", ex.getMessage());
+        assertEquals(BigDecimal.valueOf(100), source.getBalance());
+        verify(bankAccountRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testTransferBetweenOwnAccounts_OutdatedRatesMoveNoMoney() {
+        BankAccount source = BankAccount.builder().id(1L).balance(BigDecimal.valueOf(100)).currency("RUB").account(mockAccount).build();
+        BankAccount target = BankAccount.builder().id(2L).balance(BigDecimal.ZERO).currency("USD").account(mockAccount).build();
+        when(bankAccountRepository.findAllForUpdateByIdIn(any())).thenReturn(List.of(source, target));
+        when(exchangeRateCache.current())
+            .thenThrow(new BusinessException("Exchange rates are outdated, please try again later"));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> accountService.transferBetweenOwnAccounts(
+            OwnTransferRequest.builder().username("testuser").fromBankAccountId(1L).toBankAccountId(2L)
+                .amount(BigDecimal.TEN).build()));
+
+        assertEquals("Exchange rates are outdated, please try again later", ex.getMessage());
+        assertEquals(BigDecimal.valueOf(100), source.getBalance());
+        verify(bankAccountRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testGetNetWorth_SumsAllAccountsInTargetCurrency() {
+        when(exchangeRateCache.current()).thenReturn(ExchangeRatesSnapshot.of(1L, List.of(
+            ExchangeRateDTO.builder().currency("USD").buyRate(BigDecimal.valueOf(75)).sellRate(BigDecimal.valueOf(80)).build(),
+            ExchangeRateDTO.builder().currency("CNY").buyRate(BigDecimal.valueOf(10)).sellRate(BigDecimal.valueOf(11)).build()),
+            Instant.now()));
+        when(bankAccountRepository.findByAccountUsername("testuser")).thenReturn(List.of(
+            BankAccount.builder().currency("RUB").balance(BigDecimal.valueOf(1000)).build(),
+            BankAccount.builder().currency("USD").balance(BigDecimal.valueOf(10)).build(),
+            BankAccount.builder().currency("CNY").balance(BigDecimal.valueOf(50)).build()));
+
+        NetWorthDTO result = accountService.getNetWorth("testuser", "USD");
+
+        // (1000 + 10 * 75 + 50 * 10) RUB sold at 80
+        assertEquals("USD", result.getCurrency());
+        assertEquals(new BigDecimal("28.13"), result.getTotal());
+        assertEquals(3, result.getBankAccountsCount());
+    }
+
+    @Test
+    void testGetNetWorth_UnsupportedCurrency() {
+        when(exchangeRateCache.current()).thenReturn(ExchangeRatesSnapshot.of(1L, List.of(), Instant.now()));
+
+        assertThrows(BusinessException.class, () -> accountService.getNetWorth("testuser", "EUR"));
+        verify(bankAccountRepository, never()).findByAccountUsername(anyString());
+    }
 }
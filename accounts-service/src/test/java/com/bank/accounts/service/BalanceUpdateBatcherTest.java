@@ -0,0 +1,257 @@
+package com.bank.accounts.service;
+
+import com.bank.accounts.entity.Account;
+import com.bank.accounts.entity.BankAccount;
+import com.bank.accounts.repository.AccountRepository;
+import com.bank.accounts.repository.BankAccountRepository;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.BankOperation;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest(properties = {
+    "spring.config.import=optional:configserver:",
+    "spring.cloud.config.enabled=false",
+    // The PostgreSQL dialect locks with FOR NO KEY UPDATE, which H2 does not understand
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@ActiveProfiles("test")
+class BalanceUpdateBatcherTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    private BalanceUpdateBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM accounts.balance_operations");
+        accountRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void concurrentUpdatesAreCommittedTogether() throws Exception {
+        batcher = startBatcher(true, 64, 20);
+        Long bankAccountId = createBankAccount("batch-user", BigDecimal.ZERO);
+
+        int updates = 200;
+        try (ExecutorService callers = Executors.newFixedThreadPool(32)) {
+            List<Future<BankAccountDTO>> results = new ArrayList<>();
+            for (int i = 0; i < updates; i++) {
+                results.add(callers.submit(() -> batcher.updateBalance(request(bankAccountId, BankOperation.ADD, "1.00"))));
+            }
+            for (Future<BankAccountDTO> result : results) {
+                assertEquals(bankAccountId, result.get().getId());
+                assertEquals("batch-user", result.get().getAccountUsername());
+            }
+        }
+
+        assertEquals(0, new BigDecimal("200.00").compareTo(balanceOf(bankAccountId)));
+        assertTrue(batcher.getCommitCount() < updates,
+            "expected fewer commits than updates but got " + batcher.getCommitCount());
+    }
+
+    @Test
+    void failedUpdateDoesNotAffectOtherCallers() throws Exception {
+        batcher = startBatcher(true, 16, 50);
+        Long poor = createBankAccount("poor-user", new BigDecimal("10.00"));
+        Long rich = createBankAccount("rich-user", new BigDecimal("500.00"));
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(3)) {
+            Future<BankAccountDTO> overdraft = callers.submit(() ->
+                batcher.updateBalance(request(poor, BankOperation.SUBTRACT, "50.00")));
+            Future<BankAccountDTO> withdrawal = callers.submit(() ->
+                batcher.updateBalance(request(rich, BankOperation.SUBTRACT, "50.00")));
+            Future<BankAccountDTO> unknown = callers.submit(() ->
+                batcher.updateBalance(request(999_999L, BankOperation.ADD, "1.00")));
+
+            Exception overdraftError = assertThrows(Exception.class, overdraft::get);
+            assertInstanceOf(BusinessException.class, overdraftError.getCause());
+            assertEquals("Insufficient balance", overdraftError.getCause().getMessage());
+
+            assertEquals(0, new BigDecimal("450.00").compareTo(withdrawal.get().getBalance()));
+
+            Exception unknownError = assertThrows(Exception.class, unknown::get);
+            assertEquals(AccountServiceImpl.BANK_ACCOUNT_NOT_FOUND_MESSAGE, unknownError.getCause().getMessage());
+        }
+
+        assertEquals(0, new BigDecimal("10.00").compareTo(balanceOf(poor)));
+        assertEquals(0, new BigDecimal("450.00").compareTo(balanceOf(rich)));
+    }
+
+    @Test
+    void disabledModeUsesSingleUpdates() {
+        batcher = startBatcher(false, 64, 2);
+        Long bankAccountId = createBankAccount("direct-user", new BigDecimal("5.00"));
+
+        BankAccountDTO result = batcher.updateBalance(request(bankAccountId, BankOperation.ADD, "5.00"));
+
+        assertEquals(0, new BigDecimal("10.00").compareTo(result.getBalance()));
+        assertEquals(0, batcher.getCommitCount());
+    }
+
+    @Test
+    void replayedOperationIsAppliedOnce() {
+        batcher = startBatcher(true, 16, 5);
+        Long bankAccountId = createBankAccount("replay-user", new BigDecimal("100.00"));
+        UpdateBalanceRequest debit = request(bankAccountId, BankOperation.SUBTRACT, "30.00");
+        debit.setOperationId("transfer-1-debit");
+
+        batcher.updateBalance(debit);
+        batcher.updateBalance(debit);
+        accountService.updateBalance(debit);
+        accountService.updateBalances(List.of(debit));
+
+        assertEquals(0, new BigDecimal("70.00").compareTo(balanceOf(bankAccountId)));
+        assertEquals("APPLIED", accountService.voidBalanceOperation("transfer-1-debit"));
+    }
+
+    @Test
+    void voidedOperationIsNeverApplied() {
+        batcher = startBatcher(true, 16, 5);
+        Long bankAccountId = createBankAccount("void-user", new BigDecimal("100.00"));
+        UpdateBalanceRequest credit = request(bankAccountId, BankOperation.ADD, "30.00");
+        credit.setOperationId("transfer-2-credit");
+
+        assertEquals("VOIDED", accountService.voidBalanceOperation("transfer-2-credit"));
+        assertEquals("VOIDED", accountService.voidBalanceOperation("transfer-2-credit"));
+
+        assertThrows(BusinessException.class, () -> batcher.updateBalance(credit));
+        assertThrows(BusinessException.class, () -> accountService.updateBalance(credit));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balanceOf(bankAccountId)));
+    }
+
+    /**
+     * Load benchmark comparing one commit per update with group commit.
+     * Run with {@code mvn test -pl accounts-service -Dtest=BalanceUpdateBatcherTest -Dbenchmark=true};
+     * point {@code spring.datasource.*} at PostgreSQL for numbers that include a real fsync per commit.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkCommitsPerSecond() throws Exception {
+        int accounts = 50;
+        int callers = 64;
+        int updatesPerCaller = 500;
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            ids.add(createBankAccount("bench-" + i, new BigDecimal("1000000.00")));
+        }
+
+        BenchmarkResult single = runBenchmark(startBatcher(false, 1, 0), ids, callers, updatesPerCaller);
+        batcher = startBatcher(true, 256, 2);
+        BenchmarkResult grouped = runBenchmark(batcher, ids, callers, updatesPerCaller);
+        grouped = new BenchmarkResult(grouped.updates(), batcher.getCommitCount(), grouped.seconds());
+
+        log.info("single commit: {} updates, {} commits, {} updates/s, {} commits/s", single.updates(),
+            single.commits(), Math.round(single.updates() / single.seconds()),
+            Math.round(single.commits() / single.seconds()));
+        log.info("group commit: {} updates, {} commits, {} updates/s, {} commits/s", grouped.updates(),
+            grouped.commits(), Math.round(grouped.updates() / grouped.seconds()),
+            Math.round(grouped.commits() / grouped.seconds()));
+        assertTrue(grouped.commits() < single.commits());
+    }
+
+    private BenchmarkResult runBenchmark(BalanceUpdateBatcher target, List<Long> ids, int callers, int updatesPerCaller)
+        throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        long started = System.nanoTime();
+        try (ExecutorService pool = Executors.newFixedThreadPool(callers)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int c = 0; c < callers; c++) {
+                int caller = c;
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < updatesPerCaller; i++) {
+                        Long id = ids.get((caller + i) % ids.size());
+                        BankOperation operation = i % 2 == 0 ? BankOperation.ADD : BankOperation.SUBTRACT;
+                        target.updateBalance(request(id, operation, "1.00"));
+                        completed.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        // Without group commit every update is its own transaction
+        return new BenchmarkResult(completed.get(), completed.get(), seconds);
+    }
+
+    private BalanceUpdateBatcher startBatcher(boolean enabled, int maxBatchSize, long maxDelayMs) {
+        BalanceUpdateBatcher created = new BalanceUpdateBatcher(accountService, jdbcTemplate, transactionManager,
+            enabled, maxBatchSize, maxDelayMs, 4096);
+        created.start();
+        return created;
+    }
+
+    private Long createBankAccount(String username, BigDecimal balance) {
+        Account account = accountRepository.save(Account.builder()
+            .username(username)
+            .firstName("Test")
+            .lastName("User")
+            .email(username + "@example.com")
+            .birthDate(LocalDate.of(1990, 1, 1))
+            .build());
+        return bankAccountRepository.save(BankAccount.builder()
+            .account(account)
+            .currency("RUB")
+            .balance(balance)
+            .build()).getId();
+    }
+
+    private BigDecimal balanceOf(Long bankAccountId) {
+        return bankAccountRepository.findById(bankAccountId).orElseThrow().getBalance();
+    }
+
+    private static UpdateBalanceRequest request(Long bankAccountId, BankOperation operation, String amount) {
+        return UpdateBalanceRequest.builder()
+            .bankAccountId(bankAccountId)
+            .operation(operation)
+            .amount(new BigDecimal(amount))
+            .build();
+    }
+
+    private record BenchmarkResult(long updates, long commits, double seconds) {
+    }
+}
@@ -105,7 +105,8 @@ public class AuthorizationServerConfig {
                 passwordEncoder,
                 "accounts.read",
                 "accounts.write",
-                "notifications.send"
+                "notifications.send",
+                "exchange.read"
             ),
             clientCredentialsClient(
                 "cash-service",
@@ -120,6 +121,15 @@ public class AuthorizationServerConfig {
                 "accounts.write",
                 "notifications.send"
             ),
+            clientCredentialsClient(
+                "cash-settlement",
+                "Cash Settlement Partners",
+                "cash-settlement-secret",
+                Duration.ofMinutes(15),
+                null,
+                passwordEncoder,
+                "cash.settle"
+            ),
             clientCredentialsClient(
                 "transfer-service",
                 "Transfer Service",
@@ -7,12 +7,14 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 
 @SpringBootApplication(scanBasePackages = {"com.bank.cash", "com.bank.common"})
 @EnableDiscoveryClient
 @EnableFeignClients
+@EnableScheduling
 @Slf4j
 public class CashApplication {
     public static void main(String[] args) {
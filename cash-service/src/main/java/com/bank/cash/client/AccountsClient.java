@@ -9,7 +9,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-import java.util.Map;
+import java.util.List;
 
 @FeignClient(
     name = "gateway-service",
@@ -22,4 +22,10 @@ public interface AccountsClient {
 
     @PostMapping("/api/accounts/bank-accounts/update-balance")
     ApiResponse<BankAccountDTO> updateBalance(@RequestBody UpdateBalanceRequest request);
+
+    @PostMapping("/api/accounts/bank-accounts/update-balances")
+    ApiResponse<List<BankAccountDTO>> updateBalances(@RequestBody List<UpdateBalanceRequest> requests);
+
+    @PostMapping("/api/accounts/bank-accounts/lookup")
+    ApiResponse<List<BankAccountDTO>> getBankAccountsByIds(@RequestBody List<Long> ids);
 }
@@ -0,0 +1,36 @@
+package com.bank.cash.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Virtual threads for the remote calls a cash operation fans out to. The security context is
+     * propagated so that Feign still sends the caller's name with the client token.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService cashLookupExecutor() {
+        return new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Runs settlement imports, at most {@code workers} at a time; further uploads are rejected
+     * rather than queued, since each one holds a spooled file.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService settlementExecutor(@Value("${cash.settlements.workers:2}") int workers) {
+        return new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+            new CustomizableThreadFactory("settlement-import-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -20,7 +20,13 @@ public class SecurityConfig {
         .csrf(AbstractHttpConfigurer::disable)
         .authorizeHttpRequests(
             registry ->
-                registry.requestMatchers("/actuator/**").permitAll().anyRequest().authenticated())
+                registry
+                    .requestMatchers("/actuator/**")
+                    .permitAll()
+                    .requestMatchers("/api/cash/settlements/**")
+                    .hasAuthority("SCOPE_cash.settle")
+                    .anyRequest()
+                    .authenticated())
         .oauth2ResourceServer(
             oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(scopeBased())))
         .sessionManagement(
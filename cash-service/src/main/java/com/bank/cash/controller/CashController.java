@@ -1,18 +1,25 @@
 package com.bank.cash.controller;
 
+import com.bank.common.dto.contracts.cash.CashMonthlySummaryDTO;
 import com.bank.common.dto.contracts.cash.CashOperationRequest;
 import com.bank.common.dto.contracts.cash.CashOperationResponse;
+import com.bank.common.dto.contracts.cash.CashTransactionPageDTO;
 import com.bank.cash.service.CashService;
 import com.bank.common.dto.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.YearMonth;
 
 @RestController
 @RequestMapping("/api/cash")
@@ -51,6 +58,40 @@ public class CashController {
         return ResponseEntity.ok(ApiResponse.success(response, "Withdrawal completed"));
     }
 
+    /**
+     * Cash transactions of the account, newest first. Pass the {@code nextCursor} of a page as {@code after} to get the next one.
+     */
+    @GetMapping("/transactions")
+    public ResponseEntity<ApiResponse<CashTransactionPageDTO>> getHistory(
+        @RequestParam("bankAccountId") Long bankAccountId,
+        @RequestParam(value = "after", required = false) String after,
+        @RequestParam(value = "size", defaultValue = "20") int size) {
+        CashTransactionPageDTO page = cashService.getHistory(bankAccountId, after, size, resolveUsername());
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    /**
+     * Deposit and withdrawal totals of the account for one month, e.g. {@code month=2026-10}.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<CashMonthlySummaryDTO>> getMonthlySummary(
+        @RequestParam("bankAccountId") Long bankAccountId,
+        @RequestParam("month") @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        CashMonthlySummaryDTO summary = cashService.getMonthlySummary(bankAccountId, month, resolveUsername());
+        return ResponseEntity.ok(ApiResponse.success(summary));
+    }
+
+    /**
+     * Transactions of the account in a month that has been archived, streamed back as JSON lines, oldest first.
+     */
+    @GetMapping("/transactions/archive")
+    public ResponseEntity<StreamingResponseBody> getArchivedHistory(
+        @RequestParam("bankAccountId") Long bankAccountId,
+        @RequestParam("month") @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        StreamingResponseBody body = cashService.getArchivedHistory(bankAccountId, month, resolveUsername());
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     private String resolveUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
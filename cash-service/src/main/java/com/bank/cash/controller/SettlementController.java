@@ -0,0 +1,45 @@
+package com.bank.cash.controller;
+
+import com.bank.cash.service.SettlementImportService;
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.cash.SettlementImportDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * End-of-day deposit files of cash-collection partners; requires the {@code cash.settle} scope.
+ */
+@RestController
+@RequestMapping("/api/cash/settlements")
+@Slf4j
+public class SettlementController {
+
+    private final SettlementImportService settlementImportService;
+
+    public SettlementController(SettlementImportService settlementImportService) {
+        this.settlementImportService = settlementImportService;
+    }
+
+    /**
+     * Accepts a CSV file of {@code reference,bankAccountId,amount[,currency]} rows as the request body.
+     * Poll the returned import for progress; uploading the same {@code fileId} again resumes it.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<SettlementImportDTO>> startImport(
+        @RequestParam("fileId") String fileId,
+        HttpServletRequest request) throws IOException {
+        SettlementImportDTO settlementImport = settlementImportService.startImport(fileId, request.getInputStream());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(ApiResponse.success(settlementImport, "Settlement import started"));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<SettlementImportDTO>> getImport(@PathVariable("id") Long id) {
+        return ResponseEntity.ok(ApiResponse.success(settlementImportService.getImport(id)));
+    }
+}
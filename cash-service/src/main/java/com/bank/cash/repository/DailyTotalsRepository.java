@@ -0,0 +1,86 @@
+package com.bank.cash.repository;
+
+import com.bank.common.dto.contracts.cash.CashDailyTotalsDTO;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to {@code cash.account_daily_totals}. Deltas are added with one batched
+ * {@code INSERT ... ON CONFLICT DO UPDATE}, so a day's row is created by its first operation and
+ * incremented in place afterwards.
+ */
+@Repository
+public class DailyTotalsRepository {
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO cash.account_daily_totals
+            (bank_account_id, total_date, deposit_amount, deposit_count, withdrawal_amount, withdrawal_count)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON CONFLICT (bank_account_id, total_date) DO UPDATE SET
+            deposit_amount = account_daily_totals.deposit_amount + EXCLUDED.deposit_amount,
+            deposit_count = account_daily_totals.deposit_count + EXCLUDED.deposit_count,
+            withdrawal_amount = account_daily_totals.withdrawal_amount + EXCLUDED.withdrawal_amount,
+            withdrawal_count = account_daily_totals.withdrawal_count + EXCLUDED.withdrawal_count
+        """;
+
+    private static final String RANGE_SQL = """
+        SELECT bank_account_id, total_date, deposit_amount, deposit_count, withdrawal_amount, withdrawal_count
+        FROM cash.account_daily_totals
+        WHERE bank_account_id = :bankAccountId AND total_date BETWEEN :from AND :to
+        ORDER BY total_date
+        """;
+
+    private static final RowMapper<CashDailyTotalsDTO> ROW_MAPPER = (rs, rowNum) -> CashDailyTotalsDTO.builder()
+        .bankAccountId(rs.getLong("bank_account_id"))
+        .date(rs.getObject("total_date", LocalDate.class))
+        .depositAmount(rs.getBigDecimal("deposit_amount"))
+        .depositCount(rs.getInt("deposit_count"))
+        .withdrawalAmount(rs.getBigDecimal("withdrawal_amount"))
+        .withdrawalCount(rs.getInt("withdrawal_count"))
+        .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public DailyTotalsRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the deltas to their rows. Callers pass them sorted by account and day, so concurrent
+     * transactions lock shared rows in the same order and cannot deadlock on them.
+     */
+    public void upsert(List<TotalsDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (TotalsDelta delta : deltas) {
+            rows.add(new Object[]{delta.bankAccountId(), Date.valueOf(delta.date()), delta.depositAmount(),
+                delta.depositCount(), delta.withdrawalAmount(), delta.withdrawalCount()});
+        }
+        jdbcTemplate.getJdbcOperations().batchUpdate(UPSERT_SQL, rows);
+    }
+
+    /**
+     * Days of the account with successful operations between {@code from} and {@code to}, inclusive, oldest first.
+     */
+    public List<CashDailyTotalsDTO> findRange(Long bankAccountId, LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("bankAccountId", bankAccountId)
+            .addValue("from", Date.valueOf(from))
+            .addValue("to", Date.valueOf(to));
+        return jdbcTemplate.query(RANGE_SQL, params, ROW_MAPPER);
+    }
+
+    public record TotalsDelta(long bankAccountId, LocalDate date, BigDecimal depositAmount, int depositCount,
+                              BigDecimal withdrawalAmount, int withdrawalCount) {
+    }
+}
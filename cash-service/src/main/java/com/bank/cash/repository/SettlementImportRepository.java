@@ -0,0 +1,192 @@
+package com.bank.cash.repository;
+
+import com.bank.common.dto.contracts.cash.SettlementErrorDTO;
+import com.bank.common.dto.contracts.cash.SettlementImportDTO;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * JDBC access to the settlement import tables: the progress of each run, its rejected rows, and
+ * the entries that mark settlement rows as ingested.
+ */
+@Repository
+public class SettlementImportRepository {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private static final String CREATE_SQL = """
+        INSERT INTO cash.settlement_imports (file_id, status, started_at, updated_at)
+        VALUES (:fileId, 'RUNNING', LOCALTIMESTAMP, LOCALTIMESTAMP)
+        """;
+
+    private static final String PROGRESS_SQL = """
+        UPDATE cash.settlement_imports
+        SET rows_read = :rowsRead, rows_applied = :rowsApplied, rows_skipped = :rowsSkipped, rows_failed = :rowsFailed,
+            updated_at = LOCALTIMESTAMP
+        WHERE id = :id
+        """;
+
+    private static final String FINISH_SQL = """
+        UPDATE cash.settlement_imports
+        SET status = :status, message = :message, updated_at = LOCALTIMESTAMP, finished_at = LOCALTIMESTAMP
+        WHERE id = :id
+        """;
+
+    private static final String FAIL_STALE_SQL = """
+        UPDATE cash.settlement_imports
+        SET status = 'FAILED', message = :message, finished_at = LOCALTIMESTAMP
+        WHERE status = 'RUNNING' AND updated_at < LOCALTIMESTAMP - make_interval(secs => :staleAfterSeconds)
+        """;
+
+    private static final String FIND_SQL = """
+        SELECT id, file_id, status, rows_read, rows_applied, rows_skipped, rows_failed, message,
+               started_at, updated_at, finished_at
+        FROM cash.settlement_imports
+        WHERE id = :id
+        """;
+
+    private static final String ERROR_SQL = """
+        INSERT INTO cash.settlement_import_errors (import_id, line, reference, reason) VALUES (?, ?, ?, ?)
+        """;
+
+    private static final String FIND_ERRORS_SQL = """
+        SELECT line, reference, reason FROM cash.settlement_import_errors
+        WHERE import_id = :id
+        ORDER BY line
+        LIMIT :limit
+        """;
+
+    private static final String EXISTING_ENTRIES_SQL = """
+        SELECT operation_id FROM cash.settlement_entries WHERE operation_id = ANY(CAST(:operationIds AS VARCHAR[]))
+        """;
+
+    private static final String CLAIM_ENTRIES_SQL = """
+        INSERT INTO cash.settlement_entries (operation_id, transaction_id, import_id)
+        SELECT operation_id, transaction_id, :importId
+        FROM unnest(CAST(:operationIds AS VARCHAR[]), CAST(:transactionIds AS BIGINT[])) AS entry(operation_id, transaction_id)
+        ON CONFLICT (operation_id) DO NOTHING
+        RETURNING operation_id
+        """;
+
+    private static final RowMapper<SettlementImportDTO> ROW_MAPPER = (rs, rowNum) -> {
+        LocalDateTime startedAt = rs.getObject("started_at", LocalDateTime.class);
+        LocalDateTime updatedAt = rs.getObject("updated_at", LocalDateTime.class);
+        long rowsRead = rs.getLong("rows_read");
+        double seconds = Duration.between(startedAt, updatedAt).toMillis() / 1000.0;
+        return SettlementImportDTO.builder()
+            .id(rs.getLong("id"))
+            .fileId(rs.getString("file_id"))
+            .status(rs.getString("status"))
+            .rowsRead(rowsRead)
+            .rowsApplied(rs.getLong("rows_applied"))
+            .rowsSkipped(rs.getLong("rows_skipped"))
+            .rowsFailed(rs.getLong("rows_failed"))
+            .rowsPerSecond(seconds > 0 ? rowsRead / seconds : 0)
+            .message(rs.getString("message"))
+            .startedAt(startedAt)
+            .finishedAt(rs.getObject("finished_at", LocalDateTime.class))
+            .build();
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SettlementImportRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long create(String fileId) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(CREATE_SQL, new MapSqlParameterSource("fileId", fileId), keyHolder, new String[]{"id"});
+        return keyHolder.getKey().longValue();
+    }
+
+    public void updateProgress(long id, long rowsRead, long rowsApplied, long rowsSkipped, long rowsFailed) {
+        jdbcTemplate.update(PROGRESS_SQL, new MapSqlParameterSource()
+            .addValue("id", id)
+            .addValue("rowsRead", rowsRead)
+            .addValue("rowsApplied", rowsApplied)
+            .addValue("rowsSkipped", rowsSkipped)
+            .addValue("rowsFailed", rowsFailed));
+    }
+
+    public void finish(long id, String status, String message) {
+        jdbcTemplate.update(FINISH_SQL, new MapSqlParameterSource()
+            .addValue("id", id)
+            .addValue("status", status)
+            .addValue("message", message));
+    }
+
+    /**
+     * Fails runs that reported no progress for {@code staleAfterMs}, e.g. because their instance went down.
+     */
+    public int failStale(long staleAfterMs, String message) {
+        return jdbcTemplate.update(FAIL_STALE_SQL, new MapSqlParameterSource()
+            .addValue("staleAfterSeconds", staleAfterMs / 1000.0)
+            .addValue("message", message));
+    }
+
+    public Optional<SettlementImportDTO> find(long id) {
+        return jdbcTemplate.query(FIND_SQL, new MapSqlParameterSource("id", id), ROW_MAPPER).stream().findFirst();
+    }
+
+    public void addErrors(long importId, List<SettlementErrorDTO> errors) {
+        if (errors.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(errors.size());
+        for (SettlementErrorDTO error : errors) {
+            rows.add(new Object[]{importId, error.getLine(), error.getReference(), error.getReason()});
+        }
+        jdbcTemplate.getJdbcOperations().batchUpdate(ERROR_SQL, rows);
+    }
+
+    public List<SettlementErrorDTO> findErrors(long importId, int limit) {
+        return jdbcTemplate.query(FIND_ERRORS_SQL, new MapSqlParameterSource()
+                .addValue("id", importId)
+                .addValue("limit", limit),
+            (rs, rowNum) -> SettlementErrorDTO.builder()
+                .line(rs.getLong("line"))
+                .reference(rs.getString("reference"))
+                .reason(rs.getString("reason"))
+                .build());
+    }
+
+    /**
+     * Operation ids among {@code operationIds} that have been ingested before.
+     */
+    public Set<String> findExistingEntries(List<String> operationIds) {
+        if (operationIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(EXISTING_ENTRIES_SQL,
+            new MapSqlParameterSource("operationIds", operationIds.toArray(String[]::new)), String.class));
+    }
+
+    /**
+     * Records the entries in one statement and returns the operation ids that were not recorded
+     * before; only those may be written as transactions.
+     */
+    public Set<String> claimEntries(long importId, List<String> operationIds, List<Long> transactionIds) {
+        if (operationIds.isEmpty()) {
+            return Set.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("importId", importId)
+            .addValue("operationIds", operationIds.toArray(String[]::new))
+            .addValue("transactionIds", transactionIds.toArray(Long[]::new));
+        return new HashSet<>(jdbcTemplate.queryForList(CLAIM_ENTRIES_SQL, params, String.class));
+    }
+}
@@ -0,0 +1,57 @@
+package com.bank.cash.repository;
+
+import com.bank.cash.entity.Transaction;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk inserts into {@code cash.transactions} with one JDBC batch, for ingestion where persisting
+ * rows one by one through JPA would cost a round trip each. Ids come from the table's own sequence,
+ * reserved up front so callers can reference the rows before they are written.
+ */
+@Repository
+public class TransactionBatchRepository {
+
+    private static final String ALLOCATE_SQL = """
+        SELECT nextval('cash.transactions_id_seq') FROM generate_series(1, :count)
+        """;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO cash.transactions (id, bank_account_id, type, amount, currency, status, description, created_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransactionBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Long> allocateIds(int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(ALLOCATE_SQL, new MapSqlParameterSource("count", count), Long.class);
+    }
+
+    /**
+     * Inserts transactions whose id and creation time are already set.
+     */
+    public void insert(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            rows.add(new Object[]{transaction.getId(), transaction.getBankAccountId(), transaction.getType(),
+                transaction.getAmount(), transaction.getCurrency(), transaction.getStatus(),
+                transaction.getDescription(), Timestamp.valueOf(transaction.getCreatedAt())});
+        }
+        jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_SQL, rows);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bank.cash.repository;
+
+import com.bank.common.dto.contracts.cash.CashTransactionDTO;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset-paginated cash history of one bank account, newest first. A page is one range scan on the
+ * {@code (bank_account_id, created_at, id)} index starting right after the cursor, so its cost does
+ * not grow with the number of older transactions.
+ */
+@Repository
+public class TransactionHistoryRepository {
+
+    private static final String PAGE_SQL = """
+        SELECT id, bank_account_id, type, amount, currency, status, created_at
+        FROM cash.transactions
+        WHERE bank_account_id = :bankAccountId AND (created_at, id) < (:createdAt, :id)
+        ORDER BY created_at DESC, id DESC
+        LIMIT :limit
+        """;
+
+    private static final RowMapper<CashTransactionDTO> ROW_MAPPER = (rs, rowNum) -> CashTransactionDTO.builder()
+        .id(rs.getLong("id"))
+        .bankAccountId(rs.getLong("bank_account_id"))
+        .type(rs.getString("type"))
+        .amount(rs.getBigDecimal("amount"))
+        .currency(rs.getString("currency"))
+        .status(rs.getString("status"))
+        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+        .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransactionHistoryRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns up to {@code limit} transactions of the account that are strictly older than
+     * {@code (createdAt, id)}.
+     */
+    public List<CashTransactionDTO> findPage(Long bankAccountId, LocalDateTime createdAt, long id, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("bankAccountId", bankAccountId)
+            .addValue("createdAt", createdAt)
+            .addValue("id", id)
+            .addValue("limit", limit);
+        return jdbcTemplate.query(PAGE_SQL, params, ROW_MAPPER);
+    }
+}
@@ -0,0 +1,199 @@
+package com.bank.cash.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL on the monthly partitions of {@code cash.transactions}. Partitions are named
+ * {@code transactions_YYYY_MM} and cover {@code [first of the month, first of the next month)}.
+ * Detaching uses {@code DETACH PARTITION ... CONCURRENTLY}, which only takes a lock that inserts
+ * do not wait on; it cannot run inside a transaction, so these methods must not be called in one.
+ */
+@Repository
+public class TransactionPartitionRepository {
+
+    /**
+     * Serializes partition creation across instances.
+     */
+    private static final long CREATE_LOCK_KEY = 0x636173685f747863L;
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String PARTITIONS_SQL = """
+        SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound, i.inhdetachpending AS detach_pending
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'cash.transactions'::regclass
+        ORDER BY c.relname
+        """;
+
+    private static final String SCHEMA_TABLES_SQL = """
+        SELECT tablename FROM pg_tables WHERE schemaname = :schema ORDER BY tablename
+        """;
+
+    private static final String STREAM_SQL = """
+        SELECT id, bank_account_id, type, amount, currency, status, description, created_at
+        FROM %s.%s
+        ORDER BY created_at, id
+        """;
+
+    private static final Pattern BOUND = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final DateTimeFormatter BOUND_FORMAT = new DateTimeFormatterBuilder()
+        .appendPattern("yyyy-MM-dd[ HH:mm:ss]")
+        .optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true).optionalEnd()
+        .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+        .toFormatter();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionPartitionRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource,
+        PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // PostgreSQL only fetches in chunks with a fetch size and inside a transaction
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(STREAM_FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static String partitionName(YearMonth month) {
+        return "transactions_%04d_%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Attached partitions, including ones whose concurrent detach was interrupted.
+     */
+    public List<TransactionPartition> findPartitions() {
+        return jdbcTemplate.query(PARTITIONS_SQL, new MapSqlParameterSource(), (rs, rowNum) ->
+            TransactionPartition.of(rs.getString("name"), rs.getString("bound"), rs.getBoolean("detach_pending")));
+    }
+
+    /**
+     * Creates the partition of {@code month} unless it exists; instances creating the same month
+     * wait for each other instead of failing.
+     */
+    public void createPartition(YearMonth month) {
+        String sql = "CREATE TABLE IF NOT EXISTS cash.%s PARTITION OF cash.transactions FOR VALUES FROM ('%s') TO ('%s')"
+            .formatted(partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1));
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.getJdbcOperations().execute("SELECT pg_advisory_xact_lock(" + CREATE_LOCK_KEY + ")");
+            jdbcTemplate.getJdbcOperations().execute(sql);
+        });
+    }
+
+    public void detach(String partition) {
+        jdbcTemplate.getJdbcOperations().execute(
+            "ALTER TABLE cash.transactions DETACH PARTITION cash.%s CONCURRENTLY".formatted(identifier(partition)));
+    }
+
+    /**
+     * Completes a concurrent detach that was interrupted half way.
+     */
+    public void finalizeDetach(String partition) {
+        jdbcTemplate.getJdbcOperations().execute(
+            "ALTER TABLE cash.transactions DETACH PARTITION cash.%s FINALIZE".formatted(identifier(partition)));
+    }
+
+    /**
+     * Moves a detached partition into {@code schema}, where it waits for its export.
+     */
+    public void moveToSchema(String partition, String schema) {
+        jdbcTemplate.getJdbcOperations().execute(
+            "ALTER TABLE cash.%s SET SCHEMA %s".formatted(identifier(partition), identifier(schema)));
+    }
+
+    /**
+     * Detached partitions still waiting in {@code schema}.
+     */
+    public List<String> findTables(String schema) {
+        return jdbcTemplate.queryForList(SCHEMA_TABLES_SQL, new MapSqlParameterSource("schema", schema), String.class);
+    }
+
+    public long count(String schema, String table) {
+        Long count = jdbcTemplate.getJdbcOperations()
+            .queryForObject("SELECT count(*) FROM %s.%s".formatted(identifier(schema), identifier(table)), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Passes every row of the table to {@code consumer}, oldest first, without holding them all in memory.
+     */
+    public void stream(String schema, String table, Consumer<ArchivedTransaction> consumer) {
+        String sql = STREAM_SQL.formatted(identifier(schema), identifier(table));
+        transactionTemplate.executeWithoutResult(status -> streamingTemplate.query(sql, rs -> {
+            consumer.accept(new ArchivedTransaction(
+                rs.getLong("id"),
+                rs.getLong("bank_account_id"),
+                rs.getString("type"),
+                rs.getBigDecimal("amount"),
+                rs.getString("currency"),
+                rs.getString("status"),
+                rs.getString("description"),
+                rs.getObject("created_at", LocalDateTime.class)));
+        }));
+    }
+
+    public void drop(String schema, String table) {
+        jdbcTemplate.getJdbcOperations().execute("DROP TABLE %s.%s".formatted(identifier(schema), identifier(table)));
+    }
+
+    static String identifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Not a plain identifier: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * An attached partition and its range; a null bound is {@code MINVALUE}/{@code MAXVALUE}.
+     */
+    public record TransactionPartition(String name, LocalDateTime from, LocalDateTime to, boolean detachPending) {
+
+        /**
+         * Parses the bound as printed by {@code pg_get_expr}, e.g.
+         * {@code FOR VALUES FROM ('2026-01-01 00:00:00') TO ('2026-02-01 00:00:00')}.
+         */
+        public static TransactionPartition of(String name, String bound, boolean detachPending) {
+            Matcher matcher = BOUND.matcher(bound);
+            if (!matcher.find()) {
+                throw new IllegalArgumentException("Not a range bound: " + bound);
+            }
+            return new TransactionPartition(name, parseBound(matcher.group(1)), parseBound(matcher.group(2)), detachPending);
+        }
+
+        public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return (from == null || from.isBefore(end)) && (to == null || to.isAfter(start));
+        }
+
+        private static LocalDateTime parseBound(String value) {
+            if ("MINVALUE".equals(value) || "MAXVALUE".equals(value)) {
+                return null;
+            }
+            return LocalDateTime.parse(value.replace("'", ""), BOUND_FORMAT);
+        }
+    }
+
+    /**
+     * A row of an expired partition as it is written to the archive.
+     */
+    public record ArchivedTransaction(long id, long bankAccountId, String type, BigDecimal amount, String currency,
+                                      String status, String description, LocalDateTime createdAt) {
+    }
+}
@@ -1,8 +1,29 @@
 package com.bank.cash.service;
 
+import com.bank.common.dto.contracts.cash.CashMonthlySummaryDTO;
 import com.bank.common.dto.contracts.cash.CashOperationRequest;
 import com.bank.common.dto.contracts.cash.CashOperationResponse;
+import com.bank.common.dto.contracts.cash.CashTransactionPageDTO;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.YearMonth;
 
 public interface CashService {
     CashOperationResponse processOperation(CashOperationRequest request, String username);
+
+    /**
+     * One page of the account's cash transactions, newest first, starting after the {@code after} cursor.
+     */
+    CashTransactionPageDTO getHistory(Long bankAccountId, String after, int size, String username);
+
+    /**
+     * Successful deposits and withdrawals of the account in {@code month}, with a row per active day.
+     */
+    CashMonthlySummaryDTO getMonthlySummary(Long bankAccountId, YearMonth month, String username);
+
+    /**
+     * The account's transactions of an archived month as JSON lines, read back from the archive files.
+     */
+    StreamingResponseBody getArchivedHistory(Long bankAccountId, YearMonth month, String username);
 }
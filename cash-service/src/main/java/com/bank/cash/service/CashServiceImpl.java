@@ -8,65 +8,123 @@ import com.bank.common.dto.contracts.accounts.BankOperation;
 import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
 import com.bank.common.dto.contracts.blocker.BlockCheckRequest;
 import com.bank.common.dto.contracts.blocker.BlockCheckResponse;
+import com.bank.common.dto.contracts.cash.CashDailyTotalsDTO;
+import com.bank.common.dto.contracts.cash.CashMonthlySummaryDTO;
 import com.bank.common.dto.contracts.cash.CashOperationRequest;
 import com.bank.common.dto.contracts.cash.CashOperationResponse;
+import com.bank.common.dto.contracts.cash.CashTransactionDTO;
+import com.bank.common.dto.contracts.cash.CashTransactionPageDTO;
 import com.bank.common.dto.contracts.notifications.NotificationRequest;
 import com.bank.cash.entity.Transaction;
-import com.bank.cash.repository.TransactionRepository;
+import com.bank.cash.repository.DailyTotalsRepository;
+import com.bank.cash.repository.TransactionHistoryRepository;
 import com.bank.common.dto.ApiResponse;
 import com.bank.common.exception.BusinessException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.FeignException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.bank.common.dto.contracts.accounts.BankOperation.ADD;
 import static com.bank.common.dto.contracts.accounts.BankOperation.SUBTRACT;
 
+/**
+ * Cash operations run their remote calls outside of any transaction; only the {@link Transaction}
+ * row and its daily totals are written, in a short transaction of their own, so the connection pool does not drain while
+ * accounts or blocker are slow. The account lookup and the blocker check do not depend on each other
+ * and run in parallel on virtual threads, bounded by one shared deadline.
+ */
 @Service
-@Transactional
 @Slf4j
 public class CashServiceImpl implements CashService
 {
-    private final TransactionRepository transactionRepository;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    // Newer than any stored transaction and still within the range of a PostgreSQL timestamp
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final TransactionRecorder transactionRecorder;
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private final DailyTotalsRepository dailyTotalsRepository;
+    private final TransactionArchive transactionArchive;
     private final AccountsClient accountsClient;
     private final BlockerClient blockerClient;
     private final NotificationClient notificationClient;
     private final ObjectMapper objectMapper;
+    private final ExecutorService lookupExecutor;
+    private final long lookupTimeoutNanos;
 
-    public CashServiceImpl(TransactionRepository transactionRepository,
+    public CashServiceImpl(TransactionRecorder transactionRecorder,
+        TransactionHistoryRepository transactionHistoryRepository,
+        DailyTotalsRepository dailyTotalsRepository,
+        TransactionArchive transactionArchive,
         AccountsClient accountsClient,
         BlockerClient blockerClient,
         NotificationClient notificationClient,
-        ObjectMapper objectMapper)
+        ObjectMapper objectMapper,
+        @Qualifier("cashLookupExecutor") ExecutorService lookupExecutor,
+        @Value("${cash.lookup-timeout-ms:5000}") long lookupTimeoutMs)
     {
-        this.transactionRepository = transactionRepository;
+        this.transactionRecorder = transactionRecorder;
+        this.transactionHistoryRepository = transactionHistoryRepository;
+        this.dailyTotalsRepository = dailyTotalsRepository;
+        this.transactionArchive = transactionArchive;
         this.accountsClient = accountsClient;
         this.blockerClient = blockerClient;
         this.notificationClient = notificationClient;
         this.objectMapper = objectMapper;
+        this.lookupExecutor = lookupExecutor;
+        this.lookupTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(lookupTimeoutMs);
     }
 
     @Override
     public CashOperationResponse processOperation(CashOperationRequest request, String username)
     {
         try {
-            BankAccountDTO bankAccount = fetchBankAccount(request.getBankAccountId());
-
-            String currency = bankAccount.getCurrency();
-            BigDecimal currentBalance = bankAccount.getBalance();
-
-            // Check with blocker
+            // Fan out: the account lookup and the blocker check do not depend on each other
+            long deadline = System.nanoTime() + lookupTimeoutNanos;
+            CompletableFuture<BankAccountDTO> accountLookup = CompletableFuture.supplyAsync(
+                () -> fetchBankAccount(request.getBankAccountId()), lookupExecutor);
             BlockCheckRequest blockerRequest = BlockCheckRequest.builder()
                 .username(username)
                 .amount(request.getAmount())
                 .type(request.getType())
                 .build();
             log.debug("Blocker request: {}", blockerRequest);
-            BlockCheckResponse blockerResponse = blockerClient.checkOperation(blockerRequest);
+            CompletableFuture<BlockCheckResponse> blockCheck = CompletableFuture.supplyAsync(
+                () -> blockerClient.checkOperation(blockerRequest), lookupExecutor);
+
+            BankAccountDTO bankAccount;
+            BlockCheckResponse blockerResponse;
+            try
+            {
+                // The account is checked first, so a missing account is still reported before a block
+                bankAccount = await(accountLookup, deadline);
+                blockerResponse = await(blockCheck, deadline);
+            }
+            finally
+            {
+                accountLookup.cancel(true);
+                blockCheck.cancel(true);
+            }
+
+            String currency = bankAccount.getCurrency();
+            BigDecimal currentBalance = bankAccount.getBalance();
+
             boolean isBlocked = blockerResponse.blocked();
             log.debug("Blocker response: {}", blockerResponse);
             if (isBlocked)
@@ -79,7 +137,7 @@ public class CashServiceImpl implements CashService
                     .status("BLOCKED")
                     .description("Operation blocked by security system")
                     .build();
-                transactionRepository.save(transaction);
+                transactionRecorder.save(transaction);
 
                 notificationClient.sendNotification(NotificationRequest.builder()
                     .username(username)
@@ -117,7 +175,7 @@ public class CashServiceImpl implements CashService
                 .status("SUCCESS")
                 .description(request.getType() + " completed successfully")
                 .build();
-            transaction = transactionRepository.save(transaction);
+            transaction = transactionRecorder.save(transaction);
 
             // Send notification
             notificationClient.sendNotification(NotificationRequest.builder()
@@ -141,6 +199,92 @@ public class CashServiceImpl implements CashService
         }
     }
 
+    @Override
+    public CashTransactionPageDTO getHistory(Long bankAccountId, String after, int size, String username)
+    {
+        checkOwnership(bankAccountId, username);
+
+        int limit = Math.clamp(size, 1, MAX_HISTORY_PAGE_SIZE);
+        LocalDateTime createdAt = HISTORY_START;
+        long id = Long.MAX_VALUE;
+        if (after != null && !after.isBlank())
+        {
+            try
+            {
+                String[] cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split("\\|");
+                createdAt = LocalDateTime.parse(cursor[0]);
+                id = Long.parseLong(cursor[1]);
+            }
+            catch (RuntimeException ex)
+            {
+                throw new BusinessException("Invalid history cursor");
+            }
+        }
+
+        // One extra row tells whether there is a next page without a count query
+        List<CashTransactionDTO> rows = transactionHistoryRepository.findPage(bankAccountId, createdAt, id, limit + 1);
+        List<CashTransactionDTO> items = rows.size() > limit ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (rows.size() > limit)
+        {
+            CashTransactionDTO last = items.get(items.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((last.getCreatedAt() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return CashTransactionPageDTO.builder()
+            .items(List.copyOf(items))
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    @Override
+    public CashMonthlySummaryDTO getMonthlySummary(Long bankAccountId, YearMonth month, String username)
+    {
+        checkOwnership(bankAccountId, username);
+
+        List<CashDailyTotalsDTO> days = dailyTotalsRepository.findRange(bankAccountId, month.atDay(1), month.atEndOfMonth());
+        BigDecimal depositAmount = BigDecimal.ZERO;
+        int depositCount = 0;
+        BigDecimal withdrawalAmount = BigDecimal.ZERO;
+        int withdrawalCount = 0;
+        for (CashDailyTotalsDTO day : days)
+        {
+            depositAmount = depositAmount.add(day.getDepositAmount());
+            depositCount += day.getDepositCount();
+            withdrawalAmount = withdrawalAmount.add(day.getWithdrawalAmount());
+            withdrawalCount += day.getWithdrawalCount();
+        }
+        return CashMonthlySummaryDTO.builder()
+            .bankAccountId(bankAccountId)
+            .month(month)
+            .depositAmount(depositAmount)
+            .depositCount(depositCount)
+            .withdrawalAmount(withdrawalAmount)
+            .withdrawalCount(withdrawalCount)
+            .days(days)
+            .build();
+    }
+
+    @Override
+    public StreamingResponseBody getArchivedHistory(Long bankAccountId, YearMonth month, String username)
+    {
+        checkOwnership(bankAccountId, username);
+        if (!transactionArchive.exists(month))
+        {
+            throw new BusinessException("No archived cash transactions for " + month);
+        }
+        return out -> transactionArchive.copy(month, bankAccountId, out);
+    }
+
+    private void checkOwnership(Long bankAccountId, String username)
+    {
+        BankAccountDTO bankAccount = fetchBankAccount(bankAccountId);
+        if (!username.equals(bankAccount.getAccountUsername()))
+        {
+            throw new BusinessException("Bank account does not belong to the user");
+        }
+    }
+
     private BankAccountDTO fetchBankAccount(Long bankAccountId)
     {
         try
@@ -163,6 +307,32 @@ public class CashServiceImpl implements CashService
         }
     }
 
+    private <T> T await(CompletableFuture<T> future, long deadline)
+    {
+        try
+        {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException ex)
+        {
+            throw new BusinessException("Cash operation timed out waiting for dependent services");
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Cash operation was interrupted");
+        }
+        catch (ExecutionException ex)
+        {
+            // Rethrow what the call itself threw, so BusinessException messages reach the caller unchanged
+            if (ex.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+            throw new BusinessException("Cash operation failed: " + ex.getCause().getMessage());
+        }
+    }
+
     private BankAccountDTO updateBalance(UpdateBalanceRequest request, BankOperation operation)
     {
         try
@@ -0,0 +1,90 @@
+package com.bank.cash.service;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Reads settlement files line by line, so a file of any size is never held in memory. Each line is
+ * {@code reference,bankAccountId,amount[,currency]}; an optional header line and blank lines are
+ * skipped. Lines that do not validate are passed on with the reason, so the caller can report them
+ * and carry on with the rest of the file.
+ */
+@Component
+public class SettlementFileParser {
+
+    private static final int MAX_REFERENCE = 40;
+    private static final Pattern REFERENCE = Pattern.compile("[A-Za-z0-9._-]{1," + MAX_REFERENCE + "}");
+    private static final Pattern CURRENCY = Pattern.compile("[A-Z]{3}");
+
+    public void parse(InputStream file, Consumer<SettlementRow> consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(file, StandardCharsets.UTF_8));
+        String line;
+        long number = 0;
+        boolean first = true;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] columns = line.split(",", -1);
+            if (first && columns.length > 1 && !isNumber(columns[1].trim())) {
+                first = false;
+                continue;
+            }
+            first = false;
+            consumer.accept(parseLine(number, columns));
+        }
+    }
+
+    private static SettlementRow parseLine(long line, String[] columns) {
+        String reference = columns[0].trim();
+        if (columns.length < 3 || columns.length > 4) {
+            return SettlementRow.invalid(line, truncate(reference), "Expected reference,bankAccountId,amount[,currency]");
+        }
+        if (!REFERENCE.matcher(reference).matches()) {
+            return SettlementRow.invalid(line, truncate(reference), "Invalid reference");
+        }
+        long bankAccountId;
+        try {
+            bankAccountId = Long.parseLong(columns[1].trim());
+        } catch (NumberFormatException ex) {
+            return SettlementRow.invalid(line, reference, "Invalid bank account id: " + columns[1].trim());
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(columns[2].trim());
+        } catch (NumberFormatException ex) {
+            return SettlementRow.invalid(line, reference, "Invalid amount: " + columns[2].trim());
+        }
+        if (amount.signum() <= 0) {
+            return SettlementRow.invalid(line, reference, "Amount must be positive");
+        }
+        if (amount.stripTrailingZeros().scale() > 2) {
+            return SettlementRow.invalid(line, reference, "Amount has more than 2 decimal places");
+        }
+        String currency = columns.length == 4 ? columns[3].trim() : "";
+        if (!currency.isEmpty() && !CURRENCY.matcher(currency).matches()) {
+            return SettlementRow.invalid(line, reference, "Invalid currency: " + currency);
+        }
+        return new SettlementRow(line, reference, bankAccountId, amount, currency.isEmpty() ? null : currency, null);
+    }
+
+    /**
+     * What is reported of a reference that did not validate; a whole line without commas may end up here.
+     */
+    private static String truncate(String reference) {
+        return reference.length() > MAX_REFERENCE ? reference.substring(0, MAX_REFERENCE) : reference;
+    }
+
+    private static boolean isNumber(String value) {
+        return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+    }
+}
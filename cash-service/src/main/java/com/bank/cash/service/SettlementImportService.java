@@ -0,0 +1,16 @@
+package com.bank.cash.service;
+
+import com.bank.common.dto.contracts.cash.SettlementImportDTO;
+
+import java.io.InputStream;
+
+public interface SettlementImportService {
+
+    /**
+     * Takes a settlement file of deposits and ingests it in the background. Running the same
+     * {@code fileId} again applies only the rows that were not ingested before.
+     */
+    SettlementImportDTO startImport(String fileId, InputStream file);
+
+    SettlementImportDTO getImport(Long id);
+}
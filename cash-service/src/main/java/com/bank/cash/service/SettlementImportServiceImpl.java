@@ -0,0 +1,326 @@
+package com.bank.cash.service;
+
+import com.bank.cash.client.AccountsClient;
+import com.bank.cash.entity.Transaction;
+import com.bank.cash.repository.SettlementImportRepository;
+import com.bank.cash.repository.TransactionBatchRepository;
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.dto.contracts.cash.SettlementErrorDTO;
+import com.bank.common.dto.contracts.cash.SettlementImportDTO;
+import com.bank.common.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static com.bank.cash.repository.SettlementImportRepository.COMPLETED;
+import static com.bank.cash.repository.SettlementImportRepository.FAILED;
+import static com.bank.common.dto.contracts.accounts.BankOperation.ADD;
+
+/**
+ * Ingests settlement files of deposits from cash-collection partners. The upload is spooled to a
+ * temporary file and read back row by row in the background; valid rows are collected into batches
+ * of {@code batch-size}, and each batch
+ * <ol>
+ *     <li>looks up its bank accounts in one call and rejects rows of unknown accounts or in another currency;</li>
+ *     <li>drops rows that an earlier run of the same file already ingested;</li>
+ *     <li>applies the rest in one {@code update-balances} call, grouped by account, with an idempotency
+ *     key per row, {@code settlement:<fileId>:<reference>};</li>
+ *     <li>writes their settlement entries, {@link Transaction} rows and daily totals with JDBC batches
+ *     in one transaction.</li>
+ * </ol>
+ * Progress and rejected rows are stored after every batch. A run that stops half way, or a second run
+ * of the same file, is safe: accounts-service does not apply a key twice, and a row whose entry exists
+ * is not written again.
+ */
+@Service
+@Slf4j
+public class SettlementImportServiceImpl implements SettlementImportService {
+
+    private static final Pattern FILE_ID = Pattern.compile("[A-Za-z0-9._-]{1,40}");
+    private static final String STALE_MESSAGE = "Interrupted; upload the file again to finish it";
+
+    private final SettlementFileParser parser;
+    private final SettlementImportRepository importRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final TransactionRecorder transactionRecorder;
+    private final AccountsClient accountsClient;
+    private final ExecutorService settlementExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int reportedErrors;
+    private final long staleAfterMs;
+
+    public SettlementImportServiceImpl(SettlementFileParser parser,
+        SettlementImportRepository importRepository,
+        TransactionBatchRepository transactionBatchRepository,
+        TransactionRecorder transactionRecorder,
+        AccountsClient accountsClient,
+        @Qualifier("settlementExecutor") ExecutorService settlementExecutor,
+        PlatformTransactionManager transactionManager,
+        @Value("${cash.settlements.batch-size:500}") int batchSize,
+        @Value("${cash.settlements.reported-errors:100}") int reportedErrors,
+        @Value("${cash.settlements.stale-after-ms:600000}") long staleAfterMs) {
+        this.parser = parser;
+        this.importRepository = importRepository;
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.transactionRecorder = transactionRecorder;
+        this.accountsClient = accountsClient;
+        this.settlementExecutor = settlementExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.reportedErrors = reportedErrors;
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    @Override
+    public SettlementImportDTO startImport(String fileId, InputStream file) {
+        if (fileId == null || !FILE_ID.matcher(fileId).matches()) {
+            throw new BusinessException("File id must be 1 to 40 letters, digits, '.', '_' or '-'");
+        }
+        Path spooled;
+        try {
+            spooled = Files.createTempFile("settlement-", ".csv");
+            Files.copy(file, spooled, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new BusinessException("Unable to read settlement file: " + ex.getMessage());
+        }
+        long importId = importRepository.create(fileId);
+        try {
+            settlementExecutor.execute(() -> new ImportRun(importId, fileId).run(spooled));
+        } catch (RejectedExecutionException ex) {
+            importRepository.finish(importId, FAILED, "Too many settlement imports in progress");
+            deleteQuietly(spooled);
+            throw new BusinessException("Too many settlement imports in progress, try again later");
+        }
+        log.info("Settlement import {} of file {} started", importId, fileId);
+        return getImport(importId);
+    }
+
+    @Override
+    public SettlementImportDTO getImport(Long id) {
+        SettlementImportDTO settlementImport = importRepository.find(id)
+            .orElseThrow(() -> new BusinessException("Settlement import not found"));
+        settlementImport.setErrors(importRepository.findErrors(id, reportedErrors));
+        return settlementImport;
+    }
+
+    /**
+     * Fails runs whose instance stopped without finishing them, so they do not look in progress forever.
+     */
+    @Scheduled(fixedDelayString = "${cash.settlements.stale-check-ms:60000}")
+    public void failStaleImports() {
+        try {
+            int failed = importRepository.failStale(staleAfterMs, STALE_MESSAGE);
+            if (failed > 0) {
+                log.warn("Marked {} stalled settlement imports as failed", failed);
+            }
+        } catch (Exception ex) {
+            log.warn("Could not check for stalled settlement imports: {}", ex.getMessage());
+        }
+    }
+
+    private static String operationId(String fileId, String reference) {
+        return "settlement:" + fileId + ":" + reference;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete spooled settlement file {}: {}", file, ex.getMessage());
+        }
+    }
+
+    /**
+     * State of one run; used by the single thread that reads the file.
+     */
+    private final class ImportRun {
+
+        private final long importId;
+        private final String fileId;
+        private final Set<String> references = new HashSet<>();
+        private final List<SettlementRow> batch = new ArrayList<>();
+        private final List<SettlementErrorDTO> errors = new ArrayList<>();
+        private long rowsRead;
+        private long rowsApplied;
+        private long rowsSkipped;
+        private long rowsFailed;
+
+        ImportRun(long importId, String fileId) {
+            this.importId = importId;
+            this.fileId = fileId;
+        }
+
+        void run(Path spooled) {
+            long started = System.nanoTime();
+            try (InputStream in = Files.newInputStream(spooled)) {
+                parser.parse(in, this::accept);
+                flush();
+                importRepository.finish(importId, COMPLETED, null);
+                long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+                log.info("Settlement import {} of file {} completed: {} rows, {} applied, {} already ingested, {} failed in {} ms ({} rows/s)",
+                    importId, fileId, rowsRead, rowsApplied, rowsSkipped, rowsFailed, elapsedMs, rowsRead * 1000 / elapsedMs);
+            } catch (Exception ex) {
+                log.error("Settlement import {} of file {} failed after {} rows", importId, fileId, rowsRead, ex);
+                try {
+                    flushErrors();
+                    importRepository.updateProgress(importId, rowsRead, rowsApplied, rowsSkipped, rowsFailed);
+                    importRepository.finish(importId, FAILED, ex.getMessage());
+                } catch (Exception recordFailure) {
+                    log.warn("Could not record the failure of settlement import {}: {}", importId, recordFailure.getMessage());
+                }
+            } finally {
+                deleteQuietly(spooled);
+            }
+        }
+
+        private void accept(SettlementRow row) {
+            rowsRead++;
+            if (row.error() == null && !references.add(row.reference())) {
+                row = row.withError("Duplicate reference " + row.reference());
+            }
+            if (row.error() != null) {
+                reject(row);
+            } else {
+                batch.add(row);
+            }
+            if (batch.size() + errors.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                applyBatch();
+                batch.clear();
+            }
+            flushErrors();
+            importRepository.updateProgress(importId, rowsRead, rowsApplied, rowsSkipped, rowsFailed);
+        }
+
+        private void applyBatch() {
+            // Grouped by account, so every account of the batch is checked once and updated under one lock
+            Map<Long, List<SettlementRow>> byAccount = batch.stream()
+                .collect(Collectors.groupingBy(SettlementRow::bankAccountId, TreeMap::new, Collectors.toList()));
+            Map<Long, BankAccountDTO> accounts = lookup(List.copyOf(byAccount.keySet()));
+
+            List<SettlementRow> valid = new ArrayList<>(batch.size());
+            byAccount.forEach((bankAccountId, rows) -> {
+                BankAccountDTO account = accounts.get(bankAccountId);
+                for (SettlementRow row : rows) {
+                    if (account == null) {
+                        reject(row.withError("Bank account not found: " + bankAccountId));
+                    } else if (row.currency() != null && !row.currency().equals(account.getCurrency())) {
+                        reject(row.withError("Currency " + row.currency() + " does not match account currency "
+                            + account.getCurrency()));
+                    } else {
+                        valid.add(row);
+                    }
+                }
+            });
+
+            // Rows of an earlier run of this file need neither accounts-service nor a write
+            Set<String> ingested = importRepository.findExistingEntries(
+                valid.stream().map(row -> operationId(fileId, row.reference())).toList());
+            List<SettlementRow> pending = valid.stream()
+                .filter(row -> !ingested.contains(operationId(fileId, row.reference())))
+                .toList();
+            rowsSkipped += valid.size() - pending.size();
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            ApiResponse<List<BankAccountDTO>> response = accountsClient.updateBalances(pending.stream()
+                .map(row -> UpdateBalanceRequest.builder()
+                    .bankAccountId(row.bankAccountId())
+                    .amount(row.amount())
+                    .operation(ADD)
+                    .operationId(operationId(fileId, row.reference()))
+                    .build())
+                .toList());
+            if (response == null || !response.isSuccess()) {
+                throw new BusinessException("Failed to update balances: "
+                    + (response == null ? "no response" : response.getMessage()));
+            }
+
+            int written = transactionTemplate.execute(status -> record(pending, accounts));
+            rowsApplied += written;
+            // Written by a concurrent run of the same file in the meantime
+            rowsSkipped += pending.size() - written;
+        }
+
+        private int record(List<SettlementRow> rows, Map<Long, BankAccountDTO> accounts) {
+            List<Long> ids = transactionBatchRepository.allocateIds(rows.size());
+            List<String> operationIds = rows.stream().map(row -> operationId(fileId, row.reference())).toList();
+            Set<String> claimed = importRepository.claimEntries(importId, operationIds, ids);
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Transaction> transactions = new ArrayList<>(claimed.size());
+            for (int i = 0; i < rows.size(); i++) {
+                if (!claimed.contains(operationIds.get(i))) {
+                    continue;
+                }
+                SettlementRow row = rows.get(i);
+                transactions.add(Transaction.builder()
+                    .id(ids.get(i))
+                    .bankAccountId(row.bankAccountId())
+                    .type("DEPOSIT")
+                    .amount(row.amount())
+                    .currency(accounts.get(row.bankAccountId()).getCurrency())
+                    .status("SUCCESS")
+                    .description("Settlement " + fileId + " " + row.reference())
+                    .createdAt(now)
+                    .build());
+            }
+            transactionRecorder.insertAll(transactions);
+            return transactions.size();
+        }
+
+        private Map<Long, BankAccountDTO> lookup(List<Long> ids) {
+            ApiResponse<List<BankAccountDTO>> response = accountsClient.getBankAccountsByIds(ids);
+            if (response == null || !response.isSuccess() || response.getData() == null) {
+                throw new BusinessException("Failed to look up bank accounts: "
+                    + (response == null ? "no response" : response.getMessage()));
+            }
+            return response.getData().stream().collect(Collectors.toMap(BankAccountDTO::getId, Function.identity()));
+        }
+
+        private void reject(SettlementRow row) {
+            rowsFailed++;
+            errors.add(SettlementErrorDTO.builder()
+                .line(row.line())
+                .reference(row.reference())
+                .reason(row.error())
+                .build());
+        }
+
+        private void flushErrors() {
+            importRepository.addErrors(importId, errors);
+            errors.clear();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.bank.cash.service;
+
+import java.math.BigDecimal;
+
+/**
+ * One deposit of a settlement file, or the reason its line could not be read.
+ */
+record SettlementRow(long line, String reference, Long bankAccountId, BigDecimal amount, String currency,
+                     String error) {
+
+    static SettlementRow invalid(long line, String reference, String error) {
+        return new SettlementRow(line, reference, null, null, null, error);
+    }
+
+    SettlementRow withError(String reason) {
+        return new SettlementRow(line, reference, bankAccountId, amount, currency, reason);
+    }
+}
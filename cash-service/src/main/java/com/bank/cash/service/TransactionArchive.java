@@ -0,0 +1,208 @@
+package com.bank.cash.service;
+
+import com.bank.cash.repository.TransactionPartitionRepository.ArchivedTransaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.YearMonth;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archive files of expired cash transactions, one per month: {@code transactions_YYYY_MM.jsonl.gz}
+ * holds the month's rows as gzipped JSON lines, oldest first, and {@code transactions_YYYY_MM.sha256}
+ * the SHA-256 of that file in {@code sha256sum} format. Files are written under a temporary name and
+ * moved into place when complete, and the checksum is verified before a file is read back.
+ */
+@Component
+public class TransactionArchive {
+
+    private static final String DATA_SUFFIX = ".jsonl.gz";
+    private static final String CHECKSUM_SUFFIX = ".sha256";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+
+    public TransactionArchive(ObjectMapper objectMapper,
+        @Value("${cash.partitions.archive-dir:cash-archive}") String directory) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+    }
+
+    public boolean exists(YearMonth month) {
+        return Files.exists(dataFile(month)) && Files.exists(checksumFile(month));
+    }
+
+    /**
+     * Opens a writer that files rows into the archive of their month. Rows must arrive ordered by {@code createdAt}.
+     */
+    public Writer newWriter() throws IOException {
+        Files.createDirectories(directory);
+        return new Writer();
+    }
+
+    /**
+     * Checks the month's archive against its checksum and returns the number of rows it holds.
+     */
+    public long verify(YearMonth month) throws IOException {
+        checkChecksum(month);
+        long rows = 0;
+        try (BufferedReader reader = open(month)) {
+            while (reader.readLine() != null) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the month's rows of the bank account to {@code out} as JSON lines, oldest first.
+     */
+    public void copy(YearMonth month, long bankAccountId, OutputStream out) throws IOException {
+        checkChecksum(month);
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (BufferedReader reader = open(month)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (objectMapper.readTree(line).path("bankAccountId").asLong() == bankAccountId) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void checkChecksum(YearMonth month) throws IOException {
+        String expected = Files.readString(checksumFile(month), StandardCharsets.US_ASCII).split("\\s+")[0];
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(dataFile(month))) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(expected)) {
+            throw new IOException("Checksum mismatch in archive " + dataFile(month).getFileName());
+        }
+    }
+
+    private BufferedReader open(YearMonth month) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(dataFile(month)), 64 * 1024), StandardCharsets.UTF_8));
+    }
+
+    private Path dataFile(YearMonth month) {
+        return directory.resolve(baseName(month) + DATA_SUFFIX);
+    }
+
+    private Path checksumFile(YearMonth month) {
+        return directory.resolve(baseName(month) + CHECKSUM_SUFFIX);
+    }
+
+    private static String baseName(YearMonth month) {
+        return "transactions_%04d_%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Writes one archive per month of the rows it is given. A month's files replace earlier ones
+     * only once the month is complete; closing without {@link #finish()} discards the current month.
+     */
+    public final class Writer implements Closeable {
+
+        private final Map<YearMonth, Long> written = new LinkedHashMap<>();
+        private YearMonth month;
+        private Path temp;
+        private MessageDigest digest;
+        private BufferedWriter out;
+        private long rows;
+
+        private Writer() {
+        }
+
+        public void append(ArchivedTransaction row) throws IOException {
+            YearMonth rowMonth = YearMonth.from(row.createdAt());
+            if (!rowMonth.equals(month)) {
+                completeMonth();
+                if (written.containsKey(rowMonth)) {
+                    throw new IllegalStateException("Rows of " + rowMonth + " are not contiguous");
+                }
+                startMonth(rowMonth);
+            }
+            out.write(objectMapper.writeValueAsString(row));
+            out.newLine();
+            rows++;
+        }
+
+        /**
+         * Completes the last month and returns the number of rows written per month.
+         */
+        public Map<YearMonth, Long> finish() throws IOException {
+            completeMonth();
+            return written;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) {
+                out.close();
+                Files.deleteIfExists(temp);
+                out = null;
+            }
+        }
+
+        private void startMonth(YearMonth next) throws IOException {
+            month = next;
+            temp = directory.resolve(baseName(next) + DATA_SUFFIX + TEMP_SUFFIX);
+            digest = sha256();
+            out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                new DigestOutputStream(Files.newOutputStream(temp), digest), 64 * 1024), StandardCharsets.UTF_8));
+            rows = 0;
+        }
+
+        private void completeMonth() throws IOException {
+            if (out == null) {
+                return;
+            }
+            out.close();
+            out = null;
+            Path data = dataFile(month);
+            Files.move(temp, data, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Path checksumTemp = directory.resolve(baseName(month) + CHECKSUM_SUFFIX + TEMP_SUFFIX);
+            Files.writeString(checksumTemp, HexFormat.of().formatHex(digest.digest()) + "  " + data.getFileName() + "\n",
+                StandardCharsets.US_ASCII);
+            Files.move(checksumTemp, checksumFile(month), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written.put(month, rows);
+        }
+    }
+}
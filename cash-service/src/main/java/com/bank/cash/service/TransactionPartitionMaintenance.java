@@ -0,0 +1,164 @@
+package com.bank.cash.service;
+
+import com.bank.cash.repository.TransactionPartitionRepository;
+import com.bank.cash.repository.TransactionPartitionRepository.TransactionPartition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the monthly partitions of {@code cash.transactions} ahead of time and applies retention.
+ * Runs at startup and then daily:
+ * <ul>
+ *     <li>creates the partitions of the current month and the next {@code months-ahead} months, so
+ *     an insert always finds its partition;</li>
+ *     <li>detaches every partition that ended more than {@code retention-months} ago into the
+ *     archive schema, exports it to one {@link TransactionArchive} file per month, verifies the
+ *     files against their checksums and row counts, and only then drops it.</li>
+ * </ul>
+ * A partition whose export fails stays in the archive schema and is exported again on the next run.
+ * The archive directory is local, so retention should run on one instance or on shared storage.
+ */
+@Slf4j
+@Component
+public class TransactionPartitionMaintenance {
+
+    private final TransactionPartitionRepository partitionRepository;
+    private final TransactionArchive transactionArchive;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final String archiveSchema;
+
+    @Autowired
+    public TransactionPartitionMaintenance(TransactionPartitionRepository partitionRepository,
+        TransactionArchive transactionArchive,
+        @Value("${cash.partitions.enabled:true}") boolean enabled,
+        @Value("${cash.partitions.months-ahead:3}") int monthsAhead,
+        @Value("${cash.partitions.retention-months:24}") int retentionMonths,
+        @Value("${cash.partitions.archive-schema:cash_archive}") String archiveSchema) {
+        this(partitionRepository, transactionArchive, Clock.systemDefaultZone(), enabled, monthsAhead, retentionMonths,
+            archiveSchema);
+    }
+
+    TransactionPartitionMaintenance(TransactionPartitionRepository partitionRepository,
+        TransactionArchive transactionArchive, Clock clock, boolean enabled, int monthsAhead, int retentionMonths,
+        String archiveSchema) {
+        this.partitionRepository = partitionRepository;
+        this.transactionArchive = transactionArchive;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.retentionMonths = retentionMonths;
+        this.archiveSchema = archiveSchema;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${cash.partitions.cron:0 30 3 * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            YearMonth current = YearMonth.now(clock);
+            List<TransactionPartition> partitions = partitionRepository.findPartitions();
+            createAhead(partitions, current);
+            if (retentionMonths > 0) {
+                detachExpired(partitions, current.minusMonths(retentionMonths).atDay(1).atStartOfDay());
+                exportDetached();
+            }
+        } catch (Exception ex) {
+            log.error("Cash transaction partition maintenance failed", ex);
+        }
+    }
+
+    private void createAhead(List<TransactionPartition> partitions, YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            LocalDateTime start = month.atDay(1).atStartOfDay();
+            LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+            // The partition of pre-partitioning rows may already cover the first months
+            if (partitions.stream().noneMatch(partition -> partition.overlaps(start, end))) {
+                partitionRepository.createPartition(month);
+                log.info("Created cash transaction partition {}", TransactionPartitionRepository.partitionName(month));
+            }
+        }
+    }
+
+    private void detachExpired(List<TransactionPartition> partitions, LocalDateTime cutoff) {
+        for (TransactionPartition partition : partitions) {
+            if (partition.to() == null || partition.to().isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                if (partition.detachPending()) {
+                    partitionRepository.finalizeDetach(partition.name());
+                } else {
+                    partitionRepository.detach(partition.name());
+                }
+                partitionRepository.moveToSchema(partition.name(), archiveSchema);
+                log.info("Detached cash transaction partition {} ending {}", partition.name(), partition.to());
+            } catch (Exception ex) {
+                // Most likely another instance got there first; the next run sees the outcome
+                log.warn("Could not detach cash transaction partition {}: {}", partition.name(), ex.getMessage());
+            }
+        }
+    }
+
+    private void exportDetached() {
+        for (String table : partitionRepository.findTables(archiveSchema)) {
+            try {
+                export(table);
+            } catch (Exception ex) {
+                log.warn("Could not export cash transaction partition {}, keeping it for the next run: {}",
+                    table, ex.getMessage());
+            }
+        }
+    }
+
+    private void export(String table) throws IOException {
+        long rows = partitionRepository.count(archiveSchema, table);
+        Map<YearMonth, Long> written;
+        try (TransactionArchive.Writer writer = transactionArchive.newWriter()) {
+            partitionRepository.stream(archiveSchema, table, row -> {
+                try {
+                    writer.append(row);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            written = writer.finish();
+        }
+        long verified = 0;
+        for (Map.Entry<YearMonth, Long> month : written.entrySet()) {
+            long archived = transactionArchive.verify(month.getKey());
+            if (archived != month.getValue()) {
+                throw new IllegalStateException("Archive of " + month.getKey() + " holds " + archived
+                    + " rows instead of " + month.getValue());
+            }
+            verified += archived;
+        }
+        if (verified != rows) {
+            throw new IllegalStateException("Archived " + verified + " of " + rows + " rows");
+        }
+        partitionRepository.drop(archiveSchema, table);
+        log.info("Archived {} cash transactions of partition {} into {} monthly files", rows, table, written.size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.bank.cash.service;
+
+import com.bank.cash.entity.Transaction;
+import com.bank.cash.repository.DailyTotalsRepository;
+import com.bank.cash.repository.DailyTotalsRepository.TotalsDelta;
+import com.bank.cash.repository.TransactionBatchRepository;
+import com.bank.cash.repository.TransactionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stores cash transactions together with their effect on the per-account daily totals. The totals
+ * of the successful operations in one save are summed per account and day and upserted as one
+ * batch in the same transaction, so the rollup never disagrees with the history. Operations are
+ * counted on the day of their {@code created_at}, the same day the history shows them on.
+ */
+@Component
+public class TransactionRecorder {
+
+    private static final Comparator<Key> ORDER = Comparator.comparingLong(Key::bankAccountId).thenComparing(Key::date);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final DailyTotalsRepository dailyTotalsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionRecorder(TransactionRepository transactionRepository,
+        TransactionBatchRepository transactionBatchRepository,
+        DailyTotalsRepository dailyTotalsRepository,
+        PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.dailyTotalsRepository = dailyTotalsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Transaction save(Transaction transaction) {
+        return saveAll(List.of(transaction)).get(0);
+    }
+
+    public List<Transaction> saveAll(List<Transaction> transactions) {
+        return transactionTemplate.execute(status -> {
+            List<Transaction> saved = transactionRepository.saveAll(transactions);
+            dailyTotalsRepository.upsert(deltas(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * Inserts new transactions, whose id and creation time are already set, with one JDBC batch
+     * instead of a JPA persist each. Joins the caller's transaction if there is one.
+     */
+    public void insertAll(List<Transaction> transactions) {
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionBatchRepository.insert(transactions);
+            dailyTotalsRepository.upsert(deltas(transactions));
+        });
+    }
+
+    /**
+     * One delta per account and day, ordered by account and day so rows are always locked in the same order.
+     */
+    private static List<TotalsDelta> deltas(List<Transaction> transactions) {
+        Map<Key, Delta> deltas = new TreeMap<>(ORDER);
+        for (Transaction transaction : transactions) {
+            if (!"SUCCESS".equals(transaction.getStatus())) {
+                continue;
+            }
+            Delta delta = deltas.computeIfAbsent(
+                new Key(transaction.getBankAccountId(), transaction.getCreatedAt().toLocalDate()), key -> new Delta());
+            if ("DEPOSIT".equalsIgnoreCase(transaction.getType())) {
+                delta.depositAmount = delta.depositAmount.add(transaction.getAmount());
+                delta.depositCount++;
+            } else {
+                delta.withdrawalAmount = delta.withdrawalAmount.add(transaction.getAmount());
+                delta.withdrawalCount++;
+            }
+        }
+        List<TotalsDelta> result = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> result.add(new TotalsDelta(key.bankAccountId(), key.date(),
+            delta.depositAmount, delta.depositCount, delta.withdrawalAmount, delta.withdrawalCount)));
+        return result;
+    }
+
+    private record Key(long bankAccountId, LocalDate date) {
+    }
+
+    private static final class Delta {
+        private BigDecimal depositAmount = BigDecimal.ZERO;
+        private int depositCount;
+        private BigDecimal withdrawalAmount = BigDecimal.ZERO;
+        private int withdrawalCount;
+    }
+}
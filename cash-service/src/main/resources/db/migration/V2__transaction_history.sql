@@ -0,0 +1,32 @@
+-- Keyset pagination of an account's history walks this index newest first. The INCLUDE columns make it
+-- covering, so a page is served by one index-only range scan.
+CREATE INDEX idx_transactions_account_created
+    ON cash.transactions (bank_account_id, created_at DESC, id DESC)
+    INCLUDE (type, amount, currency, status);
+
+-- Superseded by the index above, which shares the same leading column
+DROP INDEX IF EXISTS cash.idx_transactions_bank_account;
+
+-- Successful deposits and withdrawals summed per bank account and day. Rows are upserted in the transaction
+-- that stores the cash transactions, and a month of one account is a single primary key range scan.
+CREATE TABLE cash.account_daily_totals (
+    bank_account_id BIGINT NOT NULL,
+    total_date DATE NOT NULL,
+    deposit_amount NUMERIC(38,2) NOT NULL DEFAULT 0,
+    deposit_count INT NOT NULL DEFAULT 0,
+    withdrawal_amount NUMERIC(38,2) NOT NULL DEFAULT 0,
+    withdrawal_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bank_account_id, total_date)
+);
+
+INSERT INTO cash.account_daily_totals
+    (bank_account_id, total_date, deposit_amount, deposit_count, withdrawal_amount, withdrawal_count)
+SELECT bank_account_id,
+       created_at::date,
+       COALESCE(SUM(amount) FILTER (WHERE type = 'DEPOSIT'), 0),
+       COUNT(*) FILTER (WHERE type = 'DEPOSIT'),
+       COALESCE(SUM(amount) FILTER (WHERE type <> 'DEPOSIT'), 0),
+       COUNT(*) FILTER (WHERE type <> 'DEPOSIT')
+FROM cash.transactions
+WHERE status = 'SUCCESS'
+GROUP BY bank_account_id, created_at::date;
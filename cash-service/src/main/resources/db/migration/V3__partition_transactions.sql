@@ -0,0 +1,49 @@
+-- transactions becomes a table range-partitioned by month on created_at, so every index is per month and
+-- expired months can be exported and dropped without touching the live table or vacuuming deleted rows.
+-- Nothing references transactions by foreign key, which lets the table be swapped in place.
+-- Partitions ahead of time and retention are handled by TransactionPartitionMaintenance.
+CREATE SCHEMA IF NOT EXISTS cash_archive;
+
+ALTER TABLE cash.transactions RENAME TO transactions_legacy;
+ALTER INDEX cash.transactions_pkey RENAME TO transactions_legacy_pkey;
+ALTER INDEX cash.idx_transactions_account_created RENAME TO transactions_legacy_account_created;
+-- Months are pruned by the partition bounds; the legacy rows keep theirs for the month-by-month export
+ALTER INDEX cash.idx_transactions_created_at RENAME TO transactions_legacy_created_at;
+
+-- Ids keep coming from the same sequence
+ALTER SEQUENCE cash.transactions_id_seq OWNED BY NONE;
+
+-- The partition key must be part of the primary key; ids alone are still unique, they come from one sequence
+CREATE TABLE cash.transactions (
+    id BIGINT NOT NULL DEFAULT nextval('cash.transactions_id_seq'),
+    bank_account_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    amount NUMERIC(38,2) NOT NULL DEFAULT 0,
+    currency VARCHAR(10) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    description TEXT,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE cash.transactions_id_seq OWNED BY cash.transactions.id;
+
+CREATE INDEX idx_transactions_account_created
+    ON cash.transactions (bank_account_id, created_at DESC, id DESC)
+    INCLUDE (type, amount, currency, status);
+
+-- Existing rows become one partition ending with the current month; its history index matches the one
+-- above and is attached as it is. Monthly partitions start after it.
+DO $$
+DECLARE
+    next_month DATE := (date_trunc('month', now()) + INTERVAL '1 month')::date;
+    month_start DATE;
+BEGIN
+    EXECUTE format('ALTER TABLE cash.transactions ATTACH PARTITION cash.transactions_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+        next_month);
+    FOR i IN 0..2 LOOP
+        month_start := (next_month + make_interval(months => i))::date;
+        EXECUTE format('CREATE TABLE cash.%I PARTITION OF cash.transactions FOR VALUES FROM (%L) TO (%L)',
+            'transactions_' || to_char(month_start, 'YYYY_MM'), month_start, (month_start + INTERVAL '1 month')::date);
+    END LOOP;
+END $$;
@@ -0,0 +1,32 @@
+-- One row per run of a settlement file, updated after every batch so progress can be polled
+CREATE TABLE cash.settlement_imports (
+    id BIGSERIAL PRIMARY KEY,
+    file_id VARCHAR(40) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    rows_read BIGINT NOT NULL DEFAULT 0,
+    rows_applied BIGINT NOT NULL DEFAULT 0,
+    rows_skipped BIGINT NOT NULL DEFAULT 0,
+    rows_failed BIGINT NOT NULL DEFAULT 0,
+    message TEXT,
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX idx_settlement_imports_running ON cash.settlement_imports(updated_at) WHERE status = 'RUNNING';
+
+CREATE TABLE cash.settlement_import_errors (
+    import_id BIGINT NOT NULL REFERENCES cash.settlement_imports(id) ON DELETE CASCADE,
+    line BIGINT NOT NULL,
+    reference VARCHAR(100),
+    reason TEXT NOT NULL,
+    PRIMARY KEY (import_id, line)
+);
+
+-- One row per ingested settlement row, keyed like its balance operation in accounts-service. It is written in
+-- the transaction that writes the cash transaction, so re-running a file never records a deposit twice.
+CREATE TABLE cash.settlement_entries (
+    operation_id VARCHAR(100) PRIMARY KEY,
+    transaction_id BIGINT NOT NULL,
+    import_id BIGINT NOT NULL
+);
@@ -0,0 +1,97 @@
+package com.bank.cash.repository;
+
+import com.bank.cash.entity.Transaction;
+import com.bank.common.dto.contracts.cash.CashTransactionDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+    "spring.flyway.enabled=false",
+    "spring.cloud.config.enabled=false",
+    "eureka.client.enabled=false"
+})
+@Import(TransactionHistoryRepository.class)
+class TransactionHistoryRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    // Needed by the application's startup logging bean
+    @MockitoBean
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionHistoryRepository historyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pagesThroughTheAccountsTransactionsNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 12, 0);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(0, save(1L, base.plusMinutes(i)));
+            // Another account's transactions must not show up
+            save(2L, base.plusMinutes(i));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime createdAt = START;
+        long id = Long.MAX_VALUE;
+        List<CashTransactionDTO> page;
+        do {
+            page = historyRepository.findPage(1L, createdAt, id, 3);
+            page.forEach(transaction -> seen.add(transaction.getId()));
+            if (!page.isEmpty()) {
+                createdAt = page.get(page.size() - 1).getCreatedAt();
+                id = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 3);
+
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void ordersTransactionsWithTheSameTimestampById() {
+        LocalDateTime at = LocalDateTime.of(2026, 1, 1, 12, 0);
+        Long first = save(1L, at);
+        Long second = save(1L, at);
+
+        List<CashTransactionDTO> page = historyRepository.findPage(1L, START, Long.MAX_VALUE, 1);
+        assertEquals(second, page.get(0).getId());
+
+        page = historyRepository.findPage(1L, page.get(0).getCreatedAt(), page.get(0).getId(), 1);
+        assertEquals(first, page.get(0).getId());
+    }
+
+    private Long save(Long bankAccountId, LocalDateTime createdAt) {
+        Transaction transaction = transactionRepository.saveAndFlush(Transaction.builder()
+            .bankAccountId(bankAccountId)
+            .type("DEPOSIT")
+            .amount(BigDecimal.TEN)
+            .currency("RUB")
+            .status("SUCCESS")
+            .build());
+        // created_at is set on insert, so backdate it explicitly
+        jdbcTemplate.update("UPDATE cash.transactions SET created_at = ? WHERE id = ?", createdAt, transaction.getId());
+        return transaction.getId();
+    }
+}
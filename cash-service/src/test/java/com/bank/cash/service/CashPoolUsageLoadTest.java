@@ -0,0 +1,197 @@
+package com.bank.cash.service;
+
+import com.bank.cash.client.AccountsClient;
+import com.bank.cash.client.BlockerClient;
+import com.bank.cash.client.NotificationClient;
+import com.bank.cash.repository.DailyTotalsRepository;
+import com.bank.cash.repository.TransactionRepository;
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.blocker.BlockCheckRequest;
+import com.bank.common.dto.contracts.blocker.BlockCheckResponse;
+import com.bank.common.dto.contracts.cash.CashOperationRequest;
+import com.bank.common.exception.BusinessException;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs many more concurrent cash operations than there are pooled connections while every
+ * downstream call is slow. Connections are only taken for the short writes, so the pool never
+ * saturates and every operation completes; blocked operations are committed as BLOCKED rows.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+    "spring.config.import=optional:configserver:",
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.discovery.enabled=false",
+    "eureka.client.enabled=false",
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.url=jdbc:h2:mem:cashpool;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.hikari.maximum-pool-size=4",
+    "spring.datasource.hikari.connection-timeout=1000",
+    "spring.security.oauth2.resourceserver.jwt.issuer-uri=http://localhost",
+    "spring.cloud.openfeign.circuitbreaker.enabled=false",
+    "cash.partitions.enabled=false"
+})
+class CashPoolUsageLoadTest {
+
+    private static final int CONCURRENT_OPERATIONS = 64;
+    private static final int BLOCK_EVERY = 8;
+    private static final int POOL_SIZE = 4;
+    private static final long MEAN_LATENCY_MS = 100;
+    private static final BigDecimal SUSPICIOUS = new BigDecimal("999.00");
+
+    @MockitoBean
+    private AccountsClient accountsClient;
+
+    @MockitoBean
+    private BlockerClient blockerClient;
+
+    @MockitoBean
+    private NotificationClient notificationClient;
+
+    // The totals upsert is PostgreSQL-only SQL; it runs in the same short transaction as the insert
+    @MockitoBean
+    private DailyTotalsRepository dailyTotalsRepository;
+
+    // Needed by the application's startup logging bean
+    @MockitoBean
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    @Autowired
+    private CashService cashService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void poolUsageStaysFlatUnderDownstreamLatency() throws Exception {
+        when(accountsClient.getBankAccount(anyLong())).thenAnswer(inv -> {
+            slowDownstream();
+            return ApiResponse.success(account(inv.getArgument(0)));
+        });
+        when(blockerClient.checkOperation(any())).thenAnswer(inv -> {
+            slowDownstream();
+            return BlockCheckResponse.of(inv.<BlockCheckRequest>getArgument(0).getAmount().compareTo(SUSPICIOUS) == 0);
+        });
+        when(accountsClient.updateBalance(any())).thenAnswer(inv -> {
+            slowDownstream();
+            return ApiResponse.success(account(1L));
+        });
+        doAnswer(inv -> {
+            slowDownstream();
+            return null;
+        }).when(notificationClient).sendNotification(any());
+
+        HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger peakActive = new AtomicInteger();
+        AtomicInteger peakWaiting = new AtomicInteger();
+        AtomicLong samples = new AtomicLong();
+        AtomicLong activeSum = new AtomicLong();
+        Thread sampler = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                int active = pool.getActiveConnections();
+                peakActive.accumulateAndGet(active, Math::max);
+                peakWaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+                activeSum.addAndGet(active);
+                samples.incrementAndGet();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+
+        long started = System.nanoTime();
+        int blocked = 0;
+        List<Future<?>> results = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_OPERATIONS; i++) {
+                CashOperationRequest request = CashOperationRequest.builder()
+                    .bankAccountId(1L + i)
+                    .amount(i % BLOCK_EVERY == 0 ? SUSPICIOUS : new BigDecimal("10.00"))
+                    .type("DEPOSIT")
+                    .build();
+                results.add(clients.submit(() -> cashService.processOperation(request, "alice")));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException ex) {
+                    assertInstanceOf(BusinessException.class, ex.getCause());
+                    assertEquals("Operation blocked by security system", ex.getCause().getMessage());
+                    blocked++;
+                }
+            }
+        } finally {
+            running.set(false);
+            sampler.join();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        double meanActive = (double) activeSum.get() / Math.max(1, samples.get());
+        log.info("{} cash operations with ~{} ms per downstream call in {} ms: mean active connections {}, peak {}, peak waiting {}",
+            CONCURRENT_OPERATIONS, MEAN_LATENCY_MS, elapsedMs, String.format("%.2f", meanActive), peakActive.get(), peakWaiting.get());
+
+        assertEquals(CONCURRENT_OPERATIONS / BLOCK_EVERY, blocked);
+        // Blocked operations are committed too, before the exception reaches the caller
+        assertEquals(CONCURRENT_OPERATIONS, transactionRepository.count());
+        assertEquals(blocked, transactionRepository.findAll().stream()
+            .filter(transaction -> "BLOCKED".equals(transaction.getStatus()))
+            .count());
+        // Held across the remote calls, all connections would be busy for the whole run and most
+        // operations would time out waiting for one
+        assertTrue(meanActive < POOL_SIZE / 2.0, "mean active connections " + meanActive);
+        assertTrue(peakActive.get() <= POOL_SIZE);
+    }
+
+    private static BankAccountDTO account(long id) {
+        return BankAccountDTO.builder()
+            .id(id)
+            .currency("RUB")
+            .balance(new BigDecimal("1000.00"))
+            .accountUsername("alice")
+            .build();
+    }
+
+    private static void slowDownstream() throws InterruptedException {
+        Thread.sleep(ThreadLocalRandom.current().nextLong(MEAN_LATENCY_MS / 2, MEAN_LATENCY_MS * 3 / 2));
+    }
+}
@@ -0,0 +1,324 @@
+package com.bank.cash.service;
+
+import com.bank.cash.client.AccountsClient;
+import com.bank.cash.client.BlockerClient;
+import com.bank.cash.client.NotificationClient;
+import com.bank.cash.entity.Transaction;
+import com.bank.cash.repository.DailyTotalsRepository;
+import com.bank.cash.repository.TransactionHistoryRepository;
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.dto.contracts.blocker.BlockCheckResponse;
+import com.bank.common.dto.contracts.cash.CashOperationRequest;
+import com.bank.common.dto.contracts.cash.CashOperationResponse;
+import com.bank.common.dto.contracts.cash.CashTransactionDTO;
+import com.bank.common.dto.contracts.cash.CashTransactionPageDTO;
+import com.bank.common.dto.contracts.notifications.NotificationRequest;
+import com.bank.common.exception.BusinessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CashServiceImplTest {
+
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 14, 12, 0);
+
+    @Mock
+    private TransactionRecorder transactionRecorder;
+
+    @Mock
+    private TransactionHistoryRepository transactionHistoryRepository;
+
+    @Mock
+    private DailyTotalsRepository dailyTotalsRepository;
+
+    @Mock
+    private TransactionArchive transactionArchive;
+
+    @Mock
+    private AccountsClient accountsClient;
+
+    @Mock
+    private BlockerClient blockerClient;
+
+    @Mock
+    private NotificationClient notificationClient;
+
+    private CashServiceImpl cashService;
+
+    @BeforeEach
+    void setUp() {
+        cashService = newService(new DirectExecutorService(), 5000);
+        lenient().when(accountsClient.getBankAccount(1L)).thenReturn(ApiResponse.success(account(1L, "alice", "100.00")));
+    }
+
+    @Test
+    void testProcessOperation_DepositIsPostedAndRecorded() {
+        when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.updateBalance(any(UpdateBalanceRequest.class)))
+            .thenReturn(ApiResponse.success(account(1L, "alice", "150.00")));
+        when(transactionRecorder.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            transaction.setId(42L);
+            return transaction;
+        });
+
+        CashOperationResponse response = cashService.processOperation(deposit("50.00"), "alice");
+
+        assertEquals(42L, response.getTransactionId());
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(0, new BigDecimal("150.00").compareTo(response.getNewBalance()));
+    }
+
+    @Test
+    void testProcessOperation_MissingAccountIsReportedBeforeABlock() {
+        when(accountsClient.getBankAccount(1L)).thenReturn(ApiResponse.success(null));
+        lenient().when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(true));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> cashService.processOperation(deposit("50.00"), "alice"));
+
+        assertEquals("Bank account not found", ex.getMessage());
+        verifyNoInteractions(transactionRecorder, notificationClient);
+    }
+
+    @Test
+    void testProcessOperation_BlockedOperationIsRecorded() {
+        when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(true));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> cashService.processOperation(deposit("50.00"), "alice"));
+
+        assertEquals("Operation blocked by security system", ex.getMessage());
+        ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRecorder).save(saved.capture());
+        assertEquals("BLOCKED", saved.getValue().getStatus());
+        assertEquals("RUB", saved.getValue().getCurrency());
+        ArgumentCaptor<NotificationRequest> notification = ArgumentCaptor.forClass(NotificationRequest.class);
+        verify(notificationClient).sendNotification(notification.capture());
+        assertEquals("WARNING", notification.getValue().getType());
+        verify(accountsClient, never()).updateBalance(any());
+    }
+
+    @Test
+    void testProcessOperation_FeignErrorMessageIsPassedThrough() {
+        lenient().when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.getBankAccount(1L))
+            .thenThrow(feignError(409, "{\"success\":false,\"message\":\"Bank account is closed\"}"))
+            .thenThrow(feignError(503, null));
+
+        // The lookup runs on the executor, so the Feign error reaches the caller through the future
+        BusinessException withBody = assertThrows(BusinessException.class,
+            () -> cashService.processOperation(deposit("50.00"), "alice"));
+        BusinessException withoutBody = assertThrows(BusinessException.class,
+            () -> cashService.processOperation(deposit("50.00"), "alice"));
+
+        assertEquals("Bank account is closed", withBody.getMessage());
+        assertEquals("Failed to load bank account", withoutBody.getMessage());
+    }
+
+    @Test
+    void testProcessOperation_SlowDependencyTimesOut() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(blockerClient.checkOperation(any())).thenAnswer(invocation -> {
+            release.await();
+            return BlockCheckResponse.of(false);
+        });
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CashServiceImpl service = newService(executor, 100);
+            try {
+                long start = System.nanoTime();
+                BusinessException ex = assertThrows(BusinessException.class,
+                    () -> service.processOperation(deposit("50.00"), "alice"));
+
+                assertEquals("Cash operation timed out waiting for dependent services", ex.getMessage());
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+            } finally {
+                release.countDown();
+            }
+        }
+        verifyNoInteractions(transactionRecorder);
+        verify(accountsClient, never()).updateBalance(any());
+    }
+
+    @Test
+    void testGetHistory_CursorOfTheLastItemStartsTheNextPage() {
+        when(transactionHistoryRepository.findPage(1L, HISTORY_START, Long.MAX_VALUE, 3))
+            .thenReturn(rows(9, 8, 7));
+        when(transactionHistoryRepository.findPage(eq(1L), eq(NOON.minusMinutes(8)), eq(8L), anyInt()))
+            .thenReturn(rows(7));
+
+        CashTransactionPageDTO first = cashService.getHistory(1L, null, 2, "alice");
+
+        // One row more than asked for only signals that there is a next page
+        assertEquals(List.of(9L, 8L), first.getItems().stream().map(CashTransactionDTO::getId).toList());
+        assertEquals(NOON.minusMinutes(8) + "|8",
+            new String(Base64.getUrlDecoder().decode(first.getNextCursor()), StandardCharsets.UTF_8));
+
+        CashTransactionPageDTO second = cashService.getHistory(1L, first.getNextCursor(), 2, "alice");
+
+        assertEquals(List.of(7L), second.getItems().stream().map(CashTransactionDTO::getId).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testGetHistory_PageThatIsExactlyFullHasNoNextCursor() {
+        when(transactionHistoryRepository.findPage(1L, HISTORY_START, Long.MAX_VALUE, 3)).thenReturn(rows(2, 1));
+
+        CashTransactionPageDTO page = cashService.getHistory(1L, "", 2, "alice");
+
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetHistory_PageSizeIsClamped() {
+        when(transactionHistoryRepository.findPage(eq(1L), any(), anyLong(), anyInt())).thenReturn(List.of());
+
+        cashService.getHistory(1L, null, 10_000, "alice");
+        cashService.getHistory(1L, null, 0, "alice");
+
+        verify(transactionHistoryRepository).findPage(1L, HISTORY_START, Long.MAX_VALUE, 101);
+        verify(transactionHistoryRepository).findPage(1L, HISTORY_START, Long.MAX_VALUE, 2);
+    }
+
+    @Test
+    void testGetHistory_InvalidCursorIsRejected() {
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> cashService.getHistory(1L, "not a cursor", 20, "alice"));
+
+        assertEquals("Invalid history cursor", ex.getMessage());
+        verifyNoInteractions(transactionHistoryRepository);
+    }
+
+    @Test
+    void testGetHistory_AccountOfAnotherUserIsRejected() {
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> cashService.getHistory(1L, null, 20, "bob"));
+
+        assertEquals("Bank account does not belong to the user", ex.getMessage());
+        verifyNoInteractions(transactionHistoryRepository);
+    }
+
+    private static CashOperationRequest deposit(String amount) {
+        return CashOperationRequest.builder()
+            .bankAccountId(1L)
+            .amount(new BigDecimal(amount))
+            .type("DEPOSIT")
+            .build();
+    }
+
+    private static FeignException feignError(int status, String body) {
+        Request request = Request.create(Request.HttpMethod.GET, "/api/accounts/1", Map.of(), null,
+            StandardCharsets.UTF_8, null);
+        Response.Builder response = Response.builder()
+            .status(status)
+            .reason("Error")
+            .request(request)
+            .headers(Map.of());
+        if (body != null) {
+            response.body(body, StandardCharsets.UTF_8);
+        }
+        return FeignException.errorStatus("AccountsClient#getBankAccount(Long)", response.build());
+    }
+
+    private CashServiceImpl newService(ExecutorService executor, long lookupTimeoutMs) {
+        return new CashServiceImpl(transactionRecorder, transactionHistoryRepository, dailyTotalsRepository,
+            transactionArchive, accountsClient, blockerClient, notificationClient, new ObjectMapper(), executor,
+            lookupTimeoutMs);
+    }
+
+    /**
+     * Rows with the given ids, each created that many minutes before noon.
+     */
+    private static List<CashTransactionDTO> rows(long... ids) {
+        return LongStream.of(ids)
+            .mapToObj(id -> CashTransactionDTO.builder()
+                .id(id)
+                .bankAccountId(1L)
+                .type("DEPOSIT")
+                .amount(BigDecimal.TEN)
+                .currency("RUB")
+                .status("SUCCESS")
+                .createdAt(NOON.minusMinutes(id))
+                .build())
+            .toList();
+    }
+
+    private static BankAccountDTO account(Long id, String username, String balance) {
+        return BankAccountDTO.builder()
+            .id(id)
+            .currency("RUB")
+            .balance(new BigDecimal(balance))
+            .accountUsername(username)
+            .build();
+    }
+
+    /**
+     * Runs every task on the calling thread, so the parallel lookups complete before they are awaited.
+     */
+    private static final class DirectExecutorService extends AbstractExecutorService {
+
+        private boolean shutdown;
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bank.cash.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SettlementFileParserTest {
+
+    private final SettlementFileParser parser = new SettlementFileParser();
+
+    @Test
+    void testParse_SkipsHeaderAndBlankLinesButKeepsLineNumbers() throws IOException {
+        List<SettlementRow> rows = parse("reference,bankAccountId,amount,currency\n"
+            + "R-1,10,100.50,RUB\n"
+            + "\n"
+            + "R-2,11,7\n");
+
+        assertEquals(2, rows.size());
+        SettlementRow first = rows.get(0);
+        assertNull(first.error());
+        assertEquals(2, first.line());
+        assertEquals("R-1", first.reference());
+        assertEquals(10L, first.bankAccountId());
+        assertEquals(0, new BigDecimal("100.50").compareTo(first.amount()));
+        assertEquals("RUB", first.currency());
+        SettlementRow second = rows.get(1);
+        assertEquals(4, second.line());
+        assertNull(second.currency());
+    }
+
+    @Test
+    void testParse_FirstLineWithNumericAccountIsData() throws IOException {
+        List<SettlementRow> rows = parse("R-1,10,5\nreference,bankAccountId,amount\n");
+
+        assertEquals(2, rows.size());
+        assertNull(rows.get(0).error());
+        // Only the first line can be a header
+        assertEquals("Invalid bank account id: bankAccountId", rows.get(1).error());
+    }
+
+    @Test
+    void testParse_InvalidLinesCarryTheirReason() throws IOException {
+        List<SettlementRow> rows = parse("R-1,10\n"
+            + "R 2,10,5\n"
+            + "R-3,x,5\n"
+            + "R-4,10,abc\n"
+            + "R-5,10,-1\n"
+            + "R-6,10,1.001\n"
+            + "R-7,10,1,rub\n"
+            + "R-8,10,1.10,USD\n");
+
+        assertEquals(List.of(
+            "Expected reference,bankAccountId,amount[,currency]",
+            "Invalid reference",
+            "Invalid bank account id: x",
+            "Invalid amount: abc",
+            "Amount must be positive",
+            "Amount has more than 2 decimal places",
+            "Invalid currency: rub"), rows.stream().limit(7).map(SettlementRow::error).toList());
+        assertEquals("R-3", rows.get(2).reference());
+        assertNull(rows.get(7).error());
+    }
+
+    @Test
+    void testParse_ReferenceOfInvalidLineIsTruncated() throws IOException {
+        String longValue = "x".repeat(500);
+
+        List<SettlementRow> rows = parse("R-1,10,5\n" + longValue + "\n" + longValue + ",10,5\n");
+
+        assertEquals("Expected reference,bankAccountId,amount[,currency]", rows.get(1).error());
+        assertEquals(40, rows.get(1).reference().length());
+        assertEquals("Invalid reference", rows.get(2).error());
+        assertEquals(40, rows.get(2).reference().length());
+    }
+
+    private List<SettlementRow> parse(String file) throws IOException {
+        List<SettlementRow> rows = new ArrayList<>();
+        parser.parse(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)), rows::add);
+        return rows;
+    }
+}
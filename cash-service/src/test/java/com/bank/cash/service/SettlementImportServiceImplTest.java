@@ -0,0 +1,203 @@
+package com.bank.cash.service;
+
+import com.bank.cash.client.AccountsClient;
+import com.bank.cash.entity.Transaction;
+import com.bank.cash.repository.SettlementImportRepository;
+import com.bank.cash.repository.TransactionBatchRepository;
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.dto.contracts.cash.SettlementErrorDTO;
+import com.bank.common.dto.contracts.cash.SettlementImportDTO;
+import com.bank.common.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.LongStream;
+
+import static com.bank.cash.repository.SettlementImportRepository.COMPLETED;
+import static com.bank.cash.repository.SettlementImportRepository.FAILED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SettlementImportServiceImplTest {
+
+    @Mock
+    private SettlementImportRepository importRepository;
+
+    @Mock
+    private TransactionBatchRepository transactionBatchRepository;
+
+    @Mock
+    private TransactionRecorder transactionRecorder;
+
+    @Mock
+    private AccountsClient accountsClient;
+
+    @Mock
+    private ExecutorService settlementExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SettlementImportServiceImpl importService;
+
+    private final List<SettlementErrorDTO> errors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        importService = new SettlementImportServiceImpl(new SettlementFileParser(), importRepository,
+            transactionBatchRepository, transactionRecorder, accountsClient, settlementExecutor, transactionManager,
+            500, 100, 600000);
+        lenient().when(importRepository.create(any())).thenReturn(1L, 2L);
+        lenient().when(importRepository.find(anyLong()))
+            .thenAnswer(invocation -> Optional.of(SettlementImportDTO.builder().id(invocation.getArgument(0)).build()));
+        // The list is reused by the run, so its content is copied as it is stored
+        lenient().doAnswer(invocation -> errors.addAll(invocation.getArgument(1)))
+            .when(importRepository).addErrors(anyLong(), anyList());
+        lenient().when(accountsClient.getBankAccountsByIds(anyList())).thenReturn(ApiResponse.success(List.of(
+            account(10L, "RUB"), account(11L, "RUB"))));
+        lenient().when(importRepository.findExistingEntries(anyList())).thenReturn(Set.of());
+        lenient().when(transactionBatchRepository.allocateIds(anyInt()))
+            .thenAnswer(invocation -> LongStream.rangeClosed(1, invocation.<Integer>getArgument(0)).boxed().toList());
+        lenient().when(importRepository.claimEntries(anyLong(), anyList(), anyList()))
+            .thenAnswer(invocation -> new HashSet<>(invocation.<List<String>>getArgument(1)));
+        // Run the import on the calling thread so the outcome can be asserted right after the upload
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(settlementExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    void testStartImport_AppliesValidRowsAndReportsTheRest() {
+        when(accountsClient.updateBalances(anyList())).thenReturn(ApiResponse.success(List.of()));
+
+        importService.startImport("file-1", csv("reference,bankAccountId,amount,currency\n"
+            + "R1,10,100.00\n"
+            + "R2,11,50,RUB\n"
+            + "R1,11,5\n"
+            + "R3,10\n"
+            + "R4,99,10\n"
+            + "R5,11,10,USD\n"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UpdateBalanceRequest>> postings = ArgumentCaptor.forClass(List.class);
+        verify(accountsClient).updateBalances(postings.capture());
+        assertEquals(List.of("settlement:file-1:R1", "settlement:file-1:R2"),
+            postings.getValue().stream().map(UpdateBalanceRequest::getOperationId).toList());
+        assertEquals(0, new BigDecimal("100.00").compareTo(postings.getValue().get(0).getAmount()));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> transactions = ArgumentCaptor.forClass(List.class);
+        verify(transactionRecorder).insertAll(transactions.capture());
+        assertEquals(List.of(10L, 11L), transactions.getValue().stream().map(Transaction::getBankAccountId).toList());
+        assertTrue(transactions.getValue().stream().allMatch(transaction -> "DEPOSIT".equals(transaction.getType())));
+
+        assertEquals(List.of(
+            "Duplicate reference R1",
+            "Expected reference,bankAccountId,amount[,currency]",
+            "Currency USD does not match account currency RUB",
+            "Bank account not found: 99"), errors.stream().map(SettlementErrorDTO::getReason).toList());
+        assertEquals(List.of(4L, 5L, 7L, 6L), errors.stream().map(SettlementErrorDTO::getLine).toList());
+        verify(importRepository).updateProgress(1L, 6, 2, 0, 4);
+        verify(importRepository).finish(1L, COMPLETED, null);
+    }
+
+    @Test
+    void testStartImport_SecondRunOfTheSameFileAppliesNothing() {
+        when(importRepository.findExistingEntries(anyList()))
+            .thenReturn(Set.of("settlement:file-1:R1", "settlement:file-1:R2"));
+
+        importService.startImport("file-1", csv("R1,10,100\nR2,11,50\n"));
+
+        verify(accountsClient, never()).updateBalances(anyList());
+        verifyNoInteractions(transactionRecorder, transactionBatchRepository);
+        verify(importRepository).updateProgress(1L, 2, 0, 2, 0);
+        verify(importRepository).finish(1L, COMPLETED, null);
+    }
+
+    @Test
+    void testStartImport_RunInterruptedAfterPostingIsFinishedWithTheSameKeys() {
+        when(accountsClient.updateBalances(anyList())).thenReturn(ApiResponse.success(List.of()));
+        doThrow(new IllegalStateException("connection reset")).doNothing()
+            .when(transactionRecorder).insertAll(anyList());
+
+        importService.startImport("file-1", csv("R1,10,100\nR2,11,50\n"));
+        importService.startImport("file-1", csv("R1,10,100\nR2,11,50\n"));
+
+        verify(importRepository).finish(1L, FAILED, "connection reset");
+        verify(importRepository).finish(2L, COMPLETED, null);
+        verify(importRepository).updateProgress(2L, 2, 2, 0, 0);
+        // The balances are posted again under the same keys, which accounts-service applies only once
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UpdateBalanceRequest>> postings = ArgumentCaptor.forClass(List.class);
+        verify(accountsClient, times(2)).updateBalances(postings.capture());
+        assertEquals(postings.getAllValues().get(0).stream().map(UpdateBalanceRequest::getOperationId).toList(),
+            postings.getAllValues().get(1).stream().map(UpdateBalanceRequest::getOperationId).toList());
+    }
+
+    @Test
+    void testStartImport_EntriesClaimedByAConcurrentRunAreSkipped() {
+        when(accountsClient.updateBalances(anyList())).thenReturn(ApiResponse.success(List.of()));
+        when(importRepository.claimEntries(eq(1L), anyList(), anyList())).thenReturn(Set.of("settlement:file-1:R2"));
+
+        importService.startImport("file-1", csv("R1,10,100\nR2,11,50\n"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> transactions = ArgumentCaptor.forClass(List.class);
+        verify(transactionRecorder).insertAll(transactions.capture());
+        assertEquals(List.of(11L), transactions.getValue().stream().map(Transaction::getBankAccountId).toList());
+        verify(importRepository).updateProgress(1L, 2, 1, 1, 0);
+    }
+
+    @Test
+    void testStartImport_RejectedPostingFailsTheRun() {
+        when(accountsClient.updateBalances(anyList())).thenReturn(ApiResponse.error("Service unavailable"));
+
+        importService.startImport("file-1", csv("R1,10,100\n"));
+
+        verify(importRepository).finish(1L, FAILED, "Failed to update balances: Service unavailable");
+        verifyNoInteractions(transactionRecorder);
+    }
+
+    @Test
+    void testStartImport_InvalidFileIdIsRejected() {
+        assertThrows(BusinessException.class, () -> importService.startImport("../etc", csv("R1,10,100\n")));
+        verifyNoInteractions(importRepository, settlementExecutor);
+    }
+
+    private static InputStream csv(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BankAccountDTO account(Long id, String currency) {
+        return BankAccountDTO.builder()
+            .id(id)
+            .currency(currency)
+            .balance(BigDecimal.ZERO)
+            .accountUsername("user" + id)
+            .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.bank.cash.service;
+
+import com.bank.cash.repository.TransactionPartitionRepository.ArchivedTransaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionArchiveTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+    private static final YearMonth FEBRUARY = YearMonth.of(2024, 2);
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private TransactionArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new TransactionArchive(objectMapper, directory.toString());
+    }
+
+    @Test
+    void writtenMonthsAreVerifiedAndCopiedPerAccount() throws IOException {
+        Map<YearMonth, Long> written;
+        try (TransactionArchive.Writer writer = archive.newWriter()) {
+            writer.append(row(1, 10, JANUARY.atDay(3)));
+            writer.append(row(2, 11, JANUARY.atDay(5)));
+            writer.append(row(3, 10, JANUARY.atEndOfMonth()));
+            writer.append(row(4, 10, FEBRUARY.atDay(1)));
+            written = writer.finish();
+        }
+
+        assertEquals(Map.of(JANUARY, 3L, FEBRUARY, 1L), written);
+        assertTrue(archive.exists(JANUARY));
+        assertTrue(archive.exists(FEBRUARY));
+        assertEquals(3, archive.verify(JANUARY));
+        assertEquals(1, archive.verify(FEBRUARY));
+        String checksum = Files.readString(directory.resolve("transactions_2024_01.sha256"));
+        assertTrue(checksum.matches("[0-9a-f]{64}  transactions_2024_01\\.jsonl\\.gz\\n"), checksum);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        archive.copy(JANUARY, 10, out);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals(List.of(1L, 3L), lines.stream().map(this::readId).toList());
+        ArchivedTransaction first = objectMapper.readValue(lines.get(0), ArchivedTransaction.class);
+        assertEquals(row(1, 10, JANUARY.atDay(3)), first);
+        assertNoTempFiles();
+    }
+
+    @Test
+    void tamperedArchiveFailsVerification() throws IOException {
+        try (TransactionArchive.Writer writer = archive.newWriter()) {
+            writer.append(row(1, 10, JANUARY.atDay(3)));
+            writer.finish();
+        }
+        Files.write(directory.resolve("transactions_2024_01.jsonl.gz"), new byte[]{0}, StandardOpenOption.APPEND);
+
+        IOException verifyFailure = assertThrows(IOException.class, () -> archive.verify(JANUARY));
+        assertTrue(verifyFailure.getMessage().startsWith("Checksum mismatch"));
+        assertThrows(IOException.class, () -> archive.copy(JANUARY, 10, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void monthsMustBeContiguous() throws IOException {
+        try (TransactionArchive.Writer writer = archive.newWriter()) {
+            writer.append(row(1, 10, JANUARY.atDay(3)));
+            writer.append(row(2, 10, FEBRUARY.atDay(3)));
+            assertThrows(IllegalStateException.class, () -> writer.append(row(3, 10, JANUARY.atDay(4))));
+        }
+        assertNoTempFiles();
+    }
+
+    @Test
+    void unfinishedMonthIsDiscarded() throws IOException {
+        try (TransactionArchive.Writer writer = archive.newWriter()) {
+            writer.append(row(1, 10, JANUARY.atDay(3)));
+        }
+
+        assertFalse(archive.exists(JANUARY));
+        assertNoTempFiles();
+    }
+
+    private long readId(String line) {
+        try {
+            return objectMapper.readTree(line).path("id").asLong();
+        } catch (IOException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private void assertNoTempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    private static ArchivedTransaction row(long id, long bankAccountId, LocalDate day) {
+        return new ArchivedTransaction(id, bankAccountId, "DEPOSIT", new BigDecimal("10.00"), "RUB", "SUCCESS",
+            "Deposit", LocalDateTime.of(day, LocalTime.NOON));
+    }
+}
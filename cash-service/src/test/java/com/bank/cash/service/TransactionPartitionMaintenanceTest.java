@@ -0,0 +1,174 @@
+package com.bank.cash.service;
+
+import com.bank.cash.repository.TransactionPartitionRepository;
+import com.bank.cash.repository.TransactionPartitionRepository.ArchivedTransaction;
+import com.bank.cash.repository.TransactionPartitionRepository.TransactionPartition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPartitionMaintenanceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-19T10:00:00Z"), ZoneOffset.UTC);
+    private static final String ARCHIVE_SCHEMA = "cash_archive";
+    private static final String EXPIRED = "transactions_2024_09";
+
+    @Mock
+    private TransactionPartitionRepository partitionRepository;
+
+    @TempDir
+    Path archiveDirectory;
+
+    private TransactionArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new TransactionArchive(new ObjectMapper().findAndRegisterModules(), archiveDirectory.toString());
+    }
+
+    @Test
+    void boundsArePrintedByPostgresAsQuotedTimestamps() {
+        TransactionPartition month = TransactionPartition.of("transactions_2026_10",
+            "FOR VALUES FROM ('2026-10-01 00:00:00') TO ('2026-11-01 00:00:00')", false);
+        TransactionPartition legacy = TransactionPartition.of("transactions_legacy",
+            "FOR VALUES FROM (MINVALUE) TO ('2026-08-01')", false);
+
+        assertEquals(LocalDateTime.of(2026, 10, 1, 0, 0), month.from());
+        assertEquals(LocalDateTime.of(2026, 11, 1, 0, 0), month.to());
+        assertNull(legacy.from());
+        assertTrue(legacy.overlaps(LocalDateTime.of(2020, 1, 1, 0, 0), LocalDateTime.of(2020, 2, 1, 0, 0)));
+        assertFalse(legacy.overlaps(LocalDateTime.of(2026, 8, 1, 0, 0), LocalDateTime.of(2026, 9, 1, 0, 0)));
+    }
+
+    @Test
+    void missingMonthsAreCreatedAheadOfTime() {
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+            partition("transactions_legacy", null, YearMonth.of(2026, 11)),
+            partition("transactions_2026_11", YearMonth.of(2026, 11), YearMonth.of(2026, 12))));
+
+        newMaintenance(0).maintain();
+
+        // October is still covered by the pre-partitioning rows, November exists already
+        verify(partitionRepository).createPartition(YearMonth.of(2026, 12));
+        verify(partitionRepository).createPartition(YearMonth.of(2027, 1));
+        verify(partitionRepository, times(2)).createPartition(any());
+        verify(partitionRepository, never()).detach(anyString());
+        verify(partitionRepository, never()).findTables(anyString());
+    }
+
+    @Test
+    void expiredMonthIsDroppedOnlyOnceEveryRowIsArchived() throws IOException {
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+            partition(EXPIRED, YearMonth.of(2024, 9), YearMonth.of(2024, 10)),
+            partition("transactions_2024_10", YearMonth.of(2024, 10), YearMonth.of(2024, 11))));
+        when(partitionRepository.findTables(ARCHIVE_SCHEMA)).thenReturn(List.of(EXPIRED));
+        when(partitionRepository.count(ARCHIVE_SCHEMA, EXPIRED)).thenReturn(2L);
+        streams(row(1, 9, 3), row(2, 9, 20));
+
+        newMaintenance(24).maintain();
+
+        InOrder inOrder = inOrder(partitionRepository);
+        inOrder.verify(partitionRepository).detach(EXPIRED);
+        inOrder.verify(partitionRepository).moveToSchema(EXPIRED, ARCHIVE_SCHEMA);
+        inOrder.verify(partitionRepository).drop(ARCHIVE_SCHEMA, EXPIRED);
+        // October 2024 is still within the 24 months before October 2026
+        verify(partitionRepository, never()).detach("transactions_2024_10");
+        assertEquals(2, archive.verify(YearMonth.of(2024, 9)));
+    }
+
+    @Test
+    void partitionIsKeptWhenTheArchiveMissesRows() {
+        when(partitionRepository.findPartitions()).thenReturn(List.of());
+        when(partitionRepository.findTables(ARCHIVE_SCHEMA)).thenReturn(List.of(EXPIRED));
+        when(partitionRepository.count(ARCHIVE_SCHEMA, EXPIRED)).thenReturn(3L);
+        streams(row(1, 9, 3), row(2, 9, 20));
+
+        newMaintenance(24).maintain();
+
+        verify(partitionRepository, never()).drop(anyString(), anyString());
+    }
+
+    @Test
+    void partitionIsKeptWhenTheExportFails() {
+        when(partitionRepository.findPartitions()).thenReturn(List.of());
+        when(partitionRepository.findTables(ARCHIVE_SCHEMA)).thenReturn(List.of(EXPIRED, "transactions_2024_08"));
+        when(partitionRepository.count(eq(ARCHIVE_SCHEMA), anyString())).thenReturn(1L);
+        // Rows out of order cannot be filed month by month
+        doAnswer(invocation -> {
+            Consumer<ArchivedTransaction> consumer = invocation.getArgument(2);
+            consumer.accept(row(1, 9, 3));
+            consumer.accept(row(2, 10, 1));
+            consumer.accept(row(3, 9, 4));
+            return null;
+        }).when(partitionRepository).stream(eq(ARCHIVE_SCHEMA), eq(EXPIRED), any());
+        doThrow(new IllegalStateException("connection reset"))
+            .when(partitionRepository).stream(eq(ARCHIVE_SCHEMA), eq("transactions_2024_08"), any());
+
+        newMaintenance(24).maintain();
+
+        verify(partitionRepository, never()).drop(anyString(), anyString());
+        assertFalse(archive.exists(YearMonth.of(2024, 8)));
+    }
+
+    @Test
+    void interruptedDetachIsFinalized() {
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+            new TransactionPartition(EXPIRED, YearMonth.of(2024, 9).atDay(1).atStartOfDay(),
+                YearMonth.of(2024, 10).atDay(1).atStartOfDay(), true)));
+        when(partitionRepository.findTables(ARCHIVE_SCHEMA)).thenReturn(List.of());
+
+        newMaintenance(24).maintain();
+
+        verify(partitionRepository, never()).detach(anyString());
+        verify(partitionRepository).finalizeDetach(EXPIRED);
+        verify(partitionRepository).moveToSchema(EXPIRED, ARCHIVE_SCHEMA);
+    }
+
+    private void streams(ArchivedTransaction... rows) {
+        doAnswer(invocation -> {
+            Consumer<ArchivedTransaction> consumer = invocation.getArgument(2);
+            for (ArchivedTransaction row : rows) {
+                consumer.accept(row);
+            }
+            return null;
+        }).when(partitionRepository).stream(eq(ARCHIVE_SCHEMA), eq(EXPIRED), any());
+    }
+
+    private TransactionPartitionMaintenance newMaintenance(int retentionMonths) {
+        return new TransactionPartitionMaintenance(partitionRepository, archive, CLOCK, true, 3, retentionMonths,
+            ARCHIVE_SCHEMA);
+    }
+
+    private static TransactionPartition partition(String name, YearMonth from, YearMonth to) {
+        return new TransactionPartition(name, from == null ? null : from.atDay(1).atStartOfDay(),
+            to == null ? null : to.atDay(1).atStartOfDay(), false);
+    }
+
+    private static ArchivedTransaction row(long id, int month, int day) {
+        return new ArchivedTransaction(id, 10, "DEPOSIT", new BigDecimal("10.00"), "RUB", "SUCCESS", "Deposit",
+            LocalDateTime.of(2024, month, day, 12, 0));
+    }
+}
@@ -0,0 +1,108 @@
+package com.bank.cash.service;
+
+import com.bank.cash.entity.Transaction;
+import com.bank.cash.repository.DailyTotalsRepository;
+import com.bank.cash.repository.DailyTotalsRepository.TotalsDelta;
+import com.bank.cash.repository.TransactionBatchRepository;
+import com.bank.cash.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionRecorderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionBatchRepository transactionBatchRepository;
+
+    @Mock
+    private DailyTotalsRepository dailyTotalsRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new TransactionRecorder(transactionRepository, transactionBatchRepository, dailyTotalsRepository,
+            transactionManager);
+    }
+
+    @Test
+    void successfulOperationsAreSummedPerAccountAndDayInLockOrder() {
+        List<Transaction> transactions = List.of(
+            transaction(20L, "WITHDRAWAL", "5.00", "SUCCESS", DAY),
+            transaction(10L, "DEPOSIT", "100.00", "SUCCESS", DAY.plusDays(1)),
+            transaction(10L, "DEPOSIT", "50.00", "SUCCESS", DAY),
+            transaction(10L, "deposit", "25.00", "SUCCESS", DAY),
+            transaction(10L, "WITHDRAWAL", "30.00", "SUCCESS", DAY),
+            transaction(10L, "DEPOSIT", "999.00", "BLOCKED", DAY),
+            transaction(20L, "WITHDRAWAL", "7.00", "FAILED", DAY));
+
+        recorder.insertAll(transactions);
+
+        InOrder inOrder = inOrder(transactionBatchRepository, dailyTotalsRepository);
+        inOrder.verify(transactionBatchRepository).insert(transactions);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TotalsDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        inOrder.verify(dailyTotalsRepository).upsert(deltas.capture());
+
+        List<TotalsDelta> upserted = deltas.getValue();
+        assertEquals(3, upserted.size());
+        assertEquals(List.of(10L, 10L, 20L), upserted.stream().map(TotalsDelta::bankAccountId).toList());
+        assertEquals(List.of(DAY, DAY.plusDays(1), DAY), upserted.stream().map(TotalsDelta::date).toList());
+
+        TotalsDelta first = upserted.get(0);
+        assertEquals(0, new BigDecimal("75.00").compareTo(first.depositAmount()));
+        assertEquals(2, first.depositCount());
+        assertEquals(0, new BigDecimal("30.00").compareTo(first.withdrawalAmount()));
+        assertEquals(1, first.withdrawalCount());
+        TotalsDelta other = upserted.get(2);
+        assertEquals(0, BigDecimal.ZERO.compareTo(other.depositAmount()));
+        assertEquals(0, other.depositCount());
+        assertEquals(0, new BigDecimal("5.00").compareTo(other.withdrawalAmount()));
+        assertEquals(1, other.withdrawalCount());
+    }
+
+    @Test
+    void blockedOperationIsStoredWithoutTotals() {
+        Transaction blocked = transaction(10L, "DEPOSIT", "999.00", "BLOCKED", DAY);
+        when(transactionRepository.saveAll(anyList())).thenReturn(List.of(blocked));
+
+        assertSame(blocked, recorder.save(blocked));
+
+        verify(dailyTotalsRepository).upsert(List.of());
+    }
+
+    private static Transaction transaction(Long bankAccountId, String type, String amount, String status, LocalDate day) {
+        return Transaction.builder()
+            .bankAccountId(bankAccountId)
+            .type(type)
+            .amount(new BigDecimal(amount))
+            .currency("RUB")
+            .status(status)
+            .createdAt(LocalDateTime.of(day, LocalTime.NOON))
+            .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.bank.common.dto.contracts.accounts;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NetWorthDTO {
+    private String currency;
+    private BigDecimal total;
+    private int bankAccountsCount;
+    private Instant ratesFetchedAt;
+}
@@ -0,0 +1,34 @@
+package com.bank.common.dto.contracts.accounts;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Moves money between two bank accounts of the same user in one local transaction of accounts-service.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OwnTransferRequest {
+    @NotBlank(message = "Username is required")
+    private String username;
+    @NotNull(message = "Source bank account is required")
+    private Long fromBankAccountId;
+    @NotNull(message = "Destination bank account is required")
+    private Long toBankAccountId;
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount;
+    /**
+     * Optional idempotency key of the whole transfer. Voiding it tells whether the transfer was applied.
+     */
+    private String operationId;
+}
@@ -0,0 +1,22 @@
+package com.bank.common.dto.contracts.accounts;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OwnTransferResponse {
+    private BankAccountDTO fromBankAccount;
+    private BankAccountDTO toBankAccount;
+    private BigDecimal amount;
+    /**
+     * Amount credited to the destination, in its currency.
+     */
+    private BigDecimal convertedAmount;
+}
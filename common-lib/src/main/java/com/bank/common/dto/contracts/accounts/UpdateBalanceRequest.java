@@ -17,4 +17,9 @@ public class UpdateBalanceRequest {
     private BigDecimal amount;
     @NotNull(message = "Operation is required")
     private BankOperation operation;
+    /**
+     * Optional idempotency key. An update whose key has been applied before is not applied again,
+     * and one whose key was voided is rejected.
+     */
+    private String operationId;
 }
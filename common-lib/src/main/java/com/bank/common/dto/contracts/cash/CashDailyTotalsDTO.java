@@ -0,0 +1,25 @@
+package com.bank.common.dto.contracts.cash;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Successful deposits and withdrawals of a bank account on one day, in the account's currency.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashDailyTotalsDTO {
+    private Long bankAccountId;
+    private LocalDate date;
+    private BigDecimal depositAmount;
+    private int depositCount;
+    private BigDecimal withdrawalAmount;
+    private int withdrawalCount;
+}
@@ -0,0 +1,27 @@
+package com.bank.common.dto.contracts.cash;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Successful deposits and withdrawals of a bank account in one month, with the days they happened on.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashMonthlySummaryDTO {
+    private Long bankAccountId;
+    private YearMonth month;
+    private BigDecimal depositAmount;
+    private int depositCount;
+    private BigDecimal withdrawalAmount;
+    private int withdrawalCount;
+    private List<CashDailyTotalsDTO> days;
+}
@@ -0,0 +1,23 @@
+package com.bank.common.dto.contracts.cash;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashTransactionDTO {
+    private Long id;
+    private Long bankAccountId;
+    private String type;
+    private BigDecimal amount;
+    private String currency;
+    private String status;
+    private LocalDateTime createdAt;
+}
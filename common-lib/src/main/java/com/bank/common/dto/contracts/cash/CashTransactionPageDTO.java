@@ -0,0 +1,20 @@
+package com.bank.common.dto.contracts.cash;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashTransactionPageDTO {
+    private List<CashTransactionDTO> items;
+    /**
+     * Opaque position of the last item; pass it back as {@code after} to get the next page, {@code null} on the last page.
+     */
+    private String nextCursor;
+}
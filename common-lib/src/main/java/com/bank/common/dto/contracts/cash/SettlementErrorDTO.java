@@ -0,0 +1,19 @@
+package com.bank.common.dto.contracts.cash;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A settlement file row that was not applied, by its line number in the file.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementErrorDTO {
+    private long line;
+    private String reference;
+    private String reason;
+}
@@ -0,0 +1,32 @@
+package com.bank.common.dto.contracts.cash;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of one run of a settlement file: rows read so far, deposits applied, rows already ingested by an
+ * earlier run of the same file, and rejected rows, the first of which are listed in {@code errors}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementImportDTO {
+    private Long id;
+    private String fileId;
+    private String status; // RUNNING, COMPLETED, FAILED
+    private long rowsRead;
+    private long rowsApplied;
+    private long rowsSkipped;
+    private long rowsFailed;
+    private double rowsPerSecond;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<SettlementErrorDTO> errors;
+}
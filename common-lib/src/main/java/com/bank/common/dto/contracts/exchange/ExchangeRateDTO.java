@@ -3,6 +3,7 @@ package com.bank.common.dto.contracts.exchange;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @Builder
@@ -12,4 +13,5 @@ public class ExchangeRateDTO {
     private String currency;
     private BigDecimal buyRate;
     private BigDecimal sellRate;
+    private LocalDateTime updatedAt;
 }
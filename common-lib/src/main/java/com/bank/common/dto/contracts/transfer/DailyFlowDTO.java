@@ -0,0 +1,22 @@
+package com.bank.common.dto.contracts.transfer;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Money that left and entered a bank account through completed transfers on one day, in the account's currency.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyFlowDTO {
+    private Long bankAccountId;
+    private LocalDate date;
+    private BigDecimal sentAmount;
+    private int sentCount;
+    private BigDecimal receivedAmount;
+    private int receivedCount;
+}
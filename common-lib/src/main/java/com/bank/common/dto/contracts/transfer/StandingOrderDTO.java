@@ -0,0 +1,27 @@
+package com.bank.common.dto.contracts.transfer;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrderDTO {
+    private Long id;
+    private Long fromBankAccountId;
+    private Long toBankAccountId;
+    private BigDecimal amount;
+    private String frequency;
+    private String status;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private LocalDateTime nextRunAt;
+    private int runCount;
+    private LocalDateTime lastRunAt;
+    private String lastStatus;
+    private Long lastTransferId;
+    private LocalDateTime createdAt;
+}
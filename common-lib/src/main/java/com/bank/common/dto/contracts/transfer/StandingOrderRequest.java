@@ -0,0 +1,33 @@
+package com.bank.common.dto.contracts.transfer;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrderRequest {
+    @NotNull(message = "{validation.transfer.from.required}")
+    private Long fromBankAccountId;
+
+    @NotNull(message = "{validation.standingOrder.to.required}")
+    private Long toBankAccountId;
+
+    @NotNull(message = "{validation.amount.required}")
+    @Positive(message = "{validation.amount.positive}")
+    private BigDecimal amount;
+
+    // ONCE, DAILY, WEEKLY or MONTHLY
+    @NotBlank(message = "{validation.standingOrder.frequency.required}")
+    private String frequency;
+
+    @NotNull(message = "{validation.standingOrder.startAt.required}")
+    private LocalDateTime startAt;
+
+    // Optional; no occurrence is run after this time
+    private LocalDateTime endAt;
+}
@@ -0,0 +1,23 @@
+package com.bank.common.dto.contracts.transfer;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferBatchDTO {
+    private Long id;
+    private Long fromBankAccountId;
+    private String status;
+    private int totalCount;
+    private int processedCount;
+    private int failedCount;
+    private BigDecimal totalAmount;
+    private String description;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
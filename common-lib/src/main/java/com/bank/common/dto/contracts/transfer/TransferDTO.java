@@ -0,0 +1,27 @@
+package com.bank.common.dto.contracts.transfer;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferDTO {
+    private Long id;
+    private Long fromBankAccountId;
+    private Long toBankAccountId;
+    private String recipientEmail;
+    private BigDecimal amount;
+    private String fromCurrency;
+    private String toCurrency;
+    private BigDecimal convertedAmount;
+    private Long rateVersion;
+    private String status;
+    private String stage;
+    private String description;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
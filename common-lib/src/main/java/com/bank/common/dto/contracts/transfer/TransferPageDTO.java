@@ -0,0 +1,17 @@
+package com.bank.common.dto.contracts.transfer;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferPageDTO {
+    private List<TransferDTO> items;
+    /**
+     * Opaque position of the last item; pass it back as {@code after} to get the next page, {@code null} on the last page.
+     */
+    private String nextCursor;
+}
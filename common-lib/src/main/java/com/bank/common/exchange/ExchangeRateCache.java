@@ -0,0 +1,89 @@
+package com.bank.common.exchange;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
+import com.bank.common.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Local copy of the exchange-service rate table so conversions happen in-process.
+ * The snapshot is swapped atomically on every successful {@link #refresh()}; on failure the
+ * previous one stays in use. With a maximum age, a snapshot older than that is refused rather
+ * than priced at arbitrarily old rates. Services register the cache and schedule its refresh.
+ */
+public class ExchangeRateCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRateCache.class);
+
+    private final Supplier<ApiResponse<List<ExchangeRateDTO>>> rates;
+    private final Duration maxAge;
+    private volatile ExchangeRatesSnapshot snapshot;
+
+    /**
+     * Cache that keeps serving the last snapshot for as long as exchange-service is unreachable.
+     */
+    public ExchangeRateCache(Supplier<ApiResponse<List<ExchangeRateDTO>>> rates) {
+        this(rates, null);
+    }
+
+    public ExchangeRateCache(Supplier<ApiResponse<List<ExchangeRateDTO>>> rates, Duration maxAge) {
+        this.rates = rates;
+        this.maxAge = maxAge;
+    }
+
+    public ExchangeRatesSnapshot current() {
+        ExchangeRatesSnapshot current = snapshot;
+        if (current == null || isOutdated(current)) {
+            // Cold start or a long outage: try once more before giving up
+            refresh();
+            current = snapshot;
+        }
+        if (current == null) {
+            throw new BusinessException("Exchange rates are not available yet");
+        }
+        if (isOutdated(current)) {
+            throw new BusinessException("Exchange rates are outdated, please try again later");
+        }
+        return current;
+    }
+
+    public void refresh() {
+        try {
+            ApiResponse<List<ExchangeRateDTO>> response = rates.get();
+            if (response == null || !response.isSuccess() || response.getData() == null) {
+                log.warn("Exchange rates refresh skipped: {}", response == null ? "empty response" : response.getMessage());
+                return;
+            }
+            snapshot = ExchangeRatesSnapshot.of(versionOf(response.getData()), response.getData(), Instant.now());
+            log.debug("Exchange rates snapshot {} loaded with {} currencies",
+                snapshot.getVersion(), response.getData().size());
+        } catch (Exception ex) {
+            log.warn("Exchange rates refresh failed, keeping previous snapshot: {}", ex.getMessage());
+        }
+    }
+
+    private boolean isOutdated(ExchangeRatesSnapshot current) {
+        return maxAge != null && current.age(Instant.now()).compareTo(maxAge) > 0;
+    }
+
+    /**
+     * The version is the time of the latest rate change in exchange-service, so every instance
+     * of every service records the same version for the same rate table.
+     */
+    private static long versionOf(List<ExchangeRateDTO> rates) {
+        return rates.stream()
+            .map(ExchangeRateDTO::getUpdatedAt)
+            .filter(Objects::nonNull)
+            .mapToLong(updatedAt -> updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli())
+            .max()
+            .orElse(0L);
+    }
+}
@@ -0,0 +1,99 @@
+package com.bank.common.exchange;
+
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
+import com.bank.common.exception.BusinessException;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable point-in-time copy of the exchange-service rate table.
+ * RUB is the base currency: foreign amounts are bought by the bank at the buy rate
+ * and sold at the sell rate, exactly as {@code ExchangeServiceImpl.convert} does.
+ */
+public final class ExchangeRatesSnapshot {
+
+    public static final String BASE_CURRENCY = "RUB";
+
+    private final long version;
+    private final Instant fetchedAt;
+    private final Map<String, ExchangeRateDTO> rates;
+
+    private ExchangeRatesSnapshot(long version, Instant fetchedAt, Map<String, ExchangeRateDTO> rates) {
+        this.version = version;
+        this.fetchedAt = fetchedAt;
+        this.rates = rates;
+    }
+
+    public static ExchangeRatesSnapshot of(long version, List<ExchangeRateDTO> rates, Instant fetchedAt) {
+        Map<String, ExchangeRateDTO> byCurrency = new HashMap<>();
+        for (ExchangeRateDTO rate : rates) {
+            byCurrency.put(rate.getCurrency(), rate);
+        }
+        return new ExchangeRatesSnapshot(version, fetchedAt, Map.copyOf(byCurrency));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public Duration age(Instant now) {
+        return Duration.between(fetchedAt, now);
+    }
+
+    public boolean supports(String currency) {
+        return BASE_CURRENCY.equals(currency) || rates.containsKey(currency);
+    }
+
+    /**
+     * Converts an amount into RUB at the bank's buy rate.
+     */
+    public BigDecimal toBase(BigDecimal amount, String currency) {
+        if (BASE_CURRENCY.equals(currency)) {
+            return amount;
+        }
+        return amount.multiply(rate(currency).getBuyRate());
+    }
+
+    /**
+     * Converts a RUB amount into the target currency at the bank's sell rate, keeping kopeck precision.
+     */
+    public BigDecimal fromBase(BigDecimal rubAmount, String currency) {
+        if (BASE_CURRENCY.equals(currency)) {
+            return rubAmount.setScale(2, RoundingMode.HALF_UP);
+        }
+        return rubAmount.divide(rate(currency).getSellRate(), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Same result as {@code POST /api/exchange/convert} would return for these rates.
+     */
+    public BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency) {
+        if (fromCurrency.equals(toCurrency)) {
+            return amount;
+        }
+        BigDecimal rubAmount = toBase(amount, fromCurrency);
+        if (!BASE_CURRENCY.equals(toCurrency)) {
+            return rubAmount.divide(rate(toCurrency).getSellRate(), new MathContext(2, RoundingMode.HALF_UP));
+        }
+        return rubAmount;
+    }
+
+    private ExchangeRateDTO rate(String currency) {
+        ExchangeRateDTO rate = rates.get(currency);
+        if (rate == null) {
+            throw new BusinessException("Exchange rate not found for " + currency);
+        }
+        return rate;
+    }
+}
@@ -30,6 +30,7 @@ public class ExchangeServiceImpl implements ExchangeService {
                 .currency(rate.getCurrency())
                 .buyRate(rate.getBuyRate())
                 .sellRate(rate.getSellRate())
+                .updatedAt(rate.getUpdatedAt())
                 .build())
             .collect(Collectors.toList());
     }
@@ -26,6 +26,12 @@ public class NotificationController {
         return ResponseEntity.ok(ApiResponse.success(null, "Notification sent"));
     }
 
+    @PostMapping("/send-batch")
+    public ResponseEntity<ApiResponse<Void>> sendNotifications(@RequestBody List<NotificationRequest> requests) {
+        notificationService.sendNotifications(requests);
+        return ResponseEntity.ok(ApiResponse.success(null, requests.size() + " notifications sent"));
+    }
+
     @GetMapping("/my")
     public ResponseEntity<ApiResponse<List<Notification>>> getMyNotifications(Authentication authentication) {
         String username = authentication.getName();
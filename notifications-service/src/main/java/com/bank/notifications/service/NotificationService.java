@@ -7,6 +7,7 @@ import java.util.List;
 
 public interface NotificationService {
     void sendNotification(NotificationRequest request);
+    void sendNotifications(List<NotificationRequest> requests);
     List<Notification> getUserNotifications(String username);
     void markAsRead(Long notificationId);
 }
@@ -25,19 +25,44 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     public void sendNotification(NotificationRequest request) {
         // Save notification to database
-        Notification notification = Notification.builder()
+        Notification notification = toNotification(request);
+
+        notificationRepository.save(notification);
+
+        deliver(notification);
+    }
+
+    /**
+     * Stores a batch in one transaction, then delivers each notification as {@link #sendNotification} would.
+     */
+    @Override
+    public void sendNotifications(List<NotificationRequest> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        List<Notification> notifications = requests.stream()
+            .map(this::toNotification)
+            .toList();
+
+        notificationRepository.saveAll(notifications);
+
+        notifications.forEach(this::deliver);
+    }
+
+    private Notification toNotification(NotificationRequest request) {
+        return Notification.builder()
             .username(request.getUsername())
             .message(request.getMessage())
             .type(request.getType() != null ? request.getType() : "INFO")
             .read(false)
             .build();
+    }
 
-        notificationRepository.save(notification);
-
+    private void deliver(Notification notification) {
         // Console notification (could be email, SMS, etc.)
         System.out.println("=== NOTIFICATION ===");
-        System.out.println("To: " + request.getUsername());
-        System.out.println("Message: " + request.getMessage());
+        System.out.println("To: " + notification.getUsername());
+        System.out.println("Message: " + notification.getMessage());
         System.out.println("Type: " + notification.getType());
         System.out.println("====================");
     }
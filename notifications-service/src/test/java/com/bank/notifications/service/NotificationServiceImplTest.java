@@ -0,0 +1,76 @@
+package com.bank.notifications.service;
+
+import com.bank.common.dto.contracts.notifications.NotificationRequest;
+import com.bank.notifications.entity.Notification;
+import com.bank.notifications.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceImplTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    private NotificationServiceImpl notificationService;
+
+    // Notifications are delivered to the console
+    private final ByteArrayOutputStream console = new ByteArrayOutputStream();
+    private PrintStream originalOut;
+
+    @BeforeEach
+    void setUp() {
+        notificationService = new NotificationServiceImpl(notificationRepository);
+        originalOut = System.out;
+        System.setOut(new PrintStream(console, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void testSendNotifications_BatchIsSavedOnceAndEveryEntryDelivered() {
+        notificationService.sendNotifications(List.of(
+            NotificationRequest.builder().username("alice").message("Transfer of 10 RUB completed").type("INFO").build(),
+            NotificationRequest.builder().username("bob").message("You received 10 RUB").build()));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> saved = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).saveAll(saved.capture());
+        verify(notificationRepository, never()).save(any());
+        assertEquals(List.of("alice", "bob"), saved.getValue().stream().map(Notification::getUsername).toList());
+        // A missing type defaults as it does for a single notification
+        assertEquals(List.of("INFO", "INFO"), saved.getValue().stream().map(Notification::getType).toList());
+        assertTrue(saved.getValue().stream().noneMatch(Notification::getRead));
+
+        String delivered = console.toString(StandardCharsets.UTF_8);
+        assertTrue(delivered.contains("To: alice"));
+        assertTrue(delivered.contains("Message: Transfer of 10 RUB completed"));
+        assertTrue(delivered.contains("To: bob"));
+        assertTrue(delivered.contains("Message: You received 10 RUB"));
+    }
+
+    @Test
+    void testSendNotifications_EmptyBatchDoesNothing() {
+        notificationService.sendNotifications(List.of());
+
+        verifyNoInteractions(notificationRepository);
+        assertEquals("", console.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,164 @@
+package com.bank.transfer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One local HTTP server standing in for the gateway, and through it for accounts, blocker, exchange
+ * and notifications, plus the token endpoint of the auth server. Each downstream answers after a
+ * delay drawn from its own {@link StubProfile} and fails the configured share of calls with 503.
+ * Requests are served on virtual threads, so the stubs never become the bottleneck themselves.
+ * <p>
+ * The accounts are synthetic: account {@code n} belongs to {@code user-((n + 1) / 2)}, odd accounts
+ * hold RUB and even ones USD, and every balance is large enough for any transfer. Balance updates
+ * are acknowledged without being applied.
+ */
+@Slf4j
+public class DownstreamStubs implements AutoCloseable {
+
+    static final String BALANCE = "1000000000.00";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String OK_EMPTY = "{\"success\":true}";
+
+    private final HttpServer server;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public DownstreamStubs(StubProfile accounts, StubProfile blocker, StubProfile exchange, StubProfile notifications)
+        throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/oauth2/token", http -> respond(http, 200,
+            "{\"access_token\":\"load-test\",\"token_type\":\"Bearer\",\"expires_in\":86400}"));
+        server.createContext("/api/accounts/", http -> serve(http, accounts, this::accounts));
+        server.createContext("/api/blocker/check", http -> serve(http, blocker,
+            (body, path) -> "{\"blocked\":false,\"reason\":\"Operation allowed\"}"));
+        server.createContext("/api/exchange/rates", http -> serve(http, exchange,
+            (body, path) -> "{\"success\":true,\"data\":[{\"currency\":\"USD\",\"buyRate\":88,\"sellRate\":90}]}"));
+        server.createContext("/api/notifications/", http -> serve(http, notifications, (body, path) -> OK_EMPTY));
+        server.start();
+        log.info("Downstream stubs listening on {}: accounts {}, blocker {}, exchange {}, notifications {}",
+            getBaseUrl(), accounts, blocker, exchange, notifications);
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    static String username(long bankAccountId) {
+        return "user-" + (bankAccountId + 1) / 2;
+    }
+
+    static String currency(long bankAccountId) {
+        return bankAccountId % 2 == 1 ? "RUB" : "USD";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void serve(HttpExchange exchange, StubProfile profile, StubHandler handler) throws IOException {
+        calls.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            long delay = profile.sampleDelayNanos(random);
+            if (delay > 0) {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+            if (profile.sampleFailure(random)) {
+                failures.incrementAndGet();
+                respond(exchange, 503, "{\"success\":false,\"message\":\"Stubbed failure\"}");
+                return;
+            }
+            respond(exchange, 200, handler.handle(body, exchange.getRequestURI().getPath()));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{\"success\":false,\"message\":\"Interrupted\"}");
+        } catch (RuntimeException ex) {
+            respond(exchange, 500, "{\"success\":false,\"message\":\"" + ex.getMessage() + "\"}");
+        }
+    }
+
+    private String accounts(String body, String path) throws IOException {
+        String operation = path.substring("/api/accounts/".length());
+        if (operation.equals("bank-accounts/update-balance")) {
+            return success(account(OBJECT_MAPPER.readTree(body).get("bankAccountId").asLong()));
+        }
+        if (operation.equals("bank-accounts/update-balances")) {
+            StringBuilder list = new StringBuilder("[");
+            for (JsonNode request : OBJECT_MAPPER.readTree(body)) {
+                list.append(list.length() > 1 ? "," : "").append(account(request.get("bankAccountId").asLong()));
+            }
+            return success(list.append(']').toString());
+        }
+        if (operation.equals("bank-accounts/lookup")) {
+            StringBuilder list = new StringBuilder("[");
+            for (JsonNode id : OBJECT_MAPPER.readTree(body)) {
+                list.append(list.length() > 1 ? "," : "").append(account(id.asLong()));
+            }
+            return success(list.append(']').toString());
+        }
+        if (operation.equals("bank-accounts/own-transfer")) {
+            JsonNode request = OBJECT_MAPPER.readTree(body);
+            return success("{\"fromBankAccount\":" + account(request.get("fromBankAccountId").asLong())
+                + ",\"toBankAccount\":" + account(request.get("toBankAccountId").asLong())
+                + ",\"amount\":" + request.get("amount").asText()
+                + ",\"convertedAmount\":" + request.get("amount").asText() + "}");
+        }
+        if (operation.startsWith("bank-accounts/operations/")) {
+            // A stubbed failure is never applied, so a voided operation was not applied either
+            return success("\"VOIDED\"");
+        }
+        if (operation.startsWith("bank-accounts/")) {
+            return success(account(Long.parseLong(operation.substring("bank-accounts/".length()))));
+        }
+        throw new IllegalArgumentException("Unsupported accounts call " + path);
+    }
+
+    private static String account(long id) {
+        return "{\"id\":" + id + ",\"currency\":\"" + currency(id) + "\",\"balance\":" + BALANCE
+            + ",\"accountUsername\":\"" + username(id) + "\"}";
+    }
+
+    private static String success(String data) {
+        return "{\"success\":true,\"data\":" + data + "}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StubHandler {
+        String handle(String body, String path) throws IOException;
+    }
+}
@@ -0,0 +1,114 @@
+package com.bank.transfer.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop driver: transfer {@code i} is due at {@code start + i / rate} and is sent at that
+ * moment whether or not earlier transfers have been answered, the way independent users arrive.
+ * A closed loop that waits for each response would slow down with the service and hide its queueing.
+ * <p>
+ * Only transfers due inside the measured period are counted; their latency is taken from the due
+ * time, so time lost before sending is included.
+ */
+@Slf4j
+class LoadGenerator {
+
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private final HttpClient client;
+    private final URI transfersUri;
+    private final LoadSettings settings;
+
+    LoadGenerator(HttpClient client, URI transfersUri, LoadSettings settings) {
+        this.client = client;
+        this.transfersUri = transfersUri;
+        this.settings = settings;
+    }
+
+    LoadReport run() throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+
+        Recorder latencies = new Recorder(3);
+        AtomicLong succeeded = new AtomicLong();
+        Map<String, AtomicLong> failures = new ConcurrentSkipListMap<>();
+        AtomicLong dropped = new AtomicLong();
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+
+        log.info("Sending {} transfers/s: {} s warm-up, {} s measured", settings.rate(),
+            settings.warmup().toSeconds(), settings.duration().toSeconds());
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            for (long wait; (wait = due - System.nanoTime()) > 0; ) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = due >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    dropped.incrementAndGet();
+                }
+                continue;
+            }
+            client.sendAsync(nextTransfer(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latencyNanos = System.nanoTime() - due;
+                    // Counted before the permit is returned, so the final drain sees every result
+                    if (measured && error == null && response.statusCode() == 200) {
+                        succeeded.incrementAndGet();
+                        latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+                    } else if (measured) {
+                        String reason = error != null ? error.getClass().getSimpleName() : "HTTP " + response.statusCode();
+                        failures.computeIfAbsent(reason, key -> new AtomicLong()).incrementAndGet();
+                    }
+                    inFlight.release();
+                });
+        }
+        if (!inFlight.tryAcquire(settings.maxInFlight(), DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Transfers still in flight {} s after the last one was sent", DRAIN_TIMEOUT_SECONDS);
+        }
+        Map<String, Long> failed = new TreeMap<>();
+        failures.forEach((reason, count) -> failed.put(reason, count.get()));
+        return new LoadReport(settings.rate(), settings.duration(), succeeded.get(), failed, dropped.get(),
+            latencies.getIntervalHistogram());
+    }
+
+    private HttpRequest nextTransfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int users = settings.users();
+        long user = 1 + random.nextInt(users);
+        long from = 2 * user - 1;
+        long to;
+        if (users == 1 || random.nextDouble() < settings.ownRatio()) {
+            // The same user's USD account, converted from RUB
+            to = 2 * user;
+        } else {
+            long other = 1 + (user + random.nextInt(users - 1)) % users;
+            to = 2 * other - 1;
+        }
+        String body = "{\"fromBankAccountId\":" + from + ",\"toBankAccountId\":" + to + ",\"amount\":10.00}";
+        return HttpRequest.newBuilder(transfersUri)
+            .header("Authorization", "Bearer " + DownstreamStubs.username(from))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.bank.transfer.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Locale;
+
+/**
+ * Outcome of a measured period. Latencies are those of the successful transfers and run from the
+ * moment a transfer was due to be sent, not from when it actually was, so a stall is charged to
+ * every transfer it delayed. Failures are counted per HTTP status or client error.
+ */
+public record LoadReport(int targetRate, Duration duration, long succeeded, Map<String, Long> failures,
+                         long dropped, Histogram latencyMicros) {
+
+    public long failed() {
+        return failures.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double throughput() {
+        return succeeded / (duration.toNanos() / 1e9);
+    }
+
+    public double percentileMs(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public String format() {
+        return String.format(Locale.ROOT, """
+                Target rate     %d/s over %d s
+                Succeeded       %d (%.1f/s)
+                Failed          %d%s
+                Dropped         %d
+                Latency p50     %.2f ms
+                Latency p99     %.2f ms
+                Latency p99.9   %.2f ms
+                Latency max     %.2f ms""",
+            targetRate, duration.toSeconds(), succeeded, throughput(), failed(), failures.isEmpty() ? "" : " " + failures, dropped,
+            percentileMs(50), percentileMs(99), percentileMs(99.9), latencyMicros.getMaxValue() / 1000.0);
+    }
+}
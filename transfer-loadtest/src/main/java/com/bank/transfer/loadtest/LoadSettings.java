@@ -0,0 +1,38 @@
+package com.bank.transfer.loadtest;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * What to run, read from {@code --name=value} arguments or system properties.
+ *
+ * @param rate          transfers started per second, whatever the response times
+ * @param duration      measured period
+ * @param warmup        period run before it and left out of the report
+ * @param users         number of synthetic users; each owns a RUB and a USD account
+ * @param ownRatio      share of transfers between the user's own accounts, which convert currency and skip the blocker
+ * @param maxInFlight   transfers in progress after which new ones are dropped and counted instead of sent
+ * @param accounts      accounts-service stub behaviour
+ * @param blocker       blocker-service stub behaviour
+ * @param exchange      exchange-service stub behaviour
+ * @param notifications notifications-service stub behaviour
+ */
+public record LoadSettings(int rate, Duration duration, Duration warmup, int users, double ownRatio,
+                           int maxInFlight, StubProfile accounts, StubProfile blocker, StubProfile exchange,
+                           StubProfile notifications) {
+
+    static LoadSettings from(Environment environment) {
+        return new LoadSettings(
+            environment.getProperty("load.rate", Integer.class, 200),
+            Duration.parse(environment.getProperty("load.duration", "PT60S")),
+            Duration.parse(environment.getProperty("load.warmup", "PT15S")),
+            environment.getProperty("load.users", Integer.class, 1000),
+            environment.getProperty("load.own-ratio", Double.class, 0.2),
+            environment.getProperty("load.max-in-flight", Integer.class, 10_000),
+            StubProfile.parse(environment.getProperty("load.stub.accounts", "5,40,0")),
+            StubProfile.parse(environment.getProperty("load.stub.blocker", "3,20,0")),
+            StubProfile.parse(environment.getProperty("load.stub.exchange", "3,20,0")),
+            StubProfile.parse(environment.getProperty("load.stub.notifications", "2,15,0")));
+    }
+}
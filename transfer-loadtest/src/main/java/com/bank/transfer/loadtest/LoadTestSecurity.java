@@ -0,0 +1,28 @@
+package com.bank.transfer.loadtest;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+
+/**
+ * Accepts the username itself as the bearer token, so no auth server is needed. Registered
+ * explicitly by the harness rather than component-scanned.
+ */
+class LoadTestSecurity {
+
+    @Bean
+    JwtDecoder loadTestJwtDecoder() {
+        return token -> {
+            Instant now = Instant.now();
+            return Jwt.withTokenValue(token)
+                .header("alg", "none")
+                .subject(token)
+                .claim("scope", "transfer.write transfer.read")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .build();
+        };
+    }
+}
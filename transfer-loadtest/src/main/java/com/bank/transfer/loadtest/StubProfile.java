@@ -0,0 +1,52 @@
+package com.bank.transfer.loadtest;
+
+import java.util.Random;
+
+/**
+ * Behaviour of one stubbed downstream service: a log-normal latency given by its median and 99th
+ * percentile, which gives the long right tail real services have, and the share of calls that fail.
+ *
+ * @param medianMs  median latency in milliseconds
+ * @param p99Ms     99th percentile latency in milliseconds, at least the median
+ * @param errorRate share of calls answered with HTTP 503, from 0 to 1
+ */
+public record StubProfile(double medianMs, double p99Ms, double errorRate) {
+
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    public StubProfile {
+        if (medianMs < 0 || p99Ms < medianMs || errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Invalid stub profile " + medianMs + "," + p99Ms + "," + errorRate);
+        }
+    }
+
+    /**
+     * Parses {@code median-ms,p99-ms,error-rate}, e.g. {@code 5,40,0.01}.
+     */
+    public static StubProfile parse(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Expected median-ms,p99-ms,error-rate but got " + value);
+        }
+        return new StubProfile(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+            Double.parseDouble(parts[2].trim()));
+    }
+
+    long sampleDelayNanos(Random random) {
+        if (medianMs == 0) {
+            return 0;
+        }
+        double sigma = Math.log(p99Ms / medianMs) / Z_99;
+        return (long) (medianMs * Math.exp(sigma * random.nextGaussian()) * 1_000_000);
+    }
+
+    boolean sampleFailure(Random random) {
+        return errorRate > 0 && random.nextDouble() < errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return "p50 " + medianMs + " ms, p99 " + p99Ms + " ms, errors " + errorRate;
+    }
+}
@@ -0,0 +1,89 @@
+package com.bank.transfer.loadtest;
+
+import com.bank.transfer.TransferApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures transfer-service capacity on one machine: starts stubs for every downstream service,
+ * boots transfer-service in-process against them with an in-memory database, drives open-loop
+ * transfer load over HTTP and prints throughput and latency percentiles.
+ * <p>
+ * Build with {@code mvn -pl transfer-loadtest -am package -DskipTests}, then run e.g.
+ * <pre>
+ * java -jar transfer-loadtest/target/transfer-loadtest-1.0.0.jar --load.rate=500 --load.duration=PT120S \
+ *     --load.stub.accounts=10,80,0.001
+ * </pre>
+ * Stub behaviour is given as {@code median-ms,p99-ms,error-rate}; see {@link LoadSettings} for all options.
+ */
+@Slf4j
+public final class TransferLoadTest {
+
+    private TransferLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        LoadReport report = run(LoadSettings.from(environment));
+        System.out.println(report.format());
+    }
+
+    static LoadReport run(LoadSettings settings) throws Exception {
+        try (DownstreamStubs stubs = new DownstreamStubs(settings.accounts(), settings.blocker(), settings.exchange(),
+                 settings.notifications());
+             ConfigurableApplicationContext context = startTransferService(stubs.getBaseUrl());
+             ExecutorService callbacks = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                 .version(HttpClient.Version.HTTP_1_1)
+                 .executor(callbacks)
+                 .build()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadReport report = new LoadGenerator(client, URI.create("http://127.0.0.1:" + port + "/api/transfers"),
+                settings).run();
+            log.info("Downstream stubs served {} calls, {} of them stubbed failures",
+                stubs.getCallCount(), stubs.getFailureCount());
+            return report;
+        }
+    }
+
+    private static ConfigurableApplicationContext startTransferService(String stubsUrl) {
+        // Command-line arguments take precedence over the service's own application.yml
+        return new SpringApplicationBuilder(TransferApplication.class, LoadTestSecurity.class)
+            .run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.cloud.discovery.client.simple.instances.gateway-service[0].uri=" + stubsUrl,
+                "--spring.security.oauth2.client.provider.transfer-service.token-uri=" + stubsUrl + "/oauth2/token",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.url=jdbc:h2:mem:transferload;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+                "--spring.flyway.enabled=false",
+                "--transfer.standing-orders.enabled=false",
+                "--transfer.recovery.enabled=false",
+                "--transfer.partitions.enabled=false",
+                "--transfer.daily-flows.enabled=false",
+                "--transfer.limits.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bank=WARN",
+                "--logging.level.com.bank.common.config.OAuth2FeignConfig=WARN",
+                "--logging.level.org.springframework.security.oauth2.client=WARN",
+                "--logging.level.feign=WARN",
+                "--logging.level.com.bank.transfer.loadtest=INFO");
+    }
+}
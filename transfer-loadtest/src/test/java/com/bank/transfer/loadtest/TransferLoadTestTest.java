@@ -0,0 +1,36 @@
+package com.bank.transfer.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A short, gentle run that checks the harness end to end: the service boots against the stubs,
+ * transfers go through over HTTP and the report adds up.
+ */
+class TransferLoadTestTest {
+
+    @Test
+    void shortRunReportsEveryTransfer() throws Exception {
+        StubProfile fast = new StubProfile(1, 5, 0);
+        LoadSettings settings = new LoadSettings(20, Duration.ofSeconds(2), Duration.ofSeconds(2), 10, 0.5, 1000,
+            fast, fast, fast, fast);
+
+        LoadReport report = TransferLoadTest.run(settings);
+
+        // Two seconds at 20/s; a cold service may still fail a few through its resilience limits
+        assertEquals(40, report.succeeded() + report.failed() + report.dropped());
+        assertTrue(report.succeeded() > 0);
+        assertTrue(report.percentileMs(50) > 0);
+        assertTrue(report.percentileMs(50) <= report.percentileMs(99));
+        assertTrue(report.percentileMs(99) <= report.percentileMs(99.9));
+    }
+
+    @Test
+    void stubProfileIsParsedFromMedianP99AndErrorRate() {
+        assertEquals(new StubProfile(5, 40, 0.01), StubProfile.parse("5, 40, 0.01"));
+        assertThrows(IllegalArgumentException.class, () -> StubProfile.parse("40,5,0"));
+    }
+}
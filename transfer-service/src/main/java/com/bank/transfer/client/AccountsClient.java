@@ -2,6 +2,8 @@ package com.bank.transfer.client;
 
 import com.bank.common.dto.ApiResponse;
 import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.OwnTransferRequest;
+import com.bank.common.dto.contracts.accounts.OwnTransferResponse;
 import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -26,4 +28,16 @@ public interface AccountsClient {
 
     @PostMapping("/api/accounts/bank-accounts/update-balance")
     ApiResponse<BankAccountDTO> updateBalance(@RequestBody UpdateBalanceRequest request);
+
+    @PostMapping("/api/accounts/bank-accounts/update-balances")
+    ApiResponse<List<BankAccountDTO>> updateBalances(@RequestBody List<UpdateBalanceRequest> requests);
+
+    @PostMapping("/api/accounts/bank-accounts/own-transfer")
+    ApiResponse<OwnTransferResponse> transferBetweenOwnAccounts(@RequestBody OwnTransferRequest request);
+
+    @PostMapping("/api/accounts/bank-accounts/operations/{operationId}/void")
+    ApiResponse<String> voidBalanceOperation(@PathVariable("operationId") String operationId);
+
+    @PostMapping("/api/accounts/bank-accounts/lookup")
+    ApiResponse<List<BankAccountDTO>> getBankAccountsByIds(@RequestBody List<Long> ids);
 }
@@ -2,6 +2,8 @@ package com.bank.transfer.client;
 
 import com.bank.common.dto.ApiResponse;
 import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.OwnTransferRequest;
+import com.bank.common.dto.contracts.accounts.OwnTransferResponse;
 import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -29,4 +31,29 @@ public class AccountsClientFallback implements AccountsClient {
         log.error("Fallback: Failed to update balance for account {}", request.getBankAccountId());
         return ApiResponse.error("Service unavailable");
     }
+
+    @Override
+    public ApiResponse<List<BankAccountDTO>> updateBalances(List<UpdateBalanceRequest> requests) {
+        log.error("Fallback: Failed to update {} balances", requests.size());
+        return ApiResponse.error("Service unavailable");
+    }
+
+    @Override
+    public ApiResponse<OwnTransferResponse> transferBetweenOwnAccounts(OwnTransferRequest request) {
+        log.error("Fallback: Failed to transfer between own accounts {} and {}", request.getFromBankAccountId(),
+            request.getToBankAccountId());
+        return ApiResponse.error("Service unavailable");
+    }
+
+    @Override
+    public ApiResponse<String> voidBalanceOperation(String operationId) {
+        log.error("Fallback: Failed to void balance operation {}", operationId);
+        return ApiResponse.error("Service unavailable");
+    }
+
+    @Override
+    public ApiResponse<List<BankAccountDTO>> getBankAccountsByIds(List<Long> ids) {
+        log.error("Fallback: Failed to get {} bank accounts", ids.size());
+        return ApiResponse.error("Service unavailable");
+    }
 }
@@ -2,6 +2,8 @@ package com.bank.transfer.client;
 
 import com.bank.common.dto.ApiResponse;
 import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.OwnTransferRequest;
+import com.bank.common.dto.contracts.accounts.OwnTransferResponse;
 import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.openfeign.FallbackFactory;
@@ -36,6 +38,31 @@ public class AccountsClientFallbackFactory implements FallbackFactory<AccountsCl
                     request.getBankAccountId(), cause.getMessage());
                 return ApiResponse.error("Service unavailable");
             }
+
+            @Override
+            public ApiResponse<List<BankAccountDTO>> updateBalances(List<UpdateBalanceRequest> requests) {
+                log.error("Fallback: Failed to update {} balances. Cause: {}", requests.size(), cause.getMessage());
+                return ApiResponse.error("Service unavailable");
+            }
+
+            @Override
+            public ApiResponse<OwnTransferResponse> transferBetweenOwnAccounts(OwnTransferRequest request) {
+                log.error("Fallback: Failed to transfer between own accounts {} and {}. Cause: {}",
+                    request.getFromBankAccountId(), request.getToBankAccountId(), cause.getMessage());
+                return ApiResponse.error("Service unavailable");
+            }
+
+            @Override
+            public ApiResponse<String> voidBalanceOperation(String operationId) {
+                log.error("Fallback: Failed to void balance operation {}. Cause: {}", operationId, cause.getMessage());
+                return ApiResponse.error("Service unavailable");
+            }
+
+            @Override
+            public ApiResponse<List<BankAccountDTO>> getBankAccountsByIds(List<Long> ids) {
+                log.error("Fallback: Failed to get {} bank accounts. Cause: {}", ids.size(), cause.getMessage());
+                return ApiResponse.error("Service unavailable");
+            }
         };
     }
 }
@@ -1,12 +1,11 @@
 package com.bank.transfer.client;
 
 import com.bank.common.dto.ApiResponse;
-import com.bank.common.dto.contracts.exchange.ConversionRequest;
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.GetMapping;
 
-import java.math.BigDecimal;
+import java.util.List;
 
 @FeignClient(
     name = "gateway-service",
@@ -15,6 +14,6 @@ import java.math.BigDecimal;
 )
 public interface ExchangeClient {
 
-    @PostMapping("/api/exchange/convert")
-    ApiResponse<BigDecimal> convert(@RequestBody ConversionRequest request);
+    @GetMapping("/api/exchange/rates")
+    ApiResponse<List<ExchangeRateDTO>> getRates();
 }
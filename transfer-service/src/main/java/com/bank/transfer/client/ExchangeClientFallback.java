@@ -1,20 +1,19 @@
 package com.bank.transfer.client;
 
 import com.bank.common.dto.ApiResponse;
-import com.bank.common.dto.contracts.exchange.ConversionRequest;
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
+import java.util.List;
 
 @Slf4j
 @Component
 public class ExchangeClientFallback implements ExchangeClient {
 
     @Override
-    public ApiResponse<BigDecimal> convert(ConversionRequest request) {
-        log.error("Exchange service is unavailable. Cannot perform currency conversion from {} to {}",
-            request.getFromCurrency(), request.getToCurrency());
+    public ApiResponse<List<ExchangeRateDTO>> getRates() {
+        log.error("Exchange service is unavailable. Cannot load exchange rates");
         return ApiResponse.error("Exchange service is unavailable. Please try again later.");
     }
 }
@@ -1,12 +1,12 @@
 package com.bank.transfer.client;
 
 import com.bank.common.dto.ApiResponse;
-import com.bank.common.dto.contracts.exchange.ConversionRequest;
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.openfeign.FallbackFactory;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -16,12 +16,10 @@ public class ExchangeClientFallbackFactory implements FallbackFactory<ExchangeCl
     public ExchangeClient create(Throwable cause) {
         return new ExchangeClient() {
             @Override
-            public ApiResponse<BigDecimal> convert(ConversionRequest request) {
-                log.error("Fallback: Failed to convert currency from {} to {}. Cause: {}",
-                    request.getFromCurrency(), request.getToCurrency(), cause.getMessage());
+            public ApiResponse<List<ExchangeRateDTO>> getRates() {
+                log.error("Fallback: Failed to load exchange rates. Cause: {}", cause.getMessage());
                 return ApiResponse.error("Exchange service unavailable");
             }
         };
     }
 }
-
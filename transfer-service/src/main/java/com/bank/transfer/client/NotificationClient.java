@@ -5,6 +5,8 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 @FeignClient(
     name = "gateway-service",
     contextId = "notificationClient",
@@ -14,4 +16,7 @@ public interface NotificationClient {
 
     @PostMapping("/api/notifications/send")
     void sendNotification(@RequestBody NotificationRequest request);
+
+    @PostMapping("/api/notifications/send-batch")
+    void sendNotifications(@RequestBody List<NotificationRequest> requests);
 }
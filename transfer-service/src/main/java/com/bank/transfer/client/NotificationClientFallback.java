@@ -4,6 +4,8 @@ import com.bank.common.dto.contracts.notifications.NotificationRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Slf4j
 @Component
 public class NotificationClientFallback implements NotificationClient {
@@ -13,4 +15,9 @@ public class NotificationClientFallback implements NotificationClient {
         log.warn("Notification service unavailable; user={}, message={}",
             request.getUsername(), request.getMessage());
     }
+
+    @Override
+    public void sendNotifications(List<NotificationRequest> requests) {
+        log.warn("Notification service unavailable; {} notifications not sent", requests.size());
+    }
 }
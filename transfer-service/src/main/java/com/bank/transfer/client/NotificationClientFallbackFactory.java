@@ -5,14 +5,26 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.openfeign.FallbackFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Slf4j
 @Component
 public class NotificationClientFallbackFactory implements FallbackFactory<NotificationClient> {
 
     @Override
     public NotificationClient create(Throwable cause) {
-        return request -> log.error("Fallback: Failed to send notification to {}. Cause: {}",
-            request.getUsername(), cause.getMessage());
+        return new NotificationClient() {
+            @Override
+            public void sendNotification(NotificationRequest request) {
+                log.error("Fallback: Failed to send notification to {}. Cause: {}",
+                    request.getUsername(), cause.getMessage());
+            }
+
+            @Override
+            public void sendNotifications(List<NotificationRequest> requests) {
+                log.error("Fallback: Failed to send {} notifications. Cause: {}", requests.size(), cause.getMessage());
+            }
+        };
     }
 }
 
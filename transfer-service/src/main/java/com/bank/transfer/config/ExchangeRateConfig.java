@@ -0,0 +1,41 @@
+package com.bank.transfer.config;
+
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.transfer.client.ExchangeClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+
+@Configuration
+public class ExchangeRateConfig implements SchedulingConfigurer {
+
+    private final ExchangeClient exchangeClient;
+    private final Duration maxAge;
+    private final Duration refreshInterval;
+
+    public ExchangeRateConfig(ExchangeClient exchangeClient,
+        @Value("${transfer.exchange-rates.max-age-ms:30000}") long maxAgeMs,
+        @Value("${transfer.exchange-rates.refresh-interval-ms:1000}") long refreshIntervalMs) {
+        this.exchangeClient = exchangeClient;
+        this.maxAge = Duration.ofMillis(maxAgeMs);
+        this.refreshInterval = Duration.ofMillis(refreshIntervalMs);
+    }
+
+    /**
+     * Rates used by cross-currency transfers. When exchange-service is down the last snapshot is
+     * used until it is older than {@code transfer.exchange-rates.max-age-ms}.
+     */
+    @Bean
+    public ExchangeRateCache exchangeRateCache() {
+        return new ExchangeRateCache(exchangeClient::getRates, maxAge);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(exchangeRateCache()::refresh, refreshInterval);
+    }
+}
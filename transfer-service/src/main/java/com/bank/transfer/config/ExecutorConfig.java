@@ -0,0 +1,49 @@
+package com.bank.transfer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Virtual threads for the remote calls a transfer fans out to. The security context is
+     * propagated so that Feign still sends the caller's name with the client token.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService transferLookupExecutor() {
+        return new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Virtual threads that drain the per-source-account mailboxes, one thread per busy account.
+     * Each task carries the security context of its submitter itself.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService transferMailboxExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Bounded pool that drives transfer batches. When both the workers and the queue are
+     * busy new submissions are rejected instead of piling up in memory.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService transferWorkerExecutor(
+        @Value("${transfer.async.workers:16}") int workers,
+        @Value("${transfer.async.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("transfer-worker-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        return new DelegatingSecurityContextExecutorService(pool);
+    }
+}
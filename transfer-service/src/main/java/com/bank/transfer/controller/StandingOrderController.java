@@ -0,0 +1,56 @@
+package com.bank.transfer.controller;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.transfer.StandingOrderDTO;
+import com.bank.common.dto.contracts.transfer.StandingOrderRequest;
+import com.bank.transfer.service.StandingOrderService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/transfers/standing-orders")
+@Slf4j
+public class StandingOrderController {
+
+    private final StandingOrderService standingOrderService;
+
+    public StandingOrderController(StandingOrderService standingOrderService) {
+        this.standingOrderService = standingOrderService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<StandingOrderDTO>> createStandingOrder(@Valid @RequestBody StandingOrderRequest request) {
+        StandingOrderDTO order = standingOrderService.createStandingOrder(request, resolveUsername());
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(ApiResponse.success(order, "Standing order created"));
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<StandingOrderDTO>>> getStandingOrders() {
+        return ResponseEntity.ok(ApiResponse.success(standingOrderService.getStandingOrders(resolveUsername())));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<StandingOrderDTO>> cancelStandingOrder(@PathVariable("id") Long id) {
+        StandingOrderDTO order = standingOrderService.cancelStandingOrder(id, resolveUsername());
+        return ResponseEntity.ok(ApiResponse.success(order, "Standing order cancelled"));
+    }
+
+    private String resolveUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            log.warn("resolveUsername: missing authentication {}", authentication);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User is not authenticated");
+        }
+        return authentication.getName();
+    }
+}
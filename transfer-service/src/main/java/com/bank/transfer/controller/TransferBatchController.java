@@ -0,0 +1,57 @@
+package com.bank.transfer.controller;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.transfer.TransferBatchDTO;
+import com.bank.transfer.service.TransferBatchService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/transfers/batches")
+@Slf4j
+public class TransferBatchController {
+
+    private final TransferBatchService transferBatchService;
+
+    public TransferBatchController(TransferBatchService transferBatchService) {
+        this.transferBatchService = transferBatchService;
+    }
+
+    /**
+     * Accepts a JSON array or a CSV file ({@code text/csv}) of {@code toBankAccountId, amount} rows.
+     * The body is read as a stream so large payrolls are never held as one request object.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<TransferBatchDTO>> submitBatch(
+        @RequestParam("fromBankAccountId") Long fromBankAccountId,
+        HttpServletRequest request) throws IOException {
+        TransferBatchDTO batch = transferBatchService.submitBatch(
+            fromBankAccountId, request.getInputStream(), request.getContentType(), resolveUsername());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(ApiResponse.success(batch, "Batch accepted"));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<TransferBatchDTO>> getBatch(@PathVariable("id") Long id) {
+        TransferBatchDTO batch = transferBatchService.getBatch(id, resolveUsername());
+        return ResponseEntity.ok(ApiResponse.success(batch));
+    }
+
+    private String resolveUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            log.warn("resolveUsername: missing authentication {}", authentication);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User is not authenticated");
+        }
+        return authentication.getName();
+    }
+}
@@ -1,36 +1,107 @@
 package com.bank.transfer.controller;
 
+import com.bank.common.dto.contracts.transfer.DailyFlowDTO;
+import com.bank.common.dto.contracts.transfer.TransferDTO;
+import com.bank.common.dto.contracts.transfer.TransferPageDTO;
 import com.bank.common.dto.contracts.transfer.TransferRequest;
 import com.bank.common.dto.contracts.transfer.TransferResponse;
+import com.bank.transfer.service.TransferEventRegistry;
 import com.bank.transfer.service.TransferService;
+import com.bank.transfer.service.TransferTimings;
 import com.bank.common.dto.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/transfers")
 @Slf4j
 public class TransferController {
 
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+
     private final TransferService transferService;
+    private final TransferEventRegistry eventRegistry;
+    private final boolean timingHeader;
 
-    public TransferController(TransferService transferService) {
+    public TransferController(TransferService transferService, TransferEventRegistry eventRegistry,
+        @Value("${transfer.timings.debug-header:false}") boolean timingHeader) {
         this.transferService = transferService;
+        this.eventRegistry = eventRegistry;
+        this.timingHeader = timingHeader;
     }
 
     @PostMapping
     public ResponseEntity<ApiResponse<TransferResponse>> transfer(
-        @Valid @RequestBody TransferRequest request) {
+        @Valid @RequestBody TransferRequest request,
+        @RequestParam(value = "async", defaultValue = "false") boolean async,
+        HttpServletResponse servletResponse) {
         String username = resolveUsername();
-        TransferResponse response = transferService.processTransfer(request, username);
-        return ResponseEntity.ok(ApiResponse.success(response, "Transfer completed"));
+        if (async) {
+            TransferResponse response = transferService.submitTransfer(request, username);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(response, "Transfer accepted"));
+        }
+        TransferTimings timings = new TransferTimings();
+        try {
+            TransferResponse response = transferService.processTransfer(request, username, timings);
+            return ResponseEntity.ok(ApiResponse.success(response, "Transfer completed"));
+        } finally {
+            if (timingHeader) {
+                // Debugging aid: per-stage durations in a header browser dev tools already understand.
+                // Set before the exception handler writes its response, so failed transfers carry it too.
+                servletResponse.setHeader(SERVER_TIMING_HEADER, timings.toServerTiming());
+            }
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<TransferPageDTO>> getHistory(
+        @RequestParam("bankAccountId") Long bankAccountId,
+        @RequestParam(value = "after", required = false) String after,
+        @RequestParam(value = "size", defaultValue = "20") int size) {
+        TransferPageDTO page = transferService.getHistory(bankAccountId, after, size, resolveUsername());
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    /**
+     * Daily totals sent and received by the account, for dashboards and limits.
+     */
+    @GetMapping("/flows")
+    public ResponseEntity<ApiResponse<List<DailyFlowDTO>>> getDailyFlows(
+        @RequestParam("bankAccountId") Long bankAccountId,
+        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<DailyFlowDTO> flows = transferService.getDailyFlows(bankAccountId, from, to, resolveUsername());
+        return ResponseEntity.ok(ApiResponse.success(flows));
+    }
+
+    /**
+     * Server-sent events with the new state of the user's transfers as they are stored.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return eventRegistry.subscribe(resolveUsername());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<TransferDTO>> getTransfer(@PathVariable("id") Long id) {
+        TransferDTO transfer = transferService.getTransfer(id, resolveUsername());
+        return ResponseEntity.ok(ApiResponse.success(transfer));
     }
 
     private String resolveUsername() {
@@ -0,0 +1,72 @@
+package com.bank.transfer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "standing_orders", schema = "transfer")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private Long fromBankAccountId;
+
+    @Column(nullable = false)
+    private Long toBankAccountId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StandingOrderFrequency frequency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StandingOrderStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime startAt;
+
+    private LocalDateTime endAt;
+
+    // Due time of the next occurrence; advanced when an occurrence is claimed
+    @Column(nullable = false)
+    private LocalDateTime nextRunAt;
+
+    private int runCount;
+
+    private LocalDateTime lastRunAt;
+
+    private String lastStatus;
+
+    private Long lastTransferId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
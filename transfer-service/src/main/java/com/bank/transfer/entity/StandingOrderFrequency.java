@@ -0,0 +1,23 @@
+package com.bank.transfer.entity;
+
+import java.time.LocalDateTime;
+
+public enum StandingOrderFrequency {
+    ONCE,
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    /**
+     * Due time of occurrence {@code n} (zero-based), or {@code null} if there is none. Occurrences
+     * are counted from the start so a monthly order on the 31st returns to the 31st after February.
+     */
+    public LocalDateTime occurrence(LocalDateTime startAt, int n) {
+        return switch (this) {
+            case ONCE -> n == 0 ? startAt : null;
+            case DAILY -> startAt.plusDays(n);
+            case WEEKLY -> startAt.plusWeeks(n);
+            case MONTHLY -> startAt.plusMonths(n);
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package com.bank.transfer.entity;
+
+public enum StandingOrderStatus {
+    ACTIVE,
+    COMPLETED,
+    CANCELLED
+}
@@ -8,6 +8,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "transfers", schema = "transfer")
+@EntityListeners(TransferEventListener.class)
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,30 +21,55 @@ public class Transfer {
     @Column(nullable = false)
     private Long fromBankAccountId;
 
-    @Column(nullable = false)
     private Long toBankAccountId;
 
+    private String recipientEmail;
+
+    private String username;
+
     @Column(nullable = false)
     private BigDecimal amount;
 
-    @Column(nullable = false)
     private String fromCurrency;
 
-    @Column(nullable = false)
     private String toCurrency;
 
     private BigDecimal convertedAmount;
 
+    private Long rateVersion;
+
+    /**
+     * Idempotency key of the netted posting that settles this transfer; null for transfers posted on their own.
+     */
+    private String settlementRef;
+
+    /**
+     * Batch this transfer is a leg of; null for transfers made on their own.
+     */
+    @Column(updatable = false)
+    private Long batchId;
+
     @Column(nullable = false)
     private String status;
 
+    @Enumerated(EnumType.STRING)
+    private TransferStage stage;
+
     private String description;
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    private LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 }
@@ -0,0 +1,59 @@
+package com.bank.transfer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "transfer_batches", schema = "transfer")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferBatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private Long fromBankAccountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransferBatchStatus status;
+
+    @Column(nullable = false)
+    private int totalCount;
+
+    @Column(nullable = false)
+    private int processedCount;
+
+    @Column(nullable = false)
+    private int failedCount;
+
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+
+    private String description;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,9 @@
+package com.bank.transfer.entity;
+
+public enum TransferBatchStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED,
+    BLOCKED
+}
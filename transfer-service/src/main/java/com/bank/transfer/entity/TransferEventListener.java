@@ -0,0 +1,41 @@
+package com.bank.transfer.entity;
+
+import com.bank.transfer.service.TransferEventRegistry;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Publishes every stored state of a {@link Transfer} to the user's event stream once it is
+ * committed. Legs of a batch are written with JDBC and not streamed; a batch reports its progress
+ * as a whole.
+ */
+public class TransferEventListener {
+
+    private final ObjectProvider<TransferEventRegistry> registry;
+
+    public TransferEventListener(ObjectProvider<TransferEventRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onSaved(Transfer transfer) {
+        TransferEventRegistry eventRegistry = registry.getIfAvailable();
+        if (eventRegistry == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventRegistry.publish(transfer);
+                }
+            });
+        } else {
+            eventRegistry.publish(transfer);
+        }
+    }
+}
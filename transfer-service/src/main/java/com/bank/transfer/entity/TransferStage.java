@@ -0,0 +1,12 @@
+package com.bank.transfer.entity;
+
+/**
+ * Last saga step a transfer has completed.
+ */
+public enum TransferStage {
+    ACCEPTED,
+    VALIDATED,
+    DEBITED,
+    CREDITED,
+    COMPLETED
+}
@@ -0,0 +1,86 @@
+package com.bank.transfer.repository;
+
+import com.bank.common.dto.contracts.transfer.DailyFlowDTO;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to {@code transfer.account_daily_flows}. Deltas are added with one batched
+ * {@code INSERT ... ON CONFLICT DO UPDATE}, so a day's row is created by its first transfer and
+ * incremented in place afterwards.
+ */
+@Repository
+public class DailyFlowRepository {
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO transfer.account_daily_flows
+            (bank_account_id, flow_date, sent_amount, sent_count, received_amount, received_count)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON CONFLICT (bank_account_id, flow_date) DO UPDATE SET
+            sent_amount = account_daily_flows.sent_amount + EXCLUDED.sent_amount,
+            sent_count = account_daily_flows.sent_count + EXCLUDED.sent_count,
+            received_amount = account_daily_flows.received_amount + EXCLUDED.received_amount,
+            received_count = account_daily_flows.received_count + EXCLUDED.received_count
+        """;
+
+    private static final String RANGE_SQL = """
+        SELECT bank_account_id, flow_date, sent_amount, sent_count, received_amount, received_count
+        FROM transfer.account_daily_flows
+        WHERE bank_account_id = :bankAccountId AND flow_date BETWEEN :from AND :to
+        ORDER BY flow_date
+        """;
+
+    private static final RowMapper<DailyFlowDTO> ROW_MAPPER = (rs, rowNum) -> DailyFlowDTO.builder()
+        .bankAccountId(rs.getLong("bank_account_id"))
+        .date(rs.getObject("flow_date", LocalDate.class))
+        .sentAmount(rs.getBigDecimal("sent_amount"))
+        .sentCount(rs.getInt("sent_count"))
+        .receivedAmount(rs.getBigDecimal("received_amount"))
+        .receivedCount(rs.getInt("received_count"))
+        .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public DailyFlowRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the deltas to their rows. Callers pass them sorted by account and day, so concurrent
+     * transactions lock shared rows in the same order and cannot deadlock on them.
+     */
+    public void upsert(List<FlowDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (FlowDelta delta : deltas) {
+            rows.add(new Object[]{delta.bankAccountId(), Date.valueOf(delta.date()), delta.sentAmount(),
+                delta.sentCount(), delta.receivedAmount(), delta.receivedCount()});
+        }
+        jdbcTemplate.getJdbcOperations().batchUpdate(UPSERT_SQL, rows);
+    }
+
+    /**
+     * Days of the account with completed transfers between {@code from} and {@code to}, inclusive, oldest first.
+     */
+    public List<DailyFlowDTO> findRange(Long bankAccountId, LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("bankAccountId", bankAccountId)
+            .addValue("from", Date.valueOf(from))
+            .addValue("to", Date.valueOf(to));
+        return jdbcTemplate.query(RANGE_SQL, params, ROW_MAPPER);
+    }
+
+    public record FlowDelta(long bankAccountId, LocalDate date, BigDecimal sentAmount, int sentCount,
+                            BigDecimal receivedAmount, int receivedCount) {
+    }
+}
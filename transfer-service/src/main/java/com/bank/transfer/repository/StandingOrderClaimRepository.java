@@ -0,0 +1,168 @@
+package com.bank.transfer.repository;
+
+import com.bank.transfer.entity.StandingOrderFrequency;
+import com.bank.transfer.entity.StandingOrderStatus;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access used by the standing-order scheduler. Loading reads only {@code (id, next_run_at)}
+ * from the due-time index. Claiming locks due rows with {@code FOR UPDATE SKIP LOCKED} and moves
+ * each of them to its next occurrence in the same short transaction, so an occurrence is handed
+ * to exactly one instance and is never run again, even if that instance dies while running it.
+ */
+@Repository
+public class StandingOrderClaimRepository {
+
+    private static final String DUE_SQL = """
+        SELECT id, next_run_at FROM transfer.standing_orders
+        WHERE status = 'ACTIVE' AND next_run_at > :from AND next_run_at <= :until
+        ORDER BY next_run_at, id
+        """;
+
+    private static final String OVERDUE_SQL = """
+        SELECT id, next_run_at FROM transfer.standing_orders
+        WHERE status = 'ACTIVE' AND next_run_at <= :before
+        ORDER BY next_run_at, id
+        LIMIT :limit
+        """;
+
+    private static final String LOCK_SQL = """
+        SELECT id, username, from_bank_account_id, to_bank_account_id, amount, frequency, start_at, end_at,
+            next_run_at, run_count
+        FROM transfer.standing_orders
+        WHERE id IN (:ids) AND status = 'ACTIVE' AND next_run_at <= :now
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String ADVANCE_SQL = """
+        UPDATE transfer.standing_orders
+        SET next_run_at = :nextRunAt, status = :status, run_count = run_count + 1, last_run_at = :now,
+            updated_at = :now
+        WHERE id = :id
+        """;
+
+    private static final String RESULT_SQL = """
+        UPDATE transfer.standing_orders
+        SET last_status = :lastStatus, last_transfer_id = :lastTransferId, updated_at = :now
+        WHERE id = :id
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public StandingOrderClaimRepository(NamedParameterJdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Streams the active orders due in {@code (from, until]} to the handler without materialising them.
+     */
+    public void forEachDue(LocalDateTime from, LocalDateTime until, DueHandler handler) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("from", from)
+            .addValue("until", until);
+        jdbcTemplate.query(DUE_SQL, params,
+            (RowCallbackHandler) rs -> handler.due(rs.getLong("id"), rs.getTimestamp("next_run_at").toLocalDateTime()));
+    }
+
+    public void forEachOverdue(LocalDateTime before, int limit, DueHandler handler) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("before", before)
+            .addValue("limit", limit);
+        jdbcTemplate.query(OVERDUE_SQL, params,
+            (RowCallbackHandler) rs -> handler.due(rs.getLong("id"), rs.getTimestamp("next_run_at").toLocalDateTime()));
+    }
+
+    /**
+     * Claims those of {@code ids} that are still due and not locked by another instance. Each
+     * claimed order is advanced to its next occurrence (or completed) before the claim commits.
+     */
+    public List<ClaimedOrder> claim(long[] ids, int count, LocalDateTime now) {
+        List<Long> idList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            idList.add(ids[i]);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("ids", idList)
+            .addValue("now", now);
+        return transactionTemplate.execute(status -> {
+            List<ClaimedOrder> claimed = jdbcTemplate.query(LOCK_SQL, params, (rs, rowNum) -> new ClaimedOrder(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getLong("from_bank_account_id"),
+                rs.getLong("to_bank_account_id"),
+                rs.getBigDecimal("amount"),
+                StandingOrderFrequency.valueOf(rs.getString("frequency")),
+                rs.getTimestamp("start_at").toLocalDateTime(),
+                toLocalDateTime(rs.getTimestamp("end_at")),
+                rs.getTimestamp("next_run_at").toLocalDateTime(),
+                rs.getInt("run_count")));
+            if (claimed.isEmpty()) {
+                return claimed;
+            }
+            MapSqlParameterSource[] updates = new MapSqlParameterSource[claimed.size()];
+            for (int i = 0; i < claimed.size(); i++) {
+                ClaimedOrder order = claimed.get(i);
+                LocalDateTime next = order.nextOccurrence(now);
+                updates[i] = new MapSqlParameterSource()
+                    .addValue("id", order.id())
+                    .addValue("nextRunAt", next != null ? next : order.dueAt())
+                    .addValue("status", (next != null ? StandingOrderStatus.ACTIVE : StandingOrderStatus.COMPLETED).name())
+                    .addValue("now", now);
+            }
+            jdbcTemplate.batchUpdate(ADVANCE_SQL, updates);
+            return claimed;
+        });
+    }
+
+    public void recordResult(long id, String lastStatus, Long lastTransferId) {
+        jdbcTemplate.update(RESULT_SQL, new MapSqlParameterSource()
+            .addValue("id", id)
+            .addValue("lastStatus", lastStatus)
+            .addValue("lastTransferId", lastTransferId)
+            .addValue("now", LocalDateTime.now()));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    @FunctionalInterface
+    public interface DueHandler {
+        void due(long id, LocalDateTime dueAt);
+    }
+
+    public record ClaimedOrder(long id, String username, long fromBankAccountId, long toBankAccountId,
+                               BigDecimal amount, StandingOrderFrequency frequency, LocalDateTime startAt,
+                               LocalDateTime endAt, LocalDateTime dueAt, int runCount) {
+
+        /**
+         * First occurrence after the one being claimed that is still in the future. Occurrences
+         * missed while nothing was running are skipped rather than replayed in a burst.
+         */
+        public LocalDateTime nextOccurrence(LocalDateTime now) {
+            int n = runCount + 1;
+            LocalDateTime next = frequency.occurrence(startAt, n);
+            while (next != null && !next.isAfter(now)) {
+                next = frequency.occurrence(startAt, ++n);
+            }
+            if (next == null || (endAt != null && next.isAfter(endAt))) {
+                return null;
+            }
+            return next;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.bank.transfer.repository;
+
+import com.bank.transfer.entity.StandingOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+    List<StandingOrder> findByUsernameOrderByIdDesc(String username);
+}
@@ -0,0 +1,136 @@
+package com.bank.transfer.repository;
+
+import com.bank.transfer.entity.TransferStage;
+import com.bank.transfer.service.TransferBatchItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to the transfers that make up a batch. Legs are written and updated with JDBC
+ * batches because a payroll has tens of thousands of them and identity keys rule out
+ * Hibernate insert batching.
+ */
+@Repository
+public class TransferBatchLegRepository {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO transfer.transfers (batch_id, username, from_bank_account_id, to_bank_account_id, amount,
+            status, stage, description, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, 'PENDING', 'ACCEPTED', 'Transfer accepted', ?, ?)
+        """;
+
+    private static final String JOURNAL_SQL = """
+        UPDATE transfer.transfers
+        SET stage = ?, settlement_ref = ?, from_currency = ?, to_currency = ?,
+            converted_amount = ROUND(amount * ?, 2), rate_version = ?, updated_at = ?
+        WHERE batch_id = ? AND to_bank_account_id = ? AND status = 'PENDING'
+        """;
+
+    private static final String SETTLE_SQL = """
+        UPDATE transfer.transfers SET status = ?, stage = ?, description = ?, updated_at = ?
+        WHERE batch_id = ? AND to_bank_account_id = ? AND status = 'PENDING'
+        """;
+
+    private static final String FAIL_DESTINATION_SQL = """
+        UPDATE transfer.transfers SET status = ?, description = ?, updated_at = ?
+        WHERE batch_id = ? AND to_bank_account_id = ? AND status = 'PENDING'
+        """;
+
+    private static final String FAIL_ALL_SQL = """
+        UPDATE transfer.transfers SET status = ?, description = ?, updated_at = ?
+        WHERE batch_id = ? AND status = 'PENDING' AND settlement_ref IS NULL
+        """;
+
+    private static final String COUNT_BY_STATUS_SQL = """
+        SELECT status, COUNT(*) AS legs FROM transfer.transfers WHERE batch_id = ? GROUP BY status
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransferBatchLegRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertPending(long batchId, String username, long fromBankAccountId, List<TransferBatchItem> items) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(Math.min(items.size(), INSERT_BATCH_SIZE));
+        for (TransferBatchItem item : items) {
+            rows.add(new Object[]{batchId, username, fromBankAccountId, item.toBankAccountId(), item.amount(), now, now});
+            if (rows.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    /**
+     * Journals the pending legs to each destination before their chunk is posted: the chunk's
+     * {@code settlementRef} and the pricing. {@code rates} holds the factor that turns a leg amount
+     * into the destination currency, aligned with {@code destinations}; {@code rateVersion} is the
+     * rate snapshot they were priced with, or null if none was needed. From here on only the
+     * reference can tell whether the legs went through, so they are no longer failed in bulk.
+     */
+    public void journal(long batchId, List<Long> destinations, String settlementRef, List<String> toCurrencies,
+        List<BigDecimal> rates, String fromCurrency, Long rateVersion) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(destinations.size());
+        for (int i = 0; i < destinations.size(); i++) {
+            rows.add(new Object[]{TransferStage.VALIDATED.name(), settlementRef, fromCurrency, toCurrencies.get(i),
+                rates.get(i), rateVersion, now, batchId, destinations.get(i)});
+        }
+        jdbcTemplate.batchUpdate(JOURNAL_SQL, rows);
+    }
+
+    /**
+     * Marks the pending legs to each destination as completed.
+     */
+    public void settle(long batchId, List<Long> destinations) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(destinations.size());
+        for (Long destination : destinations) {
+            rows.add(new Object[]{"SUCCESS", TransferStage.COMPLETED.name(), "Transfer completed successfully",
+                now, batchId, destination});
+        }
+        jdbcTemplate.batchUpdate(SETTLE_SQL, rows);
+    }
+
+    public void fail(long batchId, List<Long> destinations, String status, String reason) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(destinations.size());
+        for (Long destination : destinations) {
+            rows.add(new Object[]{status, reason, now, batchId, destination});
+        }
+        jdbcTemplate.batchUpdate(FAIL_DESTINATION_SQL, rows);
+    }
+
+    /**
+     * Fails every pending leg of the batch that was never journaled for posting.
+     */
+    public void failAll(long batchId, String status, String reason) {
+        jdbcTemplate.update(FAIL_ALL_SQL, status, reason, Timestamp.valueOf(LocalDateTime.now()), batchId);
+    }
+
+    /**
+     * Number of legs of the batch in each status.
+     */
+    public Map<String, Integer> countByStatus(long batchId) {
+        Map<String, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(COUNT_BY_STATUS_SQL, rs -> {
+            counts.put(rs.getString("status"), rs.getInt("legs"));
+        }, batchId);
+        return counts;
+    }
+}
@@ -0,0 +1,19 @@
+package com.bank.transfer.repository;
+
+import com.bank.transfer.entity.TransferBatch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TransferBatchRepository extends JpaRepository<TransferBatch, Long> {
+
+    // Serialises progress updates from recovery runs on different instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM TransferBatch b WHERE b.id = :id")
+    Optional<TransferBatch> findForUpdateById(Long id);
+}
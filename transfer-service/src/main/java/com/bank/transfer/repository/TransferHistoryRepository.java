@@ -0,0 +1,73 @@
+package com.bank.transfer.repository;
+
+import com.bank.common.dto.contracts.transfer.TransferDTO;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset-paginated history of one bank account, newest first. Each direction is read with a
+ * range scan on its {@code (account, created_at, id)} index starting right after the cursor,
+ * so the cost of a page does not grow with the number of older transfers.
+ * <p>
+ * The table is partitioned by month on {@code created_at}. The plain {@code created_at} bound,
+ * redundant with the row comparison, is what the planner prunes partitions on; the newest-first
+ * scan then walks the remaining months in order and stops as soon as the page is full.
+ */
+@Repository
+public class TransferHistoryRepository {
+
+    private static final String COLUMNS =
+        "id, from_bank_account_id, to_bank_account_id, amount, from_currency, to_currency, converted_amount, status, created_at";
+
+    private static final String PAGE_SQL = """
+        SELECT * FROM (
+            (SELECT %1$s FROM transfer.transfers
+             WHERE from_bank_account_id = :bankAccountId
+               AND created_at <= :createdAt AND (created_at, id) < (:createdAt, :id)
+             ORDER BY created_at DESC, id DESC LIMIT :limit)
+            UNION ALL
+            (SELECT %1$s FROM transfer.transfers
+             WHERE to_bank_account_id = :bankAccountId AND from_bank_account_id <> :bankAccountId
+               AND created_at <= :createdAt AND (created_at, id) < (:createdAt, :id)
+             ORDER BY created_at DESC, id DESC LIMIT :limit)
+        ) page
+        ORDER BY created_at DESC, id DESC
+        LIMIT :limit
+        """.formatted(COLUMNS);
+
+    private static final RowMapper<TransferDTO> ROW_MAPPER = (rs, rowNum) -> TransferDTO.builder()
+        .id(rs.getLong("id"))
+        .fromBankAccountId(rs.getLong("from_bank_account_id"))
+        .toBankAccountId(rs.getObject("to_bank_account_id", Long.class))
+        .amount(rs.getBigDecimal("amount"))
+        .fromCurrency(rs.getString("from_currency"))
+        .toCurrency(rs.getString("to_currency"))
+        .convertedAmount(rs.getBigDecimal("converted_amount"))
+        .status(rs.getString("status"))
+        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+        .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransferHistoryRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns up to {@code limit} transfers of the account that are strictly older than
+     * {@code (createdAt, id)}.
+     */
+    public List<TransferDTO> findPage(Long bankAccountId, LocalDateTime createdAt, long id, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("bankAccountId", bankAccountId)
+            .addValue("createdAt", createdAt)
+            .addValue("id", id)
+            .addValue("limit", limit);
+        return jdbcTemplate.query(PAGE_SQL, params, ROW_MAPPER);
+    }
+}
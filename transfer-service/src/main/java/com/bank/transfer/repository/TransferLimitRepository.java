@@ -0,0 +1,85 @@
+package com.bank.transfer.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to {@code transfer.limit_usage}, the shared copy of the per-user limit counters.
+ * Instances add what their users sent since the last sync with one batched upsert, then read
+ * back every bucket any instance changed since their previous read.
+ */
+@Repository
+public class TransferLimitRepository {
+
+    private static final String ADD_SQL = """
+        INSERT INTO transfer.limit_usage (username, bucket_start, amount, updated_at)
+        VALUES (?, ?, ?, LOCALTIMESTAMP)
+        ON CONFLICT (username, bucket_start) DO UPDATE SET
+            amount = limit_usage.amount + EXCLUDED.amount,
+            updated_at = LOCALTIMESTAMP
+        """;
+
+    private static final String CHANGED_SQL = """
+        SELECT username, bucket_start, amount
+        FROM transfer.limit_usage
+        WHERE updated_at > :updatedAfter AND bucket_start >= :windowStart
+        """;
+
+    private static final String PURGE_SQL = """
+        DELETE FROM transfer.limit_usage WHERE updated_at < :before
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransferLimitRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Database time, which {@code updated_at} is written in; read cursors must use the same clock.
+     */
+    public LocalDateTime now() {
+        return jdbcTemplate.getJdbcOperations().queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+    }
+
+    public void add(List<UsageDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (UsageDelta delta : deltas) {
+            rows.add(new Object[]{delta.username(), Timestamp.valueOf(delta.bucketStart()), delta.amount()});
+        }
+        jdbcTemplate.getJdbcOperations().batchUpdate(ADD_SQL, rows);
+    }
+
+    /**
+     * Current totals of the buckets from {@code windowStart} on that changed after {@code updatedAfter}.
+     */
+    public List<UsageDelta> findChanged(LocalDateTime windowStart, LocalDateTime updatedAfter) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("windowStart", Timestamp.valueOf(windowStart))
+            .addValue("updatedAfter", Timestamp.valueOf(updatedAfter));
+        return jdbcTemplate.query(CHANGED_SQL, params, (rs, rowNum) -> new UsageDelta(
+            rs.getString("username"),
+            rs.getTimestamp("bucket_start").toLocalDateTime(),
+            rs.getBigDecimal("amount")));
+    }
+
+    public int purgeBefore(LocalDateTime before) {
+        return jdbcTemplate.update(PURGE_SQL, new MapSqlParameterSource("before", Timestamp.valueOf(before)));
+    }
+
+    /**
+     * Usage of one user in the 5-minute bucket starting at {@code bucketStart} (UTC), in RUB.
+     */
+    public record UsageDelta(String username, LocalDateTime bucketStart, BigDecimal amount) {
+    }
+}
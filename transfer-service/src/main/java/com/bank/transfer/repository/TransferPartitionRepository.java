@@ -0,0 +1,152 @@
+package com.bank.transfer.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL on the monthly partitions of {@code transfer.transfers}. Partitions are named
+ * {@code transfers_YYYY_MM} and cover {@code [first of the month, first of the next month)}.
+ * Detaching uses {@code DETACH PARTITION ... CONCURRENTLY}, which only takes a lock that inserts
+ * do not wait on; it cannot run inside a transaction, so these methods must not be called in one.
+ */
+@Repository
+public class TransferPartitionRepository {
+
+    /**
+     * Serializes partition creation across instances.
+     */
+    private static final long CREATE_LOCK_KEY = 0x7472616e73666572L;
+
+    private static final String PARTITIONS_SQL = """
+        SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound, i.inhdetachpending AS detach_pending
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'transfer.transfers'::regclass
+        ORDER BY c.relname
+        """;
+
+    private static final String IN_FLIGHT_SQL = """
+        SELECT EXISTS (SELECT 1 FROM transfer.%s WHERE status = 'PENDING')
+        """;
+
+    private static final Pattern BOUND = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final DateTimeFormatter BOUND_FORMAT = new DateTimeFormatterBuilder()
+        .appendPattern("yyyy-MM-dd[ HH:mm:ss]")
+        .optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true).optionalEnd()
+        .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+        .toFormatter();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransferPartitionRepository(NamedParameterJdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static String partitionName(YearMonth month) {
+        return "transfers_%04d_%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Attached partitions, including ones whose concurrent detach was interrupted.
+     */
+    public List<TransferPartition> findPartitions() {
+        return jdbcTemplate.query(PARTITIONS_SQL, new MapSqlParameterSource(), (rs, rowNum) ->
+            TransferPartition.of(rs.getString("name"), rs.getString("bound"), rs.getBoolean("detach_pending")));
+    }
+
+    /**
+     * Creates the partition of {@code month} unless it exists; instances creating the same month
+     * wait for each other instead of failing.
+     */
+    public void createPartition(YearMonth month) {
+        String sql = "CREATE TABLE IF NOT EXISTS transfer.%s PARTITION OF transfer.transfers FOR VALUES FROM ('%s') TO ('%s')"
+            .formatted(partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1));
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.getJdbcOperations().execute("SELECT pg_advisory_xact_lock(" + CREATE_LOCK_KEY + ")");
+            jdbcTemplate.getJdbcOperations().execute(sql);
+        });
+    }
+
+    public boolean hasInFlight(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.getJdbcOperations()
+            .queryForObject(IN_FLIGHT_SQL.formatted(identifier(partition)), Boolean.class));
+    }
+
+    public void detach(String partition) {
+        jdbcTemplate.getJdbcOperations().execute(
+            "ALTER TABLE transfer.transfers DETACH PARTITION transfer.%s CONCURRENTLY".formatted(identifier(partition)));
+    }
+
+    /**
+     * Completes a concurrent detach that was interrupted half way.
+     */
+    public void finalizeDetach(String partition) {
+        jdbcTemplate.getJdbcOperations().execute(
+            "ALTER TABLE transfer.transfers DETACH PARTITION transfer.%s FINALIZE".formatted(identifier(partition)));
+    }
+
+    /**
+     * Moves a detached partition into {@code schema}, out of reach of the service.
+     */
+    public void archive(String partition, String schema) {
+        jdbcTemplate.getJdbcOperations().execute(
+            "ALTER TABLE transfer.%s SET SCHEMA %s".formatted(identifier(partition), identifier(schema)));
+    }
+
+    public void dropArchived(String partition, String schema) {
+        jdbcTemplate.getJdbcOperations().execute(
+            "DROP TABLE %s.%s".formatted(identifier(schema), identifier(partition)));
+    }
+
+    static String identifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Not a plain identifier: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * An attached partition and its range; a null bound is {@code MINVALUE}/{@code MAXVALUE}.
+     */
+    public record TransferPartition(String name, LocalDateTime from, LocalDateTime to, boolean detachPending) {
+
+        /**
+         * Parses the bound as printed by {@code pg_get_expr}, e.g.
+         * {@code FOR VALUES FROM ('2026-01-01 00:00:00') TO ('2026-02-01 00:00:00')}.
+         */
+        public static TransferPartition of(String name, String bound, boolean detachPending) {
+            Matcher matcher = BOUND.matcher(bound);
+            if (!matcher.find()) {
+                throw new IllegalArgumentException("Not a range bound: " + bound);
+            }
+            return new TransferPartition(name, parseBound(matcher.group(1)), parseBound(matcher.group(2)), detachPending);
+        }
+
+        public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return (from == null || from.isBefore(end)) && (to == null || to.isAfter(start));
+        }
+
+        private static LocalDateTime parseBound(String value) {
+            if ("MINVALUE".equals(value) || "MAXVALUE".equals(value)) {
+                return null;
+            }
+            return LocalDateTime.parse(value.replace("'", ""), BOUND_FORMAT);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.bank.transfer.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC access used by the transfer recovery worker. Claiming locks stale in-flight transfers with
+ * {@code FOR UPDATE SKIP LOCKED} through the partial in-flight index and touches their
+ * {@code updated_at} in the same short transaction, so each one is picked up by a single instance
+ * and is not claimed again until it has gone stale once more.
+ */
+@Repository
+public class TransferRecoveryRepository {
+
+    private static final String LOCK_SQL = """
+        SELECT id FROM transfer.transfers
+        WHERE status = 'PENDING' AND (batch_id IS NULL OR settlement_ref IS NOT NULL) AND updated_at < :staleBefore
+        ORDER BY updated_at, id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String TOUCH_SQL = """
+        UPDATE transfer.transfers SET updated_at = :now WHERE id IN (:ids)
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransferRecoveryRepository(NamedParameterJdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Claims up to {@code limit} single transfers, or batch legs journaled for posting, that have
+     * been PENDING without progress since before {@code staleBefore}, oldest first.
+     */
+    public List<Long> claimStale(LocalDateTime staleBefore, int limit, LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("staleBefore", staleBefore)
+            .addValue("limit", limit)
+            .addValue("now", now);
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(LOCK_SQL, params, Long.class);
+            if (!ids.isEmpty()) {
+                jdbcTemplate.update(TOUCH_SQL, params.addValue("ids", ids));
+            }
+            return ids;
+        });
+    }
+}
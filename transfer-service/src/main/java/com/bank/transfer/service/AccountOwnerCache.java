@@ -0,0 +1,58 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maps a bank account id to its owner and currency, as seen by the lookups of earlier transfers.
+ * Neither ever changes for an existing account, so entries have no TTL: the least recently used
+ * ones are evicted beyond {@code max-size}, and callers invalidate an account once a transfer
+ * through it fails. Used only to recognise a transfer between the user's own accounts before any
+ * remote call; accounts-service checks ownership again when it executes the transfer.
+ */
+@Component
+public class AccountOwnerCache {
+
+    private final Map<Long, Owner> entries;
+
+    public AccountOwnerCache(@Value("${transfer.own-transfer.owner-cache-size:50000}") int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Owner> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the owner of the account, or {@code null} when it has not been seen.
+     */
+    public Owner get(Long bankAccountId) {
+        synchronized (entries) {
+            return entries.get(bankAccountId);
+        }
+    }
+
+    public void put(BankAccountDTO account) {
+        if (account == null || account.getId() == null || account.getAccountUsername() == null) {
+            return;
+        }
+        Owner owner = new Owner(account.getAccountUsername(), account.getCurrency());
+        synchronized (entries) {
+            entries.put(account.getId(), owner);
+        }
+    }
+
+    public void invalidate(Long bankAccountId) {
+        synchronized (entries) {
+            entries.remove(bankAccountId);
+        }
+    }
+
+    public record Owner(String username, String currency) {
+    }
+}
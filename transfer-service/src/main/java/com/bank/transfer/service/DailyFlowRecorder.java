@@ -0,0 +1,77 @@
+package com.bank.transfer.service;
+
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.repository.DailyFlowRepository;
+import com.bank.transfer.repository.TransferRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Stores transfers together with their effect on the per-account daily flows. Whoever saves a
+ * transfer as it completes goes through here, and the flows of the transfers completed by that
+ * save are upserted in the same transaction, so the aggregates never disagree with the journal.
+ * Flows are counted on the day the transfer completes, which is when the balances changed.
+ */
+@Component
+public class DailyFlowRecorder {
+
+    private final TransferRepository transferRepository;
+    private final DailyFlowRepository dailyFlowRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    public DailyFlowRecorder(TransferRepository transferRepository,
+        DailyFlowRepository dailyFlowRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${transfer.daily-flows.enabled:true}") boolean enabled) {
+        this.transferRepository = transferRepository;
+        this.dailyFlowRepository = dailyFlowRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Saves a transfer that has just completed.
+     */
+    public void saveCompleted(Transfer transfer) {
+        store(List.of(transfer), () -> transferRepository.save(transfer));
+    }
+
+    /**
+     * Saves the transfers; those that are SUCCESS must not have been saved as such before, or
+     * they would be counted twice.
+     */
+    public void saveAll(List<Transfer> transfers) {
+        store(transfers, () -> transferRepository.saveAll(transfers));
+    }
+
+    /**
+     * Runs {@code write}, which completes transfers stored outside JPA, and adds {@code flows} in the same transaction.
+     */
+    void write(Runnable write, DailyFlows flows) {
+        if (!enabled || flows.isEmpty()) {
+            write.run();
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            write.run();
+            dailyFlowRepository.upsert(flows.deltas());
+        });
+    }
+
+    private void store(List<Transfer> transfers, Runnable save) {
+        DailyFlows flows = new DailyFlows();
+        LocalDate today = LocalDate.now();
+        for (Transfer transfer : transfers) {
+            if (TransferSettlement.SUCCESS.equals(transfer.getStatus())) {
+                flows.addCompleted(transfer, today);
+            }
+        }
+        write(save, flows);
+    }
+}
@@ -0,0 +1,71 @@
+package com.bank.transfer.service;
+
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.repository.DailyFlowRepository.FlowDelta;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Write-behind buffer of daily flow deltas. Legs are summed per account and day as transfers
+ * complete, and the buffer is written as one row per account and day when the transaction that
+ * stores the transfers commits, however many legs touched that row.
+ * <p>
+ * Not thread-safe; filled and written by one thread.
+ */
+final class DailyFlows {
+
+    private static final Comparator<Key> ORDER = Comparator.comparingLong(Key::bankAccountId).thenComparing(Key::date);
+
+    // Sorted so the rows are always locked in the same order
+    private final Map<Key, Delta> deltas = new TreeMap<>(ORDER);
+
+    /**
+     * Adds a completed transfer: its amount leaves the source account, its converted amount enters the destination.
+     */
+    void addCompleted(Transfer transfer, LocalDate date) {
+        sent(transfer.getFromBankAccountId(), date, transfer.getAmount(), 1);
+        received(transfer.getToBankAccountId(), date, transfer.getConvertedAmount(), 1);
+    }
+
+    void sent(long bankAccountId, LocalDate date, BigDecimal amount, int count) {
+        Delta delta = deltas.computeIfAbsent(new Key(bankAccountId, date), key -> new Delta());
+        delta.sentAmount = delta.sentAmount.add(amount);
+        delta.sentCount += count;
+    }
+
+    void received(long bankAccountId, LocalDate date, BigDecimal amount, int count) {
+        Delta delta = deltas.computeIfAbsent(new Key(bankAccountId, date), key -> new Delta());
+        delta.receivedAmount = delta.receivedAmount.add(amount);
+        delta.receivedCount += count;
+    }
+
+    boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+
+    /**
+     * One delta per account and day, ordered by account and day.
+     */
+    List<FlowDelta> deltas() {
+        List<FlowDelta> result = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> result.add(new FlowDelta(key.bankAccountId(), key.date(),
+            delta.sentAmount, delta.sentCount, delta.receivedAmount, delta.receivedCount)));
+        return result;
+    }
+
+    private record Key(long bankAccountId, LocalDate date) {
+    }
+
+    private static final class Delta {
+        private BigDecimal sentAmount = BigDecimal.ZERO;
+        private int sentCount;
+        private BigDecimal receivedAmount = BigDecimal.ZERO;
+        private int receivedCount;
+    }
+}
@@ -0,0 +1,138 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.exception.BusinessException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.bank.common.dto.contracts.accounts.BankOperation.ADD;
+import static com.bank.common.dto.contracts.accounts.BankOperation.SUBTRACT;
+
+/**
+ * Net balance change per bank account, keyed by the primitive account id in an open-addressing
+ * table so that accumulating thousands of legs allocates no boxed keys or map entries. An account
+ * holds a single currency; each position keeps it and rejects a delta in any other one.
+ * <p>
+ * Not thread-safe; built and posted by one thread.
+ */
+final class NetPositions {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private String[] currencies;
+    private BigDecimal[] nets;
+    private int size;
+    private int legs;
+
+    NetPositions(int expectedAccounts) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedAccounts * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Adds {@code delta} (negative for a debit) to the position of {@code bankAccountId}.
+     */
+    void add(long bankAccountId, String currency, BigDecimal delta) {
+        int slot = slot(bankAccountId);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = bankAccountId;
+            currencies[slot] = currency;
+            nets[slot] = delta;
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+        } else {
+            if (!currencies[slot].equals(currency)) {
+                throw new BusinessException("Bank account " + bankAccountId + " is not in " + currency);
+            }
+            nets[slot] = nets[slot].add(delta);
+        }
+        legs++;
+    }
+
+    BigDecimal net(long bankAccountId) {
+        int slot = slot(bankAccountId);
+        return keys[slot] == EMPTY ? BigDecimal.ZERO : nets[slot];
+    }
+
+    int accounts() {
+        return size;
+    }
+
+    /**
+     * Number of single-account balance changes the positions replace.
+     */
+    int grossPostings() {
+        return legs;
+    }
+
+    /**
+     * One posting per account whose position is not zero. Credits come first so that, should the
+     * receiving side ever apply them in order, no debit is checked before the credits it relies on.
+     */
+    List<UpdateBalanceRequest> postings() {
+        List<UpdateBalanceRequest> credits = new ArrayList<>(size);
+        List<UpdateBalanceRequest> debits = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY || nets[i].signum() == 0) {
+                continue;
+            }
+            if (nets[i].signum() > 0) {
+                credits.add(UpdateBalanceRequest.builder()
+                    .bankAccountId(keys[i])
+                    .amount(nets[i])
+                    .operation(ADD)
+                    .build());
+            } else {
+                debits.add(UpdateBalanceRequest.builder()
+                    .bankAccountId(keys[i])
+                    .amount(nets[i].negate())
+                    .operation(SUBTRACT)
+                    .build());
+            }
+        }
+        credits.addAll(debits);
+        return credits;
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        String[] oldCurrencies = currencies;
+        BigDecimal[] oldNets = nets;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                currencies[slot] = oldCurrencies[i];
+                nets[slot] = oldNets[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        currencies = new String[capacity];
+        nets = new BigDecimal[capacity];
+    }
+
+    private static long mix(long key) {
+        // Sequential ids would otherwise cluster in neighbouring slots
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
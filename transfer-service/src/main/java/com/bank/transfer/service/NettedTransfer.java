@@ -0,0 +1,9 @@
+package com.bank.transfer.service;
+
+import java.math.BigDecimal;
+
+/**
+ * A transfer between two known bank accounts that is settled as part of a netted group.
+ */
+public record NettedTransfer(String username, long fromBankAccountId, long toBankAccountId, BigDecimal amount) {
+}
@@ -0,0 +1,156 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.notifications.NotificationRequest;
+import com.bank.transfer.client.NotificationClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends transfer notifications off the request thread. Notifications go into a bounded buffer
+ * that one dispatcher thread flushes to {@code POST /api/notifications/send-batch}, as soon as
+ * {@code batch-size} are waiting or {@code flush-interval-ms} after the oldest one arrived.
+ * <p>
+ * When the buffer is full the caller waits up to {@code offer-timeout-ms} for room and then
+ * sends its notification itself, so a slow notifications-service slows transfers down instead
+ * of growing memory or losing notifications. On shutdown the buffer is drained before the
+ * service stops. With batching disabled every notification is sent directly.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    private final NotificationClient notificationClient;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMs;
+    private final long drainTimeoutMs;
+    private final BlockingQueue<NotificationRequest> buffer;
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public NotificationDispatcher(NotificationClient notificationClient,
+        @Value("${transfer.notifications.batching.enabled:true}") boolean enabled,
+        @Value("${transfer.notifications.batching.capacity:10000}") int capacity,
+        @Value("${transfer.notifications.batching.batch-size:200}") int batchSize,
+        @Value("${transfer.notifications.batching.flush-interval-ms:50}") long flushIntervalMs,
+        @Value("${transfer.notifications.batching.offer-timeout-ms:100}") long offerTimeoutMs,
+        @Value("${transfer.notifications.batching.drain-timeout-ms:10000}") long drainTimeoutMs) {
+        this.notificationClient = notificationClient;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.drainTimeoutMs = drainTimeoutMs;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        dispatcher = Thread.ofPlatform().name("notification-dispatcher").daemon().start(this::dispatchLoop);
+    }
+
+    /**
+     * Flushes what is buffered and stops the dispatcher; later notifications are sent directly.
+     */
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            dispatcher.join(drainTimeoutMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (dispatcher.isAlive()) {
+            log.warn("Notification buffer not drained at shutdown, {} notifications left", buffer.size());
+            dispatcher.interrupt();
+        }
+    }
+
+    public void send(NotificationRequest request) {
+        if (running) {
+            try {
+                if (buffer.offer(request, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    // Stopped in the meantime: the dispatcher may already have taken its last look
+                    if (running || !buffer.remove(request)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            log.debug("Notification buffer is full, sending directly");
+        }
+        notificationClient.sendNotification(request);
+    }
+
+    int buffered() {
+        return buffer.size();
+    }
+
+    private void dispatchLoop() {
+        List<NotificationRequest> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                NotificationRequest first = buffer.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize && running) {
+                    if (buffer.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    NotificationRequest next = remaining > 0 ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                // While draining at shutdown, take whatever is left without waiting
+                buffer.drainTo(batch, batchSize - batch.size());
+                flush(batch);
+            } catch (InterruptedException ex) {
+                flush(batch);
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<NotificationRequest> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (batch.size() == 1) {
+                notificationClient.sendNotification(batch.get(0));
+            } else {
+                notificationClient.sendNotifications(List.copyOf(batch));
+            }
+        } catch (RuntimeException ex) {
+            // Notifications are best effort, as the fallback of a single send already is
+            log.warn("Could not send {} notifications: {}", batch.size(), ex.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps a recipient email to the ids, currencies and owner of their bank accounts, which is all
+ * that is needed to route a transfer. Balances are stripped before an entry is stored, so nothing
+ * read from here can be used for a funds check. Entries expire after {@code ttl-ms}, the least
+ * recently used ones are evicted beyond {@code max-size}, and callers invalidate an email as soon
+ * as a transfer routed through it fails.
+ */
+@Slf4j
+@Component
+public class RecipientCache {
+
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    public RecipientCache(@Value("${transfer.recipient-cache.max-size:10000}") int maxSize,
+        @Value("${transfer.recipient-cache.ttl-ms:60000}") long ttlMs) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached accounts of the recipient, or {@code null} when the email is unknown or expired.
+     */
+    public List<BankAccountDTO> get(String email) {
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAt() > ttlNanos) {
+                entries.remove(email);
+                return null;
+            }
+            return entry.accounts();
+        }
+    }
+
+    public void put(String email, List<BankAccountDTO> accounts) {
+        List<BankAccountDTO> routes = accounts.stream()
+            .map(account -> BankAccountDTO.builder()
+                .id(account.getId())
+                .currency(account.getCurrency())
+                .accountUsername(account.getAccountUsername())
+                .build())
+            .toList();
+        synchronized (entries) {
+            entries.put(email, new Entry(routes, System.nanoTime()));
+        }
+    }
+
+    public void invalidate(String email) {
+        synchronized (entries) {
+            if (entries.remove(email) != null) {
+                log.debug("Recipient {} evicted from cache", email);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private record Entry(List<BankAccountDTO> accounts, long loadedAt) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.bank.transfer.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs transfers one at a time per source account. Every account with work has a mailbox: a FIFO
+ * queue drained by one virtual thread, so transfers from one account execute in submission order
+ * and never race on its balance, while different accounts run fully in parallel.
+ * <p>
+ * A mailbox exists only while it has work. The drainer removes it in the same atomic step that
+ * finds it empty, and the next submission for the account starts a new one, so memory grows
+ * with the accounts that are busy right now, not with all accounts ever seen.
+ * <p>
+ * Each task runs with the security context of the thread that submitted it.
+ */
+@Slf4j
+@Component
+public class SourceAccountMailboxes {
+
+    private final Map<Long, ArrayDeque<Runnable>> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Executor executor;
+    private final int maxQueuedPerAccount;
+    private final int maxPending;
+
+    public SourceAccountMailboxes(@Qualifier("transferMailboxExecutor") Executor executor,
+        @Value("${transfer.mailboxes.max-queued-per-account:100}") int maxQueuedPerAccount,
+        @Value("${transfer.mailboxes.max-pending:10000}") int maxPending,
+        MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.maxQueuedPerAccount = Math.max(1, maxQueuedPerAccount);
+        this.maxPending = Math.max(1, maxPending);
+        Gauge.builder("transfer.mailboxes.active", mailboxes, Map::size)
+            .description("Source accounts with transfers queued or running")
+            .register(meterRegistry);
+        Gauge.builder("transfer.mailboxes.pending", pending, AtomicInteger::get)
+            .description("Transfers waiting in a source account mailbox")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues {@code task} behind the earlier tasks of {@code bankAccountId}. Throws
+     * {@link RejectedExecutionException} when the account or the service already has too many
+     * transfers waiting.
+     */
+    public <T> CompletableFuture<T> submit(Long bankAccountId, Supplier<T> task) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new RejectedExecutionException("Too many transfers waiting");
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable work = DelegatingSecurityContextRunnable.create(() -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        }, null);
+
+        boolean[] created = new boolean[1];
+        boolean[] full = new boolean[1];
+        mailboxes.compute(bankAccountId, (id, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                created[0] = true;
+            } else if (queue.size() >= maxQueuedPerAccount) {
+                full[0] = true;
+                return queue;
+            }
+            queue.add(work);
+            return queue;
+        });
+        if (full[0]) {
+            pending.decrementAndGet();
+            throw new RejectedExecutionException("Too many transfers waiting for account " + bankAccountId);
+        }
+        if (created[0]) {
+            try {
+                executor.execute(() -> drain(bankAccountId));
+            } catch (RejectedExecutionException ex) {
+                // Shutting down: nothing else can have joined a mailbox that never started
+                mailboxes.remove(bankAccountId);
+                pending.decrementAndGet();
+                throw ex;
+            }
+        }
+        return result;
+    }
+
+    int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    private void drain(Long bankAccountId) {
+        Runnable next;
+        while ((next = poll(bankAccountId)) != null) {
+            pending.decrementAndGet();
+            try {
+                next.run();
+            } catch (RuntimeException ex) {
+                log.error("Transfer task of account {} failed", bankAccountId, ex);
+            }
+        }
+    }
+
+    /**
+     * Takes the next task, or removes the mailbox when it is empty; the two cannot interleave
+     * with a submission for the same account.
+     */
+    private Runnable poll(Long bankAccountId) {
+        Runnable[] next = new Runnable[1];
+        mailboxes.computeIfPresent(bankAccountId, (id, queue) -> {
+            next[0] = queue.poll();
+            return next[0] == null ? null : queue;
+        });
+        return next[0];
+    }
+}
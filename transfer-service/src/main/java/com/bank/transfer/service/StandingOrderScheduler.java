@@ -0,0 +1,317 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.transfer.TransferRequest;
+import com.bank.common.dto.contracts.transfer.TransferResponse;
+import com.bank.transfer.repository.StandingOrderClaimRepository;
+import com.bank.transfer.repository.StandingOrderClaimRepository.ClaimedOrder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs standing orders when they fall due. A loader reads the ids and due times of the orders
+ * due in the next window from the due-time index and puts them on a {@link TimingWheel}. The
+ * dispatcher thread turns the wheel every tick, claims whatever expired in batches with
+ * {@code SKIP LOCKED} and runs the claimed occurrences in parallel on virtual threads.
+ * <p>
+ * Every instance loads the same window; the claim decides which one runs an occurrence, and the
+ * claim moves the order on to its next occurrence before anything is executed, so an occurrence
+ * runs at most once across instances and restarts.
+ * <p>
+ * With netting on, each claimed batch is settled as one group through
+ * {@link TransferNettingService}, so orders that move money back and forth between the same
+ * accounts cost one posting per account instead of two per order.
+ */
+@Slf4j
+@Component
+public class StandingOrderScheduler {
+
+    private static final int OVERDUE_SWEEP_LIMIT = 10_000;
+
+    private final StandingOrderClaimRepository claimRepository;
+    private final TransferService transferService;
+    private final TransferNettingService nettingService;
+    private final Clock clock;
+    private final boolean enabled;
+    private final boolean netting;
+    private final long tickMs;
+    private final long windowMs;
+    private final int claimBatchSize;
+    private final int parallelism;
+    private final long overdueGraceMs;
+
+    private final ConcurrentLinkedQueue<long[]> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicLong executed = new AtomicLong();
+    private final Semaphore permits;
+    private TimingWheel wheel;
+    private long[] due = new long[1024];
+    private int dueCount;
+    private LocalDateTime loadedUntil;
+    private long nextLoadAt;
+    private ExecutorService runners;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    @Autowired
+    public StandingOrderScheduler(StandingOrderClaimRepository claimRepository,
+        TransferService transferService,
+        TransferNettingService nettingService,
+        @Value("${transfer.standing-orders.enabled:true}") boolean enabled,
+        @Value("${transfer.standing-orders.netting:true}") boolean netting,
+        @Value("${transfer.standing-orders.tick-ms:100}") long tickMs,
+        @Value("${transfer.standing-orders.window-ms:300000}") long windowMs,
+        @Value("${transfer.standing-orders.claim-batch-size:500}") int claimBatchSize,
+        @Value("${transfer.standing-orders.parallelism:64}") int parallelism,
+        @Value("${transfer.standing-orders.overdue-grace-ms:30000}") long overdueGraceMs) {
+        this(claimRepository, transferService, nettingService, Clock.systemDefaultZone(), enabled, netting, tickMs,
+            windowMs, claimBatchSize, parallelism, overdueGraceMs);
+    }
+
+    StandingOrderScheduler(StandingOrderClaimRepository claimRepository, TransferService transferService,
+        TransferNettingService nettingService, Clock clock, boolean enabled, boolean netting, long tickMs,
+        long windowMs, int claimBatchSize, int parallelism, long overdueGraceMs) {
+        this.claimRepository = claimRepository;
+        this.transferService = transferService;
+        this.nettingService = nettingService;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.netting = netting;
+        this.tickMs = tickMs;
+        this.windowMs = windowMs;
+        this.claimBatchSize = claimBatchSize;
+        this.parallelism = parallelism;
+        this.overdueGraceMs = overdueGraceMs;
+        this.permits = new Semaphore(parallelism);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Standing order scheduler is disabled");
+            return;
+        }
+        long now = clock.millis();
+        // The lowest level spans the load window; overflow levels take orders scheduled further ahead
+        wheel = new TimingWheel(tickMs, (int) Math.max(1, windowMs / tickMs), now);
+        // Older occurrences are left to the overdue sweep
+        loadedUntil = toLocalDateTime(now - overdueGraceMs);
+        runners = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("standing-order-", 0).factory());
+        running = true;
+        dispatcher = Thread.ofPlatform().name("standing-order-dispatcher").daemon().start(this::dispatchLoop);
+        log.info("Standing order scheduler started: tick {} ms, window {} ms, parallelism {}", tickMs, windowMs, parallelism);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+            runners.shutdown();
+            if (!runners.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Standing order runs still in progress at shutdown");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Called when an order is created or changed on this instance so an occurrence inside the
+     * already loaded window is not missed.
+     */
+    public void schedule(long id, LocalDateTime dueAt) {
+        if (running) {
+            incoming.add(new long[]{id, toMillis(dueAt)});
+        }
+    }
+
+    public long getExecutedCount() {
+        return executed.get();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                long now = clock.millis();
+                if (now >= nextLoadAt) {
+                    loadWindow(now);
+                }
+                for (long[] entry; (entry = incoming.poll()) != null; ) {
+                    addToWheel(entry[0], entry[1]);
+                }
+                wheel.advance(now, this::markDue);
+                dispatchDue();
+                Thread.sleep(tickMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                log.error("Standing order dispatch failed", ex);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void loadWindow(long now) {
+        LocalDateTime until = toLocalDateTime(now + windowMs);
+        int[] loaded = new int[1];
+        claimRepository.forEachDue(loadedUntil, until, (id, dueAt) -> {
+            addToWheel(id, toMillis(dueAt));
+            loaded[0]++;
+        });
+        // Occurrences whose claim was lost, e.g. to an instance that died before committing it.
+        // Skipped while a backlog is still being worked off, since those ids are already queued.
+        if (dueCount == 0) {
+            claimRepository.forEachOverdue(toLocalDateTime(now - overdueGraceMs), OVERDUE_SWEEP_LIMIT,
+                (id, dueAt) -> markDue(id));
+        }
+        loadedUntil = until;
+        // Reload halfway through the window so the wheel is always at least half a window ahead
+        nextLoadAt = now + windowMs / 2;
+        if (loaded[0] > 0) {
+            log.info("Loaded {} standing orders due until {}", loaded[0], until);
+        }
+    }
+
+    private void addToWheel(long id, long dueMs) {
+        if (!wheel.add(id, dueMs)) {
+            markDue(id);
+        }
+    }
+
+    private void markDue(long id) {
+        if (dueCount == due.length) {
+            due = Arrays.copyOf(due, dueCount * 2);
+        }
+        due[dueCount++] = id;
+    }
+
+    private void dispatchDue() throws InterruptedException {
+        int offset = 0;
+        while (offset < dueCount && running) {
+            // Only claim what can start now; a claimed occurrence is never handed back
+            permits.acquire();
+            int free = 1 + permits.drainPermits();
+            int batch = Math.min(Math.min(free, claimBatchSize), dueCount - offset);
+            List<ClaimedOrder> claimed;
+            try {
+                claimed = claimRepository.claim(Arrays.copyOfRange(due, offset, offset + batch), batch,
+                    toLocalDateTime(clock.millis()));
+            } catch (RuntimeException ex) {
+                permits.release(free);
+                compactDue(offset);
+                throw ex;
+            }
+            offset += batch;
+            permits.release(free - claimed.size());
+            if (netting && claimed.size() > 1) {
+                runners.execute(() -> runNetted(claimed));
+            } else {
+                for (ClaimedOrder order : claimed) {
+                    runners.execute(() -> run(order));
+                }
+            }
+        }
+        compactDue(offset);
+    }
+
+    private void compactDue(int handled) {
+        // Keep what was not reached, drop what was handled
+        System.arraycopy(due, handled, due, 0, dueCount - handled);
+        dueCount -= handled;
+        if (due.length > 1024 && dueCount < due.length / 4) {
+            due = Arrays.copyOf(due, Math.max(1024, dueCount));
+        }
+    }
+
+    private void run(ClaimedOrder order) {
+        try {
+            TransferResponse response = transferService.processTransfer(TransferRequest.builder()
+                .fromBankAccountId(order.fromBankAccountId())
+                .toBankAccountId(order.toBankAccountId())
+                .amount(order.amount())
+                .build(), order.username());
+            claimRepository.recordResult(order.id(), response.getStatus(), response.getTransferId());
+        } catch (Exception ex) {
+            log.info("Standing order {} occurrence due at {} failed: {}", order.id(), order.dueAt(), ex.getMessage());
+            try {
+                claimRepository.recordResult(order.id(), "FAILED: " + ex.getMessage(), null);
+            } catch (Exception recordFailure) {
+                log.warn("Could not record result of standing order {}: {}", order.id(), recordFailure.getMessage());
+            }
+        } finally {
+            executed.incrementAndGet();
+            permits.release();
+        }
+    }
+
+    private void runNetted(List<ClaimedOrder> orders) {
+        int recorded = 0;
+        try {
+            List<NettedTransfer> transfers = new ArrayList<>(orders.size());
+            for (ClaimedOrder order : orders) {
+                transfers.add(new NettedTransfer(order.username(), order.fromBankAccountId(), order.toBankAccountId(),
+                    order.amount()));
+            }
+            List<TransferResponse> responses = nettingService.settle(transfers);
+            for (int i = 0; i < orders.size(); i++) {
+                TransferResponse response = responses.get(i);
+                String status = "SUCCESS".equals(response.getStatus())
+                    ? response.getStatus()
+                    : response.getStatus() + ": " + response.getMessage();
+                claimRepository.recordResult(orders.get(i).id(), status, response.getTransferId());
+                recorded++;
+            }
+        } catch (Exception ex) {
+            log.warn("Netted run of {} standing orders failed: {}", orders.size(), ex.getMessage());
+            // Every occurrence claimed for the group gets a result, as a single run would record one
+            for (ClaimedOrder order : orders.subList(recorded, orders.size())) {
+                try {
+                    claimRepository.recordResult(order.id(), "FAILED: " + ex.getMessage(), null);
+                } catch (Exception recordFailure) {
+                    log.warn("Could not record result of standing order {}: {}", order.id(),
+                        recordFailure.getMessage());
+                }
+            }
+        } finally {
+            executed.addAndGet(orders.size());
+            permits.release(orders.size());
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(Math.max(tickMs, 1000));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), clock.getZone());
+    }
+}
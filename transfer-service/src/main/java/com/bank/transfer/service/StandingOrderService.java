@@ -0,0 +1,14 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.transfer.StandingOrderDTO;
+import com.bank.common.dto.contracts.transfer.StandingOrderRequest;
+
+import java.util.List;
+
+public interface StandingOrderService {
+    StandingOrderDTO createStandingOrder(StandingOrderRequest request, String username);
+
+    List<StandingOrderDTO> getStandingOrders(String username);
+
+    StandingOrderDTO cancelStandingOrder(Long id, String username);
+}
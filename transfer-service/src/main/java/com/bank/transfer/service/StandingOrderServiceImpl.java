@@ -0,0 +1,126 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.transfer.StandingOrderDTO;
+import com.bank.common.dto.contracts.transfer.StandingOrderRequest;
+import com.bank.common.exception.BusinessException;
+import com.bank.common.exception.ResourceNotFoundException;
+import com.bank.transfer.client.AccountsClient;
+import com.bank.transfer.entity.StandingOrder;
+import com.bank.transfer.entity.StandingOrderFrequency;
+import com.bank.transfer.entity.StandingOrderStatus;
+import com.bank.transfer.repository.StandingOrderRepository;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+public class StandingOrderServiceImpl implements StandingOrderService {
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final StandingOrderScheduler scheduler;
+    private final AccountsClient accountsClient;
+
+    public StandingOrderServiceImpl(StandingOrderRepository standingOrderRepository,
+        StandingOrderScheduler scheduler,
+        AccountsClient accountsClient) {
+        this.standingOrderRepository = standingOrderRepository;
+        this.scheduler = scheduler;
+        this.accountsClient = accountsClient;
+    }
+
+    @Override
+    public StandingOrderDTO createStandingOrder(StandingOrderRequest request, String username) {
+        StandingOrderFrequency frequency;
+        try {
+            frequency = StandingOrderFrequency.valueOf(request.getFrequency().trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Unsupported frequency: " + request.getFrequency());
+        }
+        if (request.getEndAt() != null && request.getEndAt().isBefore(request.getStartAt())) {
+            throw new BusinessException("End time must not be before start time");
+        }
+        if (request.getFromBankAccountId().equals(request.getToBankAccountId())) {
+            throw new BusinessException("Source and destination bank accounts must differ");
+        }
+
+        BankAccountDTO source;
+        try {
+            source = accountsClient.getBankAccountById(request.getFromBankAccountId()).getData();
+        } catch (FeignException ex) {
+            throw new BusinessException("Accounts service error");
+        }
+        if (source == null || !username.equals(source.getAccountUsername())) {
+            throw new BusinessException("Source bank account does not belong to the user");
+        }
+
+        // A start in the past begins with the next occurrence rather than running immediately for each missed one
+        LocalDateTime now = LocalDateTime.now();
+        int first = 0;
+        LocalDateTime nextRunAt = request.getStartAt();
+        while (nextRunAt != null && nextRunAt.isBefore(now)) {
+            nextRunAt = frequency.occurrence(request.getStartAt(), ++first);
+        }
+        if (nextRunAt == null || (request.getEndAt() != null && nextRunAt.isAfter(request.getEndAt()))) {
+            throw new BusinessException("Standing order has no occurrence in the future");
+        }
+
+        StandingOrder order = standingOrderRepository.save(StandingOrder.builder()
+            .username(username)
+            .fromBankAccountId(request.getFromBankAccountId())
+            .toBankAccountId(request.getToBankAccountId())
+            .amount(request.getAmount())
+            .frequency(frequency)
+            .status(StandingOrderStatus.ACTIVE)
+            .startAt(request.getStartAt())
+            .endAt(request.getEndAt())
+            .nextRunAt(nextRunAt)
+            .build());
+        scheduler.schedule(order.getId(), order.getNextRunAt());
+        log.info("Standing order {} created for user {}, first run at {}", order.getId(), username, nextRunAt);
+        return toDTO(order);
+    }
+
+    @Override
+    public List<StandingOrderDTO> getStandingOrders(String username) {
+        return standingOrderRepository.findByUsernameOrderByIdDesc(username).stream()
+            .map(StandingOrderServiceImpl::toDTO)
+            .toList();
+    }
+
+    @Override
+    public StandingOrderDTO cancelStandingOrder(Long id, String username) {
+        StandingOrder order = standingOrderRepository.findById(id)
+            .filter(candidate -> username.equals(candidate.getUsername()))
+            .orElseThrow(() -> new ResourceNotFoundException("Standing order", "id", id));
+        if (order.getStatus() == StandingOrderStatus.ACTIVE) {
+            // The claim only picks ACTIVE rows, so no occurrence starts after this commits
+            order.setStatus(StandingOrderStatus.CANCELLED);
+            order = standingOrderRepository.save(order);
+        }
+        return toDTO(order);
+    }
+
+    private static StandingOrderDTO toDTO(StandingOrder order) {
+        return StandingOrderDTO.builder()
+            .id(order.getId())
+            .fromBankAccountId(order.getFromBankAccountId())
+            .toBankAccountId(order.getToBankAccountId())
+            .amount(order.getAmount())
+            .frequency(order.getFrequency().name())
+            .status(order.getStatus().name())
+            .startAt(order.getStartAt())
+            .endAt(order.getEndAt())
+            .nextRunAt(order.getStatus() == StandingOrderStatus.ACTIVE ? order.getNextRunAt() : null)
+            .runCount(order.getRunCount())
+            .lastRunAt(order.getLastRunAt())
+            .lastStatus(order.getLastStatus())
+            .lastTransferId(order.getLastTransferId())
+            .createdAt(order.getCreatedAt())
+            .build();
+    }
+}
@@ -0,0 +1,128 @@
+package com.bank.transfer.service;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of ids keyed by a due time in epoch milliseconds. The lowest level has
+ * {@code wheelSize} slots of {@code tickMs}; ids due further out go to an overflow level whose tick
+ * is the whole span of the level below, created on demand, and are cascaded down as their slot comes
+ * round. Adding and expiring an id are O(1) whatever the number of pending ids.
+ * <p>
+ * Ids are never expired before their due time: the lowest level rounds due times up to the next
+ * tick. Not thread-safe; the scheduler owns it from a single thread.
+ */
+final class TimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long intervalMs;
+    private final boolean lowest;
+    private final Bucket[] buckets;
+    private long currentTime;
+    private TimingWheel overflow;
+    private int size;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this(tickMs, wheelSize, startMs, true);
+    }
+
+    private TimingWheel(long tickMs, int wheelSize, long startMs, boolean lowest) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.intervalMs = tickMs * wheelSize;
+        this.lowest = lowest;
+        this.buckets = new Bucket[wheelSize];
+        this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+    }
+
+    /**
+     * Schedules {@code id}. Returns {@code false} without scheduling it if it is already due.
+     */
+    boolean add(long id, long dueMs) {
+        long slotTime = lowest ? ceil(dueMs) : dueMs - Math.floorMod(dueMs, tickMs);
+        if (slotTime <= currentTime) {
+            return false;
+        }
+        if (slotTime <= currentTime + intervalMs) {
+            // The slot of currentTime has already been drained, so slotTime == currentTime + interval is safe there
+            int index = (int) Math.floorMod(slotTime / tickMs, (long) wheelSize);
+            Bucket bucket = buckets[index];
+            if (bucket == null) {
+                bucket = buckets[index] = new Bucket();
+            }
+            bucket.add(id, dueMs);
+            size++;
+            return true;
+        }
+        if (overflow == null) {
+            overflow = new TimingWheel(intervalMs, wheelSize, currentTime, false);
+        }
+        return overflow.add(id, dueMs);
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMs}, passing every id that has become due to {@code expired}.
+     */
+    void advance(long nowMs, LongConsumer expired) {
+        while (currentTime + tickMs <= nowMs) {
+            tick(this, expired);
+        }
+    }
+
+    int size() {
+        return size + (overflow == null ? 0 : overflow.size());
+    }
+
+    private void tick(TimingWheel root, LongConsumer expired) {
+        currentTime += tickMs;
+        Bucket bucket = buckets[(int) Math.floorMod(currentTime / tickMs, (long) wheelSize)];
+        if (bucket != null && bucket.size > 0) {
+            size -= bucket.size;
+            for (int i = 0; i < bucket.size; i++) {
+                if (lowest) {
+                    expired.accept(bucket.ids[i]);
+                } else if (!root.add(bucket.ids[i], bucket.dues[i])) {
+                    expired.accept(bucket.ids[i]);
+                }
+            }
+            bucket.clear();
+        }
+        if (overflow != null && Math.floorMod(currentTime, overflow.tickMs) == 0) {
+            overflow.tick(root, expired);
+        }
+    }
+
+    private long ceil(long dueMs) {
+        long remainder = Math.floorMod(dueMs, tickMs);
+        return remainder == 0 ? dueMs : dueMs - remainder + tickMs;
+    }
+
+    private static final class Bucket {
+        private static final int INITIAL_CAPACITY = 16;
+        private static final int RETAINED_CAPACITY = 1024;
+
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private long[] dues = new long[INITIAL_CAPACITY];
+        private int size;
+
+        void add(long id, long dueMs) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                dues = Arrays.copyOf(dues, size * 2);
+            }
+            ids[size] = id;
+            dues[size] = dueMs;
+            size++;
+        }
+
+        void clear() {
+            // A 1st-of-month slot can hold hundreds of thousands of ids; do not keep that much memory around
+            if (ids.length > RETAINED_CAPACITY) {
+                ids = new long[INITIAL_CAPACITY];
+                dues = new long[INITIAL_CAPACITY];
+            }
+            size = 0;
+        }
+    }
+}
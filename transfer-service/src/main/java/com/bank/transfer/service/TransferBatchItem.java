@@ -0,0 +1,9 @@
+package com.bank.transfer.service;
+
+import java.math.BigDecimal;
+
+/**
+ * One leg of a batch as read from the upload.
+ */
+public record TransferBatchItem(long toBankAccountId, BigDecimal amount) {
+}
@@ -0,0 +1,111 @@
+package com.bank.transfer.service;
+
+import com.bank.common.exception.BusinessException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads batch uploads item by item, so a payroll never has to be held as one request string or DTO tree.
+ * Accepts a JSON array of {@code {"toBankAccountId": .., "amount": ..}} objects or CSV lines of
+ * {@code toBankAccountId,amount} with an optional header.
+ */
+@Component
+public class TransferBatchParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final int maxItems;
+
+    public TransferBatchParser(@Value("${transfer.batch.max-items:100000}") int maxItems) {
+        this.maxItems = maxItems;
+    }
+
+    public List<TransferBatchItem> parse(InputStream body, String contentType) {
+        try {
+            if (contentType != null && contentType.startsWith("text/csv")) {
+                return parseCsv(body);
+            }
+            return parseJson(body);
+        } catch (IOException ex) {
+            throw new BusinessException("Unable to read batch: " + ex.getMessage());
+        }
+    }
+
+    private List<TransferBatchItem> parseJson(InputStream body) throws IOException {
+        List<TransferBatchItem> items = new ArrayList<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BusinessException("Batch must be a JSON array");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Long toBankAccountId = null;
+                BigDecimal amount = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "toBankAccountId" -> toBankAccountId = parser.getValueAsLong();
+                        case "amount" -> amount = parser.getDecimalValue();
+                        default -> parser.skipChildren();
+                    }
+                }
+                add(items, toBankAccountId, amount);
+            }
+        }
+        return items;
+    }
+
+    private List<TransferBatchItem> parseCsv(InputStream body) throws IOException {
+        List<TransferBatchItem> items = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        boolean first = true;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] columns = line.split(",");
+            if (first && !Character.isDigit(columns[0].trim().charAt(0))) {
+                // Header row
+                first = false;
+                continue;
+            }
+            first = false;
+            if (columns.length < 2) {
+                throw new BusinessException("Invalid batch item " + (items.size() + 1) + ": expected toBankAccountId,amount");
+            }
+            try {
+                add(items, Long.parseLong(columns[0].trim()), new BigDecimal(columns[1].trim()));
+            } catch (NumberFormatException ex) {
+                throw new BusinessException("Invalid batch item " + (items.size() + 1) + ": " + line);
+            }
+        }
+        return items;
+    }
+
+    private void add(List<TransferBatchItem> items, Long toBankAccountId, BigDecimal amount) {
+        int position = items.size() + 1;
+        if (toBankAccountId == null || amount == null) {
+            throw new BusinessException("Invalid batch item " + position + ": toBankAccountId and amount are required");
+        }
+        if (amount.signum() <= 0) {
+            throw new BusinessException("Invalid batch item " + position + ": amount must be positive");
+        }
+        if (items.size() >= maxItems) {
+            throw new BusinessException("Batch exceeds the limit of " + maxItems + " transfers");
+        }
+        items.add(new TransferBatchItem(toBankAccountId, amount));
+    }
+}
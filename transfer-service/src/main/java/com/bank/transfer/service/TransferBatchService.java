@@ -0,0 +1,20 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.transfer.TransferBatchDTO;
+
+import java.io.InputStream;
+
+public interface TransferBatchService {
+
+    /**
+     * Reads the batch from the stream, stores it with all legs as PENDING and hands it to the worker pool.
+     */
+    TransferBatchDTO submitBatch(Long fromBankAccountId, InputStream body, String contentType, String username);
+
+    TransferBatchDTO getBatch(Long id, String username);
+
+    /**
+     * Recounts a finished batch from its legs once recovery has settled or failed some that were awaiting confirmation.
+     */
+    void refreshProgress(Long id);
+}
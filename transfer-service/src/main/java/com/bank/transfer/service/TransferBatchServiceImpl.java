@@ -0,0 +1,480 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.dto.contracts.blocker.BlockCheckRequest;
+import com.bank.common.dto.contracts.blocker.BlockCheckResponse;
+import com.bank.common.dto.contracts.notifications.NotificationRequest;
+import com.bank.common.dto.contracts.transfer.TransferBatchDTO;
+import com.bank.common.exception.BusinessException;
+import com.bank.common.exception.ResourceNotFoundException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.common.exchange.ExchangeRatesSnapshot;
+import com.bank.transfer.client.AccountsClient;
+import com.bank.transfer.client.BlockerClient;
+import com.bank.transfer.client.NotificationClient;
+import com.bank.transfer.entity.TransferBatch;
+import com.bank.transfer.entity.TransferBatchStatus;
+import com.bank.transfer.repository.TransferBatchLegRepository;
+import com.bank.transfer.repository.TransferBatchRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.bank.common.dto.contracts.accounts.BankOperation.ADD;
+import static com.bank.common.dto.contracts.accounts.BankOperation.SUBTRACT;
+
+/**
+ * Payroll-style batches from one source account. Instead of running the single-transfer saga per
+ * leg, a batch does one source lookup, one blocker check and one bulk destination lookup, sums the
+ * legs per destination account and posts the sums in chunks, each chunk being one atomic call to
+ * accounts-service that debits the source once and credits every destination in the chunk.
+ * <p>
+ * A chunk's legs are journaled with its settlement reference before it is posted, and every
+ * posting carries a key derived from it. When a call fails without a clear answer the reference is
+ * voided to learn whether the chunk was applied; if even that cannot be told, or the chunk was
+ * applied but its legs could not be recorded, the legs stay PENDING for the recovery worker,
+ * which finishes them through {@link TransferSettlement#settleNetted}.
+ */
+@Slf4j
+@Service
+public class TransferBatchServiceImpl implements TransferBatchService {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String BLOCKED_MESSAGE = "The operation looks suspicious and is blocked by bank";
+
+    private final TransferBatchRepository batchRepository;
+    private final TransferBatchLegRepository legRepository;
+    private final TransferBatchParser parser;
+    private final AccountsClient accountsClient;
+    private final ExchangeRateCache exchangeRateCache;
+    private final BlockerClient blockerClient;
+    private final NotificationClient notificationClient;
+    private final DailyFlowRecorder dailyFlowRecorder;
+    private final TransferSettlement settlement;
+    private final TransferLimits transferLimits;
+    private final ExecutorService workerExecutor;
+    private final int chunkSize;
+
+    public TransferBatchServiceImpl(TransferBatchRepository batchRepository,
+        TransferBatchLegRepository legRepository,
+        TransferBatchParser parser,
+        AccountsClient accountsClient,
+        ExchangeRateCache exchangeRateCache,
+        BlockerClient blockerClient,
+        NotificationClient notificationClient,
+        DailyFlowRecorder dailyFlowRecorder,
+        TransferSettlement settlement,
+        TransferLimits transferLimits,
+        @Qualifier("transferWorkerExecutor") ExecutorService workerExecutor,
+        @Value("${transfer.batch.chunk-size:500}") int chunkSize) {
+        this.batchRepository = batchRepository;
+        this.legRepository = legRepository;
+        this.parser = parser;
+        this.accountsClient = accountsClient;
+        this.exchangeRateCache = exchangeRateCache;
+        this.blockerClient = blockerClient;
+        this.notificationClient = notificationClient;
+        this.dailyFlowRecorder = dailyFlowRecorder;
+        this.settlement = settlement;
+        this.transferLimits = transferLimits;
+        this.workerExecutor = workerExecutor;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public TransferBatchDTO submitBatch(Long fromBankAccountId, InputStream body, String contentType, String username) {
+        List<TransferBatchItem> items = parser.parse(body, contentType);
+        if (items.isEmpty()) {
+            throw new BusinessException("Batch is empty");
+        }
+
+        // The upload is parsed whole, so a malformed line rejects the batch before anything is stored.
+        // Only the sums per destination are kept for the run; the items are released once the legs are written
+        Destinations legs = Destinations.of(items);
+        BigDecimal totalAmount = legs.totalAmount();
+
+        TransferBatch batch = batchRepository.save(TransferBatch.builder()
+            .username(username)
+            .fromBankAccountId(fromBankAccountId)
+            .status(TransferBatchStatus.PENDING)
+            .totalCount(items.size())
+            .totalAmount(totalAmount)
+            .description("Batch accepted")
+            .build());
+        legRepository.insertPending(batch.getId(), username, fromBankAccountId, items);
+        log.info("Batch {} accepted with {} transfers totalling {}", batch.getId(), items.size(), totalAmount);
+
+        try {
+            workerExecutor.execute(() -> process(batch, legs));
+        } catch (RejectedExecutionException ex) {
+            finish(batch, TransferBatchStatus.FAILED, "Too many transfers in progress, please retry later");
+            throw new BusinessException("Too many transfers in progress, please retry later");
+        }
+        return toDTO(batch);
+    }
+
+    @Override
+    public TransferBatchDTO getBatch(Long id, String username) {
+        return batchRepository.findById(id)
+            .filter(batch -> username.equals(batch.getUsername()))
+            .map(TransferBatchServiceImpl::toDTO)
+            .orElseThrow(() -> new ResourceNotFoundException("Transfer batch", "id", id));
+    }
+
+    @Override
+    @Transactional
+    public void refreshProgress(Long id) {
+        TransferBatch batch = batchRepository.findForUpdateById(id).orElse(null);
+        if (batch == null || batch.getStatus() == TransferBatchStatus.PENDING
+            || batch.getStatus() == TransferBatchStatus.PROCESSING) {
+            // A batch still running records its own progress
+            return;
+        }
+        Map<String, Integer> legs = legRepository.countByStatus(id);
+        int succeeded = legs.getOrDefault("SUCCESS", 0);
+        int inDoubt = legs.getOrDefault("PENDING", 0);
+        batch.setFailedCount(batch.getTotalCount() - succeeded - inDoubt);
+        if (batch.getStatus() == TransferBatchStatus.COMPLETED) {
+            if (succeeded + inDoubt == 0) {
+                batch.setStatus(TransferBatchStatus.FAILED);
+            }
+            batch.setDescription(completedDescription(succeeded, batch.getTotalCount(), inDoubt));
+        }
+        batchRepository.save(batch);
+        log.info("Batch {} recounted after recovery: {}", id, batch.getDescription());
+    }
+
+    static String chunkRef(long batchId, Long firstDestination) {
+        return "batch-" + batchId + "-" + firstDestination;
+    }
+
+    private void process(TransferBatch batch, Destinations legs) {
+        try {
+            batch.setStatus(TransferBatchStatus.PROCESSING);
+            batch.setDescription("Batch is being processed");
+            batchRepository.save(batch);
+
+            BankAccountDTO source = accountsClient.getBankAccountById(batch.getFromBankAccountId()).getData();
+            if (source == null) {
+                finish(batch, TransferBatchStatus.FAILED, "Source bank account not found");
+                return;
+            }
+            if (!batch.getUsername().equals(source.getAccountUsername())) {
+                finish(batch, TransferBatchStatus.FAILED, "Source bank account does not belong to the user");
+                return;
+            }
+            if (source.getBalance().compareTo(batch.getTotalAmount()) < 0) {
+                finish(batch, TransferBatchStatus.FAILED, "Insufficient balance");
+                return;
+            }
+
+            Map<Long, BigDecimal> amounts = legs.amounts();
+            Map<Long, Integer> legCounts = legs.legCounts();
+
+            // One blocker check for the whole batch. Checking the largest leg applies the amount
+            // threshold exactly as per-leg checks would, without one remote call per leg
+            BlockCheckResponse blockCheck = blockerClient.checkOperation(BlockCheckRequest.builder()
+                .username(batch.getUsername())
+                .amount(legs.largestLeg())
+                .type("TRANSFER")
+                .build());
+            if (blockCheck.blocked()) {
+                finish(batch, TransferBatchStatus.BLOCKED, BLOCKED_MESSAGE);
+                notificationClient.sendNotification(NotificationRequest.builder()
+                    .username(batch.getUsername())
+                    .message(BLOCKED_MESSAGE)
+                    .type("WARNING")
+                    .build());
+                return;
+            }
+
+            Map<Long, BankAccountDTO> destinations = lookupDestinations(new ArrayList<>(amounts.keySet()));
+            List<Long> unknown = new ArrayList<>();
+            List<Long> postable = new ArrayList<>();
+            for (Long destination : amounts.keySet()) {
+                if (destination.equals(source.getId()) || !destinations.containsKey(destination)) {
+                    unknown.add(destination);
+                } else {
+                    postable.add(destination);
+                }
+            }
+            if (!unknown.isEmpty()) {
+                legRepository.fail(batch.getId(), unknown, "FAILED", "Destination bank account not found");
+                recordProgress(batch, unknown, legCounts, true);
+            }
+
+            // The limits count the whole batch up front; the part of chunks that fail is given back below
+            BigDecimal toOthers = BigDecimal.ZERO;
+            for (Long destination : postable) {
+                if (!batch.getUsername().equals(destinations.get(destination).getAccountUsername())) {
+                    toOthers = toOthers.add(amounts.get(destination));
+                }
+            }
+            TransferLimits.Reservation reservation;
+            try {
+                reservation = toOthers.signum() > 0
+                    ? transferLimits.reserve(batch.getUsername(), toOthers, source.getCurrency())
+                    : null;
+            } catch (BusinessException ex) {
+                finish(batch, TransferBatchStatus.FAILED, ex.getMessage());
+                return;
+            }
+
+            int inDoubt = 0;
+            BigDecimal kept = BigDecimal.ZERO;
+            try {
+                for (int from = 0; from < postable.size(); from += chunkSize) {
+                    List<Long> chunk = postable.subList(from, Math.min(from + chunkSize, postable.size()));
+                    int failedBefore = batch.getFailedCount();
+                    inDoubt += postChunk(batch, source, chunk, amounts, destinations, legCounts);
+                    if (batch.getFailedCount() == failedBefore) {
+                        // Posted or in doubt: either may have moved the money, so it stays counted
+                        for (Long destination : chunk) {
+                            if (!batch.getUsername().equals(destinations.get(destination).getAccountUsername())) {
+                                kept = kept.add(amounts.get(destination));
+                            }
+                        }
+                    }
+                }
+            } finally {
+                if (reservation != null && kept.compareTo(toOthers) < 0) {
+                    transferLimits.release(reservation.portion(toOthers.subtract(kept), toOthers));
+                }
+            }
+
+            int succeeded = batch.getProcessedCount() - batch.getFailedCount() - inDoubt;
+            finish(batch, succeeded + inDoubt > 0 ? TransferBatchStatus.COMPLETED : TransferBatchStatus.FAILED,
+                completedDescription(succeeded, batch.getTotalCount(), inDoubt));
+            notificationClient.sendNotification(NotificationRequest.builder()
+                .username(batch.getUsername())
+                .message("Batch transfer " + batch.getId() + ": " + batch.getDescription())
+                .type("INFO")
+                .build());
+        } catch (Exception ex) {
+            log.error("Batch {} failed", batch.getId(), ex);
+            String reason = ex instanceof FeignException feignException
+                ? resolveFeignMessage("Accounts service error", feignException)
+                : "Batch failed: " + ex.getMessage();
+            finish(batch, TransferBatchStatus.FAILED, reason);
+        }
+    }
+
+    private Map<Long, BankAccountDTO> lookupDestinations(List<Long> ids) {
+        Map<Long, BankAccountDTO> destinations = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            ApiResponse<List<BankAccountDTO>> response =
+                accountsClient.getBankAccountsByIds(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            if (response == null || !response.isSuccess() || response.getData() == null) {
+                throw new BusinessException("Unable to look up destination accounts: "
+                    + (response == null ? "no response" : response.getMessage()));
+            }
+            response.getData().forEach(account -> destinations.put(account.getId(), account));
+        }
+        return destinations;
+    }
+
+    /**
+     * Posts one chunk and records its legs. Returns the number of legs left PENDING because the
+     * outcome of the posting, or the recording of a successful one, could not be settled.
+     */
+    private int postChunk(TransferBatch batch, BankAccountDTO source, List<Long> chunk, Map<Long, BigDecimal> amounts,
+        Map<Long, BankAccountDTO> destinations, Map<Long, Integer> legCounts) {
+        String settlementRef = chunkRef(batch.getId(), chunk.get(0));
+        BigDecimal debit = BigDecimal.ZERO;
+        List<UpdateBalanceRequest> postings = new ArrayList<>(chunk.size() + 1);
+        try {
+            // The whole chunk is priced against one local rate snapshot
+            ExchangeRatesSnapshot rates = null;
+            postings.add(null);
+            List<String> toCurrencies = new ArrayList<>(chunk.size());
+            List<BigDecimal> legRates = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Long destination = chunk.get(i);
+                BigDecimal amount = amounts.get(destination);
+                String toCurrency = destinations.get(destination).getCurrency();
+                BigDecimal converted = amount;
+                if (!source.getCurrency().equals(toCurrency)) {
+                    rates = rates == null ? exchangeRateCache.current() : rates;
+                    converted = rates.convert(amount, source.getCurrency(), toCurrency);
+                }
+                debit = debit.add(amount);
+                postings.add(UpdateBalanceRequest.builder()
+                    .bankAccountId(destination)
+                    .amount(converted)
+                    .operation(ADD)
+                    .operationId(settlementRef + "-" + destination)
+                    .build());
+                toCurrencies.add(toCurrency);
+                legRates.add(converted.divide(amount, 10, RoundingMode.HALF_UP));
+            }
+            // The postings are applied together, so the key of the debit stands for the whole chunk
+            postings.set(0, UpdateBalanceRequest.builder()
+                .bankAccountId(source.getId())
+                .amount(debit)
+                .operation(SUBTRACT)
+                .operationId(settlementRef)
+                .build());
+            legRepository.journal(batch.getId(), chunk, settlementRef, toCurrencies, legRates,
+                source.getCurrency(), rates == null ? null : rates.getVersion());
+        } catch (Exception ex) {
+            // Nothing has been posted yet
+            failChunk(batch, chunk, legCounts, ex.getMessage());
+            return 0;
+        }
+
+        String failure;
+        try {
+            ApiResponse<List<BankAccountDTO>> response = accountsClient.updateBalances(postings);
+            failure = response == null ? "Accounts service error" : response.isSuccess() ? null : response.getMessage();
+        } catch (FeignException ex) {
+            failure = resolveFeignMessage("Accounts service error", ex);
+        } catch (RuntimeException ex) {
+            failure = ex.getMessage();
+        }
+        if (failure != null) {
+            Boolean applied = settlement.wasApplied(settlementRef);
+            if (applied == null) {
+                log.warn("Batch {}: chunk {} could not be confirmed ({}), left for recovery",
+                    batch.getId(), settlementRef, failure);
+                return recordInDoubt(batch, chunk, legCounts);
+            }
+            if (!applied) {
+                failChunk(batch, chunk, legCounts, failure);
+                return 0;
+            }
+        }
+
+        // The legs and their daily flows are stored together; the source sends every leg of the chunk
+        DailyFlows flows = new DailyFlows();
+        LocalDate today = LocalDate.now();
+        int legs = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            flows.received(chunk.get(i), today, postings.get(i + 1).getAmount(), legCounts.get(chunk.get(i)));
+            legs += legCounts.get(chunk.get(i));
+        }
+        flows.sent(source.getId(), today, debit, legs);
+        try {
+            dailyFlowRecorder.write(() -> legRepository.settle(batch.getId(), chunk), flows);
+        } catch (Exception ex) {
+            // The money has moved: the legs must not be failed, recovery completes them from the reference
+            log.error("Batch {}: chunk {} was posted but could not be recorded, left for recovery",
+                batch.getId(), settlementRef, ex);
+            return recordInDoubt(batch, chunk, legCounts);
+        }
+        recordProgress(batch, chunk, legCounts, false);
+        return 0;
+    }
+
+    private void failChunk(TransferBatch batch, List<Long> chunk, Map<Long, Integer> legCounts, String reason) {
+        log.warn("Batch {}: chunk of {} destinations failed: {}", batch.getId(), chunk.size(), reason);
+        legRepository.fail(batch.getId(), chunk, "FAILED", reason);
+        recordProgress(batch, chunk, legCounts, true);
+    }
+
+    private int recordInDoubt(TransferBatch batch, List<Long> chunk, Map<Long, Integer> legCounts) {
+        recordProgress(batch, chunk, legCounts, false);
+        int legs = 0;
+        for (Long destination : chunk) {
+            legs += legCounts.get(destination);
+        }
+        return legs;
+    }
+
+    private void recordProgress(TransferBatch batch, List<Long> destinations, Map<Long, Integer> legCounts, boolean failed) {
+        int legs = 0;
+        for (Long destination : destinations) {
+            legs += legCounts.get(destination);
+        }
+        batch.setProcessedCount(batch.getProcessedCount() + legs);
+        if (failed) {
+            batch.setFailedCount(batch.getFailedCount() + legs);
+        }
+        batchRepository.save(batch);
+    }
+
+    private void finish(TransferBatch batch, TransferBatchStatus status, String description) {
+        if (status != TransferBatchStatus.COMPLETED) {
+            // Whatever is still pending will not be posted any more
+            legRepository.failAll(batch.getId(), status == TransferBatchStatus.BLOCKED ? "BLOCKED" : "FAILED", description);
+            batch.setFailedCount(batch.getFailedCount() + batch.getTotalCount() - batch.getProcessedCount());
+            batch.setProcessedCount(batch.getTotalCount());
+        }
+        batch.setStatus(status);
+        batch.setDescription(description);
+        batchRepository.save(batch);
+        log.info("Batch {} finished with {}: {}", batch.getId(), status, description);
+    }
+
+    private static String completedDescription(int succeeded, int total, int inDoubt) {
+        return succeeded + " of " + total + " transfers completed"
+            + (inDoubt > 0 ? ", " + inDoubt + " awaiting confirmation" : "");
+    }
+
+    /**
+     * The legs of a batch summed per destination, so every account is posted once however many legs it receives.
+     */
+    private record Destinations(Map<Long, BigDecimal> amounts, Map<Long, Integer> legCounts, BigDecimal largestLeg,
+        BigDecimal totalAmount) {
+
+        static Destinations of(List<TransferBatchItem> items) {
+            Map<Long, BigDecimal> amounts = new LinkedHashMap<>();
+            Map<Long, Integer> legCounts = new HashMap<>();
+            BigDecimal largestLeg = BigDecimal.ZERO;
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            for (TransferBatchItem item : items) {
+                amounts.merge(item.toBankAccountId(), item.amount(), BigDecimal::add);
+                legCounts.merge(item.toBankAccountId(), 1, Integer::sum);
+                largestLeg = largestLeg.max(item.amount());
+                totalAmount = totalAmount.add(item.amount());
+            }
+            return new Destinations(amounts, legCounts, largestLeg, totalAmount);
+        }
+    }
+
+    private static TransferBatchDTO toDTO(TransferBatch batch) {
+        return TransferBatchDTO.builder()
+            .id(batch.getId())
+            .fromBankAccountId(batch.getFromBankAccountId())
+            .status(batch.getStatus().name())
+            .totalCount(batch.getTotalCount())
+            .processedCount(batch.getProcessedCount())
+            .failedCount(batch.getFailedCount())
+            .totalAmount(batch.getTotalAmount())
+            .description(batch.getDescription())
+            .createdAt(batch.getCreatedAt())
+            .updatedAt(batch.getUpdatedAt())
+            .build();
+    }
+
+    private String resolveFeignMessage(String defaultMessage, FeignException ex) {
+        if (ex.responseBody().isPresent()) {
+            try {
+                JsonNode node = OBJECT_MAPPER.readTree(ex.contentUTF8());
+                if (node.has("message")) {
+                    return node.get("message").asText();
+                }
+            } catch (Exception ignored) {
+            }
+        }
+        return defaultMessage;
+    }
+}
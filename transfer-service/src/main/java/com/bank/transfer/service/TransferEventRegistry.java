@@ -0,0 +1,178 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.transfer.TransferDTO;
+import com.bank.transfer.entity.Transfer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent event subscribers per user. Publishing never blocks the writer of a transfer: the
+ * event is offered to a bounded buffer per subscriber and a virtual thread drains it to the
+ * connection. A subscriber that cannot keep up loses its oldest buffered events rather than
+ * holding memory or slowing down transfers; a subscriber whose connection broke is dropped.
+ * <p>
+ * Subscriptions are local to the instance. Transfers are processed on the instance that accepted
+ * them, so a client sees the transfers it started through the same instance.
+ */
+@Slf4j
+@Component
+public class TransferEventRegistry {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("transfer-stream-", 0).factory());
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final int maxSubscriptionsPerUser;
+
+    public TransferEventRegistry(@Value("${transfer.stream.timeout-ms:1800000}") long timeoutMs,
+        @Value("${transfer.stream.buffer-size:64}") int bufferSize,
+        @Value("${transfer.stream.max-subscriptions-per-user:5}") int maxSubscriptionsPerUser) {
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscriptionsPerUser = Math.max(1, maxSubscriptionsPerUser);
+    }
+
+    public SseEmitter subscribe(String username) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(username, emitter, bufferSize);
+        // Added inside compute so a concurrent removal of the last subscriber cannot orphan the list
+        List<Subscriber> userSubscribers = subscribers.compute(username, (key, existing) -> {
+            List<Subscriber> list = existing != null ? existing : new CopyOnWriteArrayList<>();
+            list.add(subscriber);
+            return list;
+        });
+        // Every open tab keeps a connection; the oldest ones go first when a user opens too many
+        while (userSubscribers.size() > maxSubscriptionsPerUser) {
+            Subscriber oldest = userSubscribers.get(0);
+            remove(oldest);
+            oldest.emitter.complete();
+        }
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(ex -> remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Pushes the current state of {@code transfer} to its owner's subscribers.
+     */
+    public void publish(Transfer transfer) {
+        if (transfer.getUsername() == null) {
+            return;
+        }
+        List<Subscriber> userSubscribers = subscribers.get(transfer.getUsername());
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+        TransferDTO event = TransferServiceImpl.toDTO(transfer);
+        for (Subscriber subscriber : userSubscribers) {
+            offer(subscriber, event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        int count = 0;
+        for (List<Subscriber> userSubscribers : subscribers.values()) {
+            count += userSubscribers.size();
+        }
+        return count;
+    }
+
+    /**
+     * Keeps idle connections open through proxies and finds the ones whose client has gone away.
+     */
+    @Scheduled(fixedDelayString = "${transfer.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (List<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                offer(subscriber, HEARTBEAT);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+        senders.shutdown();
+    }
+
+    private void offer(Subscriber subscriber, Object event) {
+        while (!subscriber.buffer.offer(event)) {
+            if (subscriber.buffer.poll() != null) {
+                log.debug("Transfer stream of {} is behind, dropped its oldest event", subscriber.username);
+            }
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException ex) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            try {
+                for (Object event; (event = subscriber.buffer.poll()) != null; ) {
+                    if (event == HEARTBEAT) {
+                        subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        TransferDTO transfer = (TransferDTO) event;
+                        subscriber.emitter.send(SseEmitter.event()
+                            .id(transfer.getId() + ":" + transfer.getStatus() + ":" + transfer.getStage())
+                            .name("transfer")
+                            .data(transfer));
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away or the emitter has completed
+                remove(subscriber);
+                subscriber.buffer.clear();
+                return;
+            } finally {
+                subscriber.draining.set(false);
+            }
+            // An event offered after the buffer was found empty but before the flag was reset
+        } while (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.username, (key, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private static final class Subscriber {
+        private final String username;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Object> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(String username, SseEmitter emitter, int bufferSize) {
+            this.username = username;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
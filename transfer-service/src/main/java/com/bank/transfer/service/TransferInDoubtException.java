@@ -0,0 +1,14 @@
+package com.bank.transfer.service;
+
+import com.bank.common.exception.BusinessException;
+
+/**
+ * A transfer step whose outcome could not be established. The transfer stays PENDING with its
+ * journal and is finished by {@link TransferRecoveryWorker}.
+ */
+public class TransferInDoubtException extends BusinessException {
+
+    public TransferInDoubtException(Long transferId) {
+        super("Transfer " + transferId + " could not be confirmed and will be completed or reversed automatically");
+    }
+}
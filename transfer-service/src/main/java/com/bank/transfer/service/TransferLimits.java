@@ -0,0 +1,354 @@
+package com.bank.transfer.service;
+
+import com.bank.common.exception.BusinessException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.common.exchange.ExchangeRatesSnapshot;
+import com.bank.transfer.repository.TransferLimitRepository;
+import com.bank.transfer.repository.TransferLimitRepository.UsageDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user hourly and daily limits on money sent to other users, in RUB. Each user with recent
+ * transfers has a ring of 5-minute buckets covering the last day, so a check sums at most a few
+ * hundred longs in memory and never touches the database. A window counts every bucket it
+ * overlaps, which errs on the side of the limit by at most one bucket.
+ * <p>
+ * A transfer reserves its amount when it is checked and releases it again unless it succeeds or
+ * ends in doubt. Reservations are also kept as pending deltas, which every {@code sync-interval-ms}
+ * are added to {@code transfer.limit_usage}; the buckets any instance changed since the last sync
+ * are then read back, so each instance sees the others' usage within one interval. At startup the
+ * counters are rebuilt from the same table.
+ * <p>
+ * Every way money leaves for another user counts: single transfers reserve their amount, a payroll
+ * batch reserves its total to other users' accounts and gives back the part of any chunk that
+ * failed, and each netted standing-order transfer reserves its own amount.
+ */
+@Slf4j
+@Component
+public class TransferLimits {
+
+    static final long BUCKET_SECONDS = 300;
+    // Buckets overlapping the last hour and the last day, counting the current partial one
+    static final int HOUR_BUCKETS = 13;
+    static final int DAY_BUCKETS = 289;
+
+    // Cursor overlap for upserts that committed after a read with an earlier updated_at
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+    private static final Duration RETENTION = Duration.ofDays(2);
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final Map<String, UsageCounter> counters = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final TransferLimitRepository limitRepository;
+    private final ExchangeRateCache exchangeRateCache;
+    private final Clock clock;
+    private final boolean enabled;
+    private final long hourlyLimit;
+    private final long dailyLimit;
+    private final BigDecimal hourly;
+    private final BigDecimal daily;
+    // Database time of the last read; null until the counters have been rebuilt
+    private volatile LocalDateTime syncedUpTo;
+
+    @Autowired
+    public TransferLimits(TransferLimitRepository limitRepository, ExchangeRateCache exchangeRateCache,
+        @Value("${transfer.limits.enabled:true}") boolean enabled,
+        @Value("${transfer.limits.hourly:0}") BigDecimal hourly,
+        @Value("${transfer.limits.daily:0}") BigDecimal daily) {
+        this(limitRepository, exchangeRateCache, Clock.systemUTC(), enabled, hourly, daily);
+    }
+
+    TransferLimits(TransferLimitRepository limitRepository, ExchangeRateCache exchangeRateCache, Clock clock,
+        boolean enabled, BigDecimal hourly, BigDecimal daily) {
+        this.limitRepository = limitRepository;
+        this.exchangeRateCache = exchangeRateCache;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.hourly = hourly;
+        this.daily = daily;
+        this.hourlyLimit = toMinor(hourly);
+        this.dailyLimit = toMinor(daily);
+    }
+
+    /**
+     * Counts {@code amount} against the user's limits, or throws {@link BusinessException} if it would
+     * exceed one. Returns null when limits are disabled.
+     */
+    public Reservation reserve(String username, BigDecimal amount, String currency) {
+        if (!enabled) {
+            return null;
+        }
+        long minor = ExchangeRatesSnapshot.BASE_CURRENCY.equals(currency)
+            ? toMinor(amount)
+            : toMinor(exchangeRateCache.current().toBase(amount, currency));
+        long bucket = currentBucket();
+        counters.compute(username, (key, counter) -> {
+            UsageCounter usage = counter != null ? counter : new UsageCounter();
+            usage.advance(bucket);
+            if (hourlyLimit > 0 && usage.sum(HOUR_BUCKETS) + minor > hourlyLimit) {
+                throw new BusinessException("Hourly transfer limit of " + hourly.toPlainString() + " RUB exceeded");
+            }
+            if (dailyLimit > 0 && usage.sum(DAY_BUCKETS) + minor > dailyLimit) {
+                throw new BusinessException("Daily transfer limit of " + daily.toPlainString() + " RUB exceeded");
+            }
+            usage.addOwn(bucket, minor);
+            return usage;
+        });
+        dirty.add(username);
+        return new Reservation(username, bucket, minor);
+    }
+
+    /**
+     * Gives back a reservation of a transfer that did not go through.
+     */
+    public void release(Reservation reservation) {
+        if (reservation == null) {
+            return;
+        }
+        long bucket = currentBucket();
+        counters.compute(reservation.username(), (key, counter) -> {
+            UsageCounter usage = counter != null ? counter : new UsageCounter();
+            usage.advance(bucket);
+            usage.addOwn(reservation.bucket(), -reservation.amount());
+            return usage;
+        });
+        dirty.add(reservation.username());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Publishes the local usage since the last sync and takes in everyone else's.
+     */
+    @Scheduled(fixedDelayString = "${transfer.limits.sync-interval-ms:5000}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        if (syncedUpTo == null) {
+            rebuild();
+            return;
+        }
+        List<UsageDelta> flushed = drainPending();
+        try {
+            limitRepository.add(flushed);
+        } catch (Exception ex) {
+            log.warn("Could not publish transfer limit usage, retrying next sync: {}", ex.getMessage());
+            restorePending(flushed);
+            return;
+        }
+        try {
+            LocalDateTime now = limitRepository.now();
+            apply(limitRepository.findChanged(windowStart(), syncedUpTo.minus(SYNC_OVERLAP)));
+            syncedUpTo = now;
+            evictIdle();
+            limitRepository.purgeBefore(now.minus(RETENTION));
+        } catch (Exception ex) {
+            log.warn("Could not read shared transfer limit usage: {}", ex.getMessage());
+        }
+    }
+
+    int trackedUsers() {
+        return counters.size();
+    }
+
+    private void rebuild() {
+        try {
+            LocalDateTime now = limitRepository.now();
+            List<UsageDelta> rows = limitRepository.findChanged(windowStart(), BEGINNING);
+            apply(rows);
+            syncedUpTo = now;
+            log.info("Rebuilt transfer limit counters of {} users from {} buckets", counters.size(), rows.size());
+        } catch (Exception ex) {
+            // Reservations keep counting locally and are merged in once the rebuild succeeds
+            log.warn("Could not rebuild transfer limit counters, retrying next sync: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Replaces buckets with their shared totals, plus whatever this instance has not published yet.
+     */
+    private void apply(List<UsageDelta> rows) {
+        long current = currentBucket();
+        for (UsageDelta row : rows) {
+            long bucket = row.bucketStart().toEpochSecond(ZoneOffset.UTC) / BUCKET_SECONDS;
+            long shared = toMinor(row.amount());
+            counters.compute(row.username(), (key, counter) -> {
+                UsageCounter usage = counter != null ? counter : new UsageCounter();
+                usage.advance(current);
+                usage.setShared(bucket, shared);
+                return usage;
+            });
+        }
+    }
+
+    private List<UsageDelta> drainPending() {
+        List<UsageDelta> deltas = new ArrayList<>();
+        for (String username : dirty) {
+            dirty.remove(username);
+            counters.computeIfPresent(username, (key, counter) -> {
+                counter.drainPending().forEach((bucket, amount) -> {
+                    if (amount != 0) {
+                        deltas.add(new UsageDelta(username, bucketStart(bucket), fromMinor(amount)));
+                    }
+                });
+                return counter;
+            });
+        }
+        return deltas;
+    }
+
+    private void restorePending(List<UsageDelta> deltas) {
+        for (UsageDelta delta : deltas) {
+            long bucket = delta.bucketStart().toEpochSecond(ZoneOffset.UTC) / BUCKET_SECONDS;
+            counters.computeIfPresent(delta.username(), (key, counter) -> {
+                counter.restorePending(bucket, toMinor(delta.amount()));
+                return counter;
+            });
+            dirty.add(delta.username());
+        }
+    }
+
+    private void evictIdle() {
+        long current = currentBucket();
+        for (String username : counters.keySet()) {
+            counters.computeIfPresent(username, (key, counter) -> counter.isIdle(current) ? null : counter);
+        }
+    }
+
+    private long currentBucket() {
+        return clock.instant().getEpochSecond() / BUCKET_SECONDS;
+    }
+
+    private LocalDateTime windowStart() {
+        return bucketStart(currentBucket() - DAY_BUCKETS + 1);
+    }
+
+    private static LocalDateTime bucketStart(long bucket) {
+        return LocalDateTime.ofEpochSecond(bucket * BUCKET_SECONDS, 0, ZoneOffset.UTC);
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    /**
+     * Amount, in kopecks, counted for one transfer in the bucket it was checked in.
+     */
+    public record Reservation(String username, long bucket, long amount) {
+
+        /**
+         * The share of this reservation that {@code part} of the reserved {@code whole} stands for,
+         * rounded down so that giving it back never releases more than was reserved.
+         */
+        public Reservation portion(BigDecimal part, BigDecimal whole) {
+            long share = BigDecimal.valueOf(amount).multiply(part).divide(whole, 0, RoundingMode.DOWN).longValueExact();
+            return new Reservation(username, bucket, share);
+        }
+    }
+
+    /**
+     * The last day of one user's usage. Only accessed inside {@code counters.compute}, which
+     * serializes access per user.
+     */
+    private static final class UsageCounter {
+
+        private final long[] ring = new long[DAY_BUCKETS];
+        // Newest bucket held by the ring; the ring covers (head - DAY_BUCKETS, head]
+        private long head = Long.MIN_VALUE;
+        private long lastUsed = Long.MIN_VALUE;
+        // Own usage not yet published, by bucket
+        private Map<Long, Long> pending;
+
+        void advance(long bucket) {
+            if (head != Long.MIN_VALUE && bucket <= head) {
+                return;
+            }
+            if (head == Long.MIN_VALUE || bucket - head >= DAY_BUCKETS) {
+                Arrays.fill(ring, 0);
+            } else {
+                for (long expired = head + 1; expired <= bucket; expired++) {
+                    ring[slot(expired)] = 0;
+                }
+            }
+            head = bucket;
+        }
+
+        long sum(int buckets) {
+            long total = 0;
+            for (int i = 0; i < buckets; i++) {
+                total += ring[slot(head - i)];
+            }
+            return total;
+        }
+
+        void addOwn(long bucket, long amount) {
+            if (holds(bucket)) {
+                ring[slot(bucket)] += amount;
+            }
+            restorePending(bucket, amount);
+            lastUsed = Math.max(lastUsed, bucket);
+        }
+
+        void setShared(long bucket, long shared) {
+            if (holds(bucket)) {
+                ring[slot(bucket)] = shared + (pending == null ? 0 : pending.getOrDefault(bucket, 0L));
+                lastUsed = Math.max(lastUsed, bucket);
+            }
+        }
+
+        void restorePending(long bucket, long amount) {
+            if (pending == null) {
+                pending = new HashMap<>();
+            }
+            pending.merge(bucket, amount, Long::sum);
+        }
+
+        Map<Long, Long> drainPending() {
+            Map<Long, Long> drained = pending == null ? Map.of() : pending;
+            pending = null;
+            return drained;
+        }
+
+        boolean isIdle(long current) {
+            return pending == null && lastUsed <= current - DAY_BUCKETS;
+        }
+
+        private boolean holds(long bucket) {
+            return bucket <= head && bucket > head - DAY_BUCKETS;
+        }
+
+        private static int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) DAY_BUCKETS);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.transfer.TransferResponse;
+
+import java.util.List;
+
+public interface TransferNettingService {
+
+    /**
+     * Validates every transfer on its own, records each of them, and posts only the net balance
+     * change per account in one atomic call. Responses are in the order of {@code transfers}.
+     */
+    List<TransferResponse> settle(List<NettedTransfer> transfers);
+}
@@ -0,0 +1,368 @@
+package com.bank.transfer.service;
+
+import com.bank.common.constants.TransactionStatus;
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.dto.contracts.blocker.BlockCheckRequest;
+import com.bank.common.dto.contracts.notifications.NotificationRequest;
+import com.bank.common.dto.contracts.transfer.TransferResponse;
+import com.bank.common.exception.BusinessException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.common.exchange.ExchangeRatesSnapshot;
+import com.bank.transfer.client.AccountsClient;
+import com.bank.transfer.client.BlockerClient;
+import com.bank.transfer.client.NotificationClient;
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.entity.TransferStage;
+import com.bank.transfer.repository.TransferRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Settles a group of account-to-account transfers, such as the standing orders that fall due
+ * together, by posting net positions. Each transfer is still validated, blocker-checked and
+ * recorded on its own, but accounts-service receives one posting per account instead of a debit
+ * and a credit per transfer, so money moving back and forth between the same accounts costs
+ * nothing extra. Balances are only checked against the net debit. Transfers to other users'
+ * accounts count against the sender's {@link TransferLimits} one by one, as single transfers do.
+ * <p>
+ * If the netted posting is rejected, for instance because one account cannot cover its net debit,
+ * every transfer is retried as a netted group of one, so a single bad account fails only its own
+ * transfers.
+ * <p>
+ * Each posting call carries idempotency keys derived from a settlement reference that is journaled
+ * on its transfers first. When a call fails without a clear answer, the reference is voided to
+ * learn whether the postings were applied; if even that cannot be told, the transfers stay PENDING
+ * and the recovery worker settles them later through {@link TransferSettlement#settleNetted}.
+ */
+@Slf4j
+@Service
+public class TransferNettingServiceImpl implements TransferNettingService {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String BLOCKED_MESSAGE = "The operation looks suspicious and is blocked by bank";
+    private static final String COMPLETED_MESSAGE = "Transfer completed successfully";
+
+    private final TransferRepository transferRepository;
+    private final AccountsClient accountsClient;
+    private final ExchangeRateCache exchangeRateCache;
+    private final BlockerClient blockerClient;
+    private final NotificationClient notificationClient;
+    private final TransferSettlement settlement;
+    private final DailyFlowRecorder dailyFlowRecorder;
+    private final TransferLimits transferLimits;
+    private final int lookupChunkSize;
+
+    public TransferNettingServiceImpl(TransferRepository transferRepository,
+        AccountsClient accountsClient,
+        ExchangeRateCache exchangeRateCache,
+        BlockerClient blockerClient,
+        NotificationClient notificationClient,
+        TransferSettlement settlement,
+        DailyFlowRecorder dailyFlowRecorder,
+        TransferLimits transferLimits,
+        @Value("${transfer.batch.chunk-size:500}") int lookupChunkSize) {
+        this.transferRepository = transferRepository;
+        this.accountsClient = accountsClient;
+        this.exchangeRateCache = exchangeRateCache;
+        this.blockerClient = blockerClient;
+        this.notificationClient = notificationClient;
+        this.settlement = settlement;
+        this.dailyFlowRecorder = dailyFlowRecorder;
+        this.transferLimits = transferLimits;
+        this.lookupChunkSize = Math.max(1, lookupChunkSize);
+    }
+
+    @Override
+    public List<TransferResponse> settle(List<NettedTransfer> transfers) {
+        int count = transfers.size();
+        Transfer[] records = new Transfer[count];
+        TransferLimits.Reservation[] reservations = new TransferLimits.Reservation[count];
+        for (int i = 0; i < count; i++) {
+            NettedTransfer transfer = transfers.get(i);
+            records[i] = Transfer.builder()
+                .username(transfer.username())
+                .fromBankAccountId(transfer.fromBankAccountId())
+                .toBankAccountId(transfer.toBankAccountId())
+                .amount(transfer.amount())
+                .status(TransactionStatus.PENDING.name())
+                .stage(TransferStage.ACCEPTED)
+                .build();
+        }
+
+        try {
+            Map<Long, BankAccountDTO> accounts = lookupAccounts(transfers);
+            Set<String> blockedUsers = checkBlocker(transfers, accounts);
+            ExchangeRatesSnapshot rates = null;
+            List<Integer> postable = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                NettedTransfer transfer = transfers.get(i);
+                BankAccountDTO from = accounts.get(transfer.fromBankAccountId());
+                BankAccountDTO to = accounts.get(transfer.toBankAccountId());
+                String failure = validate(transfer, from, to);
+                if (failure != null) {
+                    fail(records[i], TransactionStatus.FAILED.name(), failure);
+                    continue;
+                }
+                records[i].setFromCurrency(from.getCurrency());
+                records[i].setToCurrency(to.getCurrency());
+                if (!transfer.username().equals(to.getAccountUsername())) {
+                    if (blockedUsers.contains(transfer.username())) {
+                        fail(records[i], "BLOCKED", BLOCKED_MESSAGE);
+                        continue;
+                    }
+                    try {
+                        reservations[i] = transferLimits.reserve(transfer.username(), transfer.amount(), from.getCurrency());
+                    } catch (BusinessException ex) {
+                        fail(records[i], TransactionStatus.FAILED.name(), ex.getMessage());
+                        continue;
+                    }
+                }
+                if (from.getCurrency().equals(to.getCurrency())) {
+                    records[i].setConvertedAmount(transfer.amount());
+                } else {
+                    rates = rates == null ? exchangeRateCache.current() : rates;
+                    records[i].setConvertedAmount(rates.convert(transfer.amount(), from.getCurrency(), to.getCurrency()));
+                    records[i].setRateVersion(rates.getVersion());
+                }
+                records[i].setStage(TransferStage.VALIDATED);
+                postable.add(i);
+            }
+
+            // Recorded before anything is posted, so the audit trail holds every transfer of the group
+            transferRepository.saveAll(Arrays.asList(records));
+
+            if (!postable.isEmpty()) {
+                String failure = postOrHold(records, postable, "net-" + records[postable.get(0)].getId() + "-g");
+                if (failure != null && postable.size() > 1) {
+                    log.info("Netted posting of {} transfers rejected ({}), posting them one by one",
+                        postable.size(), failure);
+                    for (Integer index : postable) {
+                        String single = postOrHold(records, List.of(index), "net-" + records[index].getId() + "-s");
+                        if (single != null) {
+                            fail(records[index], TransactionStatus.FAILED.name(), single);
+                        }
+                    }
+                } else if (failure != null) {
+                    fail(records[postable.get(0)], TransactionStatus.FAILED.name(), failure);
+                }
+                dailyFlowRecorder.saveAll(postable.stream().map(index -> records[index]).toList());
+            }
+        } catch (Exception ex) {
+            String reason = ex instanceof FeignException feignException
+                ? resolveFeignMessage("Accounts service error", feignException)
+                : ex.getMessage();
+            log.warn("Netted settlement of {} transfers failed: {}", count, reason);
+            for (Transfer record : records) {
+                // Once a posting has been attempted only its settlement reference can tell the outcome
+                if (TransactionStatus.PENDING.name().equals(record.getStatus()) && record.getSettlementRef() == null) {
+                    fail(record, TransactionStatus.FAILED.name(), reason);
+                }
+            }
+            // Transfers completed before the failure have not been stored as such yet
+            dailyFlowRecorder.saveAll(Arrays.asList(records));
+        }
+        for (int i = 0; i < count; i++) {
+            // A transfer left PENDING may still have moved the money, so it keeps its reservation
+            if (TransactionStatus.FAILED.name().equals(records[i].getStatus())) {
+                transferLimits.release(reservations[i]);
+            }
+        }
+
+        notifySenders(records);
+        List<TransferResponse> responses = new ArrayList<>(count);
+        for (Transfer record : records) {
+            responses.add(TransferResponse.builder()
+                .transferId(record.getId())
+                .status(record.getStatus())
+                .message(record.getDescription())
+                .convertedAmount(record.getConvertedAmount())
+                .build());
+        }
+        return responses;
+    }
+
+    /**
+     * Like {@link #post}, but a posting whose outcome cannot be told leaves its transfers PENDING
+     * for the recovery worker and counts as no failure, so it is never retried here.
+     */
+    private String postOrHold(Transfer[] records, List<Integer> indices, String settlementRef) {
+        try {
+            return post(records, indices, settlementRef);
+        } catch (TransferInDoubtException ex) {
+            for (Integer index : indices) {
+                records[index].setDescription(ex.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Posts the net positions of the given transfers in one call and marks them completed.
+     * Returns null on success, otherwise the reason the posting was rejected.
+     */
+    private String post(Transfer[] records, List<Integer> indices, String settlementRef) {
+        NetPositions positions = new NetPositions(indices.size() * 2);
+        for (Integer index : indices) {
+            Transfer record = records[index];
+            positions.add(record.getFromBankAccountId(), record.getFromCurrency(), record.getAmount().negate());
+            positions.add(record.getToBankAccountId(), record.getToCurrency(), record.getConvertedAmount());
+        }
+        List<UpdateBalanceRequest> postings = positions.postings();
+        if (!postings.isEmpty()) {
+            // The postings are applied together, so the key of the first one stands for all of them
+            for (int i = 0; i < postings.size(); i++) {
+                postings.get(i).setOperationId(i == 0 ? settlementRef : settlementRef + "-" + postings.get(i).getBankAccountId());
+            }
+            List<Transfer> group = new ArrayList<>(indices.size());
+            for (Integer index : indices) {
+                records[index].setSettlementRef(settlementRef);
+                group.add(records[index]);
+            }
+            transferRepository.saveAll(group);
+
+            String failure;
+            try {
+                ApiResponse<List<BankAccountDTO>> response = accountsClient.updateBalances(postings);
+                failure = response == null ? "Accounts service error" : response.isSuccess() ? null : response.getMessage();
+            } catch (FeignException ex) {
+                failure = resolveFeignMessage("Accounts service error", ex);
+            } catch (BusinessException ex) {
+                failure = ex.getMessage();
+            }
+            if (failure != null && !settlement.wasApplied(group.get(0), settlementRef)) {
+                return failure;
+            }
+        }
+        if (indices.size() > 1) {
+            log.info("Settled {} transfers with {} postings instead of {}",
+                indices.size(), postings.size(), positions.grossPostings());
+        }
+        for (Integer index : indices) {
+            Transfer record = records[index];
+            record.setStatus("SUCCESS");
+            record.setStage(TransferStage.COMPLETED);
+            record.setDescription(COMPLETED_MESSAGE);
+        }
+        return null;
+    }
+
+    private Map<Long, BankAccountDTO> lookupAccounts(List<NettedTransfer> transfers) {
+        Set<Long> ids = new HashSet<>(transfers.size() * 2);
+        for (NettedTransfer transfer : transfers) {
+            ids.add(transfer.fromBankAccountId());
+            ids.add(transfer.toBankAccountId());
+        }
+        List<Long> idList = new ArrayList<>(ids);
+        Map<Long, BankAccountDTO> accounts = new HashMap<>(idList.size() * 2);
+        for (int from = 0; from < idList.size(); from += lookupChunkSize) {
+            ApiResponse<List<BankAccountDTO>> response = accountsClient.getBankAccountsByIds(
+                idList.subList(from, Math.min(from + lookupChunkSize, idList.size())));
+            if (response == null || !response.isSuccess() || response.getData() == null) {
+                throw new BusinessException("Unable to look up bank accounts: "
+                    + (response == null ? "no response" : response.getMessage()));
+            }
+            response.getData().forEach(account -> accounts.put(account.getId(), account));
+        }
+        return accounts;
+    }
+
+    /**
+     * One blocker check per user, with the largest of their transfers to other users' accounts;
+     * the amount threshold then applies as it would to each transfer on its own.
+     */
+    private Set<String> checkBlocker(List<NettedTransfer> transfers, Map<Long, BankAccountDTO> accounts) {
+        Map<String, BigDecimal> largest = new HashMap<>();
+        for (NettedTransfer transfer : transfers) {
+            BankAccountDTO to = accounts.get(transfer.toBankAccountId());
+            if (to != null && !transfer.username().equals(to.getAccountUsername())) {
+                largest.merge(transfer.username(), transfer.amount(), BigDecimal::max);
+            }
+        }
+        Set<String> blocked = new HashSet<>();
+        largest.forEach((username, amount) -> {
+            if (blockerClient.checkOperation(BlockCheckRequest.builder()
+                .username(username)
+                .amount(amount)
+                .type("TRANSFER")
+                .build()).blocked()) {
+                blocked.add(username);
+            }
+        });
+        return blocked;
+    }
+
+    private static String validate(NettedTransfer transfer, BankAccountDTO from, BankAccountDTO to) {
+        if (from == null) {
+            return "Source bank account not found";
+        }
+        if (!transfer.username().equals(from.getAccountUsername())) {
+            return "Source bank account does not belong to the user";
+        }
+        if (to == null) {
+            return "Destination bank account not found";
+        }
+        if (transfer.fromBankAccountId() == transfer.toBankAccountId()) {
+            return "Source and destination bank accounts must differ";
+        }
+        if (transfer.amount() == null || transfer.amount().signum() <= 0) {
+            return "Amount must be positive";
+        }
+        return null;
+    }
+
+    private static void fail(Transfer record, String status, String reason) {
+        record.setStatus(status);
+        record.setDescription(reason);
+    }
+
+    private void notifySenders(Transfer[] records) {
+        // One summary per user instead of a notification per transfer
+        Map<String, Integer> sent = new HashMap<>();
+        Map<String, Integer> blocked = new HashMap<>();
+        for (Transfer record : records) {
+            if ("SUCCESS".equals(record.getStatus())) {
+                sent.merge(record.getUsername(), 1, Integer::sum);
+            } else if ("BLOCKED".equals(record.getStatus())) {
+                blocked.merge(record.getUsername(), 1, Integer::sum);
+            }
+        }
+        sent.forEach((username, transferCount) -> notificationClient.sendNotification(NotificationRequest.builder()
+            .username(username)
+            .message(transferCount + (transferCount == 1 ? " transfer" : " transfers") + " sent")
+            .type("INFO")
+            .build()));
+        blocked.forEach((username, transferCount) -> notificationClient.sendNotification(NotificationRequest.builder()
+            .username(username)
+            .message(BLOCKED_MESSAGE)
+            .type("WARNING")
+            .build()));
+    }
+
+    private String resolveFeignMessage(String defaultMessage, FeignException ex) {
+        if (ex.responseBody().isPresent()) {
+            try {
+                JsonNode node = OBJECT_MAPPER.readTree(ex.contentUTF8());
+                if (node.has("message")) {
+                    return node.get("message").asText();
+                }
+            } catch (Exception ignored) {
+            }
+        }
+        return defaultMessage;
+    }
+}
@@ -0,0 +1,124 @@
+package com.bank.transfer.service;
+
+import com.bank.transfer.repository.TransferPartitionRepository;
+import com.bank.transfer.repository.TransferPartitionRepository.TransferPartition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of {@code transfer.transfers} ahead of time and applies retention.
+ * Runs at startup and then daily:
+ * <ul>
+ *     <li>creates the partitions of the current month and the next {@code months-ahead} months, so
+ *     an insert always finds its partition;</li>
+ *     <li>detaches every partition that ended more than {@code retention-months} ago and moves it
+ *     into the archive schema, where it can be dumped and dropped without touching the live table.</li>
+ * </ul>
+ * History reads bound {@code created_at}, so the planner skips detached and out-of-range months.
+ * A partition that still holds PENDING transfers is never detached.
+ */
+@Slf4j
+@Component
+public class TransferPartitionMaintenance {
+
+    private final TransferPartitionRepository partitionRepository;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final String archiveSchema;
+    private final boolean dropArchived;
+
+    @Autowired
+    public TransferPartitionMaintenance(TransferPartitionRepository partitionRepository,
+        @Value("${transfer.partitions.enabled:true}") boolean enabled,
+        @Value("${transfer.partitions.months-ahead:3}") int monthsAhead,
+        @Value("${transfer.partitions.retention-months:24}") int retentionMonths,
+        @Value("${transfer.partitions.archive-schema:transfer_archive}") String archiveSchema,
+        @Value("${transfer.partitions.drop-archived:false}") boolean dropArchived) {
+        this(partitionRepository, Clock.systemDefaultZone(), enabled, monthsAhead, retentionMonths, archiveSchema,
+            dropArchived);
+    }
+
+    TransferPartitionMaintenance(TransferPartitionRepository partitionRepository, Clock clock, boolean enabled,
+        int monthsAhead, int retentionMonths, String archiveSchema, boolean dropArchived) {
+        this.partitionRepository = partitionRepository;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.retentionMonths = retentionMonths;
+        this.archiveSchema = archiveSchema;
+        this.dropArchived = dropArchived;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${transfer.partitions.cron:0 15 3 * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            YearMonth current = YearMonth.now(clock);
+            List<TransferPartition> partitions = partitionRepository.findPartitions();
+            createAhead(partitions, current);
+            if (retentionMonths > 0) {
+                applyRetention(partitions, current.minusMonths(retentionMonths).atDay(1).atStartOfDay());
+            }
+        } catch (Exception ex) {
+            log.error("Transfer partition maintenance failed", ex);
+        }
+    }
+
+    private void createAhead(List<TransferPartition> partitions, YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            LocalDateTime start = month.atDay(1).atStartOfDay();
+            LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+            // The partition of pre-partitioning rows may already cover the first months
+            if (partitions.stream().noneMatch(partition -> partition.overlaps(start, end))) {
+                partitionRepository.createPartition(month);
+                log.info("Created transfer partition {}", TransferPartitionRepository.partitionName(month));
+            }
+        }
+    }
+
+    private void applyRetention(List<TransferPartition> partitions, LocalDateTime cutoff) {
+        for (TransferPartition partition : partitions) {
+            if (partition.to() == null || partition.to().isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                if (partition.detachPending()) {
+                    partitionRepository.finalizeDetach(partition.name());
+                } else if (partitionRepository.hasInFlight(partition.name())) {
+                    log.warn("Transfer partition {} is past retention but still has PENDING transfers", partition.name());
+                    continue;
+                } else {
+                    partitionRepository.detach(partition.name());
+                }
+                partitionRepository.archive(partition.name(), archiveSchema);
+                if (dropArchived) {
+                    partitionRepository.dropArchived(partition.name(), archiveSchema);
+                }
+                log.info("Archived transfer partition {} ending {}", partition.name(), partition.to());
+            } catch (Exception ex) {
+                // Most likely another instance got there first; the next run sees the outcome
+                log.warn("Could not archive transfer partition {}: {}", partition.name(), ex.getMessage());
+            }
+        }
+    }
+}
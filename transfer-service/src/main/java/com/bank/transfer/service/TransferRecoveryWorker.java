@@ -0,0 +1,130 @@
+package com.bank.transfer.service;
+
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.repository.TransferRecoveryRepository;
+import com.bank.transfer.repository.TransferRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finishes transfers left PENDING by an instance that died or lost accounts-service in the middle
+ * of one. Stale rows are claimed in batches and settled again from their journaled stage on virtual
+ * threads; every step is keyed, so replaying one that had already been applied changes nothing.
+ * A transfer still in doubt is simply claimed again on a later run.
+ * <p>
+ * Batch legs are only recovered once their chunk has been journaled with a settlement reference;
+ * legs that never got that far are failed by the batch itself. Every batch whose legs were
+ * settled or failed in a run is recounted at the end of it.
+ */
+@Slf4j
+@Component
+public class TransferRecoveryWorker {
+
+    private final TransferRecoveryRepository recoveryRepository;
+    private final TransferRepository transferRepository;
+    private final TransferSettlement settlement;
+    private final TransferBatchService batchService;
+    private final boolean enabled;
+    private final long staleAfterMs;
+    private final int batchSize;
+    private final Semaphore permits;
+
+    public TransferRecoveryWorker(TransferRecoveryRepository recoveryRepository,
+        TransferRepository transferRepository,
+        TransferSettlement settlement,
+        TransferBatchService batchService,
+        @Value("${transfer.recovery.enabled:true}") boolean enabled,
+        @Value("${transfer.recovery.stale-after-ms:300000}") long staleAfterMs,
+        @Value("${transfer.recovery.batch-size:200}") int batchSize,
+        @Value("${transfer.recovery.parallelism:16}") int parallelism) {
+        this.recoveryRepository = recoveryRepository;
+        this.transferRepository = transferRepository;
+        this.settlement = settlement;
+        this.batchService = batchService;
+        this.enabled = enabled;
+        this.staleAfterMs = staleAfterMs;
+        this.batchSize = Math.max(1, batchSize);
+        this.permits = new Semaphore(Math.max(1, parallelism));
+    }
+
+    @Scheduled(fixedDelayString = "${transfer.recovery.interval-ms:60000}",
+        initialDelayString = "${transfer.recovery.initial-delay-ms:10000}")
+    public void recoverStale() {
+        if (!enabled) {
+            return;
+        }
+        int recovered = 0;
+        AtomicInteger inDoubt = new AtomicInteger();
+        Set<Long> batches = ConcurrentHashMap.newKeySet();
+        try (ExecutorService runners = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Long> claimed;
+            do {
+                LocalDateTime now = LocalDateTime.now();
+                claimed = recoveryRepository.claimStale(now.minusNanos(staleAfterMs * 1_000_000), batchSize, now);
+                List<Future<?>> runs = new ArrayList<>(claimed.size());
+                for (Transfer transfer : transferRepository.findAllById(claimed)) {
+                    permits.acquireUninterruptibly();
+                    runs.add(runners.submit(() -> {
+                        try {
+                            if (recover(transfer, inDoubt) && transfer.getBatchId() != null) {
+                                batches.add(transfer.getBatchId());
+                            }
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                }
+                for (Future<?> run : runs) {
+                    run.get();
+                }
+                recovered += runs.size();
+            } while (claimed.size() == batchSize);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.error("Transfer recovery run failed", ex);
+        }
+        for (Long batchId : batches) {
+            try {
+                batchService.refreshProgress(batchId);
+            } catch (Exception ex) {
+                log.warn("Could not recount batch {}: {}", batchId, ex.getMessage());
+            }
+        }
+        if (recovered > 0) {
+            log.info("Recovered {} stale transfers, {} still in doubt", recovered, inDoubt.get());
+        }
+    }
+
+    /**
+     * Returns whether the transfer was settled or failed, as opposed to still being in doubt.
+     */
+    private boolean recover(Transfer transfer, AtomicInteger inDoubt) {
+        try {
+            Transfer settled = transfer.getSettlementRef() != null
+                ? settlement.settleNetted(transfer)
+                : settlement.settle(transfer);
+            log.info("Recovered transfer {} as {}", settled.getId(), settled.getStatus());
+            return true;
+        } catch (TransferInDoubtException ex) {
+            inDoubt.incrementAndGet();
+        } catch (Exception ex) {
+            inDoubt.incrementAndGet();
+            log.warn("Could not recover transfer {}: {}", transfer.getId(), ex.getMessage());
+        }
+        return false;
+    }
+}
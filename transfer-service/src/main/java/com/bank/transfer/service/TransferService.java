@@ -1,8 +1,39 @@
 package com.bank.transfer.service;
 
+import com.bank.common.dto.contracts.transfer.DailyFlowDTO;
+import com.bank.common.dto.contracts.transfer.TransferDTO;
+import com.bank.common.dto.contracts.transfer.TransferPageDTO;
 import com.bank.common.dto.contracts.transfer.TransferRequest;
 import com.bank.common.dto.contracts.transfer.TransferResponse;
 
+import java.time.LocalDate;
+import java.util.List;
+
 public interface TransferService {
-    TransferResponse processTransfer(TransferRequest request, String username);
+    default TransferResponse processTransfer(TransferRequest request, String username) {
+        return processTransfer(request, username, new TransferTimings());
+    }
+
+    /**
+     * Runs the transfer synchronously, adding the time spent in each stage to {@code timings}.
+     */
+    TransferResponse processTransfer(TransferRequest request, String username, TransferTimings timings);
+
+    /**
+     * Stores the transfer as PENDING and hands it to the worker pool; progress is read with {@link #getTransfer}.
+     */
+    TransferResponse submitTransfer(TransferRequest request, String username);
+
+    TransferDTO getTransfer(Long id, String username);
+
+    /**
+     * Incoming and outgoing transfers of a bank account, newest first, starting after the {@code after} cursor.
+     */
+    TransferPageDTO getHistory(Long bankAccountId, String after, int size, String username);
+
+    /**
+     * Totals sent and received by a bank account per day between {@code from} and {@code to}, inclusive;
+     * days without completed transfers are left out.
+     */
+    List<DailyFlowDTO> getDailyFlows(Long bankAccountId, LocalDate from, LocalDate to, String username);
 }
@@ -1,232 +1,451 @@
 package com.bank.transfer.service;
 
 import com.bank.common.dto.contracts.accounts.BankAccountDTO;
-import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
 import com.bank.common.dto.contracts.blocker.BlockCheckRequest;
 import com.bank.common.dto.contracts.blocker.BlockCheckResponse;
-import com.bank.common.dto.contracts.exchange.ConversionRequest;
 import com.bank.common.dto.contracts.notifications.NotificationRequest;
+import com.bank.common.constants.TransactionStatus;
+import com.bank.common.dto.contracts.transfer.DailyFlowDTO;
+import com.bank.common.dto.contracts.transfer.TransferDTO;
+import com.bank.common.dto.contracts.transfer.TransferPageDTO;
 import com.bank.common.dto.contracts.transfer.TransferRequest;
 import com.bank.common.dto.contracts.transfer.TransferResponse;
 import com.bank.transfer.client.*;
 import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.entity.TransferStage;
+import com.bank.transfer.repository.DailyFlowRepository;
+import com.bank.transfer.repository.TransferHistoryRepository;
 import com.bank.transfer.repository.TransferRepository;
+import com.bank.transfer.service.TransferTimings.Lookup;
+import com.bank.transfer.service.TransferTimings.Stage;
 import com.bank.common.exception.BusinessException;
+import com.bank.common.exception.ResourceNotFoundException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.common.exchange.ExchangeRatesSnapshot;
 import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.FeignException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.List;
-
-import static com.bank.common.dto.contracts.accounts.BankOperation.ADD;
-import static com.bank.common.dto.contracts.accounts.BankOperation.SUBTRACT;
-
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Orchestrates transfers across accounts, blocker, exchange and notifications. No transaction spans
+ * the orchestration: every write of a {@link Transfer} is one repository call in its own short
+ * transaction, so a database connection is never held while a remote call is in flight.
+ * Synchronous and asynchronous transfers alike run in the mailbox of their source account, so
+ * two transfers from one account never check its balance at the same time.
+ */
 @Service
-@Transactional
 @Slf4j
 public class TransferServiceImpl implements TransferService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_DAILY_FLOW_DAYS = 366;
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_FAILED = "failed";
+    private static final String OUTCOME_BLOCKED = "blocked";
+    private static final String OUTCOME_IN_DOUBT = "in_doubt";
+    // Newer than any stored transfer and still within the range of a PostgreSQL timestamp
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final TransferRepository transferRepository;
+    private final TransferHistoryRepository transferHistoryRepository;
+    private final DailyFlowRepository dailyFlowRepository;
     private final AccountsClient accountsClient;
-    private final ExchangeClient exchangeClient;
+    private final ExchangeRateCache exchangeRateCache;
+    private final RecipientCache recipientCache;
+    private final AccountOwnerCache accountOwnerCache;
     private final BlockerClient blockerClient;
-    private final NotificationClient notificationClient;
+    private final NotificationDispatcher notificationDispatcher;
+    private final TransferSettlement transferSettlement;
+    private final TransferMetrics transferMetrics;
+    private final TransferLimits transferLimits;
+    private final ExecutorService lookupExecutor;
+    private final SourceAccountMailboxes mailboxes;
+    private final long lookupTimeoutNanos;
+    private final boolean ownTransferEnabled;
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     public TransferServiceImpl(TransferRepository transferRepository,
+        TransferHistoryRepository transferHistoryRepository,
+        DailyFlowRepository dailyFlowRepository,
         AccountsClient accountsClient,
-        ExchangeClient exchangeClient,
+        ExchangeRateCache exchangeRateCache,
+        RecipientCache recipientCache,
+        AccountOwnerCache accountOwnerCache,
         BlockerClient blockerClient,
-        NotificationClient notificationClient) {
+        NotificationDispatcher notificationDispatcher,
+        TransferSettlement transferSettlement,
+        TransferMetrics transferMetrics,
+        TransferLimits transferLimits,
+        @Qualifier("transferLookupExecutor") ExecutorService lookupExecutor,
+        SourceAccountMailboxes mailboxes,
+        @Value("${transfer.lookup-timeout-ms:5000}") long lookupTimeoutMs,
+        @Value("${transfer.own-transfer.enabled:true}") boolean ownTransferEnabled) {
         this.transferRepository = transferRepository;
+        this.transferHistoryRepository = transferHistoryRepository;
+        this.dailyFlowRepository = dailyFlowRepository;
         this.accountsClient = accountsClient;
-        this.exchangeClient = exchangeClient;
+        this.exchangeRateCache = exchangeRateCache;
+        this.recipientCache = recipientCache;
+        this.accountOwnerCache = accountOwnerCache;
         this.blockerClient = blockerClient;
-        this.notificationClient = notificationClient;
+        this.notificationDispatcher = notificationDispatcher;
+        this.transferSettlement = transferSettlement;
+        this.transferMetrics = transferMetrics;
+        this.transferLimits = transferLimits;
+        this.lookupExecutor = lookupExecutor;
+        this.mailboxes = mailboxes;
+        this.lookupTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(lookupTimeoutMs);
+        this.ownTransferEnabled = ownTransferEnabled;
     }
 
     @Override
-    public TransferResponse processTransfer(TransferRequest request, String username) {
+    public TransferResponse processTransfer(TransferRequest request, String username, TransferTimings timings) {
+        validateDestination(request);
+        CompletableFuture<TransferResponse> run;
         try {
-            // Validate that either toBankAccountId or recipientEmail is provided
-            if (request.getToBankAccountId() == null &&
-                (request.getRecipientEmail() == null || request.getRecipientEmail().isBlank())) {
-                throw new BusinessException("Either destination bank account ID or recipient email must be provided");
+            run = mailboxes.submit(request.getFromBankAccountId(), () -> execute(request, username, null, timings));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Transfers from account {} are backed up: {}", request.getFromBankAccountId(), ex.getMessage());
+            throw new BusinessException("Too many transfers in progress, please retry later");
+        }
+        try {
+            return run.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw new BusinessException("Transfer failed: " + ex.getCause().getMessage());
+        }
+    }
+
+    @Override
+    public TransferResponse submitTransfer(TransferRequest request, String username) {
+        validateDestination(request);
+
+        // Committed before it is handed over so the row is visible to the worker
+        Transfer pending = transferRepository.save(Transfer.builder()
+            .fromBankAccountId(request.getFromBankAccountId())
+            .toBankAccountId(request.getToBankAccountId())
+            .recipientEmail(request.getRecipientEmail())
+            .username(username)
+            .amount(request.getAmount())
+            .status(TransactionStatus.PENDING.name())
+            .stage(TransferStage.ACCEPTED)
+            .description("Transfer accepted")
+            .build());
+
+        try {
+            mailboxes.submit(request.getFromBankAccountId(), () -> {
+                runPending(pending, request, username);
+                return null;
+            });
+        } catch (RejectedExecutionException ex) {
+            log.warn("Transfers from account {} are backed up, rejecting transfer {}",
+                request.getFromBankAccountId(), pending.getId());
+            markFailed(pending, "Too many transfers in progress, please retry later");
+            throw new BusinessException("Too many transfers in progress, please retry later");
+        }
+
+        return TransferResponse.builder()
+            .transferId(pending.getId())
+            .status(TransactionStatus.PENDING.name())
+            .message("Transfer accepted")
+            .build();
+    }
 
-            // Get from account
-            BankAccountDTO fromAccount = accountsClient.getBankAccountById(
-                request.getFromBankAccountId()).getData();
+    @Override
+    @Transactional(readOnly = true)
+    public TransferDTO getTransfer(Long id, String username) {
+        return transferRepository.findById(id)
+            .filter(transfer -> username.equals(transfer.getUsername()))
+            .map(TransferServiceImpl::toDTO)
+            .orElseThrow(() -> new ResourceNotFoundException("Transfer", "id", id));
+    }
 
-            if (fromAccount == null) {
-                throw new BusinessException("Source bank account not found");
+    @Override
+    public TransferPageDTO getHistory(Long bankAccountId, String after, int size, String username) {
+        checkOwnership(bankAccountId, username);
+
+        int limit = Math.clamp(size, 1, MAX_HISTORY_PAGE_SIZE);
+        LocalDateTime createdAt = HISTORY_START;
+        long id = Long.MAX_VALUE;
+        if (after != null && !after.isBlank()) {
+            try {
+                String[] cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split("\\|");
+                createdAt = LocalDateTime.parse(cursor[0]);
+                id = Long.parseLong(cursor[1]);
+            } catch (RuntimeException ex) {
+                throw new BusinessException("Invalid history cursor");
             }
+        }
 
-            if (!username.equals(fromAccount.getAccountUsername())) {
-                throw new BusinessException("Source bank account does not belong to the user");
+        // One extra row tells whether there is a next page without a count query
+        List<TransferDTO> rows = transferHistoryRepository.findPage(bankAccountId, createdAt, id, limit + 1);
+        List<TransferDTO> items = rows.size() > limit ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            TransferDTO last = items.get(items.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((last.getCreatedAt() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return TransferPageDTO.builder()
+            .items(List.copyOf(items))
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    @Override
+    public List<DailyFlowDTO> getDailyFlows(Long bankAccountId, LocalDate from, LocalDate to, String username) {
+        if (from.isAfter(to)) {
+            throw new BusinessException("Start date must not be after end date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAILY_FLOW_DAYS) {
+            throw new BusinessException("Date range must not exceed " + MAX_DAILY_FLOW_DAYS + " days");
+        }
+        checkOwnership(bankAccountId, username);
+        return dailyFlowRepository.findRange(bankAccountId, from, to);
+    }
+
+    private void checkOwnership(Long bankAccountId, String username) {
+        BankAccountDTO bankAccount = accountsClient.getBankAccountById(bankAccountId).getData();
+        if (bankAccount == null || !username.equals(bankAccount.getAccountUsername())) {
+            throw new BusinessException("Bank account does not belong to the user");
+        }
+        accountOwnerCache.put(bankAccount);
+    }
+
+    private void runPending(Transfer pending, TransferRequest request, String username) {
+        try {
+            execute(request, username, pending, new TransferTimings());
+        } catch (Exception ex) {
+            // A blocked or settled transfer has already been recorded with its own status, and one in
+            // doubt stays PENDING for the recovery worker
+            if (TransactionStatus.PENDING.name().equals(pending.getStatus())
+                && !(ex instanceof TransferInDoubtException)) {
+                markFailed(pending, ex.getMessage());
             }
+            log.info("Asynchronous transfer {} finished with {}: {}", pending.getId(), pending.getStatus(), ex.getMessage());
+        }
+    }
 
-            String fromCurrency = fromAccount.getCurrency();
-            BigDecimal fromBalance = fromAccount.getBalance();
+    private void markFailed(Transfer transfer, String reason) {
+        transfer.setStatus(TransactionStatus.FAILED.name());
+        transfer.setDescription(reason);
+        transferRepository.save(transfer);
+    }
 
-            // Check balance
-            if (fromBalance.compareTo(request.getAmount()) < 0) {
-                throw new BusinessException("Insufficient balance");
+    /**
+     * Runs the transfer saga. {@code record} is the PENDING row of an asynchronous transfer;
+     * synchronous transfers pass {@code null} and are journaled once validated. Either way the
+     * money is moved by {@link TransferSettlement}, which advances the row after every step.
+     * A transfer between two accounts known to belong to the user skips the saga and is executed
+     * by accounts-service in one call.
+     */
+    private TransferResponse execute(TransferRequest request, String username, Transfer record,
+        TransferTimings timings) {
+        String outcome = OUTCOME_FAILED;
+        TransferLimits.Reservation reservation = null;
+        try {
+            if (isKnownOwnAccountTransfer(request, username)) {
+                TransferResponse response = executeOwnAccountTransfer(request, username, record, timings);
+                outcome = OUTCOME_SUCCESS;
+                return response;
             }
 
-            // Get destination account (by ID or email)
-            BankAccountDTO toAccount = null;
-            if (request.getToBankAccountId() != null) {
-                toAccount = accountsClient.getBankAccountById(request.getToBankAccountId()).getData();
-                if (toAccount == null) {
-                    throw new BusinessException("Destination bank account not found");
+            // Fan out: the source, destination and blocker calls do not depend on each other
+            long deadline = System.nanoTime() + lookupTimeoutNanos;
+            Lookup<BankAccountDTO> sourceCall = TransferTimings.lookup(Stage.SOURCE_LOOKUP,
+                () -> accountsClient.getBankAccountById(request.getFromBankAccountId()).getData());
+            Lookup<List<BankAccountDTO>> destinationCall = TransferTimings.lookup(Stage.DESTINATION_LOOKUP,
+                () -> findDestinationCandidates(request));
+            Lookup<BlockCheckResponse> blockerCall = TransferTimings.lookup(Stage.BLOCKER,
+                () -> blockerClient.checkOperation(BlockCheckRequest.builder()
+                    .username(username)
+                    .amount(request.getAmount())
+                    .type("TRANSFER")
+                    .build()));
+            CompletableFuture<BankAccountDTO> sourceLookup = CompletableFuture.supplyAsync(sourceCall, lookupExecutor);
+            CompletableFuture<List<BankAccountDTO>> destinationLookup = CompletableFuture.supplyAsync(
+                destinationCall, lookupExecutor);
+            CompletableFuture<BlockCheckResponse> blockCheck = CompletableFuture.supplyAsync(blockerCall, lookupExecutor);
+            List<CompletableFuture<?>> lookups = List.of(sourceLookup, destinationLookup, blockCheck);
+
+            BankAccountDTO fromAccount;
+            BankAccountDTO toAccount;
+            BlockCheckResponse blockedResponse;
+            try {
+                // Results are checked in the same order as before, so the first failure reported is unchanged
+                fromAccount = await(sourceLookup, sourceCall, timings, deadline);
+
+                if (fromAccount == null) {
+                    throw new BusinessException("Source bank account not found");
                 }
-            } else if (request.getRecipientEmail() != null && !request.getRecipientEmail().isBlank()) {
-                // Find user by email and get their first bank account with matching currency
-                var response = accountsClient.getBankAccountsByEmail(request.getRecipientEmail());
-                if (response == null || !response.isSuccess() || response.getData() == null || response.getData().isEmpty()) {
-                    throw new BusinessException("No user found with email: " + request.getRecipientEmail());
+
+                if (!username.equals(fromAccount.getAccountUsername())) {
+                    throw new BusinessException("Source bank account does not belong to the user");
                 }
 
-                List<BankAccountDTO> recipientAccounts = response.getData();
+                // Check balance
+                if (fromAccount.getBalance().compareTo(request.getAmount()) < 0) {
+                    throw new BusinessException("Insufficient balance");
+                }
 
-                // Try to find account with same currency first
-                toAccount = recipientAccounts.stream()
-                    .filter(acc -> acc.getCurrency().equals(fromCurrency))
-                    .findFirst()
-                    .orElse(null);
+                List<BankAccountDTO> candidates = await(destinationLookup, destinationCall, timings, deadline);
+                if (candidates.isEmpty()) {
+                    throw new BusinessException(request.getToBankAccountId() != null
+                        ? "Destination bank account not found"
+                        : "No user found with email: " + request.getRecipientEmail());
+                }
+                toAccount = selectDestination(candidates, fromAccount.getCurrency());
+                timings.setScope(username.equals(toAccount.getAccountUsername()));
+
+                if (request.getToBankAccountId() == null) {
+                    if (toAccount.getCurrency().equals(fromAccount.getCurrency())) {
+                        log.info("Found matching {} account for recipient {}",
+                            fromAccount.getCurrency(), request.getRecipientEmail());
+                    } else {
+                        log.info("No {} account found for recipient {}, using {} account with currency conversion",
+                            fromAccount.getCurrency(), request.getRecipientEmail(), toAccount.getCurrency());
+                    }
+                    // Update request with found account ID
+                    request.setToBankAccountId(toAccount.getId());
+                }
 
-                // If no matching currency found, use first available account with conversion
-                if (toAccount == null) {
-                    toAccount = recipientAccounts.get(0);
-                    log.info("No {} account found for recipient {}, using {} account with currency conversion",
-                        fromCurrency, request.getRecipientEmail(), toAccount.getCurrency());
+                // Only transfers to other users' accounts are subject to the blocker
+                if (username.equals(toAccount.getAccountUsername())) {
+                    blockedResponse = null;
                 } else {
-                    log.info("Found matching {} account for recipient {}", fromCurrency, request.getRecipientEmail());
+                    blockedResponse = await(blockCheck, blockerCall, timings, deadline);
+                    log.info("Blocker {} transfer from user {} to other user {}",
+                        blockedResponse.blocked() ? "blocked" : "allowed", username,
+                        toAccount.getAccountUsername());
                 }
-
-                // Update request with found account ID
-                request.setToBankAccountId(toAccount.getId());
+            } finally {
+                lookups.forEach(lookup -> lookup.cancel(true));
             }
+            accountOwnerCache.put(fromAccount);
+            accountOwnerCache.put(toAccount);
 
-            if (toAccount == null) {
-                throw new BusinessException("Destination bank account not found");
-            }
+            String fromCurrency = fromAccount.getCurrency();
+            BigDecimal fromBalance = fromAccount.getBalance();
 
             String toCurrency = toAccount.getCurrency();
             String toUsername = toAccount.getAccountUsername();
 
-            log.info("Transfer details - From: {} {}, To: {} {}, Amount: {}",
-                fromCurrency, fromBalance, toCurrency, toAccount.getBalance(), request.getAmount());
+            // The destination may come from the recipient cache, which holds no balance
+            log.info("Transfer details - From: {} {}, To: {}, Amount: {}",
+                fromCurrency, fromBalance, toCurrency, request.getAmount());
 
-            // Check with blocker ONLY for transfers to other users' accounts
-            // Don't block transfers between user's own accounts
             boolean isOwnAccountTransfer = username.equals(toUsername);
 
             if (!isOwnAccountTransfer) {
-                log.info("Checking blocker for transfer from user {} to other user {}", username, toUsername);
-                BlockCheckResponse blockedResponse = blockerClient.checkOperation(
-                    BlockCheckRequest.builder()
-                        .username(username)
-                        .amount(request.getAmount())
-                        .type("TRANSFER")
-                        .build());
-
                 if (blockedResponse.blocked()) {
-                    Transfer transfer = Transfer.builder()
-                        .amount(request.getAmount())
-                        .fromBankAccountId(request.getFromBankAccountId())
-                        .toBankAccountId(request.getToBankAccountId())
-                        .fromCurrency(fromCurrency)
-                        .toCurrency(toCurrency)
-                        .status("BLOCKED")
-                        .description("The operation looks suspicious and is blocked by bank")
-                        .build();
-                    transferRepository.save(transfer);
-
-                    notificationClient.sendNotification(NotificationRequest.builder()
+                    Transfer transfer = record != null ? record : new Transfer();
+                    transfer.setAmount(request.getAmount());
+                    transfer.setFromBankAccountId(request.getFromBankAccountId());
+                    transfer.setToBankAccountId(request.getToBankAccountId());
+                    transfer.setUsername(username);
+                    transfer.setFromCurrency(fromCurrency);
+                    transfer.setToCurrency(toCurrency);
+                    transfer.setStatus("BLOCKED");
+                    transfer.setDescription("The operation looks suspicious and is blocked by bank");
+                    timings.time(Stage.PERSIST, () -> transferRepository.save(transfer));
+
+                    timings.time(Stage.NOTIFY, () -> notificationDispatcher.send(NotificationRequest.builder()
                         .username(username)
                         .message("The operation looks suspicious and is blocked by bank")
                         .type("WARNING")
-                        .build());
+                        .build()));
+                    outcome = OUTCOME_BLOCKED;
                     throw new BusinessException("The operation looks suspicious and is blocked by bank");
                 }
+                // Only money leaving the user counts against the limits
+                reservation = transferLimits.reserve(username, request.getAmount(), fromCurrency);
             } else {
                 log.info("Skipping blocker check - transfer between own accounts for user {}", username);
             }
 
-            // Convert currency if needed
-            BigDecimal convertedAmount = request.getAmount();
-            if (!fromCurrency.equals(toCurrency)) {
-                log.info("Currency conversion needed: {} {} -> {}", request.getAmount(), fromCurrency, toCurrency);
-                var resp = exchangeClient.convert(
-                    ConversionRequest.builder()
-                        .amount(request.getAmount())
-                        .fromCurrency(fromCurrency)
-                        .toCurrency(toCurrency)
-                        .build());
-                if (resp.isSuccess())
-                {
-                    convertedAmount = resp.getData();
-                    log.info("Currency converted: {} {} -> {} {}", request.getAmount(), fromCurrency,
-                        convertedAmount, toCurrency);
-                } else {
-                    throw new BusinessException("Currency conversion failed: " + resp.getMessage());
-                }
-            } else {
+            // Converted in-process against the local rate snapshot; its version is kept with the transfer
+            ExchangeRatesSnapshot rates = null;
+            BigDecimal convertedAmount;
+            if (fromCurrency.equals(toCurrency)) {
+                convertedAmount = request.getAmount();
                 log.info("No currency conversion needed: both accounts use {}", fromCurrency);
+            } else {
+                long conversionStart = System.nanoTime();
+                rates = exchangeRateCache.current();
+                convertedAmount = rates.convert(request.getAmount(), fromCurrency, toCurrency);
+                timings.add(Stage.CONVERSION, System.nanoTime() - conversionStart);
+                log.info("Currency converted: {} {} -> {} {}", request.getAmount(), fromCurrency,
+                    convertedAmount, toCurrency);
             }
 
+            // Journaled with everything needed to finish it before any money moves; from here on a
+            // crash leaves a PENDING row that the recovery worker completes or reverses
+            Transfer transfer = record != null ? record : Transfer.builder()
+                .status(TransactionStatus.PENDING.name())
+                .description("Transfer in progress")
+                .build();
+            transfer.setFromBankAccountId(request.getFromBankAccountId());
+            transfer.setToBankAccountId(request.getToBankAccountId());
+            transfer.setUsername(username);
+            transfer.setAmount(request.getAmount());
+            transfer.setFromCurrency(fromCurrency);
+            transfer.setToCurrency(toCurrency);
+            transfer.setConvertedAmount(convertedAmount);
+            transfer.setRateVersion(rates == null ? null : rates.getVersion());
+            transfer.setStage(TransferStage.VALIDATED);
+            timings.time(Stage.PERSIST, () -> transferRepository.save(transfer));
+
             // Update balances
             log.info("Updating balances: Subtracting {} {} from account {}, Adding {} {} to account {}",
                 request.getAmount(), fromCurrency, request.getFromBankAccountId(),
                 convertedAmount, toCurrency, request.getToBankAccountId());
 
-            accountsClient.updateBalance(
-                UpdateBalanceRequest.builder()
-                    .bankAccountId(request.getFromBankAccountId())
-                    .amount(request.getAmount())
-                    .operation(SUBTRACT)
-                    .build());
-            accountsClient.updateBalance(
-                UpdateBalanceRequest.builder()
-                    .bankAccountId(request.getToBankAccountId())
-                    .amount(convertedAmount)
-                    .operation(ADD)
-                    .build());
-
-            // Save transfer
-            Transfer transfer = Transfer.builder()
-                .fromBankAccountId(request.getFromBankAccountId())
-                .toBankAccountId(request.getToBankAccountId())
-                .amount(request.getAmount())
-                .fromCurrency(fromCurrency)
-                .toCurrency(toCurrency)
-                .convertedAmount(convertedAmount)
-                .status("SUCCESS")
-                .description("Transfer completed successfully")
-                .build();
-            transfer = transferRepository.save(transfer);
+            transferSettlement.settle(transfer, timings);
+            if (!TransferSettlement.SUCCESS.equals(transfer.getStatus())) {
+                throw new BusinessException(transfer.getDescription());
+            }
 
             // Send notifications
-            notificationClient.sendNotification(NotificationRequest.builder()
+            long notifyStart = System.nanoTime();
+            notificationDispatcher.send(NotificationRequest.builder()
                 .username(username)
                 .message("Transfer of " + request.getAmount() + " " + fromCurrency + " sent")
                 .type("INFO")
                 .build());
 
             if (!username.equals(toUsername)) {
-                notificationClient.sendNotification(NotificationRequest.builder()
+                notificationDispatcher.send(NotificationRequest.builder()
                     .username(toUsername)
                     .message("Transfer of " + convertedAmount + " " + toCurrency + " received")
                     .type("INFO")
                     .build());
             }
+            timings.add(Stage.NOTIFY, System.nanoTime() - notifyStart);
 
+            outcome = OUTCOME_SUCCESS;
             return TransferResponse.builder()
                 .transferId(transfer.getId())
                 .status("SUCCESS")
@@ -234,12 +453,183 @@ public class TransferServiceImpl implements TransferService {
                 .convertedAmount(convertedAmount)
                 .build();
         } catch (FeignException ex) {
+            forgetRecipient(request);
             throw new BusinessException(resolveFeignMessage("Accounts service error", ex));
         } catch (BusinessException ex) {
+            if (ex instanceof TransferInDoubtException) {
+                outcome = OUTCOME_IN_DOUBT;
+            }
+            forgetRecipient(request);
             throw ex;
         } catch (Exception ex) {
+            forgetRecipient(request);
             log.error("Unexpected transfer failure", ex);
             throw new BusinessException("Transfer failed: " + ex.getMessage());
+        } finally {
+            // A transfer in doubt may still have moved the money, so it keeps its reservation
+            if (!OUTCOME_SUCCESS.equals(outcome) && !OUTCOME_IN_DOUBT.equals(outcome)) {
+                transferLimits.release(reservation);
+            }
+            transferMetrics.record(timings, outcome);
+        }
+    }
+
+    private boolean isKnownOwnAccountTransfer(TransferRequest request, String username) {
+        if (!ownTransferEnabled || request.getToBankAccountId() == null
+            || request.getToBankAccountId().equals(request.getFromBankAccountId())) {
+            return false;
+        }
+        AccountOwnerCache.Owner from = accountOwnerCache.get(request.getFromBankAccountId());
+        AccountOwnerCache.Owner to = accountOwnerCache.get(request.getToBankAccountId());
+        return from != null && to != null && username.equals(from.username()) && username.equals(to.username());
+    }
+
+    /**
+     * Own-account transfer in one remote call: no lookups, as ownership and balance are checked by
+     * accounts-service under the row locks, and no blocker, which never applies to own accounts.
+     * The row is journaled first with the idempotency key of the call and the amount converted
+     * against the local snapshot, so the recovery worker can finish it if the answer is lost.
+     */
+    private TransferResponse executeOwnAccountTransfer(TransferRequest request, String username, Transfer record,
+        TransferTimings timings) {
+        timings.setScope(true);
+        AccountOwnerCache.Owner from = accountOwnerCache.get(request.getFromBankAccountId());
+        AccountOwnerCache.Owner to = accountOwnerCache.get(request.getToBankAccountId());
+        ExchangeRatesSnapshot rates = null;
+        BigDecimal estimatedAmount = request.getAmount();
+        if (!from.currency().equals(to.currency())) {
+            long conversionStart = System.nanoTime();
+            rates = exchangeRateCache.current();
+            estimatedAmount = rates.convert(request.getAmount(), from.currency(), to.currency());
+            timings.add(Stage.CONVERSION, System.nanoTime() - conversionStart);
+        }
+
+        Transfer transfer = record != null ? record : Transfer.builder()
+            .status(TransactionStatus.PENDING.name())
+            .description("Transfer in progress")
+            .build();
+        transfer.setFromBankAccountId(request.getFromBankAccountId());
+        transfer.setToBankAccountId(request.getToBankAccountId());
+        transfer.setUsername(username);
+        transfer.setAmount(request.getAmount());
+        transfer.setFromCurrency(from.currency());
+        transfer.setToCurrency(to.currency());
+        transfer.setConvertedAmount(estimatedAmount);
+        transfer.setRateVersion(rates == null ? null : rates.getVersion());
+        transfer.setStage(TransferStage.VALIDATED);
+        transfer.setSettlementRef("own-" + UUID.randomUUID());
+        timings.time(Stage.PERSIST, () -> transferRepository.save(transfer));
+
+        transferSettlement.settleOwnAccounts(transfer, timings);
+        if (!TransferSettlement.SUCCESS.equals(transfer.getStatus())) {
+            // Either account may have been deleted; the next transfer between them takes the regular path
+            accountOwnerCache.invalidate(request.getFromBankAccountId());
+            accountOwnerCache.invalidate(request.getToBankAccountId());
+            throw new BusinessException(transfer.getDescription());
+        }
+
+        long notifyStart = System.nanoTime();
+        notificationDispatcher.send(NotificationRequest.builder()
+            .username(username)
+            .message("Transfer of " + request.getAmount() + " " + from.currency() + " sent")
+            .type("INFO")
+            .build());
+        timings.add(Stage.NOTIFY, System.nanoTime() - notifyStart);
+
+        return TransferResponse.builder()
+            .transferId(transfer.getId())
+            .status("SUCCESS")
+            .message("Transfer completed successfully")
+            .convertedAmount(transfer.getConvertedAmount())
+            .build();
+    }
+
+    private void forgetRecipient(TransferRequest request) {
+        // A failed transfer may have been routed to an account that no longer exists
+        if (request.getRecipientEmail() != null) {
+            recipientCache.invalidate(request.getRecipientEmail());
+        }
+    }
+
+    private void validateDestination(TransferRequest request) {
+        // Validate that either toBankAccountId or recipientEmail is provided
+        if (request.getToBankAccountId() == null &&
+            (request.getRecipientEmail() == null || request.getRecipientEmail().isBlank())) {
+            throw new BusinessException("Either destination bank account ID or recipient email must be provided");
+        }
+    }
+
+    static TransferDTO toDTO(Transfer transfer) {
+        return TransferDTO.builder()
+            .id(transfer.getId())
+            .fromBankAccountId(transfer.getFromBankAccountId())
+            .toBankAccountId(transfer.getToBankAccountId())
+            .recipientEmail(transfer.getRecipientEmail())
+            .amount(transfer.getAmount())
+            .fromCurrency(transfer.getFromCurrency())
+            .toCurrency(transfer.getToCurrency())
+            .convertedAmount(transfer.getConvertedAmount())
+            .rateVersion(transfer.getRateVersion())
+            .status(transfer.getStatus())
+            .stage(transfer.getStage() == null ? null : transfer.getStage().name())
+            .description(transfer.getDescription())
+            .createdAt(transfer.getCreatedAt())
+            .updatedAt(transfer.getUpdatedAt())
+            .build();
+    }
+
+    private List<BankAccountDTO> findDestinationCandidates(TransferRequest request) {
+        if (request.getToBankAccountId() != null) {
+            BankAccountDTO toAccount = accountsClient.getBankAccountById(request.getToBankAccountId()).getData();
+            return toAccount == null ? List.of() : List.of(toAccount);
+        }
+        List<BankAccountDTO> cached = recipientCache.get(request.getRecipientEmail());
+        if (cached != null) {
+            return cached;
+        }
+        var response = accountsClient.getBankAccountsByEmail(request.getRecipientEmail());
+        if (response == null || !response.isSuccess() || response.getData() == null) {
+            return List.of();
+        }
+        // Unknown recipients are not cached so a newly registered user is found right away
+        if (!response.getData().isEmpty()) {
+            recipientCache.put(request.getRecipientEmail(), response.getData());
+        }
+        return response.getData();
+    }
+
+    private BankAccountDTO selectDestination(List<BankAccountDTO> candidates, String fromCurrency) {
+        // Prefer the recipient's account in the same currency, otherwise convert into their first account
+        return candidates.stream()
+            .filter(acc -> acc.getCurrency().equals(fromCurrency))
+            .findFirst()
+            .orElse(candidates.get(0));
+    }
+
+    /**
+     * Waits for a lookup and counts its time, so only the lookups the transfer depended on are reported.
+     */
+    private <T> T await(CompletableFuture<T> future, Lookup<T> lookup, TransferTimings timings, long deadline) {
+        try {
+            return await(future, deadline);
+        } finally {
+            timings.joined(lookup);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            throw new BusinessException("Transfer timed out waiting for dependent services");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Transfer was interrupted");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("Transfer failed: " + ex.getCause().getMessage());
         }
     }
 
@@ -0,0 +1,255 @@
+package com.bank.transfer.service;
+
+import com.bank.common.constants.TransactionStatus;
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankOperation;
+import com.bank.common.dto.contracts.accounts.OwnTransferRequest;
+import com.bank.common.dto.contracts.accounts.OwnTransferResponse;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.transfer.client.AccountsClient;
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.entity.TransferStage;
+import com.bank.transfer.repository.TransferRepository;
+import com.bank.transfer.service.TransferTimings.Stage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+import static com.bank.common.dto.contracts.accounts.BankOperation.ADD;
+import static com.bank.common.dto.contracts.accounts.BankOperation.SUBTRACT;
+
+/**
+ * Moves the money of a journaled transfer. The transfer row is the journal: its stage records the
+ * last step known to be done and is written after every step. Every balance update carries an
+ * idempotency key derived from the transfer id, so any step can be replayed after a crash.
+ * When a step fails without a clear answer, its key is voided in accounts-service: the answer
+ * then says whether the update was applied, and a voided update can never be applied later.
+ * <p>
+ * The same code runs a transfer the first time and finishes it after a crash, so recovery is
+ * simply running it again from the journaled stage.
+ */
+@Slf4j
+@Component
+public class TransferSettlement {
+
+    static final String SUCCESS = "SUCCESS";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String APPLIED = "APPLIED";
+    private static final String VOIDED = "VOIDED";
+
+    private final TransferRepository transferRepository;
+    private final AccountsClient accountsClient;
+    private final DailyFlowRecorder dailyFlowRecorder;
+
+    public TransferSettlement(TransferRepository transferRepository, AccountsClient accountsClient,
+        DailyFlowRecorder dailyFlowRecorder) {
+        this.transferRepository = transferRepository;
+        this.accountsClient = accountsClient;
+        this.dailyFlowRecorder = dailyFlowRecorder;
+    }
+
+    static String debitKey(Long transferId) {
+        return "transfer-" + transferId + "-debit";
+    }
+
+    static String creditKey(Long transferId) {
+        return "transfer-" + transferId + "-credit";
+    }
+
+    static String refundKey(Long transferId) {
+        return "transfer-" + transferId + "-refund";
+    }
+
+    /**
+     * Runs the remaining steps of a PENDING transfer from its journaled stage. Returns the same
+     * instance, now SUCCESS or FAILED; throws {@link TransferInDoubtException} and leaves it PENDING
+     * if a step cannot be settled now.
+     */
+    public Transfer settle(Transfer transfer) {
+        return settle(transfer, new TransferTimings());
+    }
+
+    /**
+     * As {@link #settle(Transfer)}, adding the time of the debit, the credit and the journal writes to {@code timings}.
+     */
+    public Transfer settle(Transfer transfer, TransferTimings timings) {
+        if (transfer.getStage() == TransferStage.VALIDATED) {
+            String failure = timings.time(Stage.DEBIT,
+                () -> post(transfer.getFromBankAccountId(), transfer.getAmount(), SUBTRACT, debitKey(transfer.getId())));
+            if (failure != null && !timings.time(Stage.DEBIT, () -> wasApplied(transfer, debitKey(transfer.getId())))) {
+                return fail(transfer, failure, timings);
+            }
+            advance(transfer, TransferStage.DEBITED, timings);
+        }
+        if (transfer.getStage() == TransferStage.DEBITED) {
+            String failure = timings.time(Stage.CREDIT,
+                () -> post(transfer.getToBankAccountId(), transfer.getConvertedAmount(), ADD, creditKey(transfer.getId())));
+            if (failure != null && !timings.time(Stage.CREDIT, () -> wasApplied(transfer, creditKey(transfer.getId())))) {
+                // The credit can never happen now, so the debit is given back
+                String refundFailure = timings.time(Stage.CREDIT,
+                    () -> post(transfer.getFromBankAccountId(), transfer.getAmount(), ADD, refundKey(transfer.getId())));
+                if (refundFailure != null) {
+                    log.warn("Refund of transfer {} failed: {}", transfer.getId(), refundFailure);
+                    throw new TransferInDoubtException(transfer.getId());
+                }
+                return fail(transfer, failure + "; the amount was returned to the source account", timings);
+            }
+            advance(transfer, TransferStage.CREDITED, timings);
+        }
+        if (transfer.getStage() == TransferStage.CREDITED) {
+            transfer.setStatus(SUCCESS);
+            transfer.setStage(TransferStage.COMPLETED);
+            transfer.setDescription("Transfer completed successfully");
+            timings.time(Stage.PERSIST, () -> dailyFlowRecorder.saveCompleted(transfer));
+            return transfer;
+        }
+        // ACCEPTED: the worker never got to validate it, so no money has moved
+        return fail(transfer, "Transfer was interrupted before it was executed", timings);
+    }
+
+    /**
+     * Settles a transfer between two accounts of its user with one call: accounts-service checks
+     * ownership, converts, debits and credits in one local transaction under the transfer's
+     * {@code settlementRef}. The credited amount it reports replaces the journaled estimate. Like a
+     * netted posting, the transfer is all or nothing, so recovery goes through {@link #settleNetted}.
+     */
+    public Transfer settleOwnAccounts(Transfer transfer, TransferTimings timings) {
+        String failure;
+        BigDecimal credited = null;
+        try {
+            ApiResponse<OwnTransferResponse> response = timings.time(Stage.OWN_TRANSFER,
+                () -> accountsClient.transferBetweenOwnAccounts(OwnTransferRequest.builder()
+                    .username(transfer.getUsername())
+                    .fromBankAccountId(transfer.getFromBankAccountId())
+                    .toBankAccountId(transfer.getToBankAccountId())
+                    .amount(transfer.getAmount())
+                    .operationId(transfer.getSettlementRef())
+                    .build()));
+            if (response == null) {
+                failure = "Accounts service error";
+            } else if (response.isSuccess()) {
+                failure = null;
+                credited = response.getData() == null ? null : response.getData().getConvertedAmount();
+            } else {
+                failure = response.getMessage();
+            }
+        } catch (FeignException ex) {
+            failure = resolveFeignMessage("Accounts service error", ex);
+        } catch (RuntimeException ex) {
+            failure = ex.getMessage();
+        }
+        if (failure != null
+            && !timings.time(Stage.OWN_TRANSFER, () -> wasApplied(transfer, transfer.getSettlementRef()))) {
+            return fail(transfer, failure, timings);
+        }
+        if (credited != null) {
+            transfer.setConvertedAmount(credited);
+        }
+        transfer.setStatus(SUCCESS);
+        transfer.setStage(TransferStage.COMPLETED);
+        transfer.setDescription("Transfer completed successfully");
+        timings.time(Stage.PERSIST, () -> dailyFlowRecorder.saveCompleted(transfer));
+        return transfer;
+    }
+
+    /**
+     * Finishes a transfer that was settled as part of a netted posting or by one own-account call.
+     * Either was atomic, so its key alone tells whether the transfer went through.
+     */
+    public Transfer settleNetted(Transfer transfer) {
+        if (wasApplied(transfer, transfer.getSettlementRef())) {
+            transfer.setStatus(SUCCESS);
+            transfer.setStage(TransferStage.COMPLETED);
+            transfer.setDescription("Transfer completed successfully");
+            dailyFlowRecorder.saveCompleted(transfer);
+            return transfer;
+        }
+        return fail(transfer, "Transfer was interrupted before it was executed", new TransferTimings());
+    }
+
+    /**
+     * Voids {@code key} and reports whether the update behind it had been applied. Throws
+     * {@link TransferInDoubtException} if accounts-service cannot answer.
+     */
+    boolean wasApplied(Transfer transfer, String key) {
+        Boolean applied = wasApplied(key);
+        if (applied == null) {
+            log.warn("Could not settle balance operation {} of transfer {}", key, transfer.getId());
+            throw new TransferInDoubtException(transfer.getId());
+        }
+        return applied;
+    }
+
+    /**
+     * Voids {@code key} and reports whether the update behind it had been applied, or null if
+     * accounts-service cannot answer.
+     */
+    Boolean wasApplied(String key) {
+        String status;
+        try {
+            ApiResponse<String> response = accountsClient.voidBalanceOperation(key);
+            status = response != null && response.isSuccess() ? response.getData() : null;
+        } catch (FeignException ex) {
+            status = null;
+        }
+        if (APPLIED.equals(status)) {
+            return true;
+        }
+        if (VOIDED.equals(status)) {
+            return false;
+        }
+        return null;
+    }
+
+    /**
+     * Returns null if the update was applied, otherwise why it was not (or may not have been).
+     */
+    private String post(Long bankAccountId, BigDecimal amount, BankOperation operation, String key) {
+        try {
+            ApiResponse<?> response = accountsClient.updateBalance(UpdateBalanceRequest.builder()
+                .bankAccountId(bankAccountId)
+                .amount(amount)
+                .operation(operation)
+                .operationId(key)
+                .build());
+            if (response == null) {
+                return "Accounts service error";
+            }
+            return response.isSuccess() ? null : response.getMessage();
+        } catch (FeignException ex) {
+            return resolveFeignMessage("Accounts service error", ex);
+        } catch (RuntimeException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private void advance(Transfer transfer, TransferStage stage, TransferTimings timings) {
+        transfer.setStage(stage);
+        timings.time(Stage.PERSIST, () -> transferRepository.save(transfer));
+    }
+
+    private Transfer fail(Transfer transfer, String reason, TransferTimings timings) {
+        transfer.setStatus(TransactionStatus.FAILED.name());
+        transfer.setDescription(reason);
+        timings.time(Stage.PERSIST, () -> transferRepository.save(transfer));
+        return transfer;
+    }
+
+    private String resolveFeignMessage(String defaultMessage, FeignException ex) {
+        if (ex.responseBody().isPresent()) {
+            try {
+                JsonNode node = OBJECT_MAPPER.readTree(ex.contentUTF8());
+                if (node.has("message")) {
+                    return node.get("message").asText();
+                }
+            } catch (Exception ignored) {
+            }
+        }
+        return defaultMessage;
+    }
+}
@@ -0,0 +1,144 @@
+package com.bank.transfer.service;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Time spent in each stage of one transfer. The lookups run on their own threads; their time is
+ * added by the caller once it has waited for them, so a lookup that was never awaited is not
+ * reported. The slots are atomic because a caller that gave up waiting may still read them
+ * while the transfer goes on.
+ */
+public final class TransferTimings {
+
+    public enum Stage {
+        SOURCE_LOOKUP("source-lookup"),
+        DESTINATION_LOOKUP("destination-lookup"),
+        BLOCKER("blocker"),
+        CONVERSION("conversion"),
+        DEBIT("debit"),
+        CREDIT("credit"),
+        OWN_TRANSFER("own-transfer"),
+        PERSIST("persist"),
+        NOTIFY("notify");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    static final String UNKNOWN_SCOPE = "unknown";
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final AtomicLongArray nanos = new AtomicLongArray(STAGES.length);
+    private final AtomicIntegerArray timed = new AtomicIntegerArray(STAGES.length);
+    private volatile String scope = UNKNOWN_SCOPE;
+
+    <T> T time(Stage stage, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            add(stage, System.nanoTime() - start);
+        }
+    }
+
+    void time(Stage stage, Runnable call) {
+        long start = System.nanoTime();
+        try {
+            call.run();
+        } finally {
+            add(stage, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * A call to run on another thread; its time counts only once passed to {@link #joined}.
+     */
+    static <T> Lookup<T> lookup(Stage stage, Supplier<T> call) {
+        return new Lookup<>(stage, call);
+    }
+
+    /**
+     * Adds the time of a lookup the caller has waited for, whether it returned or failed.
+     */
+    void joined(Lookup<?> lookup) {
+        long elapsed = lookup.nanos;
+        if (elapsed >= 0) {
+            add(lookup.stage, elapsed);
+        }
+    }
+
+    void add(Stage stage, long elapsedNanos) {
+        nanos.addAndGet(stage.ordinal(), elapsedNanos);
+        timed.set(stage.ordinal(), 1);
+    }
+
+    boolean isTimed(Stage stage) {
+        return timed.get(stage.ordinal()) == 1;
+    }
+
+    long nanos(Stage stage) {
+        return nanos.get(stage.ordinal());
+    }
+
+    /**
+     * "own" for a transfer between the user's accounts, "other" otherwise, "unknown" if it failed
+     * before the destination was resolved.
+     */
+    String scope() {
+        return scope;
+    }
+
+    void setScope(boolean ownAccounts) {
+        scope = ownAccounts ? "own" : "other";
+    }
+
+    /**
+     * The timed stages as a {@code Server-Timing} header value, e.g. {@code debit;dur=12.4, credit;dur=9.8}.
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        for (Stage stage : STAGES) {
+            if (isTimed(stage)) {
+                if (!header.isEmpty()) {
+                    header.append(", ");
+                }
+                header.append(stage.tag()).append(";dur=")
+                    .append(String.format(Locale.ROOT, "%.1f", nanos(stage) / 1_000_000.0));
+            }
+        }
+        return header.toString();
+    }
+
+    static final class Lookup<T> implements Supplier<T> {
+
+        private final Stage stage;
+        private final Supplier<T> call;
+        private volatile long nanos = -1;
+
+        private Lookup(Stage stage, Supplier<T> call) {
+            this.stage = stage;
+            this.call = call;
+        }
+
+        @Override
+        public T get() {
+            long start = System.nanoTime();
+            try {
+                return call.get();
+            } finally {
+                nanos = System.nanoTime() - start;
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- Money sent to other users, in RUB, per user and 5-minute bucket. Each instance keeps the recent buckets in
+-- memory for the sliding-window limits; this table is how instances share them and how they are rebuilt at
+-- startup. Rows are upserted with the usage added since the last sync, and read back by updated_at.
+CREATE TABLE transfer.limit_usage (
+    username VARCHAR(255) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    amount NUMERIC(38,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (username, bucket_start)
+);
+
+CREATE INDEX idx_limit_usage_updated ON transfer.limit_usage(updated_at);
@@ -0,0 +1,6 @@
+-- Batch legs journaled with the settlement reference of their chunk are recovered like netted transfers,
+-- so the in-flight index covers them too
+DROP INDEX IF EXISTS transfer.idx_transfers_in_flight;
+
+CREATE INDEX idx_transfers_in_flight ON transfer.transfers(updated_at, id)
+    WHERE status = 'PENDING' AND (batch_id IS NULL OR settlement_ref IS NOT NULL);
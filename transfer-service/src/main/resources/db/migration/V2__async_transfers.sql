@@ -0,0 +1,9 @@
+-- Asynchronous transfers are stored as PENDING before the destination and currencies are resolved
+ALTER TABLE transfer.transfers ALTER COLUMN to_bank_account_id DROP NOT NULL;
+ALTER TABLE transfer.transfers ALTER COLUMN from_currency DROP NOT NULL;
+ALTER TABLE transfer.transfers ALTER COLUMN to_currency DROP NOT NULL;
+
+ALTER TABLE transfer.transfers ADD COLUMN username VARCHAR(255);
+ALTER TABLE transfer.transfers ADD COLUMN recipient_email VARCHAR(255);
+ALTER TABLE transfer.transfers ADD COLUMN stage VARCHAR(20);
+ALTER TABLE transfer.transfers ADD COLUMN updated_at TIMESTAMP;
@@ -0,0 +1,13 @@
+-- Keyset pagination of an account's history walks one of these indexes per direction.
+-- The INCLUDE columns make them covering, so a page is served by index-only scans.
+CREATE INDEX idx_transfers_from_account_created
+    ON transfer.transfers (from_bank_account_id, created_at DESC, id DESC)
+    INCLUDE (to_bank_account_id, amount, from_currency, to_currency, converted_amount, status);
+
+CREATE INDEX idx_transfers_to_account_created
+    ON transfer.transfers (to_bank_account_id, created_at DESC, id DESC)
+    INCLUDE (from_bank_account_id, amount, from_currency, to_currency, converted_amount, status);
+
+-- Superseded by the indexes above, which share the same leading column
+DROP INDEX IF EXISTS transfer.idx_transfers_from_account;
+DROP INDEX IF EXISTS transfer.idx_transfers_to_account;
@@ -0,0 +1,18 @@
+CREATE TABLE transfer.transfer_batches (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    from_bank_account_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    total_count INT NOT NULL,
+    processed_count INT NOT NULL DEFAULT 0,
+    failed_count INT NOT NULL DEFAULT 0,
+    total_amount NUMERIC(38,2) NOT NULL,
+    description TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP
+);
+
+-- Legs of a batch are stored as ordinary transfers and updated per destination account
+ALTER TABLE transfer.transfers ADD COLUMN batch_id BIGINT;
+CREATE INDEX idx_transfers_batch_destination ON transfer.transfers(batch_id, to_bank_account_id)
+    WHERE batch_id IS NOT NULL;
@@ -0,0 +1,2 @@
+-- Version of the exchange rate table a cross-currency transfer was priced with
+ALTER TABLE transfer.transfers ADD COLUMN rate_version BIGINT;
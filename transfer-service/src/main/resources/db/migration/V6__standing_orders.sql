@@ -0,0 +1,22 @@
+CREATE TABLE transfer.standing_orders (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    from_bank_account_id BIGINT NOT NULL,
+    to_bank_account_id BIGINT NOT NULL,
+    amount NUMERIC(38,2) NOT NULL,
+    frequency VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    start_at TIMESTAMP NOT NULL,
+    end_at TIMESTAMP,
+    next_run_at TIMESTAMP NOT NULL,
+    run_count INT NOT NULL DEFAULT 0,
+    last_run_at TIMESTAMP,
+    last_status TEXT,
+    last_transfer_id BIGINT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP
+);
+
+-- Due-time index: the scheduler only ever range-scans active orders by next_run_at
+CREATE INDEX idx_standing_orders_due ON transfer.standing_orders(next_run_at, id) WHERE status = 'ACTIVE';
+CREATE INDEX idx_standing_orders_username ON transfer.standing_orders(username);
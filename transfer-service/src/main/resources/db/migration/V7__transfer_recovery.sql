@@ -0,0 +1,6 @@
+-- Key of the netted posting that settles a transfer, see TransferNettingServiceImpl
+ALTER TABLE transfer.transfers ADD COLUMN settlement_ref VARCHAR(100);
+
+-- Only in-flight transfers are indexed, so recovery cost follows their number, not the table size
+CREATE INDEX idx_transfers_in_flight ON transfer.transfers(updated_at, id)
+    WHERE status = 'PENDING' AND batch_id IS NULL;
@@ -0,0 +1,69 @@
+-- transfers becomes a table range-partitioned by month on created_at, so every index is per month and
+-- stays the same size however much history accumulates. Nothing references transfers by foreign key,
+-- which lets the table be swapped for a partitioned one in place.
+-- Partitions ahead of time and retention are handled by TransferPartitionMaintenance.
+CREATE SCHEMA IF NOT EXISTS transfer_archive;
+
+ALTER TABLE transfer.transfers RENAME TO transfers_legacy;
+ALTER INDEX transfer.transfers_pkey RENAME TO transfers_legacy_pkey;
+ALTER INDEX transfer.idx_transfers_from_account_created RENAME TO transfers_legacy_from_account_created;
+ALTER INDEX transfer.idx_transfers_to_account_created RENAME TO transfers_legacy_to_account_created;
+ALTER INDEX transfer.idx_transfers_batch_destination RENAME TO transfers_legacy_batch_destination;
+ALTER INDEX transfer.idx_transfers_in_flight RENAME TO transfers_legacy_in_flight;
+
+-- Ids keep coming from the same sequence
+ALTER SEQUENCE transfer.transfers_id_seq OWNED BY NONE;
+
+-- The partition key must be part of the primary key; ids alone are still unique, they come from one sequence
+CREATE TABLE transfer.transfers (
+    id BIGINT NOT NULL DEFAULT nextval('transfer.transfers_id_seq'),
+    from_bank_account_id BIGINT NOT NULL,
+    to_bank_account_id BIGINT,
+    amount NUMERIC(38,2) NOT NULL DEFAULT 0,
+    from_currency VARCHAR(10),
+    to_currency VARCHAR(10),
+    converted_amount NUMERIC(38,2),
+    status VARCHAR(20) NOT NULL,
+    description TEXT,
+    created_at TIMESTAMP NOT NULL,
+    username VARCHAR(255),
+    recipient_email VARCHAR(255),
+    stage VARCHAR(20),
+    updated_at TIMESTAMP,
+    batch_id BIGINT,
+    rate_version BIGINT,
+    settlement_ref VARCHAR(100),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE transfer.transfers_id_seq OWNED BY transfer.transfers.id;
+
+CREATE INDEX idx_transfers_from_account_created
+    ON transfer.transfers (from_bank_account_id, created_at DESC, id DESC)
+    INCLUDE (to_bank_account_id, amount, from_currency, to_currency, converted_amount, status);
+
+CREATE INDEX idx_transfers_to_account_created
+    ON transfer.transfers (to_bank_account_id, created_at DESC, id DESC)
+    INCLUDE (from_bank_account_id, amount, from_currency, to_currency, converted_amount, status);
+
+CREATE INDEX idx_transfers_batch_destination ON transfer.transfers(batch_id, to_bank_account_id)
+    WHERE batch_id IS NOT NULL;
+
+CREATE INDEX idx_transfers_in_flight ON transfer.transfers(updated_at, id)
+    WHERE status = 'PENDING' AND batch_id IS NULL;
+
+-- Existing rows become one partition ending with the current month; its indexes match the ones above
+-- and are attached as they are. Monthly partitions start after it.
+DO $$
+DECLARE
+    next_month DATE := (date_trunc('month', now()) + INTERVAL '1 month')::date;
+    month_start DATE;
+BEGIN
+    EXECUTE format('ALTER TABLE transfer.transfers ATTACH PARTITION transfer.transfers_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+        next_month);
+    FOR i IN 0..2 LOOP
+        month_start := (next_month + make_interval(months => i))::date;
+        EXECUTE format('CREATE TABLE transfer.%I PARTITION OF transfer.transfers FOR VALUES FROM (%L) TO (%L)',
+            'transfers_' || to_char(month_start, 'YYYY_MM'), month_start, (month_start + INTERVAL '1 month')::date);
+    END LOOP;
+END $$;
@@ -0,0 +1,11 @@
+-- Completed transfers summed per bank account and day, in the account's currency. Rows are upserted in the
+-- transaction that completes the transfers, and a date range of one account is a single primary key range scan.
+CREATE TABLE transfer.account_daily_flows (
+    bank_account_id BIGINT NOT NULL,
+    flow_date DATE NOT NULL,
+    sent_amount NUMERIC(38,2) NOT NULL DEFAULT 0,
+    sent_count INT NOT NULL DEFAULT 0,
+    received_amount NUMERIC(38,2) NOT NULL DEFAULT 0,
+    received_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bank_account_id, flow_date)
+);
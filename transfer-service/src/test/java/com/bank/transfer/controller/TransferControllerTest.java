@@ -0,0 +1,91 @@
+package com.bank.transfer.controller;
+
+import com.bank.common.dto.contracts.transfer.TransferRequest;
+import com.bank.common.dto.contracts.transfer.TransferResponse;
+import com.bank.common.exception.BusinessException;
+import com.bank.common.exception.GlobalExceptionHandler;
+import com.bank.transfer.service.TransferEventRegistry;
+import com.bank.transfer.service.TransferService;
+import com.bank.transfer.service.TransferTimings;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class TransferControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private TransferService transferService;
+
+    @Mock
+    private TransferEventRegistry eventRegistry;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new TransferController(transferService, eventRegistry, true))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("alice", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testTransfer_CompletedTransferCarriesServerTiming() throws Exception {
+        when(transferService.processTransfer(any(), eq("alice"), any(TransferTimings.class)))
+            .thenReturn(TransferResponse.builder().transferId(1L).status("SUCCESS").build());
+
+        mockMvc.perform(post("/api/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request())))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("Server-Timing"));
+    }
+
+    @Test
+    void testTransfer_FailedTransferCarriesServerTimingToo() throws Exception {
+        when(transferService.processTransfer(any(), eq("alice"), any(TransferTimings.class)))
+            .thenThrow(new BusinessException("The operation looks suspicious and is blocked by bank"));
+
+        mockMvc.perform(post("/api/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request())))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("The operation looks suspicious and is blocked by bank"))
+            .andExpect(header().exists("Server-Timing"));
+    }
+
+    private static TransferRequest request() {
+        return TransferRequest.builder()
+            .fromBankAccountId(1L)
+            .toBankAccountId(2L)
+            .amount(new BigDecimal("10.00"))
+            .build();
+    }
+}
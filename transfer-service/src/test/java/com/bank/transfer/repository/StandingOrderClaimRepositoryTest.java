@@ -0,0 +1,134 @@
+package com.bank.transfer.repository;
+
+import com.bank.transfer.entity.StandingOrder;
+import com.bank.transfer.entity.StandingOrderFrequency;
+import com.bank.transfer.entity.StandingOrderStatus;
+import com.bank.transfer.repository.StandingOrderClaimRepository.ClaimedOrder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+    "spring.flyway.enabled=false",
+    "spring.cloud.config.enabled=false",
+    "eureka.client.enabled=false"
+})
+@Import(StandingOrderClaimRepository.class)
+// Claims must really commit for the at-most-once checks
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StandingOrderClaimRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    @Autowired
+    private StandingOrderRepository standingOrderRepository;
+
+    @Autowired
+    private StandingOrderClaimRepository claimRepository;
+
+    @AfterEach
+    void cleanUp() {
+        standingOrderRepository.deleteAll();
+    }
+
+    @Test
+    void claimAdvancesOrdersSoAnOccurrenceIsClaimedOnce() {
+        StandingOrder monthly = save(StandingOrderFrequency.MONTHLY, LocalDateTime.of(2025, 1, 31, 0, 0), NOW);
+        StandingOrder once = save(StandingOrderFrequency.ONCE, NOW, NOW);
+        StandingOrder future = save(StandingOrderFrequency.DAILY, NOW.plusDays(1), NOW.plusDays(1));
+        long[] ids = {monthly.getId(), once.getId(), future.getId()};
+
+        List<ClaimedOrder> claimed = claimRepository.claim(ids, ids.length, NOW);
+
+        assertEquals(Set.of(monthly.getId(), once.getId()), ids(claimed));
+        assertTrue(claimRepository.claim(ids, ids.length, NOW).isEmpty());
+        StandingOrder advanced = standingOrderRepository.findById(monthly.getId()).orElseThrow();
+        // Counted from the start, so the 31st comes back in March
+        assertEquals(LocalDateTime.of(2025, 3, 31, 0, 0), advanced.getNextRunAt());
+        assertEquals(1, advanced.getRunCount());
+        assertEquals(StandingOrderStatus.COMPLETED,
+            standingOrderRepository.findById(once.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void concurrentClaimsNeverHandOutTheSameOrderTwice() throws Exception {
+        List<Long> saved = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            saved.add(save(StandingOrderFrequency.MONTHLY, NOW, NOW).getId());
+        }
+        long[] ids = saved.stream().mapToLong(Long::longValue).toArray();
+        CyclicBarrier barrier = new CyclicBarrier(4);
+
+        List<CompletableFuture<List<ClaimedOrder>>> claims = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            claims.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+                return claimRepository.claim(ids, ids.length, NOW);
+            }));
+        }
+
+        Set<Long> claimed = new HashSet<>();
+        int total = 0;
+        for (CompletableFuture<List<ClaimedOrder>> claim : claims) {
+            List<ClaimedOrder> orders = claim.get();
+            total += orders.size();
+            claimed.addAll(ids(orders));
+        }
+        assertEquals(claimed.size(), total);
+        assertEquals(ids.length, claimed.size());
+    }
+
+    @Test
+    void loadsOnlyActiveOrdersInsideTheWindow() {
+        StandingOrder inside = save(StandingOrderFrequency.DAILY, NOW, NOW.plusMinutes(1));
+        save(StandingOrderFrequency.DAILY, NOW, NOW.plusHours(1));
+        StandingOrder cancelled = save(StandingOrderFrequency.DAILY, NOW, NOW.plusMinutes(2));
+        cancelled.setStatus(StandingOrderStatus.CANCELLED);
+        standingOrderRepository.save(cancelled);
+
+        List<Long> loaded = new ArrayList<>();
+        claimRepository.forEachDue(NOW, NOW.plusMinutes(5), (id, dueAt) -> loaded.add(id));
+
+        assertEquals(List.of(inside.getId()), loaded);
+    }
+
+    private StandingOrder save(StandingOrderFrequency frequency, LocalDateTime startAt, LocalDateTime nextRunAt) {
+        return standingOrderRepository.save(StandingOrder.builder()
+            .username("alice")
+            .fromBankAccountId(1L)
+            .toBankAccountId(2L)
+            .amount(new BigDecimal("10.00"))
+            .frequency(frequency)
+            .status(StandingOrderStatus.ACTIVE)
+            .startAt(startAt)
+            .nextRunAt(nextRunAt)
+            .build());
+    }
+
+    private static Set<Long> ids(List<ClaimedOrder> orders) {
+        Set<Long> ids = new HashSet<>();
+        orders.forEach(order -> ids.add(order.id()));
+        return ids;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bank.transfer.repository;
+
+import com.bank.common.dto.contracts.transfer.TransferDTO;
+import com.bank.transfer.entity.Transfer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+    "spring.flyway.enabled=false",
+    "spring.cloud.config.enabled=false",
+    "eureka.client.enabled=false"
+})
+@Import(TransferHistoryRepository.class)
+class TransferHistoryRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private TransferHistoryRepository historyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pagesThroughIncomingAndOutgoingTransfersNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 12, 0);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Alternate direction relative to account 1; account 2 <-> 3 transfers must not show up
+            Long id = save(i % 2 == 0 ? 1L : 2L, i % 2 == 0 ? 2L : 1L, base.plusMinutes(i));
+            expected.add(0, id);
+            save(2L, 3L, base.plusMinutes(i));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime createdAt = START;
+        long id = Long.MAX_VALUE;
+        List<TransferDTO> page;
+        do {
+            page = historyRepository.findPage(1L, createdAt, id, 3);
+            page.forEach(transfer -> seen.add(transfer.getId()));
+            if (!page.isEmpty()) {
+                createdAt = page.get(page.size() - 1).getCreatedAt();
+                id = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 3);
+
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void ordersTransfersWithTheSameTimestampById() {
+        LocalDateTime at = LocalDateTime.of(2026, 1, 1, 12, 0);
+        Long first = save(1L, 2L, at);
+        Long second = save(2L, 1L, at);
+
+        List<TransferDTO> page = historyRepository.findPage(1L, START, Long.MAX_VALUE, 1);
+        assertEquals(second, page.get(0).getId());
+
+        page = historyRepository.findPage(1L, page.get(0).getCreatedAt(), page.get(0).getId(), 1);
+        assertEquals(first, page.get(0).getId());
+    }
+
+    private Long save(Long from, Long to, LocalDateTime createdAt) {
+        Transfer transfer = transferRepository.saveAndFlush(Transfer.builder()
+            .fromBankAccountId(from)
+            .toBankAccountId(to)
+            .amount(BigDecimal.TEN)
+            .fromCurrency("RUB")
+            .toCurrency("RUB")
+            .status("SUCCESS")
+            .build());
+        // created_at is set on insert, so backdate it explicitly
+        jdbcTemplate.update("UPDATE transfer.transfers SET created_at = ? WHERE id = ?", createdAt, transfer.getId());
+        return transfer.getId();
+    }
+}
@@ -0,0 +1,111 @@
+package com.bank.transfer.service;
+
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.repository.DailyFlowRepository;
+import com.bank.transfer.repository.DailyFlowRepository.FlowDelta;
+import com.bank.transfer.repository.TransferRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailyFlowRecorderTest {
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private DailyFlowRepository dailyFlowRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void completedTransferIsSavedWithItsFlowsInOneTransaction() {
+        Transfer transfer = transfer(1L, 2L, TransferSettlement.SUCCESS);
+
+        newRecorder(true).saveCompleted(transfer);
+
+        InOrder inOrder = inOrder(transactionManager, transferRepository, dailyFlowRepository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(transferRepository).save(transfer);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FlowDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        inOrder.verify(dailyFlowRepository).upsert(deltas.capture());
+        inOrder.verify(transactionManager).commit(any());
+        assertEquals(List.of(1L, 2L), deltas.getValue().stream().map(FlowDelta::bankAccountId).toList());
+    }
+
+    @Test
+    void onlySuccessfulTransfersAreCounted() {
+        Transfer completed = transfer(1L, 2L, TransferSettlement.SUCCESS);
+        List<Transfer> transfers = List.of(completed, transfer(3L, 4L, "FAILED"), transfer(5L, 6L, "BLOCKED"));
+
+        newRecorder(true).saveAll(transfers);
+
+        verify(transferRepository).saveAll(transfers);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FlowDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(dailyFlowRepository).upsert(deltas.capture());
+        assertEquals(List.of(1L, 2L), deltas.getValue().stream().map(FlowDelta::bankAccountId).toList());
+    }
+
+    @Test
+    void failedTransferIsSavedWithoutFlows() {
+        Transfer failed = transfer(1L, 2L, "FAILED");
+
+        newRecorder(true).saveCompleted(failed);
+
+        verify(transferRepository).save(failed);
+        verifyNoInteractions(dailyFlowRepository, transactionManager);
+    }
+
+    @Test
+    void disabledRecorderOnlySaves() {
+        Transfer transfer = transfer(1L, 2L, TransferSettlement.SUCCESS);
+
+        newRecorder(false).saveCompleted(transfer);
+
+        verify(transferRepository).save(transfer);
+        verifyNoInteractions(dailyFlowRepository, transactionManager);
+    }
+
+    @Test
+    void failingUpsertRollsBackTheSave() {
+        Transfer transfer = transfer(1L, 2L, TransferSettlement.SUCCESS);
+        doThrow(new IllegalStateException("deadlock detected")).when(dailyFlowRepository).upsert(anyList());
+
+        DailyFlowRecorder recorder = newRecorder(true);
+
+        assertThrows(IllegalStateException.class, () -> recorder.saveCompleted(transfer));
+        verify(transferRepository).save(transfer);
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private DailyFlowRecorder newRecorder(boolean enabled) {
+        return new DailyFlowRecorder(transferRepository, dailyFlowRepository, transactionManager, enabled);
+    }
+
+    private static Transfer transfer(Long from, Long to, String status) {
+        Transfer transfer = new Transfer();
+        transfer.setFromBankAccountId(from);
+        transfer.setToBankAccountId(to);
+        transfer.setAmount(new BigDecimal("10.00"));
+        transfer.setConvertedAmount(new BigDecimal("10.00"));
+        transfer.setStatus(status);
+        return transfer;
+    }
+}
@@ -0,0 +1,67 @@
+package com.bank.transfer.service;
+
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.repository.DailyFlowRepository.FlowDelta;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyFlowsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+    @Test
+    void legsAreSummedPerAccountAndDayInLockOrder() {
+        DailyFlows flows = new DailyFlows();
+
+        flows.addCompleted(transfer(20L, 10L, "100.00", "1.10"), DAY);
+        flows.addCompleted(transfer(10L, 30L, "5.00", "5.00"), DAY.plusDays(1));
+        flows.addCompleted(transfer(20L, 10L, "50.00", "0.55"), DAY);
+        flows.sent(10L, DAY, new BigDecimal("7.00"), 2);
+
+        List<FlowDelta> deltas = flows.deltas();
+
+        assertEquals(List.of(10L, 10L, 20L, 30L), deltas.stream().map(FlowDelta::bankAccountId).toList());
+        assertEquals(List.of(DAY, DAY.plusDays(1), DAY, DAY.plusDays(1)),
+            deltas.stream().map(FlowDelta::date).toList());
+
+        // The receiving side is credited with the converted amount, not the amount sent
+        FlowDelta received = deltas.get(0);
+        assertEquals(0, new BigDecimal("1.65").compareTo(received.receivedAmount()));
+        assertEquals(2, received.receivedCount());
+        assertEquals(0, new BigDecimal("7.00").compareTo(received.sentAmount()));
+        assertEquals(2, received.sentCount());
+
+        FlowDelta sent = deltas.get(2);
+        assertEquals(0, new BigDecimal("150.00").compareTo(sent.sentAmount()));
+        assertEquals(2, sent.sentCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(sent.receivedAmount()));
+        assertEquals(0, sent.receivedCount());
+    }
+
+    @Test
+    void emptyUntilALegIsAdded() {
+        DailyFlows flows = new DailyFlows();
+
+        assertTrue(flows.isEmpty());
+        assertEquals(List.of(), flows.deltas());
+
+        flows.received(10L, DAY, BigDecimal.ONE, 1);
+
+        assertFalse(flows.isEmpty());
+    }
+
+    private static Transfer transfer(Long from, Long to, String amount, String converted) {
+        Transfer transfer = new Transfer();
+        transfer.setFromBankAccountId(from);
+        transfer.setToBankAccountId(to);
+        transfer.setAmount(new BigDecimal(amount));
+        transfer.setConvertedAmount(new BigDecimal(converted));
+        transfer.setStatus(TransferSettlement.SUCCESS);
+        return transfer;
+    }
+}
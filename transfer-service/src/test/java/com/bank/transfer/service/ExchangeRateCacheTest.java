@@ -0,0 +1,92 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
+import com.bank.common.exception.BusinessException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.common.exchange.ExchangeRatesSnapshot;
+import com.bank.transfer.client.ExchangeClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateCacheTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private ExchangeClient exchangeClient;
+
+    @Test
+    void convertsWithExchangeServiceSemanticsAndVersionsByLastUpdate() {
+        when(exchangeClient.getRates()).thenReturn(ApiResponse.success(rates()));
+        ExchangeRateCache cache = new ExchangeRateCache(exchangeClient::getRates, Duration.ofSeconds(30));
+
+        ExchangeRatesSnapshot snapshot = cache.current();
+
+        assertEquals(UPDATED_AT.plusSeconds(5).toInstant(ZoneOffset.UTC).toEpochMilli(), snapshot.getVersion());
+        // USD -> RUB at the buy rate, RUB -> CNY at the sell rate rounded to two significant digits
+        assertEquals(0, new BigDecimal("880").compareTo(snapshot.convert(BigDecimal.TEN, "USD", "RUB")));
+        assertEquals(new BigDecimal("80"), snapshot.convert(BigDecimal.TEN, "USD", "CNY"));
+    }
+
+    @Test
+    void keepsLastSnapshotThroughShortOutage() {
+        when(exchangeClient.getRates())
+            .thenReturn(ApiResponse.success(rates()))
+            .thenThrow(new RuntimeException("exchange-service is down"));
+        ExchangeRateCache cache = new ExchangeRateCache(exchangeClient::getRates, Duration.ofSeconds(30));
+        ExchangeRatesSnapshot first = cache.current();
+
+        cache.refresh();
+
+        assertSame(first, cache.current());
+    }
+
+    @Test
+    void refusesSnapshotOlderThanMaxAge() throws InterruptedException {
+        when(exchangeClient.getRates())
+            .thenReturn(ApiResponse.success(rates()))
+            .thenReturn(ApiResponse.error("Exchange service unavailable"));
+        ExchangeRateCache cache = new ExchangeRateCache(exchangeClient::getRates, Duration.ofMillis(20));
+        cache.refresh();
+
+        Thread.sleep(50);
+
+        BusinessException ex = assertThrows(BusinessException.class, cache::current);
+        assertEquals("Exchange rates are outdated, please try again later", ex.getMessage());
+    }
+
+    @Test
+    void withoutMaxAgeServesLastSnapshotThroughAnyOutage() throws InterruptedException {
+        when(exchangeClient.getRates())
+            .thenReturn(ApiResponse.success(rates()))
+            .thenReturn(ApiResponse.error("Exchange service unavailable"));
+        ExchangeRateCache cache = new ExchangeRateCache(exchangeClient::getRates);
+        ExchangeRatesSnapshot first = cache.current();
+
+        Thread.sleep(50);
+        cache.refresh();
+
+        assertSame(first, cache.current());
+    }
+
+    private static List<ExchangeRateDTO> rates() {
+        return List.of(
+            ExchangeRateDTO.builder().currency("USD").buyRate(new BigDecimal("88")).sellRate(new BigDecimal("90"))
+                .updatedAt(UPDATED_AT).build(),
+            ExchangeRateDTO.builder().currency("CNY").buyRate(new BigDecimal("10")).sellRate(new BigDecimal("11"))
+                .updatedAt(UPDATED_AT.plusSeconds(5)).build());
+    }
+}
@@ -0,0 +1,59 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.accounts.BankOperation;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetPositionsTest {
+
+    @Test
+    void backAndForthTransfersNetToOnePostingPerAccount() {
+        NetPositions positions = new NetPositions(2);
+        positions.add(1, "RUB", new BigDecimal("-100"));
+        positions.add(2, "RUB", new BigDecimal("100"));
+        positions.add(2, "RUB", new BigDecimal("-30"));
+        positions.add(1, "RUB", new BigDecimal("30"));
+        positions.add(3, "RUB", new BigDecimal("-5"));
+        positions.add(3, "RUB", new BigDecimal("5"));
+
+        List<UpdateBalanceRequest> postings = positions.postings();
+
+        assertEquals(6, positions.grossPostings());
+        assertEquals(3, positions.accounts());
+        assertEquals(2, postings.size());
+        // Credits first, then debits; account 3 nets to zero and is not posted at all
+        assertEquals(2L, postings.get(0).getBankAccountId());
+        assertEquals(BankOperation.ADD, postings.get(0).getOperation());
+        assertEquals(0, new BigDecimal("70").compareTo(postings.get(0).getAmount()));
+        assertEquals(1L, postings.get(1).getBankAccountId());
+        assertEquals(BankOperation.SUBTRACT, postings.get(1).getOperation());
+        assertEquals(0, new BigDecimal("70").compareTo(postings.get(1).getAmount()));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        NetPositions positions = new NetPositions(1);
+        for (long id = 1; id <= 10_000; id++) {
+            positions.add(id, "RUB", BigDecimal.ONE);
+            positions.add(id, "RUB", BigDecimal.ONE);
+        }
+
+        assertEquals(10_000, positions.accounts());
+        assertEquals(0, new BigDecimal("2").compareTo(positions.net(4_242)));
+        assertEquals(BigDecimal.ZERO, positions.net(10_001));
+    }
+
+    @Test
+    void rejectsADeltaInAnotherCurrency() {
+        NetPositions positions = new NetPositions(1);
+        positions.add(1, "RUB", BigDecimal.TEN);
+
+        assertThrows(BusinessException.class, () -> positions.add(1, "USD", BigDecimal.ONE));
+    }
+}
@@ -0,0 +1,104 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.notifications.NotificationRequest;
+import com.bank.transfer.client.NotificationClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock
+    private NotificationClient notificationClient;
+
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void notificationsAreFlushedInBatchesOfAtMostBatchSize() {
+        dispatcher = new NotificationDispatcher(notificationClient, true, 1000, 50, 10_000, 100, 5000);
+        dispatcher.start();
+
+        for (int i = 0; i < 120; i++) {
+            dispatcher.send(notification("user-" + i));
+        }
+        dispatcher.stop();
+
+        // Full batches leave without waiting for the interval; the rest is drained at shutdown
+        ArgumentCaptor<List<NotificationRequest>> batches = ArgumentCaptor.forClass(List.class);
+        verify(notificationClient, atLeastOnce()).sendNotifications(batches.capture());
+        assertTrue(batches.getAllValues().stream().allMatch(batch -> batch.size() <= 50));
+        assertEquals(120, batches.getAllValues().stream().mapToInt(List::size).sum());
+        verify(notificationClient, never()).sendNotification(any());
+    }
+
+    @Test
+    void partialBatchIsFlushedAfterTheInterval() {
+        dispatcher = new NotificationDispatcher(notificationClient, true, 1000, 50, 20, 100, 5000);
+        dispatcher.start();
+
+        dispatcher.send(notification("alice"));
+        dispatcher.send(notification("bob"));
+
+        verify(notificationClient, timeout(2000)).sendNotifications(List.of(notification("alice"), notification("bob")));
+        assertEquals(0, dispatcher.buffered());
+    }
+
+    @Test
+    void fullBufferMakesTheCallerSendDirectly() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch flushing = new CountDownLatch(1);
+        doAnswer(inv -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(notificationClient).sendNotification(notification("first"));
+        dispatcher = new NotificationDispatcher(notificationClient, true, 1, 1, 1, 10, 5000);
+        dispatcher.start();
+
+        dispatcher.send(notification("first"));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        dispatcher.send(notification("second"));
+        dispatcher.send(notification("third"));
+
+        // "second" fills the buffer while "first" is being sent, so "third" waits and then goes directly
+        verify(notificationClient).sendNotification(notification("third"));
+        release.countDown();
+        dispatcher.stop();
+        verify(notificationClient).sendNotification(notification("second"));
+        verify(notificationClient, never()).sendNotifications(anyList());
+    }
+
+    @Test
+    void disabledDispatcherSendsOnTheCallingThread() {
+        dispatcher = new NotificationDispatcher(notificationClient, false, 1, 1, 0, 0, 0);
+        dispatcher.start();
+
+        dispatcher.send(notification("alice"));
+
+        verify(notificationClient).sendNotification(notification("alice"));
+    }
+
+    private static NotificationRequest notification(String username) {
+        return NotificationRequest.builder().username(username).message("Transfer sent").type("INFO").build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipientCacheTest {
+
+    @Test
+    void storesRoutingOnlyAndNeverBalances() {
+        RecipientCache cache = new RecipientCache(10, 60_000);
+
+        cache.put("bob@example.com", List.of(account(4L, "USD")));
+
+        BankAccountDTO cached = cache.get("bob@example.com").get(0);
+        assertEquals(4L, cached.getId());
+        assertEquals("USD", cached.getCurrency());
+        assertEquals("bob", cached.getAccountUsername());
+        assertNull(cached.getBalance());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxSize() {
+        RecipientCache cache = new RecipientCache(2, 60_000);
+        cache.put("a@example.com", List.of(account(1L, "RUB")));
+        cache.put("b@example.com", List.of(account(2L, "RUB")));
+        cache.get("a@example.com");
+
+        cache.put("c@example.com", List.of(account(3L, "RUB")));
+
+        assertNotNull(cache.get("a@example.com"));
+        assertNull(cache.get("b@example.com"));
+        assertNotNull(cache.get("c@example.com"));
+    }
+
+    @Test
+    void expiresAfterTtl() throws InterruptedException {
+        RecipientCache cache = new RecipientCache(10, 20);
+        cache.put("bob@example.com", List.of(account(4L, "USD")));
+
+        Thread.sleep(50);
+
+        assertNull(cache.get("bob@example.com"));
+    }
+
+    private static BankAccountDTO account(Long id, String currency) {
+        return BankAccountDTO.builder()
+            .id(id)
+            .currency(currency)
+            .balance(new BigDecimal("100.00"))
+            .accountUsername("bob")
+            .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.bank.transfer.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceAccountMailboxesTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void tasksOfOneAccountRunOneAtATimeInSubmissionOrder() {
+        SourceAccountMailboxes mailboxes = new SourceAccountMailboxes(executor, 1000, 10_000, new SimpleMeterRegistry());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> order = new ArrayList<>();
+        List<CompletableFuture<Integer>> runs = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            int index = i;
+            runs.add(mailboxes.submit(1L, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(index);
+                running.decrementAndGet();
+                return index;
+            }));
+        }
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(200, order.size());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void differentAccountsRunInParallel() {
+        SourceAccountMailboxes mailboxes = new SourceAccountMailboxes(executor, 10, 100, new SimpleMeterRegistry());
+        // Each task waits until the other has started, which only succeeds if they run at the same time
+        CyclicBarrier barrier = new CyclicBarrier(2);
+
+        CompletableFuture<Integer> first = mailboxes.submit(1L, () -> await(barrier));
+        CompletableFuture<Integer> second = mailboxes.submit(2L, () -> await(barrier));
+
+        // The barrier hands out arrival indexes 1 and 0
+        assertEquals(1, first.join() + second.join());
+    }
+
+    @Test
+    void emptyMailboxesAreReclaimed() throws Exception {
+        SourceAccountMailboxes mailboxes = new SourceAccountMailboxes(executor, 10, 100, new SimpleMeterRegistry());
+
+        for (long account = 0; account < 50; account++) {
+            mailboxes.submit(account, () -> 1).join();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (mailboxes.activeMailboxes() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, mailboxes.activeMailboxes());
+        // An account that comes back gets a new mailbox
+        assertEquals(2, mailboxes.submit(7L, () -> 2).join());
+    }
+
+    @Test
+    void backlogOfOneAccountBeyondTheLimitIsRejected() throws Exception {
+        SourceAccountMailboxes mailboxes = new SourceAccountMailboxes(executor, 2, 100, new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> blocking = mailboxes.submit(1L, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued1 = mailboxes.submit(1L, () -> 1);
+        CompletableFuture<Integer> queued2 = mailboxes.submit(1L, () -> 2);
+
+        assertThrows(RejectedExecutionException.class, () -> mailboxes.submit(1L, () -> 3));
+        // Other accounts are not affected
+        assertEquals(4, mailboxes.submit(2L, () -> 4).join());
+
+        release.countDown();
+        assertEquals(List.of(0, 1, 2), List.of(blocking.join(), queued1.join(), queued2.join()));
+    }
+
+    private static int await(CyclicBarrier barrier) {
+        try {
+            return barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
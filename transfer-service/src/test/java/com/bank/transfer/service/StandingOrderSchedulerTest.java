@@ -0,0 +1,163 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.transfer.TransferRequest;
+import com.bank.common.dto.contracts.transfer.TransferResponse;
+import com.bank.transfer.entity.StandingOrderFrequency;
+import com.bank.transfer.repository.StandingOrderClaimRepository;
+import com.bank.transfer.repository.StandingOrderClaimRepository.ClaimedOrder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StandingOrderSchedulerTest {
+
+    @Mock
+    private StandingOrderClaimRepository claimRepository;
+
+    @Mock
+    private TransferService transferService;
+
+    @Mock
+    private TransferNettingService nettingService;
+
+    private StandingOrderScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void loadedOrderIsClaimedAndRunWhenDue() {
+        LocalDateTime dueAt = LocalDateTime.now().plusNanos(200_000_000);
+        doAnswer(inv -> {
+            inv.<StandingOrderClaimRepository.DueHandler>getArgument(2).due(7L, dueAt);
+            return null;
+        }).doNothing().when(claimRepository).forEachDue(any(), any(), any());
+        when(claimRepository.claim(any(long[].class), anyInt(), any())).thenAnswer(inv -> {
+            LocalDateTime now = inv.getArgument(2);
+            assertFalse(now.isBefore(dueAt), "claimed before the order was due");
+            return List.of(new ClaimedOrder(7L, "alice", 1L, 2L, new BigDecimal("10.00"),
+                StandingOrderFrequency.MONTHLY, dueAt, null, dueAt, 0));
+        });
+        when(transferService.processTransfer(any(), eq("alice")))
+            .thenReturn(TransferResponse.builder().transferId(99L).status("SUCCESS").build());
+
+        scheduler = newScheduler();
+        scheduler.start();
+
+        verify(claimRepository, timeout(5_000)).recordResult(7L, "SUCCESS", 99L);
+        ArgumentCaptor<TransferRequest> request = ArgumentCaptor.forClass(TransferRequest.class);
+        verify(transferService).processTransfer(request.capture(), eq("alice"));
+        assertEquals(1L, request.getValue().getFromBankAccountId());
+        assertEquals(2L, request.getValue().getToBankAccountId());
+        assertEquals(1, scheduler.getExecutedCount());
+    }
+
+    @Test
+    void occurrenceLostToAnotherInstanceIsNotRun() {
+        LocalDateTime dueAt = LocalDateTime.now().minusSeconds(1);
+        doAnswer(inv -> {
+            inv.<StandingOrderClaimRepository.DueHandler>getArgument(2).due(7L, dueAt);
+            return null;
+        }).doNothing().when(claimRepository).forEachDue(any(), any(), any());
+        when(claimRepository.claim(any(long[].class), anyInt(), any())).thenReturn(List.of());
+
+        scheduler = newScheduler();
+        scheduler.start();
+
+        verify(claimRepository, timeout(5_000)).claim(any(long[].class), eq(1), any());
+        verifyNoInteractions(transferService);
+    }
+
+    @Test
+    void failedTransferIsRecordedOnTheOrder() {
+        LocalDateTime dueAt = LocalDateTime.now().minusSeconds(1);
+        doAnswer(inv -> {
+            inv.<StandingOrderClaimRepository.DueHandler>getArgument(2).due(7L, dueAt);
+            return null;
+        }).doNothing().when(claimRepository).forEachDue(any(), any(), any());
+        when(claimRepository.claim(any(long[].class), anyInt(), any())).thenReturn(List.of(
+            new ClaimedOrder(7L, "alice", 1L, 2L, new BigDecimal("10.00"), StandingOrderFrequency.DAILY,
+                dueAt, null, dueAt, 0)));
+        when(transferService.processTransfer(any(), any()))
+            .thenThrow(new com.bank.common.exception.BusinessException("Insufficient balance"));
+
+        scheduler = newScheduler();
+        scheduler.start();
+
+        verify(claimRepository, timeout(5_000)).recordResult(7L, "FAILED: Insufficient balance", null);
+    }
+
+    @Test
+    void ordersClaimedTogetherAreSettledAsOneNettedGroup() {
+        LocalDateTime dueAt = LocalDateTime.now().minusSeconds(1);
+        doAnswer(inv -> {
+            StandingOrderClaimRepository.DueHandler handler = inv.getArgument(2);
+            handler.due(7L, dueAt);
+            handler.due(8L, dueAt);
+            return null;
+        }).doNothing().when(claimRepository).forEachDue(any(), any(), any());
+        when(claimRepository.claim(any(long[].class), anyInt(), any())).thenReturn(List.of(
+            new ClaimedOrder(7L, "alice", 1L, 2L, new BigDecimal("10.00"), StandingOrderFrequency.DAILY,
+                dueAt, null, dueAt, 0),
+            new ClaimedOrder(8L, "bob", 2L, 1L, new BigDecimal("10.00"), StandingOrderFrequency.DAILY,
+                dueAt, null, dueAt, 0)));
+        when(nettingService.settle(any())).thenReturn(List.of(
+            TransferResponse.builder().transferId(100L).status("SUCCESS").build(),
+            TransferResponse.builder().transferId(101L).status("BLOCKED")
+                .message("The operation looks suspicious and is blocked by bank").build()));
+
+        scheduler = newScheduler();
+        scheduler.start();
+
+        verify(claimRepository, timeout(5_000)).recordResult(8L,
+            "BLOCKED: The operation looks suspicious and is blocked by bank", 101L);
+        verify(claimRepository).recordResult(7L, "SUCCESS", 100L);
+        verify(nettingService, times(1)).settle(any());
+        verifyNoInteractions(transferService);
+    }
+
+    @Test
+    void failedNettedGroupIsRecordedOnEveryOrder() {
+        LocalDateTime dueAt = LocalDateTime.now().minusSeconds(1);
+        doAnswer(inv -> {
+            StandingOrderClaimRepository.DueHandler handler = inv.getArgument(2);
+            handler.due(7L, dueAt);
+            handler.due(8L, dueAt);
+            return null;
+        }).doNothing().when(claimRepository).forEachDue(any(), any(), any());
+        when(claimRepository.claim(any(long[].class), anyInt(), any())).thenReturn(List.of(
+            new ClaimedOrder(7L, "alice", 1L, 2L, new BigDecimal("10.00"), StandingOrderFrequency.DAILY,
+                dueAt, null, dueAt, 0),
+            new ClaimedOrder(8L, "bob", 2L, 1L, new BigDecimal("10.00"), StandingOrderFrequency.DAILY,
+                dueAt, null, dueAt, 0)));
+        when(nettingService.settle(any())).thenThrow(new IllegalStateException("Exchange rates are unavailable"));
+
+        scheduler = newScheduler();
+        scheduler.start();
+
+        verify(claimRepository, timeout(5_000)).recordResult(8L, "FAILED: Exchange rates are unavailable", null);
+        verify(claimRepository).recordResult(7L, "FAILED: Exchange rates are unavailable", null);
+    }
+
+    private StandingOrderScheduler newScheduler() {
+        return new StandingOrderScheduler(claimRepository, transferService, nettingService, Clock.systemDefaultZone(),
+            true, true, 10, 60_000, 100, 4, 30_000);
+    }
+}
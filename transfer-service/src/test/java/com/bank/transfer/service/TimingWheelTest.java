@@ -0,0 +1,73 @@
+package com.bank.transfer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void neverExpiresBeforeDueTime() {
+        TimingWheel wheel = new TimingWheel(100, 10, 0);
+        List<Long> expired = new ArrayList<>();
+        assertTrue(wheel.add(1, 250));
+
+        wheel.advance(249, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(300, expired::add);
+        assertEquals(List.of(1L), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void alreadyDueIdIsRejected() {
+        TimingWheel wheel = new TimingWheel(100, 10, 1_000);
+
+        assertFalse(wheel.add(1, 900));
+        assertFalse(wheel.add(2, 1_000));
+        assertTrue(wheel.add(3, 1_001));
+    }
+
+    @Test
+    void cascadesFromOverflowLevelsAtTheRightTime() {
+        // Level 0 spans 1 s, level 1 spans 10 s, level 2 spans 100 s
+        TimingWheel wheel = new TimingWheel(100, 10, 0);
+        long[] dues = {150, 1_050, 9_999, 10_000, 54_321, 99_900};
+        for (int i = 0; i < dues.length; i++) {
+            assertTrue(wheel.add(i, dues[i]));
+        }
+        assertEquals(dues.length, wheel.size());
+
+        long[] expiredAt = new long[dues.length];
+        for (long now = 0; now <= 100_000; now += 10) {
+            long at = now;
+            wheel.advance(now, id -> expiredAt[(int) id] = at);
+        }
+
+        for (int i = 0; i < dues.length; i++) {
+            assertTrue(expiredAt[i] >= dues[i], "id " + i + " expired early at " + expiredAt[i]);
+            assertTrue(expiredAt[i] < dues[i] + 100, "id " + i + " expired late at " + expiredAt[i]);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void expiresALargeSpikeInOneSlot() {
+        TimingWheel wheel = new TimingWheel(100, 3_000, 0);
+        int spike = 300_000;
+        for (int i = 0; i < spike; i++) {
+            wheel.add(i, 3_600_000);
+        }
+        int[] expired = new int[1];
+
+        wheel.advance(3_599_999, id -> expired[0]++);
+        assertEquals(0, expired[0]);
+
+        wheel.advance(3_600_000, id -> expired[0]++);
+        assertEquals(spike, expired[0]);
+    }
+}
@@ -0,0 +1,370 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.BankOperation;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.dto.contracts.blocker.BlockCheckRequest;
+import com.bank.common.dto.contracts.blocker.BlockCheckResponse;
+import com.bank.common.dto.contracts.transfer.TransferBatchDTO;
+import com.bank.common.exception.BusinessException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.transfer.client.AccountsClient;
+import com.bank.transfer.client.BlockerClient;
+import com.bank.transfer.client.NotificationClient;
+import com.bank.transfer.entity.TransferBatch;
+import com.bank.transfer.entity.TransferBatchStatus;
+import com.bank.transfer.repository.DailyFlowRepository;
+import com.bank.transfer.repository.DailyFlowRepository.FlowDelta;
+import com.bank.transfer.repository.TransferBatchLegRepository;
+import com.bank.transfer.repository.TransferBatchRepository;
+import com.bank.transfer.repository.TransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferBatchServiceImplTest {
+
+    @Mock
+    private TransferBatchRepository batchRepository;
+
+    @Mock
+    private TransferBatchLegRepository legRepository;
+
+    @Mock
+    private AccountsClient accountsClient;
+
+    @Mock
+    private ExchangeRateCache exchangeRateCache;
+
+    @Mock
+    private BlockerClient blockerClient;
+
+    @Mock
+    private NotificationClient notificationClient;
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private DailyFlowRepository dailyFlowRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransferSettlement settlement;
+
+    @Mock
+    private TransferLimits transferLimits;
+
+    @Mock
+    private ExecutorService workerExecutor;
+
+    private TransferBatchServiceImpl batchService;
+
+    private final BankAccountDTO aliceRub = account(1L, "RUB", "10000.00", "alice");
+
+    @BeforeEach
+    void setUp() {
+        batchService = new TransferBatchServiceImpl(batchRepository, legRepository, new TransferBatchParser(1000),
+            accountsClient, exchangeRateCache, blockerClient, notificationClient,
+            new DailyFlowRecorder(transferRepository, dailyFlowRepository, transactionManager, true), settlement,
+            transferLimits, workerExecutor, 2);
+        lenient().when(batchRepository.save(any(TransferBatch.class))).thenAnswer(invocation -> {
+            TransferBatch batch = invocation.getArgument(0);
+            if (batch.getId() == null) {
+                batch.setId(7L);
+            }
+            return batch;
+        });
+        // Run the batch on the calling thread so the outcome can be asserted right after submit
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(workerExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    void testSubmitBatch_GroupsLegsByDestinationAndPostsInChunks() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.getBankAccountsByIds(anyList())).thenAnswer(invocation -> ApiResponse.success(
+            invocation.<List<Long>>getArgument(0).stream()
+                .map(id -> account(id, "RUB", "0.00", "user" + id))
+                .toList()));
+        when(accountsClient.updateBalances(anyList())).thenReturn(ApiResponse.success(List.of()));
+
+        TransferBatchDTO result = batchService.submitBatch(1L,
+            json("[{\"toBankAccountId\":3,\"amount\":100},{\"toBankAccountId\":4,\"amount\":250},"
+                + "{\"toBankAccountId\":3,\"amount\":50},{\"toBankAccountId\":5,\"amount\":10}]"),
+            "application/json", "alice");
+
+        assertEquals(TransferBatchStatus.COMPLETED.name(), result.getStatus());
+        assertEquals(4, result.getTotalCount());
+        assertEquals(4, result.getProcessedCount());
+        assertEquals(0, result.getFailedCount());
+        assertEquals(0, new BigDecimal("410").compareTo(result.getTotalAmount()));
+
+        ArgumentCaptor<BlockCheckRequest> blockCheck = ArgumentCaptor.forClass(BlockCheckRequest.class);
+        verify(blockerClient).checkOperation(blockCheck.capture());
+        assertEquals(0, new BigDecimal("250").compareTo(blockCheck.getValue().getAmount()));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UpdateBalanceRequest>> postings = ArgumentCaptor.forClass(List.class);
+        verify(accountsClient, times(2)).updateBalances(postings.capture());
+        List<UpdateBalanceRequest> first = postings.getAllValues().get(0);
+        assertEquals(3, first.size());
+        assertEquals(BankOperation.SUBTRACT, first.get(0).getOperation());
+        assertEquals(0, new BigDecimal("400").compareTo(first.get(0).getAmount()));
+        assertEquals(3L, first.get(1).getBankAccountId());
+        assertEquals(0, new BigDecimal("150").compareTo(first.get(1).getAmount()));
+        assertEquals(4L, first.get(2).getBankAccountId());
+        assertEquals(List.of("batch-7-3", "batch-7-3-3", "batch-7-3-4"),
+            first.stream().map(UpdateBalanceRequest::getOperationId).toList());
+        assertEquals(List.of(5L), postings.getAllValues().get(1).stream().skip(1)
+            .map(UpdateBalanceRequest::getBankAccountId).toList());
+        verify(legRepository).journal(eq(7L), eq(List.of(3L, 4L)), eq("batch-7-3"), eq(List.of("RUB", "RUB")), anyList(),
+            eq("RUB"), isNull());
+        verify(legRepository).settle(7L, List.of(3L, 4L));
+        verify(legRepository).settle(7L, List.of(5L));
+        verifyNoInteractions(exchangeRateCache, settlement);
+
+        // Each chunk adds its legs to the daily flows as it is settled
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FlowDelta>> flows = ArgumentCaptor.forClass(List.class);
+        verify(dailyFlowRepository, times(2)).upsert(flows.capture());
+        List<FlowDelta> firstFlows = flows.getAllValues().get(0);
+        assertEquals(List.of(1L, 3L, 4L), firstFlows.stream().map(FlowDelta::bankAccountId).toList());
+        assertEquals(0, new BigDecimal("400").compareTo(firstFlows.get(0).sentAmount()));
+        assertEquals(3, firstFlows.get(0).sentCount());
+        assertEquals(0, new BigDecimal("150").compareTo(firstFlows.get(1).receivedAmount()));
+        assertEquals(2, firstFlows.get(1).receivedCount());
+    }
+
+    @Test
+    void testSubmitBatch_BlockedBatchPostsNothing() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(true));
+
+        TransferBatchDTO result = batchService.submitBatch(1L,
+            json("toBankAccountId,amount\n3,100\n4,5000\n"), "text/csv", "alice");
+
+        assertEquals(TransferBatchStatus.BLOCKED.name(), result.getStatus());
+        assertEquals(2, result.getFailedCount());
+        verify(legRepository).failAll(eq(7L), eq("BLOCKED"), any());
+        verify(accountsClient, never()).updateBalances(anyList());
+        verify(notificationClient).sendNotification(any());
+    }
+
+    @Test
+    void testSubmitBatch_RejectedChunkFailsItsLegsOnly() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.getBankAccountsByIds(anyList()))
+            .thenReturn(ApiResponse.success(List.of(account(3L, "RUB", "0.00", "bob"))));
+        when(accountsClient.updateBalances(anyList())).thenReturn(ApiResponse.error("Insufficient funds"));
+        when(settlement.wasApplied("batch-7-3")).thenReturn(false);
+
+        TransferBatchDTO result = batchService.submitBatch(1L,
+            json("[{\"toBankAccountId\":3,\"amount\":100},{\"toBankAccountId\":9,\"amount\":100}]"),
+            "application/json", "alice");
+
+        assertEquals(TransferBatchStatus.FAILED.name(), result.getStatus());
+        assertEquals(2, result.getFailedCount());
+        verify(legRepository).fail(7L, List.of(9L), "FAILED", "Destination bank account not found");
+        verify(legRepository).fail(7L, List.of(3L), "FAILED", "Insufficient funds");
+        verify(legRepository, never()).settle(anyLong(), anyList());
+    }
+
+    @Test
+    void testSubmitBatch_BatchOverLimitPostsNothing() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.getBankAccountsByIds(anyList())).thenReturn(ApiResponse.success(List.of(
+            account(2L, "RUB", "0.00", "alice"), account(3L, "RUB", "0.00", "bob"))));
+        when(transferLimits.reserve("alice", new BigDecimal("100"), "RUB"))
+            .thenThrow(new BusinessException("Daily transfer limit of 50 RUB exceeded"));
+
+        TransferBatchDTO result = batchService.submitBatch(1L,
+            json("[{\"toBankAccountId\":2,\"amount\":900},{\"toBankAccountId\":3,\"amount\":100}]"),
+            "application/json", "alice");
+
+        // Only the leg to another user's account counts against the limits
+        assertEquals(TransferBatchStatus.FAILED.name(), result.getStatus());
+        assertEquals("Daily transfer limit of 50 RUB exceeded", result.getDescription());
+        verify(accountsClient, never()).updateBalances(anyList());
+    }
+
+    @Test
+    void testSubmitBatch_FailedChunksGiveBackTheirShareOfTheLimit() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.getBankAccountsByIds(anyList())).thenAnswer(invocation -> ApiResponse.success(
+            invocation.<List<Long>>getArgument(0).stream()
+                .map(id -> account(id, "RUB", "0.00", "user" + id))
+                .toList()));
+        when(transferLimits.reserve("alice", new BigDecimal("400"), "RUB"))
+            .thenReturn(new TransferLimits.Reservation("alice", 5L, 40000L));
+        when(accountsClient.updateBalances(anyList()))
+            .thenReturn(ApiResponse.success(List.of()))
+            .thenReturn(ApiResponse.error("Insufficient funds"));
+        when(settlement.wasApplied("batch-7-5")).thenReturn(false);
+
+        batchService.submitBatch(1L, json("toBankAccountId,amount\n3,100\n4,200\n5,100\n"), "text/csv", "alice");
+
+        verify(transferLimits).release(new TransferLimits.Reservation("alice", 5L, 10000L));
+    }
+
+    @Test
+    void testSubmitBatch_ChunkAppliedDespiteTimeoutIsSettled() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.getBankAccountsByIds(anyList()))
+            .thenReturn(ApiResponse.success(List.of(account(3L, "RUB", "0.00", "bob"))));
+        when(accountsClient.updateBalances(anyList())).thenThrow(new BusinessException("Read timed out"));
+        when(settlement.wasApplied("batch-7-3")).thenReturn(true);
+
+        TransferBatchDTO result = batchService.submitBatch(1L,
+            json("[{\"toBankAccountId\":3,\"amount\":100}]"), "application/json", "alice");
+
+        assertEquals(TransferBatchStatus.COMPLETED.name(), result.getStatus());
+        assertEquals(0, result.getFailedCount());
+        verify(legRepository).settle(7L, List.of(3L));
+        verify(legRepository, never()).fail(anyLong(), anyList(), any(), any());
+    }
+
+    @Test
+    void testSubmitBatch_UnconfirmedChunkIsLeftForRecovery() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.getBankAccountsByIds(anyList()))
+            .thenReturn(ApiResponse.success(List.of(account(3L, "RUB", "0.00", "bob"))));
+        when(accountsClient.updateBalances(anyList())).thenThrow(new BusinessException("Read timed out"));
+        when(settlement.wasApplied("batch-7-3")).thenReturn(null);
+
+        TransferBatchDTO result = batchService.submitBatch(1L,
+            json("[{\"toBankAccountId\":3,\"amount\":100},{\"toBankAccountId\":3,\"amount\":20}]"),
+            "application/json", "alice");
+
+        assertEquals(TransferBatchStatus.COMPLETED.name(), result.getStatus());
+        assertEquals(2, result.getProcessedCount());
+        assertEquals(0, result.getFailedCount());
+        assertEquals("0 of 2 transfers completed, 2 awaiting confirmation", result.getDescription());
+        verify(legRepository, never()).settle(anyLong(), anyList());
+        verify(legRepository, never()).fail(anyLong(), anyList(), any(), any());
+    }
+
+    @Test
+    void testSubmitBatch_PostedChunkIsNotFailedWhenRecordingFails() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.getBankAccountsByIds(anyList()))
+            .thenReturn(ApiResponse.success(List.of(account(3L, "RUB", "0.00", "bob"))));
+        when(accountsClient.updateBalances(anyList())).thenReturn(ApiResponse.success(List.of()));
+        doThrow(new IllegalStateException("connection reset")).when(legRepository).settle(anyLong(), anyList());
+
+        TransferBatchDTO result = batchService.submitBatch(1L,
+            json("[{\"toBankAccountId\":3,\"amount\":100}]"), "application/json", "alice");
+
+        assertEquals(TransferBatchStatus.COMPLETED.name(), result.getStatus());
+        assertEquals(0, result.getFailedCount());
+        verify(legRepository, never()).fail(anyLong(), anyList(), any(), any());
+        verifyNoInteractions(settlement);
+    }
+
+    @Test
+    void testRefreshProgress_RecoveredLegsUpdateTheFinishedBatch() {
+        TransferBatch batch = finishedBatch(TransferBatchStatus.COMPLETED, "1 of 4 transfers completed, 3 awaiting confirmation");
+        when(batchRepository.findForUpdateById(7L)).thenReturn(Optional.of(batch));
+        when(legRepository.countByStatus(7L)).thenReturn(Map.of("SUCCESS", 2, "FAILED", 1, "PENDING", 1));
+
+        batchService.refreshProgress(7L);
+
+        assertEquals(TransferBatchStatus.COMPLETED, batch.getStatus());
+        assertEquals(4, batch.getProcessedCount());
+        assertEquals(1, batch.getFailedCount());
+        assertEquals("2 of 4 transfers completed, 1 awaiting confirmation", batch.getDescription());
+        verify(batchRepository).save(batch);
+    }
+
+    @Test
+    void testRefreshProgress_BatchWhoseLegsAllFailedInRecoveryIsFailed() {
+        TransferBatch batch = finishedBatch(TransferBatchStatus.COMPLETED, "0 of 4 transfers completed, 4 awaiting confirmation");
+        when(batchRepository.findForUpdateById(7L)).thenReturn(Optional.of(batch));
+        when(legRepository.countByStatus(7L)).thenReturn(Map.of("FAILED", 4));
+
+        batchService.refreshProgress(7L);
+
+        assertEquals(TransferBatchStatus.FAILED, batch.getStatus());
+        assertEquals(4, batch.getFailedCount());
+        assertEquals("0 of 4 transfers completed", batch.getDescription());
+    }
+
+    @Test
+    void testRefreshProgress_RunningBatchIsLeftAlone() {
+        when(batchRepository.findForUpdateById(7L))
+            .thenReturn(Optional.of(finishedBatch(TransferBatchStatus.PROCESSING, "Batch accepted")));
+
+        batchService.refreshProgress(7L);
+
+        verifyNoInteractions(legRepository);
+        verify(batchRepository, never()).save(any());
+    }
+
+    @Test
+    void testSubmitBatch_EmptyBatchIsRejected() {
+        assertThrows(BusinessException.class,
+            () -> batchService.submitBatch(1L, json("[]"), "application/json", "alice"));
+        verifyNoInteractions(batchRepository, legRepository, workerExecutor);
+    }
+
+    private static TransferBatch finishedBatch(TransferBatchStatus status, String description) {
+        return TransferBatch.builder()
+            .id(7L)
+            .username("alice")
+            .fromBankAccountId(1L)
+            .status(status)
+            .totalCount(4)
+            .processedCount(4)
+            .failedCount(0)
+            .totalAmount(new BigDecimal("400.00"))
+            .description(description)
+            .build();
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BankAccountDTO account(Long id, String currency, String balance, String username) {
+        return BankAccountDTO.builder()
+            .id(id)
+            .currency(currency)
+            .balance(new BigDecimal(balance))
+            .accountUsername(username)
+            .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.bank.transfer.service;
+
+import com.bank.transfer.controller.TransferController;
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.entity.TransferStage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class TransferEventRegistryTest {
+
+    private TransferEventRegistry registry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        registry = new TransferEventRegistry(60_000, 2, 2);
+        mockMvc = MockMvcBuilders.standaloneSetup(new TransferController(mock(TransferService.class), registry, false)).build();
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        registry.shutdown();
+    }
+
+    @Test
+    void streamsStatusChangesOfTheUsersTransfersOnly() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/transfers/stream")).andExpect(request().asyncStarted()).andReturn();
+
+        registry.publish(transfer(1L, "alice", "PENDING", TransferStage.ACCEPTED));
+        registry.publish(transfer(2L, "bob", "PENDING", TransferStage.ACCEPTED));
+        registry.publish(transfer(1L, "alice", "SUCCESS", TransferStage.COMPLETED));
+
+        String body = awaitBody(result.getResponse(), "\"status\":\"SUCCESS\"");
+        assertTrue(body.contains("event:transfer"));
+        assertTrue(body.contains("id:1:PENDING:ACCEPTED"));
+        assertTrue(body.contains("id:1:SUCCESS:COMPLETED"));
+        assertFalse(body.contains("\"id\":2"));
+    }
+
+    @Test
+    void oldestSubscriptionIsClosedBeyondThePerUserLimit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/transfers/stream")).andExpect(request().asyncStarted());
+        }
+
+        assertEquals(2, registry.getSubscriberCount());
+    }
+
+    @Test
+    void publishingWithoutSubscribersIsANoOp() {
+        assertDoesNotThrow(() -> registry.publish(transfer(1L, "alice", "FAILED", TransferStage.ACCEPTED)));
+        assertEquals(0, registry.getSubscriberCount());
+    }
+
+    private static String awaitBody(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String body = response.getContentAsString();
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            body = response.getContentAsString();
+        }
+        return body;
+    }
+
+    private static Transfer transfer(Long id, String username, String status, TransferStage stage) {
+        return Transfer.builder()
+            .id(id)
+            .username(username)
+            .fromBankAccountId(1L)
+            .toBankAccountId(2L)
+            .amount(new BigDecimal("10.00"))
+            .status(status)
+            .stage(stage)
+            .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
+import com.bank.common.exception.BusinessException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.common.exchange.ExchangeRatesSnapshot;
+import com.bank.transfer.repository.TransferLimitRepository;
+import com.bank.transfer.repository.TransferLimitRepository.UsageDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferLimitsTest {
+
+    private static final Instant START = Instant.parse("2026-10-19T10:02:00Z");
+
+    @Mock
+    private TransferLimitRepository limitRepository;
+
+    @Mock
+    private ExchangeRateCache exchangeRateCache;
+
+    @Mock
+    private Clock clock;
+
+    private Instant now = START;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(clock.instant()).thenAnswer(inv -> now);
+    }
+
+    @Test
+    void hourlyWindowSlidesWithTime() {
+        TransferLimits limits = newLimits("1000", "0");
+
+        limits.reserve("alice", new BigDecimal("600"), "RUB");
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> limits.reserve("alice", new BigDecimal("500"), "RUB"));
+        assertEquals("Hourly transfer limit of 1000 RUB exceeded", ex.getMessage());
+        // Other users have their own counters
+        limits.reserve("bob", new BigDecimal("1000"), "RUB");
+
+        now = START.plus(Duration.ofMinutes(65));
+        assertNotNull(limits.reserve("alice", new BigDecimal("500"), "RUB"));
+    }
+
+    @Test
+    void dailyLimitIsCountedInRublesAndReleasedOnFailure() {
+        when(exchangeRateCache.current()).thenReturn(ExchangeRatesSnapshot.of(1L, List.of(
+            ExchangeRateDTO.builder().currency("USD").buyRate(new BigDecimal("88")).sellRate(new BigDecimal("90")).build()),
+            START));
+        TransferLimits limits = newLimits("0", "10000");
+
+        TransferLimits.Reservation first = limits.reserve("alice", new BigDecimal("100"), "USD");
+        assertEquals(880_000, first.amount());
+        assertThrows(BusinessException.class, () -> limits.reserve("alice", new BigDecimal("20"), "USD"));
+
+        now = START.plus(Duration.ofHours(3));
+        limits.release(first);
+        assertNotNull(limits.reserve("alice", new BigDecimal("20"), "USD"));
+    }
+
+    @Test
+    void syncPublishesOwnUsageAndTakesInOtherInstances() {
+        TransferLimits limits = newLimits("1000", "0");
+        LocalDateTime bucket = LocalDateTime.ofInstant(START, ZoneOffset.UTC).withMinute(0);
+        when(limitRepository.now()).thenReturn(LocalDateTime.of(2026, 10, 19, 10, 2), LocalDateTime.of(2026, 10, 19, 10, 3));
+        when(limitRepository.findChanged(any(), any()))
+            .thenReturn(List.of(new UsageDelta("bob", bucket, new BigDecimal("500"))))
+            .thenReturn(List.of(new UsageDelta("bob", bucket, new BigDecimal("700"))));
+
+        // The first sync rebuilds the counters from the shared table
+        limits.sync();
+        limits.reserve("alice", new BigDecimal("100"), "RUB");
+        limits.sync();
+
+        verify(limitRepository).add(List.of(new UsageDelta("alice", bucket, new BigDecimal("100.00"))));
+        // Read back from a little before the rebuild, in case an upsert committed late
+        verify(limitRepository).findChanged(any(), eq(LocalDateTime.of(2026, 10, 19, 10, 1, 30)));
+        assertThrows(BusinessException.class, () -> limits.reserve("bob", new BigDecimal("400"), "RUB"));
+        assertNotNull(limits.reserve("bob", new BigDecimal("300"), "RUB"));
+    }
+
+    @Test
+    void failedPublishIsRetriedAndIdleUsersAreForgotten() {
+        TransferLimits limits = newLimits("1000", "0");
+        when(limitRepository.now()).thenReturn(LocalDateTime.of(2026, 10, 19, 10, 2));
+        limits.sync();
+        limits.reserve("alice", new BigDecimal("100"), "RUB");
+        doThrow(new IllegalStateException("connection refused")).doNothing().when(limitRepository).add(any());
+
+        limits.sync();
+        limits.sync();
+
+        verify(limitRepository, times(2)).add(List.of(
+            new UsageDelta("alice", LocalDateTime.of(2026, 10, 19, 10, 0), new BigDecimal("100.00"))));
+        assertEquals(1, limits.trackedUsers());
+
+        now = START.plus(Duration.ofHours(25));
+        limits.sync();
+        assertEquals(0, limits.trackedUsers());
+    }
+
+    private TransferLimits newLimits(String hourly, String daily) {
+        return new TransferLimits(limitRepository, exchangeRateCache, clock, true, new BigDecimal(hourly),
+            new BigDecimal(daily));
+    }
+}
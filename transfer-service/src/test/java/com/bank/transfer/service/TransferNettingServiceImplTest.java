@@ -0,0 +1,208 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.BankOperation;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.dto.contracts.blocker.BlockCheckResponse;
+import com.bank.common.dto.contracts.transfer.TransferResponse;
+import com.bank.common.exception.BusinessException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.transfer.client.AccountsClient;
+import com.bank.transfer.client.BlockerClient;
+import com.bank.transfer.client.NotificationClient;
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.repository.DailyFlowRepository;
+import com.bank.transfer.repository.DailyFlowRepository.FlowDelta;
+import com.bank.transfer.repository.TransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferNettingServiceImplTest {
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private AccountsClient accountsClient;
+
+    @Mock
+    private ExchangeRateCache exchangeRateCache;
+
+    @Mock
+    private BlockerClient blockerClient;
+
+    @Mock
+    private NotificationClient notificationClient;
+
+    @Mock
+    private DailyFlowRepository dailyFlowRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransferLimits transferLimits;
+
+    private TransferNettingServiceImpl nettingService;
+
+    @BeforeEach
+    void setUp() {
+        DailyFlowRecorder flowRecorder = new DailyFlowRecorder(transferRepository, dailyFlowRepository, transactionManager, true);
+        nettingService = new TransferNettingServiceImpl(transferRepository, accountsClient, exchangeRateCache,
+            blockerClient, notificationClient, new TransferSettlement(transferRepository, accountsClient, flowRecorder),
+            flowRecorder, transferLimits, 500);
+        lenient().when(transferRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(accountsClient.getBankAccountsByIds(anyList())).thenReturn(ApiResponse.success(List.of(
+            account(1L, "alice"), account(2L, "bob"), account(3L, "carol"))));
+        lenient().when(blockerClient.checkOperation(any())).thenReturn(BlockCheckResponse.of(false));
+    }
+
+    @Test
+    void testSettle_PostsOnlyNetPositions() {
+        when(accountsClient.updateBalances(anyList())).thenReturn(ApiResponse.success(List.of()));
+
+        List<TransferResponse> responses = nettingService.settle(List.of(
+            new NettedTransfer("alice", 1L, 2L, new BigDecimal("100.00")),
+            new NettedTransfer("bob", 2L, 1L, new BigDecimal("100.00")),
+            new NettedTransfer("bob", 2L, 3L, new BigDecimal("50.00"))));
+
+        assertTrue(responses.stream().allMatch(response -> "SUCCESS".equals(response.getStatus())));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UpdateBalanceRequest>> postings = ArgumentCaptor.forClass(List.class);
+        verify(accountsClient, times(1)).updateBalances(postings.capture());
+        // Six gross postings collapse into a credit to carol and a debit to bob; alice nets to zero
+        assertEquals(2, postings.getValue().size());
+        assertEquals(3L, postings.getValue().get(0).getBankAccountId());
+        assertEquals(BankOperation.ADD, postings.getValue().get(0).getOperation());
+        assertEquals(2L, postings.getValue().get(1).getBankAccountId());
+        assertEquals(BankOperation.SUBTRACT, postings.getValue().get(1).getOperation());
+        assertEquals(0, new BigDecimal("50.00").compareTo(postings.getValue().get(1).getAmount()));
+
+        // Flows keep the gross legs: alice sent and received 100, bob sent 150 and received 100
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FlowDelta>> flows = ArgumentCaptor.forClass(List.class);
+        verify(dailyFlowRepository).upsert(flows.capture());
+        assertEquals(List.of(1L, 2L, 3L), flows.getValue().stream().map(FlowDelta::bankAccountId).toList());
+        assertEquals(0, new BigDecimal("150.00").compareTo(flows.getValue().get(1).sentAmount()));
+        assertEquals(2, flows.getValue().get(1).sentCount());
+        assertEquals(0, new BigDecimal("100.00").compareTo(flows.getValue().get(1).receivedAmount()));
+        assertEquals(1, flows.getValue().get(2).receivedCount());
+    }
+
+    @Test
+    void testSettle_OffsettingTransfersAreRecordedWithoutAnyPosting() {
+        List<Transfer> saved = new ArrayList<>();
+        when(transferRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            saved.clear();
+            saved.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        nettingService.settle(List.of(
+            new NettedTransfer("alice", 1L, 2L, new BigDecimal("10.00")),
+            new NettedTransfer("bob", 2L, 1L, new BigDecimal("10.00"))));
+
+        assertEquals(2, saved.size());
+        assertTrue(saved.stream().allMatch(transfer -> "SUCCESS".equals(transfer.getStatus())));
+        assertEquals(1L, saved.get(0).getFromBankAccountId());
+        assertEquals(2L, saved.get(1).getFromBankAccountId());
+        verify(accountsClient, never()).updateBalances(anyList());
+    }
+
+    @Test
+    void testSettle_RejectedNetPostingIsRetriedPerTransfer() {
+        when(accountsClient.updateBalances(anyList()))
+            .thenThrow(new BusinessException("Insufficient balance"))
+            .thenReturn(ApiResponse.success(List.of()))
+            .thenThrow(new BusinessException("Insufficient balance"));
+        when(accountsClient.voidBalanceOperation(anyString())).thenReturn(ApiResponse.success("VOIDED"));
+
+        List<TransferResponse> responses = nettingService.settle(List.of(
+            new NettedTransfer("alice", 1L, 2L, new BigDecimal("10.00")),
+            new NettedTransfer("carol", 3L, 2L, new BigDecimal("999.00"))));
+
+        assertEquals("SUCCESS", responses.get(0).getStatus());
+        assertEquals("FAILED", responses.get(1).getStatus());
+        assertEquals("Insufficient balance", responses.get(1).getMessage());
+        verify(accountsClient, times(3)).updateBalances(anyList());
+    }
+
+    @Test
+    void testSettle_UnconfirmedPostingIsLeftPendingForRecovery() {
+        when(accountsClient.updateBalances(anyList())).thenReturn(ApiResponse.error("Service unavailable"));
+        when(accountsClient.voidBalanceOperation(anyString())).thenReturn(ApiResponse.error("Service unavailable"));
+
+        List<TransferResponse> responses = nettingService.settle(List.of(
+            new NettedTransfer("alice", 1L, 2L, new BigDecimal("10.00")),
+            new NettedTransfer("carol", 3L, 2L, new BigDecimal("5.00"))));
+
+        assertTrue(responses.stream().allMatch(response -> "PENDING".equals(response.getStatus())));
+        // The group may have been applied, so it is not retried one by one
+        verify(accountsClient, times(1)).updateBalances(anyList());
+        verify(accountsClient).voidBalanceOperation(startsWith("net-"));
+    }
+
+    @Test
+    void testSettle_TransfersCountAgainstLimitsAndFailedOnesAreReleased() {
+        TransferLimits.Reservation reserved = new TransferLimits.Reservation("alice", 1L, 1000L);
+        when(transferLimits.reserve("alice", new BigDecimal("10.00"), "RUB")).thenReturn(reserved);
+        when(transferLimits.reserve("carol", new BigDecimal("999.00"), "RUB"))
+            .thenThrow(new BusinessException("Daily transfer limit of 500 RUB exceeded"));
+        when(accountsClient.updateBalances(anyList())).thenThrow(new BusinessException("Insufficient balance"));
+        when(accountsClient.voidBalanceOperation(anyString())).thenReturn(ApiResponse.success("VOIDED"));
+
+        List<TransferResponse> responses = nettingService.settle(List.of(
+            new NettedTransfer("alice", 1L, 2L, new BigDecimal("10.00")),
+            new NettedTransfer("carol", 3L, 2L, new BigDecimal("999.00"))));
+
+        assertEquals("FAILED", responses.get(0).getStatus());
+        assertEquals("Insufficient balance", responses.get(0).getMessage());
+        assertEquals("FAILED", responses.get(1).getStatus());
+        assertEquals("Daily transfer limit of 500 RUB exceeded", responses.get(1).getMessage());
+        // Only the transfer within its limit was posted, and its reservation is given back
+        verify(accountsClient, times(1)).updateBalances(anyList());
+        verify(transferLimits).release(reserved);
+        verify(transferLimits).release(null);
+    }
+
+    @Test
+    void testSettle_InvalidAndBlockedTransfersAreNotPosted() {
+        when(blockerClient.checkOperation(any())).thenAnswer(invocation -> BlockCheckResponse.of(
+            "carol".equals(invocation.<com.bank.common.dto.contracts.blocker.BlockCheckRequest>getArgument(0).getUsername())));
+
+        List<TransferResponse> responses = nettingService.settle(List.of(
+            new NettedTransfer("alice", 2L, 1L, new BigDecimal("10.00")),
+            new NettedTransfer("carol", 3L, 1L, new BigDecimal("10.00"))));
+
+        assertEquals("FAILED", responses.get(0).getStatus());
+        assertEquals("Source bank account does not belong to the user", responses.get(0).getMessage());
+        assertEquals("BLOCKED", responses.get(1).getStatus());
+        verify(accountsClient, never()).updateBalances(anyList());
+        verify(notificationClient).sendNotification(any());
+    }
+
+    private static BankAccountDTO account(Long id, String username) {
+        return BankAccountDTO.builder()
+            .id(id)
+            .currency("RUB")
+            .balance(new BigDecimal("1000.00"))
+            .accountUsername(username)
+            .build();
+    }
+}
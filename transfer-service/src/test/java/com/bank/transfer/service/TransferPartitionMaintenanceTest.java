@@ -0,0 +1,106 @@
+package com.bank.transfer.service;
+
+import com.bank.transfer.repository.TransferPartitionRepository;
+import com.bank.transfer.repository.TransferPartitionRepository.TransferPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferPartitionMaintenanceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-19T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private TransferPartitionRepository partitionRepository;
+
+    @Test
+    void boundsArePrintedByPostgresAsQuotedTimestamps() {
+        TransferPartition month = TransferPartition.of("transfers_2026_10",
+            "FOR VALUES FROM ('2026-10-01 00:00:00') TO ('2026-11-01 00:00:00')", false);
+        TransferPartition legacy = TransferPartition.of("transfers_legacy",
+            "FOR VALUES FROM (MINVALUE) TO ('2026-08-01')", false);
+
+        assertEquals(LocalDateTime.of(2026, 10, 1, 0, 0), month.from());
+        assertEquals(LocalDateTime.of(2026, 11, 1, 0, 0), month.to());
+        assertNull(legacy.from());
+        assertEquals(LocalDateTime.of(2026, 8, 1, 0, 0), legacy.to());
+        assertTrue(legacy.overlaps(LocalDateTime.of(2020, 1, 1, 0, 0), LocalDateTime.of(2020, 2, 1, 0, 0)));
+        assertFalse(legacy.overlaps(LocalDateTime.of(2026, 8, 1, 0, 0), LocalDateTime.of(2026, 9, 1, 0, 0)));
+    }
+
+    @Test
+    void missingMonthsAreCreatedAheadOfTime() {
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+            partition("transfers_legacy", null, YearMonth.of(2026, 11)),
+            partition("transfers_2026_11", YearMonth.of(2026, 11), YearMonth.of(2026, 12))));
+
+        newMaintenance(24, false).maintain();
+
+        // October is still covered by the pre-partitioning rows, November exists already
+        verify(partitionRepository).createPartition(YearMonth.of(2026, 12));
+        verify(partitionRepository).createPartition(YearMonth.of(2027, 1));
+        verify(partitionRepository, times(2)).createPartition(any());
+        verify(partitionRepository, never()).detach(anyString());
+    }
+
+    @Test
+    void monthsPastRetentionAreDetachedAndArchived() {
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+            partition("transfers_2024_09", YearMonth.of(2024, 9), YearMonth.of(2024, 10)),
+            partition("transfers_2024_10", YearMonth.of(2024, 10), YearMonth.of(2024, 11)),
+            partition("transfers_2024_11", YearMonth.of(2024, 11), YearMonth.of(2024, 12))));
+
+        newMaintenance(24, true).maintain();
+
+        InOrder inOrder = inOrder(partitionRepository);
+        inOrder.verify(partitionRepository).detach("transfers_2024_09");
+        inOrder.verify(partitionRepository).archive("transfers_2024_09", "transfer_archive");
+        inOrder.verify(partitionRepository).dropArchived("transfers_2024_09", "transfer_archive");
+        // October 2024 is still within the 24 months before October 2026
+        verify(partitionRepository, never()).detach("transfers_2024_10");
+        verify(partitionRepository, never()).detach("transfers_2024_11");
+    }
+
+    @Test
+    void partitionWithPendingTransfersIsKept() {
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+            partition("transfers_2023_01", YearMonth.of(2023, 1), YearMonth.of(2023, 2)),
+            new TransferPartition("transfers_2023_02", YearMonth.of(2023, 2).atDay(1).atStartOfDay(),
+                YearMonth.of(2023, 3).atDay(1).atStartOfDay(), true)));
+        when(partitionRepository.hasInFlight("transfers_2023_01")).thenReturn(true);
+
+        newMaintenance(24, false).maintain();
+
+        verify(partitionRepository, never()).detach("transfers_2023_01");
+        verify(partitionRepository, never()).archive(eq("transfers_2023_01"), anyString());
+        // An interrupted concurrent detach is completed rather than started again
+        verify(partitionRepository).finalizeDetach("transfers_2023_02");
+        verify(partitionRepository).archive("transfers_2023_02", "transfer_archive");
+    }
+
+    private TransferPartitionMaintenance newMaintenance(int retentionMonths, boolean dropArchived) {
+        return new TransferPartitionMaintenance(partitionRepository, CLOCK, true, 3, retentionMonths,
+            "transfer_archive", dropArchived);
+    }
+
+    private static TransferPartition partition(String name, YearMonth from, YearMonth to) {
+        return new TransferPartition(name, from == null ? null : from.atDay(1).atStartOfDay(),
+            to == null ? null : to.atDay(1).atStartOfDay(), false);
+    }
+}
@@ -0,0 +1,161 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.blocker.BlockCheckResponse;
+import com.bank.common.dto.contracts.transfer.TransferRequest;
+import com.bank.common.dto.contracts.transfer.TransferResponse;
+import com.bank.transfer.client.AccountsClient;
+import com.bank.transfer.client.BlockerClient;
+import com.bank.transfer.client.ExchangeClient;
+import com.bank.transfer.client.NotificationClient;
+import com.bank.transfer.repository.TransferRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs many more concurrent transfers than there are pooled connections while every downstream
+ * call is slow. Connections are only taken for the short writes, so the pool never saturates,
+ * nobody waits for a connection, and all transfers succeed.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+    "spring.profiles.active=test",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+    "spring.datasource.url=jdbc:h2:mem:transferpool;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.hikari.maximum-pool-size=4",
+    "spring.datasource.hikari.connection-timeout=1000"
+})
+class TransferPoolUsageLoadTest {
+
+    private static final int CONCURRENT_TRANSFERS = 64;
+    private static final int POOL_SIZE = 4;
+    private static final long MEAN_LATENCY_MS = 100;
+
+    @MockitoBean
+    private AccountsClient accountsClient;
+
+    @MockitoBean
+    private BlockerClient blockerClient;
+
+    @MockitoBean
+    private ExchangeClient exchangeClient;
+
+    @MockitoBean
+    private NotificationClient notificationClient;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void poolUsageStaysFlatUnderDownstreamLatency() throws Exception {
+        when(accountsClient.getBankAccountById(anyLong())).thenAnswer(inv -> {
+            long id = inv.getArgument(0);
+            slowDownstream();
+            return ApiResponse.success(BankAccountDTO.builder()
+                .id(id)
+                .currency("RUB")
+                .balance(new BigDecimal("1000.00"))
+                .accountUsername(id < 1000 ? "alice" : "bob")
+                .build());
+        });
+        when(blockerClient.checkOperation(any())).thenAnswer(inv -> {
+            slowDownstream();
+            return BlockCheckResponse.of(false);
+        });
+        when(accountsClient.updateBalance(any())).thenAnswer(inv -> {
+            slowDownstream();
+            return ApiResponse.success(null);
+        });
+        doAnswer(inv -> {
+            slowDownstream();
+            return null;
+        }).when(notificationClient).sendNotification(any());
+
+        HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger peakActive = new AtomicInteger();
+        AtomicInteger peakWaiting = new AtomicInteger();
+        AtomicLong samples = new AtomicLong();
+        AtomicLong activeSum = new AtomicLong();
+        Thread sampler = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                int active = pool.getActiveConnections();
+                peakActive.accumulateAndGet(active, Math::max);
+                peakWaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+                activeSum.addAndGet(active);
+                samples.incrementAndGet();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+
+        long started = System.nanoTime();
+        List<Future<TransferResponse>> results = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_TRANSFERS; i++) {
+                TransferRequest request = TransferRequest.builder()
+                    .fromBankAccountId(1L + i)
+                    .toBankAccountId(1000L + i)
+                    .amount(new BigDecimal("10.00"))
+                    .build();
+                results.add(clients.submit(() -> transferService.processTransfer(request, "alice")));
+            }
+            for (Future<TransferResponse> result : results) {
+                assertEquals("SUCCESS", result.get(30, TimeUnit.SECONDS).getStatus());
+            }
+        } finally {
+            running.set(false);
+            sampler.join();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        double meanActive = (double) activeSum.get() / Math.max(1, samples.get());
+        log.info("{} transfers with ~{} ms per downstream call in {} ms: mean active connections {}, peak {}, peak waiting {}",
+            CONCURRENT_TRANSFERS, MEAN_LATENCY_MS, elapsedMs, String.format("%.2f", meanActive), peakActive.get(), peakWaiting.get());
+
+        assertEquals(CONCURRENT_TRANSFERS, transferRepository.count());
+        // Held across the remote calls, all connections would be busy for the whole run and most
+        // transfers would time out waiting for one
+        assertTrue(meanActive < POOL_SIZE / 2.0, "mean active connections " + meanActive);
+        assertTrue(peakActive.get() <= POOL_SIZE);
+    }
+
+    private static void slowDownstream() throws InterruptedException {
+        Thread.sleep(ThreadLocalRandom.current().nextLong(MEAN_LATENCY_MS / 2, MEAN_LATENCY_MS * 3 / 2));
+    }
+}
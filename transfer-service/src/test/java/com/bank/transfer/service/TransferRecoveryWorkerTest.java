@@ -0,0 +1,81 @@
+package com.bank.transfer.service;
+
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.repository.TransferRecoveryRepository;
+import com.bank.transfer.repository.TransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferRecoveryWorkerTest {
+
+    @Mock
+    private TransferRecoveryRepository recoveryRepository;
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private TransferSettlement settlement;
+
+    @Mock
+    private TransferBatchService batchService;
+
+    private TransferRecoveryWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new TransferRecoveryWorker(recoveryRepository, transferRepository, settlement, batchService,
+            true, 300_000, 10, 4);
+    }
+
+    @Test
+    void resolvedBatchLegsRecountTheirBatchOnce() {
+        Transfer first = leg(1L, 7L);
+        Transfer second = leg(2L, 7L);
+        Transfer single = leg(3L, null);
+        when(recoveryRepository.claimStale(any(), anyInt(), any())).thenReturn(List.of(1L, 2L, 3L));
+        when(transferRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(first, second, single));
+        when(settlement.settleNetted(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        worker.recoverStale();
+
+        verify(settlement, times(3)).settleNetted(any());
+        verify(batchService).refreshProgress(7L);
+        verifyNoMoreInteractions(batchService);
+    }
+
+    @Test
+    void legStillInDoubtDoesNotRecountItsBatch() {
+        Transfer transfer = leg(1L, 7L);
+        when(recoveryRepository.claimStale(any(), anyInt(), any())).thenReturn(List.of(1L));
+        when(transferRepository.findAllById(List.of(1L))).thenReturn(List.of(transfer));
+        when(settlement.settleNetted(transfer)).thenThrow(new TransferInDoubtException(1L));
+
+        worker.recoverStale();
+
+        verifyNoInteractions(batchService);
+    }
+
+    private static Transfer leg(Long id, Long batchId) {
+        return Transfer.builder()
+            .id(id)
+            .batchId(batchId)
+            .fromBankAccountId(1L)
+            .toBankAccountId(3L)
+            .amount(new BigDecimal("100.00"))
+            .settlementRef("batch-7-3")
+            .status("PENDING")
+            .build();
+    }
+}
@@ -0,0 +1,483 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.BankAccountDTO;
+import com.bank.common.dto.contracts.accounts.OwnTransferRequest;
+import com.bank.common.dto.contracts.accounts.OwnTransferResponse;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.common.dto.contracts.blocker.BlockCheckRequest;
+import com.bank.common.dto.contracts.blocker.BlockCheckResponse;
+import com.bank.common.dto.contracts.exchange.ExchangeRateDTO;
+import com.bank.common.dto.contracts.notifications.NotificationRequest;
+import com.bank.common.dto.contracts.transfer.DailyFlowDTO;
+import com.bank.common.dto.contracts.transfer.TransferDTO;
+import com.bank.common.dto.contracts.transfer.TransferPageDTO;
+import com.bank.common.dto.contracts.transfer.TransferRequest;
+import com.bank.common.dto.contracts.transfer.TransferResponse;
+import com.bank.common.exception.BusinessException;
+import com.bank.common.exception.ResourceNotFoundException;
+import com.bank.common.exchange.ExchangeRateCache;
+import com.bank.common.exchange.ExchangeRatesSnapshot;
+import com.bank.transfer.client.AccountsClient;
+import com.bank.transfer.client.BlockerClient;
+import com.bank.transfer.client.NotificationClient;
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.entity.TransferStage;
+import com.bank.transfer.repository.DailyFlowRepository;
+import com.bank.transfer.repository.TransferHistoryRepository;
+import com.bank.transfer.repository.TransferRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferServiceImplTest {
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private TransferHistoryRepository transferHistoryRepository;
+
+    @Mock
+    private AccountsClient accountsClient;
+
+    @Mock
+    private ExchangeRateCache exchangeRateCache;
+
+    @Mock
+    private BlockerClient blockerClient;
+
+    @Mock
+    private NotificationClient notificationClient;
+
+    @Mock
+    private DailyFlowRepository dailyFlowRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // 100 RUB buys 1.1 USD at a sell rate of 90
+    private static final ExchangeRatesSnapshot RATES = ExchangeRatesSnapshot.of(17L, List.of(
+        ExchangeRateDTO.builder().currency("USD").buyRate(new BigDecimal("88")).sellRate(new BigDecimal("90")).build()),
+        Instant.now());
+
+    private final RecipientCache recipientCache = new RecipientCache(100, 60_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExecutorService executor;
+    private TransferServiceImpl transferService;
+
+    private final BankAccountDTO aliceRub = account(1L, "RUB", "1000.00", "alice");
+    private final BankAccountDTO aliceUsd = account(2L, "USD", "0.00", "alice");
+    private final BankAccountDTO bobUsd = account(3L, "USD", "10.00", "bob");
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        transferService = newService(2000);
+        lenient().when(accountsClient.updateBalance(any())).thenReturn(ApiResponse.success(aliceRub));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void lookupsRunConcurrently() {
+        // Each remote call waits until the other two have started, which only succeeds if they run in parallel
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        when(accountsClient.getBankAccountById(1L)).thenAnswer(inv -> {
+            barrier.await(1, TimeUnit.SECONDS);
+            return ApiResponse.success(aliceRub);
+        });
+        when(accountsClient.getBankAccountById(3L)).thenAnswer(inv -> {
+            barrier.await(1, TimeUnit.SECONDS);
+            return ApiResponse.success(bobUsd);
+        });
+        when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenAnswer(inv -> {
+            barrier.await(1, TimeUnit.SECONDS);
+            return BlockCheckResponse.of(false);
+        });
+        when(exchangeRateCache.current()).thenReturn(RATES);
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransferResponse response = transferService.processTransfer(request(1L, 3L, "100.00"), "alice");
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(new BigDecimal("1.1"), response.getConvertedAmount());
+        ArgumentCaptor<UpdateBalanceRequest> updates = ArgumentCaptor.forClass(UpdateBalanceRequest.class);
+        verify(accountsClient, times(2)).updateBalance(updates.capture());
+        assertEquals(new BigDecimal("1.1"), updates.getAllValues().get(1).getAmount());
+        ArgumentCaptor<Transfer> saved = ArgumentCaptor.forClass(Transfer.class);
+        verify(transferRepository, atLeastOnce()).save(saved.capture());
+        assertEquals(17L, saved.getValue().getRateVersion());
+        assertEquals(TransferStage.COMPLETED, saved.getValue().getStage());
+    }
+
+    @Test
+    void everyStageIsTimedWithOutcomeAndScope() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(accountsClient.getBankAccountById(3L)).thenReturn(ApiResponse.success(bobUsd));
+        when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenReturn(BlockCheckResponse.of(false));
+        when(exchangeRateCache.current()).thenReturn(RATES);
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(inv -> inv.getArgument(0));
+        TransferTimings timings = new TransferTimings();
+
+        transferService.processTransfer(request(1L, 3L, "100.00"), "alice", timings);
+
+        for (TransferTimings.Stage stage : TransferTimings.Stage.values()) {
+            if (stage == TransferTimings.Stage.OWN_TRANSFER) {
+                // Only transfers between the user's own accounts take this stage
+                continue;
+            }
+            Timer timer = meterRegistry.find(TransferMetrics.STAGE_TIMER)
+                .tags("stage", stage.tag(), "outcome", "success", "scope", "other")
+                .timer();
+            assertNotNull(timer, stage.tag());
+            assertEquals(1, timer.count());
+        }
+        assertTrue(timings.toServerTiming().startsWith("source-lookup;dur="));
+        assertTrue(timings.toServerTiming().contains(", debit;dur="));
+    }
+
+    @Test
+    void blockedTransferIsRecordedAndReported() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(accountsClient.getBankAccountById(3L)).thenReturn(ApiResponse.success(bobUsd));
+        when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenReturn(BlockCheckResponse.of(true));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> transferService.processTransfer(request(1L, 3L, "100.00"), "alice"));
+
+        assertEquals("The operation looks suspicious and is blocked by bank", ex.getMessage());
+        ArgumentCaptor<Transfer> saved = ArgumentCaptor.forClass(Transfer.class);
+        verify(transferRepository).save(saved.capture());
+        assertEquals("BLOCKED", saved.getValue().getStatus());
+        verify(notificationClient).sendNotification(any(NotificationRequest.class));
+        verify(accountsClient, never()).updateBalance(any());
+    }
+
+    @Test
+    void ownAccountTransferIgnoresBlocker() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(accountsClient.getBankAccountById(2L)).thenReturn(ApiResponse.success(aliceUsd));
+        lenient().when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenReturn(BlockCheckResponse.of(true));
+        when(exchangeRateCache.current()).thenReturn(RATES);
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransferTimings timings = new TransferTimings();
+
+        TransferResponse response = transferService.processTransfer(request(1L, 2L, "100.00"), "alice", timings);
+
+        assertEquals("SUCCESS", response.getStatus());
+        // The blocker call may have finished, but it was never awaited, so it is not reported
+        assertFalse(timings.isTimed(TransferTimings.Stage.BLOCKER));
+        assertNull(meterRegistry.find(TransferMetrics.STAGE_TIMER).tags("stage", "blocker", "scope", "own").timer());
+    }
+
+    @Test
+    void repeatOwnAccountTransferIsExecutedByAccountsServiceInOneCall() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(accountsClient.getBankAccountById(2L)).thenReturn(ApiResponse.success(aliceUsd));
+        when(exchangeRateCache.current()).thenReturn(RATES);
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(inv -> inv.getArgument(0));
+        ArgumentCaptor<OwnTransferRequest> own = ArgumentCaptor.forClass(OwnTransferRequest.class);
+        when(accountsClient.transferBetweenOwnAccounts(own.capture())).thenReturn(ApiResponse.success(
+            OwnTransferResponse.builder().amount(new BigDecimal("100.00")).convertedAmount(new BigDecimal("1.12")).build()));
+
+        transferService.processTransfer(request(1L, 2L, "100.00"), "alice");
+        TransferResponse response = transferService.processTransfer(request(1L, 2L, "100.00"), "alice");
+
+        // The first transfer learns the owners through the regular lookups; the second needs no lookups at all
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(new BigDecimal("1.12"), response.getConvertedAmount());
+        verify(accountsClient, times(1)).getBankAccountById(1L);
+        verify(accountsClient, times(2)).updateBalance(any());
+        assertEquals("alice", own.getValue().getUsername());
+        assertTrue(own.getValue().getOperationId().startsWith("own-"));
+        ArgumentCaptor<Transfer> saved = ArgumentCaptor.forClass(Transfer.class);
+        verify(transferRepository, atLeastOnce()).save(saved.capture());
+        assertEquals(own.getValue().getOperationId(), saved.getValue().getSettlementRef());
+        assertEquals(TransferStage.COMPLETED, saved.getValue().getStage());
+        assertEquals(new BigDecimal("1.12"), saved.getValue().getConvertedAmount());
+    }
+
+    @Test
+    void rejectedOwnAccountTransferFallsBackToLookupsNextTime() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(accountsClient.getBankAccountById(2L)).thenReturn(ApiResponse.success(aliceUsd));
+        when(exchangeRateCache.current()).thenReturn(RATES);
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(accountsClient.transferBetweenOwnAccounts(any())).thenReturn(ApiResponse.error("Insufficient balance"));
+        when(accountsClient.voidBalanceOperation(anyString())).thenReturn(ApiResponse.success("VOIDED"));
+
+        transferService.processTransfer(request(1L, 2L, "100.00"), "alice");
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> transferService.processTransfer(request(1L, 2L, "100.00"), "alice"));
+        transferService.processTransfer(request(1L, 2L, "100.00"), "alice");
+
+        assertEquals("Insufficient balance", ex.getMessage());
+        verify(accountsClient, times(1)).transferBetweenOwnAccounts(any());
+        verify(accountsClient, times(2)).getBankAccountById(1L);
+    }
+
+    @Test
+    void sourceErrorsAreReportedBeforeDestinationErrors() {
+        when(accountsClient.getBankAccountById(3L)).thenReturn(ApiResponse.success(bobUsd));
+        lenient().when(accountsClient.getBankAccountById(99L)).thenReturn(ApiResponse.success(null));
+        lenient().when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenReturn(BlockCheckResponse.of(false));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> transferService.processTransfer(request(3L, 99L, "5.00"), "alice"));
+
+        assertEquals("Source bank account does not belong to the user", ex.getMessage());
+        verify(transferRepository, never()).save(any());
+    }
+
+    @Test
+    void recipientEmailPrefersSameCurrencyAccount() {
+        TransferRequest request = TransferRequest.builder()
+            .fromBankAccountId(2L)
+            .recipientEmail("bob@example.com")
+            .amount(new BigDecimal("5.00"))
+            .build();
+        BankAccountDTO aliceUsdFunded = account(2L, "USD", "50.00", "alice");
+        when(accountsClient.getBankAccountById(2L)).thenReturn(ApiResponse.success(aliceUsdFunded));
+        when(accountsClient.getBankAccountsByEmail("bob@example.com"))
+            .thenReturn(ApiResponse.success(List.of(account(4L, "RUB", "0.00", "bob"), bobUsd)));
+        when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenReturn(BlockCheckResponse.of(false));
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransferResponse response = transferService.processTransfer(request, "alice");
+
+        assertEquals(new BigDecimal("5.00"), response.getConvertedAmount());
+        assertEquals(3L, request.getToBankAccountId());
+        verifyNoInteractions(exchangeRateCache);
+    }
+
+    @Test
+    void repeatRecipientIsRoutedFromCache() {
+        TransferRequest first = TransferRequest.builder()
+            .fromBankAccountId(1L)
+            .recipientEmail("bob@example.com")
+            .amount(new BigDecimal("5.00"))
+            .build();
+        TransferRequest second = TransferRequest.builder()
+            .fromBankAccountId(1L)
+            .recipientEmail("bob@example.com")
+            .amount(new BigDecimal("7.00"))
+            .build();
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(accountsClient.getBankAccountsByEmail("bob@example.com"))
+            .thenReturn(ApiResponse.success(List.of(account(4L, "RUB", "0.00", "bob"))));
+        when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.updateBalance(any())).thenReturn(ApiResponse.success(aliceRub));
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        transferService.processTransfer(first, "alice");
+        transferService.processTransfer(second, "alice");
+
+        assertEquals(4L, second.getToBankAccountId());
+        verify(accountsClient, times(1)).getBankAccountsByEmail("bob@example.com");
+        assertNull(recipientCache.get("bob@example.com").get(0).getBalance());
+    }
+
+    @Test
+    void failedCreditInvalidatesCachedRecipient() {
+        TransferRequest request = TransferRequest.builder()
+            .fromBankAccountId(1L)
+            .recipientEmail("bob@example.com")
+            .amount(new BigDecimal("5.00"))
+            .build();
+        recipientCache.put("bob@example.com", List.of(account(4L, "RUB", "0.00", "bob")));
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenReturn(BlockCheckResponse.of(false));
+        when(accountsClient.updateBalance(any()))
+            .thenReturn(ApiResponse.success(aliceRub))
+            .thenReturn(ApiResponse.error("Bank account not found"))
+            .thenReturn(ApiResponse.success(aliceRub));
+        when(accountsClient.voidBalanceOperation(any())).thenReturn(ApiResponse.success("VOIDED"));
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> transferService.processTransfer(request, "alice"));
+
+        assertEquals("Bank account not found; the amount was returned to the source account", ex.getMessage());
+        verify(accountsClient).voidBalanceOperation("transfer-null-credit");
+        verify(accountsClient, never()).getBankAccountsByEmail(any());
+        assertNull(recipientCache.get("bob@example.com"));
+    }
+
+    @Test
+    void slowDependencyFailsAtDeadline() {
+        transferService = newService(200);
+        when(accountsClient.getBankAccountById(1L)).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return ApiResponse.success(aliceRub);
+        });
+        lenient().when(accountsClient.getBankAccountById(3L)).thenReturn(ApiResponse.success(bobUsd));
+        lenient().when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenReturn(BlockCheckResponse.of(false));
+
+        long started = System.nanoTime();
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> transferService.processTransfer(request(1L, 3L, "100.00"), "alice"));
+
+        assertEquals("Transfer timed out waiting for dependent services", ex.getMessage());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 1500);
+        verify(accountsClient, never()).updateBalance(any());
+    }
+
+    @Test
+    void asyncTransferIsAcceptedAsPendingAndCompletedByWorker() throws Exception {
+        ExecutorService workers = Executors.newSingleThreadExecutor();
+        transferService = new TransferServiceImpl(transferRepository, transferHistoryRepository, dailyFlowRepository, accountsClient, exchangeRateCache, recipientCache, new AccountOwnerCache(100), blockerClient,
+            new NotificationDispatcher(notificationClient, false, 1, 1, 0, 0, 0), new TransferSettlement(transferRepository, accountsClient,
+                new DailyFlowRecorder(transferRepository, dailyFlowRepository, transactionManager, true)),
+            new TransferMetrics(meterRegistry),
+            new TransferLimits(null, exchangeRateCache, Clock.systemUTC(), false, BigDecimal.ZERO, BigDecimal.ZERO), executor,
+            new SourceAccountMailboxes(workers, 100, 10_000, meterRegistry), 2000, true);
+        List<String> savedStages = new CopyOnWriteArrayList<>();
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(inv -> {
+            Transfer transfer = inv.getArgument(0);
+            if (transfer.getId() == null) {
+                transfer.setId(42L);
+            }
+            savedStages.add(transfer.getStatus() + ":" + transfer.getStage());
+            return transfer;
+        });
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        when(accountsClient.getBankAccountById(3L)).thenReturn(ApiResponse.success(bobUsd));
+        when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenReturn(BlockCheckResponse.of(false));
+        when(exchangeRateCache.current()).thenReturn(RATES);
+
+        TransferResponse response = transferService.submitTransfer(request(1L, 3L, "100.00"), "alice");
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(42L, response.getTransferId());
+        assertEquals("PENDING", response.getStatus());
+        assertEquals(List.of("PENDING:ACCEPTED", "PENDING:VALIDATED", "PENDING:DEBITED", "PENDING:CREDITED",
+            "SUCCESS:COMPLETED"), savedStages);
+    }
+
+    @Test
+    void asyncTransferFailureIsRecordedOnTheTransfer() throws Exception {
+        ExecutorService workers = Executors.newSingleThreadExecutor();
+        transferService = new TransferServiceImpl(transferRepository, transferHistoryRepository, dailyFlowRepository, accountsClient, exchangeRateCache, recipientCache, new AccountOwnerCache(100), blockerClient,
+            new NotificationDispatcher(notificationClient, false, 1, 1, 0, 0, 0), new TransferSettlement(transferRepository, accountsClient,
+                new DailyFlowRecorder(transferRepository, dailyFlowRepository, transactionManager, true)),
+            new TransferMetrics(meterRegistry),
+            new TransferLimits(null, exchangeRateCache, Clock.systemUTC(), false, BigDecimal.ZERO, BigDecimal.ZERO), executor,
+            new SourceAccountMailboxes(workers, 100, 10_000, meterRegistry), 2000, true);
+        ArgumentCaptor<Transfer> saved = ArgumentCaptor.forClass(Transfer.class);
+        when(transferRepository.save(saved.capture())).thenAnswer(inv -> inv.getArgument(0));
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        lenient().when(accountsClient.getBankAccountById(3L)).thenReturn(ApiResponse.success(bobUsd));
+        lenient().when(blockerClient.checkOperation(any(BlockCheckRequest.class))).thenReturn(BlockCheckResponse.of(false));
+
+        transferService.submitTransfer(request(1L, 3L, "5000.00"), "alice");
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(5, TimeUnit.SECONDS));
+
+        Transfer last = saved.getAllValues().get(saved.getAllValues().size() - 1);
+        assertEquals("FAILED", last.getStatus());
+        assertEquals("Insufficient balance", last.getDescription());
+    }
+
+    @Test
+    void transferOfAnotherUserIsNotVisible() {
+        Transfer transfer = Transfer.builder().id(7L).username("bob").status("SUCCESS").build();
+        when(transferRepository.findById(7L)).thenReturn(Optional.of(transfer));
+
+        assertEquals("SUCCESS", transferService.getTransfer(7L, "bob").getStatus());
+        assertThrows(ResourceNotFoundException.class, () -> transferService.getTransfer(7L, "alice"));
+    }
+
+    @Test
+    void historyReturnsCursorOnlyWhenMoreRowsExist() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        LocalDateTime at = LocalDateTime.of(2026, 1, 1, 12, 0);
+        List<TransferDTO> rows = List.of(
+            TransferDTO.builder().id(9L).createdAt(at.plusMinutes(2)).build(),
+            TransferDTO.builder().id(8L).createdAt(at.plusMinutes(1)).build(),
+            TransferDTO.builder().id(7L).createdAt(at).build());
+        when(transferHistoryRepository.findPage(eq(1L), any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(3)))
+            .thenReturn(rows);
+        when(transferHistoryRepository.findPage(1L, at.plusMinutes(1), 8L, 3)).thenReturn(rows.subList(2, 3));
+
+        TransferPageDTO first = transferService.getHistory(1L, null, 2, "alice");
+        TransferPageDTO second = transferService.getHistory(1L, first.getNextCursor(), 2, "alice");
+
+        assertEquals(List.of(9L, 8L), first.getItems().stream().map(TransferDTO::getId).toList());
+        assertEquals(List.of(7L), second.getItems().stream().map(TransferDTO::getId).toList());
+        assertNull(second.getNextCursor());
+        assertThrows(BusinessException.class, () -> transferService.getHistory(1L, null, 2, "bob"));
+        assertThrows(BusinessException.class, () -> transferService.getHistory(1L, "not-a-cursor", 2, "alice"));
+    }
+
+    @Test
+    void dailyFlowsAreReadForOwnAccountsWithinTheRangeLimit() {
+        when(accountsClient.getBankAccountById(1L)).thenReturn(ApiResponse.success(aliceRub));
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        List<DailyFlowDTO> flows = List.of(DailyFlowDTO.builder().bankAccountId(1L).date(from).build());
+        when(dailyFlowRepository.findRange(1L, from, from.plusDays(30))).thenReturn(flows);
+
+        assertEquals(flows, transferService.getDailyFlows(1L, from, from.plusDays(30), "alice"));
+        assertThrows(BusinessException.class, () -> transferService.getDailyFlows(1L, from, from.plusDays(30), "bob"));
+        assertThrows(BusinessException.class, () -> transferService.getDailyFlows(1L, from, from.minusDays(1), "alice"));
+        assertThrows(BusinessException.class, () -> transferService.getDailyFlows(1L, from, from.plusYears(2), "alice"));
+    }
+
+    private TransferServiceImpl newService(long timeoutMs) {
+        return new TransferServiceImpl(transferRepository, transferHistoryRepository, dailyFlowRepository, accountsClient, exchangeRateCache, recipientCache, new AccountOwnerCache(100), blockerClient,
+            new NotificationDispatcher(notificationClient, false, 1, 1, 0, 0, 0), new TransferSettlement(transferRepository, accountsClient,
+                new DailyFlowRecorder(transferRepository, dailyFlowRepository, transactionManager, true)),
+            new TransferMetrics(meterRegistry),
+            new TransferLimits(null, exchangeRateCache, Clock.systemUTC(), false, BigDecimal.ZERO, BigDecimal.ZERO), executor,
+            new SourceAccountMailboxes(executor, 100, 10_000, meterRegistry), timeoutMs, true);
+    }
+
+    private static TransferRequest request(Long from, Long to, String amount) {
+        return TransferRequest.builder()
+            .fromBankAccountId(from)
+            .toBankAccountId(to)
+            .amount(new BigDecimal(amount))
+            .build();
+    }
+
+    private static BankAccountDTO account(Long id, String currency, String balance, String username) {
+        return BankAccountDTO.builder()
+            .id(id)
+            .currency(currency)
+            .balance(new BigDecimal(balance))
+            .accountUsername(username)
+            .build();
+    }
+}
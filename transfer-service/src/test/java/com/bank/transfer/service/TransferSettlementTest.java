@@ -0,0 +1,129 @@
+package com.bank.transfer.service;
+
+import com.bank.common.dto.ApiResponse;
+import com.bank.common.dto.contracts.accounts.UpdateBalanceRequest;
+import com.bank.transfer.client.AccountsClient;
+import com.bank.transfer.entity.Transfer;
+import com.bank.transfer.entity.TransferStage;
+import com.bank.transfer.repository.DailyFlowRepository;
+import com.bank.transfer.repository.TransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+
+import static com.bank.common.dto.contracts.accounts.BankOperation.ADD;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferSettlementTest {
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private AccountsClient accountsClient;
+
+    @Mock
+    private DailyFlowRepository dailyFlowRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransferSettlement settlement;
+
+    @BeforeEach
+    void setUp() {
+        settlement = new TransferSettlement(transferRepository, accountsClient,
+            new DailyFlowRecorder(transferRepository, dailyFlowRepository, transactionManager, true));
+    }
+
+    @Test
+    void transferIsResumedFromItsJournaledStage() {
+        when(accountsClient.updateBalance(any())).thenReturn(ApiResponse.success(null));
+
+        Transfer transfer = settlement.settle(transfer(TransferStage.DEBITED));
+
+        assertEquals("SUCCESS", transfer.getStatus());
+        assertEquals(TransferStage.COMPLETED, transfer.getStage());
+        ArgumentCaptor<UpdateBalanceRequest> posted = ArgumentCaptor.forClass(UpdateBalanceRequest.class);
+        verify(accountsClient).updateBalance(posted.capture());
+        assertEquals("transfer-7-credit", posted.getValue().getOperationId());
+        assertEquals(ADD, posted.getValue().getOperation());
+    }
+
+    @Test
+    void debitWithUnknownOutcomeThatWasAppliedContinuesWithTheCredit() {
+        when(accountsClient.updateBalance(any()))
+            .thenReturn(ApiResponse.error("Service unavailable"))
+            .thenReturn(ApiResponse.success(null));
+        when(accountsClient.voidBalanceOperation("transfer-7-debit")).thenReturn(ApiResponse.success("APPLIED"));
+
+        Transfer transfer = settlement.settle(transfer(TransferStage.VALIDATED));
+
+        assertEquals("SUCCESS", transfer.getStatus());
+        verify(accountsClient, times(2)).updateBalance(any());
+    }
+
+    @Test
+    void rejectedCreditIsRefunded() {
+        when(accountsClient.updateBalance(any())).thenReturn(ApiResponse.error("Bank account not found"))
+            .thenReturn(ApiResponse.success(null));
+        when(accountsClient.voidBalanceOperation("transfer-7-credit")).thenReturn(ApiResponse.success("VOIDED"));
+
+        Transfer transfer = settlement.settle(transfer(TransferStage.DEBITED));
+
+        assertEquals("FAILED", transfer.getStatus());
+        ArgumentCaptor<UpdateBalanceRequest> posted = ArgumentCaptor.forClass(UpdateBalanceRequest.class);
+        verify(accountsClient, times(2)).updateBalance(posted.capture());
+        assertEquals("transfer-7-refund", posted.getAllValues().get(1).getOperationId());
+        assertEquals(1L, posted.getAllValues().get(1).getBankAccountId());
+    }
+
+    @Test
+    void unansweredStepLeavesTransferPending() {
+        when(accountsClient.updateBalance(any())).thenReturn(ApiResponse.error("Service unavailable"));
+        when(accountsClient.voidBalanceOperation(any())).thenReturn(ApiResponse.error("Service unavailable"));
+        Transfer transfer = transfer(TransferStage.VALIDATED);
+
+        assertThrows(TransferInDoubtException.class, () -> settlement.settle(transfer));
+
+        assertEquals("PENDING", transfer.getStatus());
+        assertEquals(TransferStage.VALIDATED, transfer.getStage());
+        verify(transferRepository, never()).save(any());
+    }
+
+    @Test
+    void nettedTransferFollowsItsSettlementReference() {
+        when(accountsClient.voidBalanceOperation("net-5-g")).thenReturn(ApiResponse.success("VOIDED"));
+        Transfer transfer = transfer(TransferStage.VALIDATED);
+        transfer.setSettlementRef("net-5-g");
+
+        settlement.settleNetted(transfer);
+
+        assertEquals("FAILED", transfer.getStatus());
+        verify(accountsClient, never()).updateBalance(any());
+    }
+
+    private static Transfer transfer(TransferStage stage) {
+        return Transfer.builder()
+            .id(7L)
+            .fromBankAccountId(1L)
+            .toBankAccountId(2L)
+            .username("alice")
+            .amount(new BigDecimal("100.00"))
+            .convertedAmount(new BigDecimal("1.10"))
+            .fromCurrency("RUB")
+            .toCurrency("USD")
+            .status("PENDING")
+            .stage(stage)
+            .build();
+    }
+}